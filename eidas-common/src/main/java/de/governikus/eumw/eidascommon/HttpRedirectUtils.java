@@ -9,15 +9,25 @@
 
 package de.governikus.eumw.eidascommon;
 
+import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
+import java.security.Provider;
 import java.security.Signature;
 import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
@@ -74,36 +84,154 @@ public final class HttpRedirectUtils
    */
   public static final String REFERENCE_PARAMNAME = "refID";
 
+  /**
+   * default maximum length of inflated data, protects against decompression bombs
+   */
+  public static final int DEFAULT_MAX_INFLATED_LENGTH = 1024 * 1024;
+
+  /**
+   * maximum number of idle {@link Deflater} and {@link Inflater} instances kept for reuse
+   */
+  private static final int MAX_POOLED_CODECS = 16;
+
+  private static final int BUFFER_SIZE = 4096;
+
+  private static final BlockingQueue<Deflater> DEFLATERS = new ArrayBlockingQueue<>(MAX_POOLED_CODECS);
+
+  private static final BlockingQueue<Inflater> INFLATERS = new ArrayBlockingQueue<>(MAX_POOLED_CODECS);
+
+  /**
+   * Provider which accepted a key, key is the JCA algorithm name and the key class. Only the provider lookup is
+   * cached, a new {@link Signature} is created for every signature so no key stays referenced.
+   */
+  private static final Map<List<Object>, Provider> SIGNATURE_PROVIDERS = new ConcurrentHashMap<>();
+
   /**
    * deflate and base64-encode the input, making it effectively almost by a third longer.
    */
   public static String deflate(byte[] input)
   {
-    byte[] output = new byte[2 * input.length];
-    Deflater compresser = new Deflater(3, true);
-    compresser.setInput(input);
-    compresser.finish();
-    int compressedDataLength = compresser.deflate(output);
-    byte[] result = new byte[compressedDataLength];
-    System.arraycopy(output, 0, result, 0, compressedDataLength);
-    return DatatypeConverter.printBase64Binary(result);
+    Deflater compresser = DEFLATERS.poll();
+    if (compresser == null)
+    {
+      compresser = new Deflater(3, true);
+    }
+    try
+    {
+      compresser.setInput(input);
+      compresser.finish();
+      ByteArrayOutputStream output = new ByteArrayOutputStream(input.length / 2 + 64);
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!compresser.finished())
+      {
+        int length = compresser.deflate(buffer);
+        output.write(buffer, 0, length);
+      }
+      return DatatypeConverter.printBase64Binary(output.toByteArray());
+    }
+    finally
+    {
+      release(compresser);
+    }
   }
 
   /**
-   * reverse method for {@link #deflate(byte[])}
+   * reverse method for {@link #deflate(byte[])}, limiting the inflated data to
+   * {@link #DEFAULT_MAX_INFLATED_LENGTH} bytes
    *
-   * @throws DataFormatException
+   * @throws DataFormatException if the data is invalid, truncated or too long
    */
   public static byte[] inflate(String input) throws DataFormatException
+  {
+    return inflate(input, DEFAULT_MAX_INFLATED_LENGTH);
+  }
+
+  /**
+   * reverse method for {@link #deflate(byte[])}
+   *
+   * @param input base64-encoded deflated data
+   * @param maxLength maximum length of the inflated data
+   * @throws DataFormatException if the data is invalid or truncated or the inflated data is longer than maxLength
+   */
+  public static byte[] inflate(String input, int maxLength) throws DataFormatException
   {
     byte[] b = DatatypeConverter.parseBase64Binary(input);
-    Inflater decompessor = new Inflater(true);
-    decompessor.setInput(b);
-    byte[] output = new byte[10 * b.length];
-    int length = decompessor.inflate(output);
-    byte[] result = new byte[length];
-    System.arraycopy(output, 0, result, 0, length);
-    return result;
+    Inflater decompessor = INFLATERS.poll();
+    if (decompessor == null)
+    {
+      decompessor = new Inflater(true);
+    }
+    try
+    {
+      decompessor.setInput(b);
+      ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(maxLength, 4 * b.length + 64));
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!decompessor.finished())
+      {
+        int length = decompessor.inflate(buffer);
+        if (length == 0 && (decompessor.needsInput() || decompessor.needsDictionary()))
+        {
+          throw new DataFormatException("Deflated data is truncated");
+        }
+        if (output.size() + length > maxLength)
+        {
+          throw new DataFormatException("Inflated data exceeds " + maxLength + " bytes");
+        }
+        output.write(buffer, 0, length);
+      }
+      return output.toByteArray();
+    }
+    finally
+    {
+      release(decompessor);
+    }
+  }
+
+  private static void release(Deflater deflater)
+  {
+    deflater.reset();
+    if (!DEFLATERS.offer(deflater))
+    {
+      deflater.end();
+    }
+  }
+
+  private static void release(Inflater inflater)
+  {
+    inflater.reset();
+    if (!INFLATERS.offer(inflater))
+    {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Create a signature object and initialize it with the given key, using the provider which accepted a key of the
+   * same class before.
+   */
+  private static Signature getSignature(String jcaAlgName, Key key, SignatureInitializer initializer)
+    throws NoSuchAlgorithmException, InvalidKeyException
+  {
+    List<Object> cacheKey = List.of(jcaAlgName, key.getClass());
+    Provider provider = SIGNATURE_PROVIDERS.get(cacheKey);
+    if (provider != null)
+    {
+      Signature sig = Signature.getInstance(jcaAlgName, provider);
+      try
+      {
+        initializer.init(sig);
+        return sig;
+      }
+      catch (InvalidKeyException e)
+      {
+        // the key belongs to another provider instance, e.g. another PKCS#11 slot
+        log.trace("Cached provider {} does not accept key", provider.getName(), e);
+      }
+    }
+    Signature sig = Signature.getInstance(jcaAlgName);
+    initializer.init(sig);
+    SIGNATURE_PROVIDERS.put(cacheKey, sig.getProvider());
+    return sig;
   }
 
   /**
@@ -150,8 +278,7 @@ public final class HttpRedirectUtils
       }
 
       appendParam(result, false, SIGALG_PARAMNAME, xmlAlgId);
-      Signature sig = Signature.getInstance(jcaAlgName);
-      sig.initSign(sigKey);
+      Signature sig = getSignature(jcaAlgName, sigKey, s -> s.initSign(sigKey));
       sig.update(result.toString().getBytes(Utils.ENCODING));
       byte[] value = sig.sign();
       appendParam(result, false, SIGVALUE_PARAMNAME, DatatypeConverter.printBase64Binary(value));
@@ -192,8 +319,9 @@ public final class HttpRedirectUtils
       appendParam(queryStringToCheck, false, SIGALG_PARAMNAME, sigAlg);
 
 
-      Signature sig = Signature.getInstance(javaSigAlg);
-      sig.initVerify(verificationCertificate);
+      Signature sig = getSignature(javaSigAlg,
+                                   verificationCertificate.getPublicKey(),
+                                   s -> s.initVerify(verificationCertificate));
       sig.update(queryStringToCheck.toString().getBytes(StandardCharsets.UTF_8));
       if (!sig.verify(DatatypeConverter.parseBase64Binary(signature)))
       {
@@ -235,4 +363,13 @@ public final class HttpRedirectUtils
     result.append('=');
     result.append(URLEncoder.encode(value, Utils.ENCODING));
   }
+
+  /**
+   * Initializes a signature object for signing or verifying.
+   */
+  private interface SignatureInitializer
+  {
+
+    void init(Signature sig) throws InvalidKeyException;
+  }
 }
@@ -106,6 +106,15 @@ public final class Utils
    */
   private static final String EXTERNAL_GENERAL_ENTITIES = "http://xml.org/sax/features/external-general-entities";
 
+  /**
+   * Configured factories per thread, the factories are not thread safe but creating them requires a service lookup
+   */
+  private static final ThreadLocal<DocumentBuilderFactory> DOCUMENT_BUILDER_FACTORY = new ThreadLocal<>();
+
+  private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORY = new ThreadLocal<>();
+
+  private static volatile BasicParserPool basicParserPool;
+
   /**
    * Load the error page.
    */
@@ -642,12 +651,30 @@ public final class Utils
 
   /**
    * Returns an initialized {@link BasicParserPool} ready to use, configured with security features preventing
-   * several XXE attacks.
+   * several XXE attacks. The pool is thread safe and shared by all callers, so it must not be modified.
    *
    * @return the parser pool
    * @throws ComponentInitializationException
    */
   public static BasicParserPool getBasicParserPool() throws ComponentInitializationException
+  {
+    BasicParserPool ppMgr = basicParserPool;
+    if (ppMgr == null)
+    {
+      synchronized (Utils.class)
+      {
+        ppMgr = basicParserPool;
+        if (ppMgr == null)
+        {
+          ppMgr = createBasicParserPool();
+          basicParserPool = ppMgr;
+        }
+      }
+    }
+    return ppMgr;
+  }
+
+  private static BasicParserPool createBasicParserPool() throws ComponentInitializationException
   {
     BasicParserPool ppMgr = new BasicParserPool();
     ppMgr.setNamespaceAware(true);
@@ -675,15 +702,20 @@ public final class Utils
    */
   public static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException
   {
-    DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-    dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-    dbf.setFeature(DISALLOW_DOCTYPE_DECL, true);
-    dbf.setFeature(EXTERNAL_GENERAL_ENTITIES, false);
-    dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-    dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-    dbf.setXIncludeAware(false);
-    dbf.setExpandEntityReferences(false);
-    dbf.setNamespaceAware(true);
+    DocumentBuilderFactory dbf = DOCUMENT_BUILDER_FACTORY.get();
+    if (dbf == null)
+    {
+      dbf = DocumentBuilderFactory.newInstance();
+      dbf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      dbf.setFeature(DISALLOW_DOCTYPE_DECL, true);
+      dbf.setFeature(EXTERNAL_GENERAL_ENTITIES, false);
+      dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+      dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+      dbf.setXIncludeAware(false);
+      dbf.setExpandEntityReferences(false);
+      dbf.setNamespaceAware(true);
+      DOCUMENT_BUILDER_FACTORY.set(dbf);
+    }
     return dbf.newDocumentBuilder();
   }
 
@@ -696,10 +728,15 @@ public final class Utils
    */
   public static Transformer getTransformer() throws TransformerConfigurationException
   {
-    TransformerFactory tf = TransformerFactory.newInstance();
-    tf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-    tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-    tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+    TransformerFactory tf = TRANSFORMER_FACTORY.get();
+    if (tf == null)
+    {
+      tf = TransformerFactory.newInstance();
+      tf.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+      tf.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+      TRANSFORMER_FACTORY.set(tf);
+    }
     return tf.newTransformer();
   }
 
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.eidascommon;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URLDecoder;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.junit.Test;
+
+
+public class HttpRedirectUtilsTest
+{
+
+  @Test
+  public void testRoundTripRandomData() throws Exception
+  {
+    Random random = new Random(4711);
+    for ( int i = 0 ; i < 200 ; i++ )
+    {
+      byte[] data = new byte[random.nextInt(50_000)];
+      if (random.nextBoolean())
+      {
+        random.nextBytes(data);
+      }
+      else
+      {
+        // compressible data as in a SAML message
+        for ( int j = 0 ; j < data.length ; j++ )
+        {
+          data[j] = (byte)('a' + random.nextInt(4));
+        }
+      }
+      assertArrayEquals(data, HttpRedirectUtils.inflate(HttpRedirectUtils.deflate(data)));
+    }
+  }
+
+  @Test
+  public void testLargeXmlIsNotTruncated() throws Exception
+  {
+    StringBuilder xml = new StringBuilder("<root>");
+    for ( int i = 0 ; i < 10_000 ; i++ )
+    {
+      xml.append("<a>value</a>");
+    }
+    xml.append("</root>");
+    byte[] data = xml.toString().getBytes(Utils.ENCODING);
+    assertArrayEquals(data, HttpRedirectUtils.inflate(HttpRedirectUtils.deflate(data)));
+  }
+
+  @Test
+  public void testRandomInputDoesNotCauseUnexpectedExceptions()
+  {
+    Random random = new Random(815);
+    for ( int i = 0 ; i < 1000 ; i++ )
+    {
+      byte[] data = new byte[random.nextInt(2000)];
+      random.nextBytes(data);
+      try
+      {
+        byte[] result = HttpRedirectUtils.inflate(DatatypeConverter.printBase64Binary(data), 100_000);
+        assertTrue(result.length <= 100_000);
+      }
+      catch (DataFormatException e)
+      {
+        // expected for most inputs
+      }
+    }
+  }
+
+  @Test
+  public void testDecompressionBombIsRejected()
+  {
+    byte[] zeros = new byte[10 * 1024 * 1024];
+    Deflater deflater = new Deflater(9, true);
+    deflater.setInput(zeros);
+    deflater.finish();
+    byte[] buffer = new byte[zeros.length];
+    int length = deflater.deflate(buffer);
+    deflater.end();
+    byte[] bomb = new byte[length];
+    System.arraycopy(buffer, 0, bomb, 0, length);
+
+    try
+    {
+      HttpRedirectUtils.inflate(DatatypeConverter.printBase64Binary(bomb));
+      fail("decompression bomb not detected");
+    }
+    catch (DataFormatException e)
+    {
+      assertTrue(e.getMessage().contains(String.valueOf(HttpRedirectUtils.DEFAULT_MAX_INFLATED_LENGTH)));
+    }
+  }
+
+  @Test
+  public void testTruncatedInputIsRejected() throws Exception
+  {
+    byte[] data = new byte[10_000];
+    new Random(42).nextBytes(data);
+    byte[] deflated = DatatypeConverter.parseBase64Binary(HttpRedirectUtils.deflate(data));
+    try
+    {
+      HttpRedirectUtils.inflate(DatatypeConverter.printBase64Binary(Arrays.copyOf(deflated, deflated.length / 2)));
+      fail("truncated data not detected");
+    }
+    catch (DataFormatException e)
+    {
+      assertTrue(e.getMessage().contains("truncated"));
+    }
+  }
+
+  @Test
+  public void testSignWithDifferentKeys() throws Exception
+  {
+    for ( int keySize : new int[]{256, 384, 256} )
+    {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+      generator.initialize(keySize);
+      KeyPair keyPair = generator.generateKeyPair();
+      String query = HttpRedirectUtils.createQueryString("https://localhost/receiver",
+                                                         new byte[]{1, 2, 3},
+                                                         true,
+                                                         null,
+                                                         keyPair.getPrivate(),
+                                                         "SHA256");
+      String signed = query.substring(query.indexOf('?') + 1, query.indexOf("&Signature="));
+      String signature = URLDecoder.decode(query.substring(query.indexOf("&Signature=") + 11), Utils.ENCODING);
+      Signature verifier = Signature.getInstance("SHA256withECDSA");
+      verifier.initVerify(keyPair.getPublic());
+      verifier.update(signed.getBytes(Utils.ENCODING));
+      assertTrue(verifier.verify(DatatypeConverter.parseBase64Binary(signature)));
+    }
+  }
+}
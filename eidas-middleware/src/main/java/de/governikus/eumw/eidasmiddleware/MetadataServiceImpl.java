@@ -52,6 +52,8 @@ public class MetadataServiceImpl implements MetadataService
 
   private final ConfigurationService configurationService;
 
+  private final SamlCryptoCache samlCryptoCache;
+
   /**
    * {@inheritDoc}
    */
@@ -130,17 +132,12 @@ public class MetadataServiceImpl implements MetadataService
     EidasSigner signer;
     if (hsmServiceHolder.getKeyStore() == null)
     {
-      signer = new EidasSigner(true,
-                               configurationService.getKeyPair(eidasMiddlewareConfig.getEidasConfiguration()
-                                                                                    .getSignatureKeyPairName())
-                                                   .getKey(),
-                               configurationService.getKeyPair(eidasMiddlewareConfig.getEidasConfiguration()
-                                                                                    .getSignatureKeyPairName())
-                                                   .getCertificate());
+      signer = samlCryptoCache.getSigner(configurationService.getKeyPair(eidasMiddlewareConfig.getEidasConfiguration()
+                                                                                              .getSignatureKeyPairName()));
     }
     else
     {
-      signer = new EidasSigner(hsmServiceHolder.getKeyStore());
+      signer = samlCryptoCache.getSigner(hsmServiceHolder.getKeyStore());
     }
     return signer;
   }
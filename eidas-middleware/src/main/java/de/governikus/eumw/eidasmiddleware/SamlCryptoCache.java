@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.eidasmiddleware;
+
+import java.security.KeyException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.stereotype.Component;
+
+import de.governikus.eumw.eidasstarterkit.EidasEncrypter;
+import de.governikus.eumw.eidasstarterkit.EidasSigner;
+import de.governikus.eumw.poseidas.server.idprovider.config.KeyPair;
+import lombok.RequiredArgsConstructor;
+
+
+/**
+ * Keeps {@link EidasSigner} and {@link EidasEncrypter} instances so that they are not created for every SAML message.
+ * A signer is reused as long as the same key pair or HSM key store is used. The {@link KeyPair} instances are kept by
+ * the configuration service until the configuration changes. Encrypters are kept by the fingerprint of the encryption
+ * certificate. There is one instance shared by the metadata service and the response handler, both sign with the
+ * same key.
+ */
+@Component
+public class SamlCryptoCache
+{
+
+  /**
+   * the encrypters are dropped when more encryption certificates are in use
+   */
+  private static final int MAX_ENCRYPTERS = 100;
+
+  private final Map<String, EidasEncrypter> encrypters = new ConcurrentHashMap<>();
+
+  private volatile CachedSigner signer;
+
+  /**
+   * Get a signer using the given key pair.
+   */
+  public EidasSigner getSigner(KeyPair keyPair)
+  {
+    CachedSigner cached = signer;
+    if (cached == null || cached.source != keyPair)
+    {
+      cached = new CachedSigner(keyPair, new EidasSigner(true, keyPair.getKey(), keyPair.getCertificate()));
+      signer = cached;
+    }
+    return cached.eidasSigner;
+  }
+
+  /**
+   * Get a signer using the SAML signing key of the given HSM key store.
+   */
+  public EidasSigner getSigner(KeyStore hsmKeyStore)
+    throws UnrecoverableKeyException, KeyStoreException, NoSuchAlgorithmException
+  {
+    CachedSigner cached = signer;
+    if (cached == null || cached.source != hsmKeyStore)
+    {
+      cached = new CachedSigner(hsmKeyStore, new EidasSigner(hsmKeyStore));
+      signer = cached;
+    }
+    return cached.eidasSigner;
+  }
+
+  /**
+   * Get an encrypter for the given certificate. The certificate is included in the encrypted key.
+   */
+  public EidasEncrypter getEncrypter(X509Certificate encryptionCert)
+    throws CertificateEncodingException, NoSuchAlgorithmException, KeyException
+  {
+    String fingerprint = DigestUtils.sha256Hex(encryptionCert.getEncoded());
+    EidasEncrypter encrypter = encrypters.get(fingerprint);
+    if (encrypter == null)
+    {
+      if (encrypters.size() >= MAX_ENCRYPTERS)
+      {
+        encrypters.clear();
+      }
+      encrypter = new EidasEncrypter(true, encryptionCert);
+      encrypters.put(fingerprint, encrypter);
+    }
+    return encrypter;
+  }
+
+  @RequiredArgsConstructor
+  private static class CachedSigner
+  {
+
+    private final Object source;
+
+    private final EidasSigner eidasSigner;
+  }
+}
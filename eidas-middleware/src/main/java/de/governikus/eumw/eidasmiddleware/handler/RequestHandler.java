@@ -29,6 +29,7 @@ import org.opensaml.core.xml.io.Unmarshaller;
 import org.opensaml.core.xml.io.UnmarshallerFactory;
 import org.opensaml.core.xml.io.UnmarshallingException;
 import org.opensaml.saml.saml2.core.AuthnRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -48,8 +49,6 @@ import de.governikus.eumw.eidasstarterkit.EidasRequest;
 import de.governikus.eumw.eidasstarterkit.EidasSaml;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationException;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.shibboleth.utilities.java.support.component.ComponentInitializationException;
 import net.shibboleth.utilities.java.support.xml.BasicParserPool;
@@ -62,7 +61,6 @@ import se.litsec.eidas.opensaml.ext.SPTypeEnumeration;
  */
 @Slf4j
 @Component
-@AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class RequestHandler
 {
 
@@ -78,13 +76,26 @@ public class RequestHandler
    */
   private final ConfigurationService configurationService;
 
+  /**
+   * maximum length of an inflated SAML request received by HTTP redirect
+   */
+  private final int maxInflatedRequestLength;
+
+  RequestHandler(RequestSessionRepository requestSessionRepository,
+                 ConfigurationService configurationService,
+                 @Value("${eidas.middleware.maxInflatedRequestLength:1048576}") int maxInflatedRequestLength)
+  {
+    this.requestSessionRepository = requestSessionRepository;
+    this.configurationService = configurationService;
+    this.maxInflatedRequestLength = maxInflatedRequestLength;
+  }
 
   public EidasRequest handleSAMLRedirectRequest(String samlRequest, String relayState, String sigAlg, String signature)
     throws ErrorCodeWithResponseException
   {
     try
     {
-      byte[] samlRequestBytes = HttpRedirectUtils.inflate(samlRequest);
+      byte[] samlRequestBytes = HttpRedirectUtils.inflate(samlRequest, maxInflatedRequestLength);
 
       log.trace("Incoming SAML request: {}", new String(samlRequestBytes, StandardCharsets.UTF_8));
 
@@ -31,6 +31,7 @@ import de.governikus.eumw.eidascommon.Constants;
 import de.governikus.eumw.eidascommon.ContextPaths;
 import de.governikus.eumw.eidascommon.ErrorCode;
 import de.governikus.eumw.eidasmiddleware.RequestProcessingException;
+import de.governikus.eumw.eidasmiddleware.SamlCryptoCache;
 import de.governikus.eumw.eidasmiddleware.WebServiceHelper;
 import de.governikus.eumw.eidasmiddleware.eid.RequestingServiceProvider;
 import de.governikus.eumw.eidasmiddleware.entities.RequestSession;
@@ -106,6 +107,8 @@ public class ResponseHandler
 
   private final CvcTlsCheck cvcTlsCheck;
 
+  private final SamlCryptoCache samlCryptoCache;
+
   private RequestSession getSAMLReqSession(String refID)
   {
     return requestSessionRepository.findByEidRef(refID).orElseGet(() -> {
@@ -213,11 +216,11 @@ public class ResponseHandler
       var signatureKeyPair = configurationService.getKeyPair(optionalConfiguration.get()
                                                                                   .getEidasConfiguration()
                                                                                   .getSignatureKeyPairName());
-      signer = new EidasSigner(true, signatureKeyPair.getKey(), signatureKeyPair.getCertificate());
+      signer = samlCryptoCache.getSigner(signatureKeyPair);
     }
     else
     {
-      signer = new EidasSigner(hsmServiceHolder.getKeyStore());
+      signer = samlCryptoCache.getSigner(hsmServiceHolder.getKeyStore());
     }
     return signer;
   }
@@ -340,7 +343,7 @@ public class ResponseHandler
     {
       EidasSigner signer = getEidasSigner();
 
-      EidasEncrypter encrypter = new EidasEncrypter(true, reqSP.getEncryptionCert());
+      EidasEncrypter encrypter = samlCryptoCache.getEncrypter(reqSP.getEncryptionCert());
 
       byte[] eidasResp = EidasSaml.createResponse(attributes,
                                                   reqSP.getAssertionConsumerURL(),
@@ -432,7 +435,7 @@ public class ResponseHandler
     {
       EidasSigner signer = getEidasSigner();
 
-      EidasEncrypter encrypter = new EidasEncrypter(true, reqSP.getEncryptionCert());
+      EidasEncrypter encrypter = samlCryptoCache.getEncrypter(reqSP.getEncryptionCert());
       byte[] eidasResp = EidasSaml.createResponse(dummyAttributes,
                                                   reqSP.getAssertionConsumerURL(),
                                                   reqSP.getEntityID(),
@@ -46,6 +46,7 @@ import de.governikus.eumw.eidascommon.ErrorCode;
 import de.governikus.eumw.eidascommon.ErrorCodeException;
 import de.governikus.eumw.eidascommon.Utils;
 import de.governikus.eumw.eidasmiddleware.RequestProcessingException;
+import de.governikus.eumw.eidasmiddleware.SamlCryptoCache;
 import de.governikus.eumw.eidasmiddleware.eid.RequestingServiceProvider;
 import de.governikus.eumw.eidasmiddleware.entities.RequestSession;
 import de.governikus.eumw.eidasmiddleware.repositories.RequestSessionRepository;
@@ -157,7 +158,7 @@ class ResponseHandlerTest
   void setUp()
   {
     systemUnderTest = spy(new ResponseHandler(requestSessionRepository, mockConfigurationService, mockHsmServiceHolder,
-                                              mockEidInternal, mockCvcTlsCheck));
+                                              mockEidInternal, mockCvcTlsCheck, new SamlCryptoCache()));
   }
 
   @Test
@@ -704,7 +705,8 @@ class ResponseHandlerTest
     when(mockCvcResults.isCvcTlsMatch()).thenReturn(true);
     when(mockCvcResults.isCvcUrlMatch()).thenReturn(true);
     ResponseHandler responseHandler = new ResponseHandler(requestSessionRepository, mockConfigurationService,
-                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck);
+                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck,
+                                                          new SamlCryptoCache());
     String dummyResponse = responseHandler.prepareDummyResponse(REQUEST_ID, null);
 
     Assertions.assertNotNull(dummyResponse);
@@ -740,7 +742,8 @@ class ResponseHandlerTest
     when(mockCvcResults.isCvcTlsMatch()).thenReturn(true);
     when(mockCvcResults.isCvcUrlMatch()).thenReturn(true);
     ResponseHandler responseHandler = new ResponseHandler(requestSessionRepository, mockConfigurationService,
-                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck);
+                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck,
+                                                          new SamlCryptoCache());
     String dummyResponse = responseHandler.prepareDummyResponse(REQUEST_ID, TestCaseEnum.CANCELLATION_BY_USER);
 
     Assertions.assertNotNull(dummyResponse);
@@ -776,7 +779,8 @@ class ResponseHandlerTest
     when(mockCvcResults.isCvcTlsMatch()).thenReturn(true);
     when(mockCvcResults.isCvcUrlMatch()).thenReturn(true);
     ResponseHandler responseHandler = new ResponseHandler(requestSessionRepository, mockConfigurationService,
-                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck);
+                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck,
+                                                          new SamlCryptoCache());
     String dummyResponse = responseHandler.prepareDummyResponse(REQUEST_ID, TestCaseEnum.WRONG_SIGNATURE);
 
     Assertions.assertNotNull(dummyResponse);
@@ -806,7 +810,8 @@ class ResponseHandlerTest
     when(mockCvcResults.isCvcTlsMatch()).thenReturn(true);
     when(mockCvcResults.isCvcUrlMatch()).thenReturn(true);
     ResponseHandler responseHandler = new ResponseHandler(requestSessionRepository, mockConfigurationService,
-                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck);
+                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck,
+                                                          new SamlCryptoCache());
     String dummyResponse = responseHandler.prepareDummyResponse(REQUEST_ID, TestCaseEnum.UNKNOWN);
 
     Assertions.assertNotNull(dummyResponse);
@@ -838,7 +843,8 @@ class ResponseHandlerTest
     checkResults.setCvcTlsMatch(true);
     when(mockCvcTlsCheck.checkCvcProvider(anyString())).thenReturn(checkResults);
     ResponseHandler responseHandler = new ResponseHandler(requestSessionRepository, mockConfigurationService,
-                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck);
+                                                          mockHsmServiceHolder, mockEidInternal, mockCvcTlsCheck,
+                                                          new SamlCryptoCache());
     String dummyResponse = responseHandler.prepareDummyResponse(REQUEST_ID, TestCaseEnum.UNKNOWN);
 
     Assertions.assertNotNull(dummyResponse);
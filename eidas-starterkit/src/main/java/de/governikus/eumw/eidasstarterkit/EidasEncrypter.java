@@ -16,6 +16,8 @@ import java.security.cert.X509Certificate;
 
 import org.apache.xml.security.algorithms.MessageDigestAlgorithm;
 import org.opensaml.core.config.ConfigurationService;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.EncryptedAssertion;
 import org.opensaml.saml.saml2.encryption.Encrypter;
 import org.opensaml.saml.saml2.encryption.Encrypter.KeyPlacement;
 import org.opensaml.security.credential.Credential;
@@ -25,21 +27,42 @@ import org.opensaml.xmlsec.EncryptionConfiguration;
 import org.opensaml.xmlsec.algorithm.AlgorithmSupport;
 import org.opensaml.xmlsec.encryption.support.DataEncryptionParameters;
 import org.opensaml.xmlsec.encryption.support.EncryptionConstants;
+import org.opensaml.xmlsec.encryption.support.EncryptionException;
 import org.opensaml.xmlsec.encryption.support.KeyEncryptionParameters;
 import org.opensaml.xmlsec.encryption.support.RSAOAEPParameters;
-import org.opensaml.xmlsec.keyinfo.KeyInfoGeneratorFactory;
+import org.opensaml.xmlsec.keyinfo.KeyInfoGenerator;
 
 import se.swedenconnect.opensaml.xmlsec.config.ExtendedDefaultSecurityConfigurationBootstrap;
 import se.swedenconnect.opensaml.xmlsec.encryption.support.ECDHKeyAgreementParameters;
 
 
+/**
+ * Encrypts assertions for one receiver certificate. The credential of the receiver and the key info generator are
+ * created once, so an instance can be kept and used for any number of responses, also from several threads. Each
+ * encryption uses a new symmetric key.
+ */
 public class EidasEncrypter
 {
 
   /**
-   * Completely configured encryption handler, null if encryption is not set.
+   * credential holding the public key of the receiver
+   */
+  private final Credential receiverCredential;
+
+  /**
+   * e.g http://www.w3.org/2009/xmlenc11#aes256-gcm
+   */
+  private final String cipherAlgo;
+
+  /**
+   * true if the receiver has an EC key, so ECDH key agreement is used instead of key transport
+   */
+  private final boolean keyAgreement;
+
+  /**
+   * generates the key info for the encrypted key, null if the certificate is not included
    */
-  Encrypter encrypter;
+  private final KeyInfoGenerator keyInfoGenerator;
 
   /**
    * Create a XMLCipher Object.
@@ -53,46 +76,29 @@ public class EidasEncrypter
   private EidasEncrypter(boolean includeCert, X509Certificate cert, String cipherAlgo)
     throws NoSuchAlgorithmException, KeyException
   {
-    Credential receiverCredential = CredentialSupport.getSimpleCredential(cert, null);
-    Credential symmetricCredential = CredentialSupport.getSimpleCredential(AlgorithmSupport.generateSymmetricKey(cipherAlgo));
-
-    DataEncryptionParameters encParams = new DataEncryptionParameters();
-    encParams.setAlgorithm(cipherAlgo);
-    encParams.setEncryptionCredential(symmetricCredential);
+    // fail early for unsupported algorithms
+    AlgorithmSupport.generateSymmetricKey(cipherAlgo);
+    this.cipherAlgo = cipherAlgo;
+    receiverCredential = CredentialSupport.getSimpleCredential(cert, null);
+    keyAgreement = "EC".equals(cert.getPublicKey().getAlgorithm());
 
-    if ("EC".equals(cert.getPublicKey().getAlgorithm()))
+    if (keyAgreement)
     {
-      ECDHKeyAgreementParameters ecdhKeyAgreementParameters = new ECDHKeyAgreementParameters();
-      ecdhKeyAgreementParameters.setPeerCredential(receiverCredential);
-      ecdhKeyAgreementParameters.setKeyInfoGenerator(ExtendedDefaultSecurityConfigurationBootstrap.buildDefaultKeyAgreementKeyInfoGeneratorFactory()
-                                                                                                  .newInstance());
-      encrypter = new Encrypter(encParams, ecdhKeyAgreementParameters);
+      keyInfoGenerator = ExtendedDefaultSecurityConfigurationBootstrap.buildDefaultKeyAgreementKeyInfoGeneratorFactory()
+                                                                      .newInstance();
+    }
+    else if (includeCert)
+    {
+      keyInfoGenerator = ConfigurationService.get(EncryptionConfiguration.class)
+                                             .getKeyTransportKeyInfoGeneratorManager()
+                                             .getDefaultManager()
+                                             .getFactory(new BasicX509Credential(cert))
+                                             .newInstance();
     }
-
     else
     {
-
-      /**
-       * key encryption parameters used to set up the {@link #encrypter}, null if encryption is not set. Note
-       * that the encrypter will ignore these values given to it in the constructor when it encrypts an
-       * XMLObject. In that case, you have to give these values again to the encrypt method.
-       */
-      KeyEncryptionParameters kek = new KeyEncryptionParameters();
-      kek.setAlgorithm(EncryptionConstants.ALGO_ID_KEYTRANSPORT_RSAOAEP);
-      kek.setEncryptionCredential(receiverCredential);
-      kek.setRSAOAEPParameters(new RSAOAEPParameters(MessageDigestAlgorithm.ALGO_ID_DIGEST_SHA256, null,
-                                                     null));
-      encrypter = new Encrypter(encParams, kek);
-      if (includeCert)
-      {
-        KeyInfoGeneratorFactory kigf = ConfigurationService.get(EncryptionConfiguration.class)
-                                                           .getKeyTransportKeyInfoGeneratorManager()
-                                                           .getDefaultManager()
-                                                           .getFactory(new BasicX509Credential(cert));
-        kek.setKeyInfoGenerator(kigf.newInstance());
-      }
+      keyInfoGenerator = null;
     }
-    encrypter.setKeyPlacement(KeyPlacement.INLINE);
   }
 
   /**
@@ -108,4 +114,58 @@ public class EidasEncrypter
   {
     this(includeCert, cert, EncryptionConstants.ALGO_ID_BLOCKCIPHER_AES256_GCM);
   }
+
+  /**
+   * Encrypt an assertion with a new symmetric key.
+   *
+   * @param assertion the assertion to encrypt
+   * @return the encrypted assertion
+   * @throws EncryptionException
+   */
+  EncryptedAssertion encrypt(Assertion assertion) throws EncryptionException
+  {
+    return createEncrypter().encrypt(assertion);
+  }
+
+  /**
+   * Create a completely configured encryption handler with a new symmetric key. The handler must only be used by one
+   * thread.
+   */
+  Encrypter createEncrypter() throws EncryptionException
+  {
+    Credential symmetricCredential;
+    try
+    {
+      symmetricCredential = CredentialSupport.getSimpleCredential(AlgorithmSupport.generateSymmetricKey(cipherAlgo));
+    }
+    catch (NoSuchAlgorithmException | KeyException e)
+    {
+      throw new EncryptionException("Cannot generate symmetric key", e);
+    }
+
+    DataEncryptionParameters encParams = new DataEncryptionParameters();
+    encParams.setAlgorithm(cipherAlgo);
+    encParams.setEncryptionCredential(symmetricCredential);
+
+    Encrypter encrypter;
+    if (keyAgreement)
+    {
+      ECDHKeyAgreementParameters ecdhKeyAgreementParameters = new ECDHKeyAgreementParameters();
+      ecdhKeyAgreementParameters.setPeerCredential(receiverCredential);
+      ecdhKeyAgreementParameters.setKeyInfoGenerator(keyInfoGenerator);
+      encrypter = new Encrypter(encParams, ecdhKeyAgreementParameters);
+    }
+    else
+    {
+      KeyEncryptionParameters kek = new KeyEncryptionParameters();
+      kek.setAlgorithm(EncryptionConstants.ALGO_ID_KEYTRANSPORT_RSAOAEP);
+      kek.setEncryptionCredential(receiverCredential);
+      kek.setRSAOAEPParameters(new RSAOAEPParameters(MessageDigestAlgorithm.ALGO_ID_DIGEST_SHA256, null,
+                                                     null));
+      kek.setKeyInfoGenerator(keyInfoGenerator);
+      encrypter = new Encrypter(encParams, kek);
+    }
+    encrypter.setKeyPlacement(KeyPlacement.INLINE);
+    return encrypter;
+  }
 }
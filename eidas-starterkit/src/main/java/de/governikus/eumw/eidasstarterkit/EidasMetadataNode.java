@@ -330,11 +330,7 @@ public class EidasMetadataNode
     byte[] result = null;
     List<Signature> sigs = new ArrayList<>();
 
-    XMLSignatureHandler.addSignature(entityDescriptor,
-                                     signer.getSigKey(),
-                                     signer.getSigCert(),
-                                     signer.getSigType(),
-                                     signer.getSigDigestAlg());
+    XMLSignatureHandler.addSignature(entityDescriptor, signer);
     sigs.add(entityDescriptor.getSignature());
 
     EntityDescriptorMarshaller arm = new EntityDescriptorMarshaller();
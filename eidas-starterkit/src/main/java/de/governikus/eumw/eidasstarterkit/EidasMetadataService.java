@@ -432,11 +432,7 @@ class EidasMetadataService
     List<Signature> sigs = new ArrayList<>();
     if (doSign)
     {
-      XMLSignatureHandler.addSignature(entityDescriptor,
-                                       signer.getSigKey(),
-                                       signer.getSigCert(),
-                                       signer.getSigType(),
-                                       signer.getSigDigestAlg());
+      XMLSignatureHandler.addSignature(entityDescriptor, signer);
       sigs.add(entityDescriptor.getSignature());
     }
 
@@ -332,11 +332,7 @@ public class EidasRequest
     if (signer != null)
     {
       List<Signature> sigs = new ArrayList<>();
-      XMLSignatureHandler.addSignature(authnRequest,
-                                       signer.getSigKey(),
-                                       signer.getSigCert(),
-                                       signer.getSigType(),
-                                       signer.getSigDigestAlg());
+      XMLSignatureHandler.addSignature(authnRequest, signer);
       sigs.add(authnRequest.getSignature());
       AuthnRequestMarshaller arm = new AuthnRequestMarshaller();
       all = arm.marshall(authnRequest);
@@ -10,14 +10,11 @@
 
 package de.governikus.eumw.eidasstarterkit;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,14 +24,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
-import org.opensaml.core.xml.Namespace;
 import org.opensaml.core.xml.XMLObject;
 import org.opensaml.core.xml.config.XMLObjectProviderRegistrySupport;
 import org.opensaml.core.xml.io.Marshaller;
@@ -45,39 +37,10 @@ import org.opensaml.core.xml.io.UnmarshallingException;
 import org.opensaml.saml.saml2.core.Assertion;
 import org.opensaml.saml.saml2.core.Attribute;
 import org.opensaml.saml.saml2.core.AttributeStatement;
-import org.opensaml.saml.saml2.core.Audience;
-import org.opensaml.saml.saml2.core.AudienceRestriction;
-import org.opensaml.saml.saml2.core.AuthnContext;
-import org.opensaml.saml.saml2.core.AuthnContextClassRef;
-import org.opensaml.saml.saml2.core.AuthnStatement;
-import org.opensaml.saml.saml2.core.Conditions;
 import org.opensaml.saml.saml2.core.EncryptedAssertion;
-import org.opensaml.saml.saml2.core.Issuer;
 import org.opensaml.saml.saml2.core.NameID;
 import org.opensaml.saml.saml2.core.Response;
-import org.opensaml.saml.saml2.core.Status;
 import org.opensaml.saml.saml2.core.StatusCode;
-import org.opensaml.saml.saml2.core.StatusMessage;
-import org.opensaml.saml.saml2.core.Subject;
-import org.opensaml.saml.saml2.core.SubjectConfirmation;
-import org.opensaml.saml.saml2.core.SubjectConfirmationData;
-import org.opensaml.saml.saml2.core.impl.AssertionBuilder;
-import org.opensaml.saml.saml2.core.impl.AttributeStatementBuilder;
-import org.opensaml.saml.saml2.core.impl.AudienceBuilder;
-import org.opensaml.saml.saml2.core.impl.AudienceRestrictionBuilder;
-import org.opensaml.saml.saml2.core.impl.AuthnContextBuilder;
-import org.opensaml.saml.saml2.core.impl.AuthnContextClassRefBuilder;
-import org.opensaml.saml.saml2.core.impl.AuthnStatementBuilder;
-import org.opensaml.saml.saml2.core.impl.ConditionsBuilder;
-import org.opensaml.saml.saml2.core.impl.IssuerBuilder;
-import org.opensaml.saml.saml2.core.impl.NameIDBuilder;
-import org.opensaml.saml.saml2.core.impl.ResponseBuilder;
-import org.opensaml.saml.saml2.core.impl.StatusBuilder;
-import org.opensaml.saml.saml2.core.impl.StatusCodeBuilder;
-import org.opensaml.saml.saml2.core.impl.StatusMessageBuilder;
-import org.opensaml.saml.saml2.core.impl.SubjectBuilder;
-import org.opensaml.saml.saml2.core.impl.SubjectConfirmationBuilder;
-import org.opensaml.saml.saml2.core.impl.SubjectConfirmationDataBuilder;
 import org.opensaml.saml.saml2.encryption.Decrypter;
 import org.opensaml.security.credential.Credential;
 import org.opensaml.security.credential.CredentialSupport;
@@ -101,7 +64,6 @@ import lombok.Setter;
 import net.shibboleth.utilities.java.support.component.ComponentInitializationException;
 import net.shibboleth.utilities.java.support.xml.BasicParserPool;
 import net.shibboleth.utilities.java.support.xml.XMLParserException;
-import se.litsec.eidas.opensaml.common.EidasConstants;
 import se.litsec.eidas.opensaml.ext.attributes.CurrentAddressType;
 import se.swedenconnect.opensaml.xmlsec.encryption.support.DecryptionUtils;
 
@@ -540,21 +502,11 @@ public class EidasResponse
     throws IOException, CertificateEncodingException, MarshallingException, SignatureException,
     TransformerFactoryConfigurationError, TransformerException
   {
-    Response response = new ResponseBuilder().buildObject();
-    response.setDestination(destination);
-    response.setInResponseTo(inResponseTo);
-    response.setIssueInstant(Instant.now());
-    response.setID(id);
-
-    setSamlIssuer(response);
+    Response response = EidasResponseTemplate.response(id, destination, inResponseTo, Instant.now(), issuer);
     setSamlStatusError(response, code, msg);
 
     List<Signature> signatures = new ArrayList<>();
-    XMLSignatureHandler.addSignature(response,
-                                     signer.getSigKey(),
-                                     signer.getSigCert(),
-                                     signer.getSigType(),
-                                     signer.getSigDigestAlg());
+    XMLSignatureHandler.addSignature(response, signer);
 
     if (response.getSignature() != null)
     {
@@ -575,35 +527,19 @@ public class EidasResponse
     }
     Instant now = Instant.now();
 
-    Assertion assertion = new AssertionBuilder().buildObject();
-    assertion.getNamespaceManager()
-             .registerNamespaceDeclaration(new Namespace(EidasConstants.EIDAS_NP_NS,
-                                                         EidasConstants.EIDAS_NP_PREFIX));
-    assertion.setIssueInstant(now);
-    assertion.setID("_" + Utils.generateUniqueID());
-
-    setSamlIssuer(assertion);
-    setSamlSubject(assertion, now);
-    setSamlConditions(assertion, now);
-    setSamlAuthnStatement(assertion, now);
+    Assertion assertion = EidasResponseTemplate.assertion(now, issuer);
+    assertion.setSubject(EidasResponseTemplate.subject(nameId, inResponseTo, destination, now));
+    assertion.setConditions(EidasResponseTemplate.conditions(recipient, now));
+    assertion.getAuthnStatements().add(EidasResponseTemplate.authnStatement(loa, now));
     setSamlAttribute(assertion);
 
-    Response response = new ResponseBuilder().buildObject();
-    response.setDestination(destination);
-    response.setID(id);
-    response.setInResponseTo(inResponseTo);
-    response.setIssueInstant(now);
-    setSamlIssuer(response);
-    setSamlStatusSuccess(response);
+    Response response = EidasResponseTemplate.response(id, destination, inResponseTo, now, issuer);
+    response.setStatus(EidasResponseTemplate.status(StatusCode.SUCCESS, null, null));
 
     List<Signature> signatures = new ArrayList<>();
-    XMLSignatureHandler.addSignature(response,
-                                     signer.getSigKey(),
-                                     signer.getSigCert(),
-                                     signer.getSigType(),
-                                     signer.getSigDigestAlg());
+    XMLSignatureHandler.addSignature(response, signer);
     assertion.setParent(null);
-    response.getEncryptedAssertions().add(this.encrypter.encrypter.encrypt(assertion));
+    response.getEncryptedAssertions().add(this.encrypter.encrypt(assertion));
 
     if (response.getSignature() != null)
     {
@@ -614,7 +550,7 @@ public class EidasResponse
   }
 
   private byte[] samlToByteArray(Response response, List<Signature> signatures)
-    throws IOException, TransformerException, MarshallingException, SignatureException
+    throws TransformerException, MarshallingException, SignatureException
   {
 
     Marshaller rm = XMLObjectProviderRegistrySupport.getMarshallerFactory()
@@ -623,117 +559,22 @@ public class EidasResponse
     Signer.signObjects(signatures);
 
     openSamlResponse = response;
-    Transformer trans = Utils.getTransformer();
-    trans.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
     // Please note: you cannot format the output without breaking signature!
-    try (ByteArrayOutputStream bout = new ByteArrayOutputStream())
-    {
-      trans.transform(new DOMSource(all), new StreamResult(bout));
-      return bout.toByteArray();
-    }
+    return EidasResponseTemplate.toByteArray(all);
   }
 
   void setSamlStatusError(Response response, ErrorCode code, String... msg)
   {
-    Status status = new StatusBuilder().buildObject();
-    StatusCode statusCode = new StatusCodeBuilder().buildObject();
     List<String> samlStatusCodes = errorCodeToSamlStatus.get(code);
-    statusCode.setValue(samlStatusCodes.get(0));
-    if (samlStatusCodes.size() > 1)
-    {
-      StatusCode statusCodeInner = new StatusCodeBuilder().buildObject();
-      statusCodeInner.setValue(samlStatusCodes.get(1));
-      statusCode.setStatusCode(statusCodeInner);
-    }
-    status.setStatusCode(statusCode);
-    StatusMessage statusMessage = new StatusMessageBuilder().buildObject();
-    if (msg == null)
-    {
-      statusMessage.setValue(code.toDescription());
-    }
-    else
-    {
-      statusMessage.setValue(code.toDescription(msg));
-    }
-    status.setStatusMessage(statusMessage);
-    response.setStatus(status);
-  }
-
-  private void setSamlStatusSuccess(Response response)
-  {
-    Status status = new StatusBuilder().buildObject();
-    StatusCode statusCode = new StatusCodeBuilder().buildObject();
-    statusCode.setValue(StatusCode.SUCCESS);
-    status.setStatusCode(statusCode);
-    response.setStatus(status);
-  }
-
-  private void setSamlIssuer(Response response)
-  {
-    Issuer issuerSaml = new IssuerBuilder().buildObject();
-    issuerSaml.setValue(issuer);
-    response.setIssuer(issuerSaml);
-  }
-
-  private void setSamlIssuer(Assertion assertion)
-  {
-    Issuer issuerSaml = new IssuerBuilder().buildObject();
-    issuerSaml.setValue(issuer);
-    assertion.setIssuer(issuerSaml);
-  }
-
-  private void setSamlSubject(Assertion assertion, Instant now)
-  {
-    Subject subject = new SubjectBuilder().buildObject();
-    NameID nameID = new NameIDBuilder().buildObject();
-    nameID.setValue(nameId.getValue());
-    nameID.setFormat(nameId.getType().getValue());
-    subject.setNameID(nameID);
-
-    SubjectConfirmation subjectConfirmation = new SubjectConfirmationBuilder().buildObject();
-    subjectConfirmation.setMethod(SubjectConfirmation.METHOD_BEARER);
-    SubjectConfirmationData subjectConfirmationData = new SubjectConfirmationDataBuilder().buildObject();
-    subjectConfirmationData.setInResponseTo(inResponseTo);
-    subjectConfirmationData.setNotBefore(now);
-    subjectConfirmationData.setNotOnOrAfter(now.plus(10, ChronoUnit.MINUTES));
-    subjectConfirmationData.setRecipient(destination);
-
-    subjectConfirmation.setSubjectConfirmationData(subjectConfirmationData);
-    subject.getSubjectConfirmations().add(subjectConfirmation);
-
-    assertion.setSubject(subject);
-  }
-
-  private void setSamlConditions(Assertion assertion, Instant now)
-  {
-    Conditions conditions = new ConditionsBuilder().buildObject();
-    AudienceRestriction audienceRestriction = new AudienceRestrictionBuilder().buildObject();
-    Audience audience = new AudienceBuilder().buildObject();
-    audience.setURI(recipient);
-    audienceRestriction.getAudiences().add(audience);
-    conditions.getAudienceRestrictions().add(audienceRestriction);
-    conditions.setNotBefore(now);
-    conditions.setNotOnOrAfter(now.plus(10, ChronoUnit.MINUTES));
-    assertion.setConditions(conditions);
-  }
-
-  private void setSamlAuthnStatement(Assertion assertion, Instant now)
-  {
-    AuthnStatement authnStatement = new AuthnStatementBuilder().buildObject();
-    authnStatement.setAuthnInstant(now);
-    authnStatement.setSessionIndex("_" + Utils.generateUniqueID());
-    AuthnContext authnContext = new AuthnContextBuilder().buildObject();
-
-    AuthnContextClassRef authnContextClassRef = new AuthnContextClassRefBuilder().buildObject();
-    authnContextClassRef.setURI(loa.getUri());
-    authnContext.setAuthnContextClassRef(authnContextClassRef);
-    authnStatement.setAuthnContext(authnContext);
-    assertion.getAuthnStatements().add(authnStatement);
+    String message = msg == null ? code.toDescription() : code.toDescription(msg);
+    response.setStatus(EidasResponseTemplate.status(samlStatusCodes.get(0),
+                                                    samlStatusCodes.size() > 1 ? samlStatusCodes.get(1) : null,
+                                                    message));
   }
 
   private void setSamlAttribute(Assertion assertion)
   {
-    AttributeStatement attributeStatement = new AttributeStatementBuilder().buildObject();
+    AttributeStatement attributeStatement = EidasResponseTemplate.attributeStatement();
     for ( EidasAttribute eidasAttribute : this.attributes )
     {
       Attribute att = eidasAttribute.generate();
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.eidasstarterkit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.opensaml.core.xml.Namespace;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.saml.saml2.core.AttributeStatement;
+import org.opensaml.saml.saml2.core.Audience;
+import org.opensaml.saml.saml2.core.AudienceRestriction;
+import org.opensaml.saml.saml2.core.AuthnContext;
+import org.opensaml.saml.saml2.core.AuthnContextClassRef;
+import org.opensaml.saml.saml2.core.AuthnStatement;
+import org.opensaml.saml.saml2.core.Conditions;
+import org.opensaml.saml.saml2.core.Issuer;
+import org.opensaml.saml.saml2.core.NameID;
+import org.opensaml.saml.saml2.core.Response;
+import org.opensaml.saml.saml2.core.Status;
+import org.opensaml.saml.saml2.core.StatusCode;
+import org.opensaml.saml.saml2.core.StatusMessage;
+import org.opensaml.saml.saml2.core.Subject;
+import org.opensaml.saml.saml2.core.SubjectConfirmation;
+import org.opensaml.saml.saml2.core.SubjectConfirmationData;
+import org.opensaml.saml.saml2.core.impl.AssertionBuilder;
+import org.opensaml.saml.saml2.core.impl.AttributeStatementBuilder;
+import org.opensaml.saml.saml2.core.impl.AudienceBuilder;
+import org.opensaml.saml.saml2.core.impl.AudienceRestrictionBuilder;
+import org.opensaml.saml.saml2.core.impl.AuthnContextBuilder;
+import org.opensaml.saml.saml2.core.impl.AuthnContextClassRefBuilder;
+import org.opensaml.saml.saml2.core.impl.AuthnStatementBuilder;
+import org.opensaml.saml.saml2.core.impl.ConditionsBuilder;
+import org.opensaml.saml.saml2.core.impl.IssuerBuilder;
+import org.opensaml.saml.saml2.core.impl.NameIDBuilder;
+import org.opensaml.saml.saml2.core.impl.ResponseBuilder;
+import org.opensaml.saml.saml2.core.impl.StatusBuilder;
+import org.opensaml.saml.saml2.core.impl.StatusCodeBuilder;
+import org.opensaml.saml.saml2.core.impl.StatusMessageBuilder;
+import org.opensaml.saml.saml2.core.impl.SubjectBuilder;
+import org.opensaml.saml.saml2.core.impl.SubjectConfirmationBuilder;
+import org.opensaml.saml.saml2.core.impl.SubjectConfirmationDataBuilder;
+import org.w3c.dom.Element;
+
+import de.governikus.eumw.eidascommon.Utils;
+import se.litsec.eidas.opensaml.common.EidasConstants;
+
+
+/**
+ * Builds the parts of a SAML response which look the same for every response and serializes the signed DOM. The
+ * OpenSAML builders do not hold any state, so one instance of each is shared instead of creating a new builder for
+ * every element. The transformer is kept per thread because creating the factory and the transformer is more
+ * expensive than the serialization itself.
+ */
+final class EidasResponseTemplate
+{
+
+  /**
+   * validity of the subject confirmation and the conditions of an assertion
+   */
+  private static final long VALIDITY_MINUTES = 10;
+
+  /**
+   * initial size of the serialization buffer, large enough for a signed response containing an encrypted assertion
+   */
+  private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+  private static final ResponseBuilder RESPONSE_BUILDER = new ResponseBuilder();
+
+  private static final AssertionBuilder ASSERTION_BUILDER = new AssertionBuilder();
+
+  private static final IssuerBuilder ISSUER_BUILDER = new IssuerBuilder();
+
+  private static final StatusBuilder STATUS_BUILDER = new StatusBuilder();
+
+  private static final StatusCodeBuilder STATUS_CODE_BUILDER = new StatusCodeBuilder();
+
+  private static final StatusMessageBuilder STATUS_MESSAGE_BUILDER = new StatusMessageBuilder();
+
+  private static final SubjectBuilder SUBJECT_BUILDER = new SubjectBuilder();
+
+  private static final NameIDBuilder NAME_ID_BUILDER = new NameIDBuilder();
+
+  private static final SubjectConfirmationBuilder SUBJECT_CONFIRMATION_BUILDER = new SubjectConfirmationBuilder();
+
+  private static final SubjectConfirmationDataBuilder SUBJECT_CONFIRMATION_DATA_BUILDER = new SubjectConfirmationDataBuilder();
+
+  private static final ConditionsBuilder CONDITIONS_BUILDER = new ConditionsBuilder();
+
+  private static final AudienceRestrictionBuilder AUDIENCE_RESTRICTION_BUILDER = new AudienceRestrictionBuilder();
+
+  private static final AudienceBuilder AUDIENCE_BUILDER = new AudienceBuilder();
+
+  private static final AuthnStatementBuilder AUTHN_STATEMENT_BUILDER = new AuthnStatementBuilder();
+
+  private static final AuthnContextBuilder AUTHN_CONTEXT_BUILDER = new AuthnContextBuilder();
+
+  private static final AuthnContextClassRefBuilder AUTHN_CONTEXT_CLASS_REF_BUILDER = new AuthnContextClassRefBuilder();
+
+  private static final AttributeStatementBuilder ATTRIBUTE_STATEMENT_BUILDER = new AttributeStatementBuilder();
+
+  private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<>();
+
+  private EidasResponseTemplate()
+  {}
+
+  static Response response(String id, String destination, String inResponseTo, Instant issueInstant, String issuer)
+  {
+    Response response = RESPONSE_BUILDER.buildObject();
+    response.setDestination(destination);
+    response.setID(id);
+    response.setInResponseTo(inResponseTo);
+    response.setIssueInstant(issueInstant);
+    response.setIssuer(issuer(issuer));
+    return response;
+  }
+
+  static Assertion assertion(Instant issueInstant, String issuer)
+  {
+    Assertion assertion = ASSERTION_BUILDER.buildObject();
+    assertion.getNamespaceManager()
+             .registerNamespaceDeclaration(new Namespace(EidasConstants.EIDAS_NP_NS,
+                                                         EidasConstants.EIDAS_NP_PREFIX));
+    assertion.setIssueInstant(issueInstant);
+    assertion.setID("_" + Utils.generateUniqueID());
+    assertion.setIssuer(issuer(issuer));
+    return assertion;
+  }
+
+  static Issuer issuer(String value)
+  {
+    Issuer issuer = ISSUER_BUILDER.buildObject();
+    issuer.setValue(value);
+    return issuer;
+  }
+
+  static Status status(String code, String innerCode, String message)
+  {
+    Status status = STATUS_BUILDER.buildObject();
+    StatusCode statusCode = STATUS_CODE_BUILDER.buildObject();
+    statusCode.setValue(code);
+    if (innerCode != null)
+    {
+      StatusCode statusCodeInner = STATUS_CODE_BUILDER.buildObject();
+      statusCodeInner.setValue(innerCode);
+      statusCode.setStatusCode(statusCodeInner);
+    }
+    status.setStatusCode(statusCode);
+    if (message != null)
+    {
+      StatusMessage statusMessage = STATUS_MESSAGE_BUILDER.buildObject();
+      statusMessage.setValue(message);
+      status.setStatusMessage(statusMessage);
+    }
+    return status;
+  }
+
+  static Subject subject(EidasNameId nameId, String inResponseTo, String recipient, Instant now)
+  {
+    Subject subject = SUBJECT_BUILDER.buildObject();
+    NameID nameID = NAME_ID_BUILDER.buildObject();
+    nameID.setValue(nameId.getValue());
+    nameID.setFormat(nameId.getType().getValue());
+    subject.setNameID(nameID);
+
+    SubjectConfirmation subjectConfirmation = SUBJECT_CONFIRMATION_BUILDER.buildObject();
+    subjectConfirmation.setMethod(SubjectConfirmation.METHOD_BEARER);
+    SubjectConfirmationData subjectConfirmationData = SUBJECT_CONFIRMATION_DATA_BUILDER.buildObject();
+    subjectConfirmationData.setInResponseTo(inResponseTo);
+    subjectConfirmationData.setNotBefore(now);
+    subjectConfirmationData.setNotOnOrAfter(now.plus(VALIDITY_MINUTES, ChronoUnit.MINUTES));
+    subjectConfirmationData.setRecipient(recipient);
+
+    subjectConfirmation.setSubjectConfirmationData(subjectConfirmationData);
+    subject.getSubjectConfirmations().add(subjectConfirmation);
+    return subject;
+  }
+
+  static Conditions conditions(String audienceUri, Instant now)
+  {
+    Conditions conditions = CONDITIONS_BUILDER.buildObject();
+    AudienceRestriction audienceRestriction = AUDIENCE_RESTRICTION_BUILDER.buildObject();
+    Audience audience = AUDIENCE_BUILDER.buildObject();
+    audience.setURI(audienceUri);
+    audienceRestriction.getAudiences().add(audience);
+    conditions.getAudienceRestrictions().add(audienceRestriction);
+    conditions.setNotBefore(now);
+    conditions.setNotOnOrAfter(now.plus(VALIDITY_MINUTES, ChronoUnit.MINUTES));
+    return conditions;
+  }
+
+  static AuthnStatement authnStatement(EidasLoaEnum loa, Instant now)
+  {
+    AuthnStatement authnStatement = AUTHN_STATEMENT_BUILDER.buildObject();
+    authnStatement.setAuthnInstant(now);
+    authnStatement.setSessionIndex("_" + Utils.generateUniqueID());
+    AuthnContext authnContext = AUTHN_CONTEXT_BUILDER.buildObject();
+
+    AuthnContextClassRef authnContextClassRef = AUTHN_CONTEXT_CLASS_REF_BUILDER.buildObject();
+    authnContextClassRef.setURI(loa.getUri());
+    authnContext.setAuthnContextClassRef(authnContextClassRef);
+    authnStatement.setAuthnContext(authnContext);
+    return authnStatement;
+  }
+
+  static AttributeStatement attributeStatement()
+  {
+    return ATTRIBUTE_STATEMENT_BUILDER.buildObject();
+  }
+
+  /**
+   * Serialize the given element as UTF-8. The output is not formatted because that would break the signature.
+   */
+  static byte[] toByteArray(Element element) throws TransformerException
+  {
+    Transformer trans = getTransformer();
+    ByteArrayOutputStream bout = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+    try
+    {
+      trans.transform(new DOMSource(element), new StreamResult(bout));
+    }
+    finally
+    {
+      trans.reset();
+      trans.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+    }
+    return bout.toByteArray();
+  }
+
+  private static Transformer getTransformer() throws TransformerConfigurationException
+  {
+    Transformer trans = TRANSFORMER.get();
+    if (trans == null)
+    {
+      trans = Utils.getTransformer();
+      trans.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
+      TRANSFORMER.set(trans);
+    }
+    return trans;
+  }
+}
@@ -57,25 +57,35 @@ import se.swedenconnect.opensaml.OpenSAMLSecurityExtensionConfig;
 public class EidasSaml
 {
 
-  private static boolean isInit = false;
+  private static volatile boolean isInit = false;
 
   /**
-   * Inits the OpenSAML library and the EidasSaml Starterkit library. It is necessary to call this method!
+   * Inits the OpenSAML library and the EidasSaml Starterkit library. It is necessary to call this method! The
+   * middleware calls it at start up, later calls only read a volatile flag and do not lock.
    */
-  public static synchronized void init() throws InitializationException
+  public static void init() throws InitializationException
   {
-    if (!isInit)
+    if (isInit)
     {
-      try
-      {
-        OpenSAMLInitializer.getInstance().initialize(new OpenSAMLSecurityExtensionConfig());
-        XMLObjectProviderRegistrySupport.deregisterObjectProvider(EidasNaturalPersonAttributes.DATE_OF_BIRTH.getQName());
-      }
-      catch (Exception e)
+      return;
+    }
+    synchronized (EidasSaml.class)
+    {
+      if (!isInit)
       {
-        throw new InitializationException("EidasSaml: Can not init OpenSAML", e);
+        try
+        {
+          OpenSAMLInitializer.getInstance().initialize(new OpenSAMLSecurityExtensionConfig());
+          XMLObjectProviderRegistrySupport.deregisterObjectProvider(EidasNaturalPersonAttributes.DATE_OF_BIRTH.getQName());
+          // OpenSAML components use the same hardened parser pool as the starterkit and the middleware
+          XMLObjectProviderRegistrySupport.setParserPool(Utils.getBasicParserPool());
+        }
+        catch (Exception e)
+        {
+          throw new InitializationException("EidasSaml: Can not init OpenSAML", e);
+        }
+        isInit = true;
       }
-      isInit = true;
     }
   }
 
@@ -15,9 +15,16 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 
+import javax.xml.bind.DatatypeConverter;
+
+import org.opensaml.security.x509.BasicX509Credential;
+
+import de.governikus.eumw.eidascommon.CryptoAlgUtil;
 import de.governikus.eumw.eidasstarterkit.XMLSignatureHandler.SigEntryType;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 
@@ -52,6 +59,30 @@ public class EidasSigner
    */
   private final SigEntryType sigType;
 
+  /**
+   * credential used for signing, created once so that the signer can be reused for any number of signatures
+   */
+  @Getter(AccessLevel.PACKAGE)
+  private final BasicX509Credential credential;
+
+  /**
+   * XML signature algorithm identifier matching the key and digest algorithm
+   */
+  @Getter(AccessLevel.PACKAGE)
+  private final String xmlSigAlgId;
+
+  /**
+   * XML digest algorithm identifier
+   */
+  @Getter(AccessLevel.PACKAGE)
+  private final String xmlDigestAlgId;
+
+  /**
+   * base64 encoded signature certificate for the key info
+   */
+  @Getter(AccessLevel.PACKAGE)
+  private final String encodedCert;
+
   private EidasSigner(boolean includeCert, PrivateKey key, X509Certificate cert, String digestAlg)
   {
     if (key == null || cert == null || digestAlg == null)
@@ -63,6 +94,18 @@ public class EidasSigner
     sigKey = key;
     sigCert = cert;
     sigDigestAlg = digestAlg;
+    credential = new BasicX509Credential(cert);
+    credential.setPrivateKey(key);
+    xmlSigAlgId = CryptoAlgUtil.toXmlSigAlgId(digestAlg, key.getAlgorithm());
+    xmlDigestAlgId = CryptoAlgUtil.toXmlDigestAlgId(digestAlg);
+    try
+    {
+      encodedCert = DatatypeConverter.printBase64Binary(cert.getEncoded());
+    }
+    catch (CertificateEncodingException e)
+    {
+      throw new IllegalArgumentException("signature certificate cannot be encoded", e);
+    }
   }
 
   /**
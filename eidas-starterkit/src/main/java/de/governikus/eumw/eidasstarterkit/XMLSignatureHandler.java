@@ -105,34 +105,70 @@ final class XMLSignatureHandler
       throw new IllegalArgumentException("Signature Digest Algorithm must not be null.");
     }
 
-    Signature sig = new SignatureBuilder().buildObject();
     BasicX509Credential credential = new BasicX509Credential(cert);
     credential.setPrivateKey(key);
+    addSignature(signable,
+                 credential,
+                 type == SigEntryType.CERTIFICATE ? DatatypeConverter.printBase64Binary(cert.getEncoded()) : null,
+                 type,
+                 CryptoAlgUtil.toXmlSigAlgId(digestAlg, key.getAlgorithm()),
+                 CryptoAlgUtil.toXmlDigestAlgId(digestAlg));
+  }
+
+  /**
+   * Add a signature to a SignableXMLObject using the credential and algorithms prepared by the signer. Please note
+   * that this adds everything except the signature value itself. Make sure to add that after marshalling the XML
+   * object.
+   *
+   * @param signable object to sign
+   * @param signer holds the signature key and certificate
+   */
+  static void addSignature(SignableXMLObject signable, EidasSigner signer)
+  {
+    if (signer.getSigType() == SigEntryType.NONE)
+    {
+      return;
+    }
+    addSignature(signable,
+                 signer.getCredential(),
+                 signer.getEncodedCert(),
+                 signer.getSigType(),
+                 signer.getXmlSigAlgId(),
+                 signer.getXmlDigestAlgId());
+  }
+
+  private static void addSignature(SignableXMLObject signable,
+                                   BasicX509Credential credential,
+                                   String encodedCert,
+                                   SigEntryType type,
+                                   String sigAlgId,
+                                   String digestAlgId)
+  {
+    Signature sig = new SignatureBuilder().buildObject();
     sig.setSigningCredential(credential);
-    sig.setSignatureAlgorithm(CryptoAlgUtil.toXmlSigAlgId(digestAlg, key.getAlgorithm()));
+    sig.setSignatureAlgorithm(sigAlgId);
     sig.setCanonicalizationAlgorithm(SignatureConstants.ALGO_ID_C14N_EXCL_OMIT_COMMENTS);
     KeyInfo keyInfo = new KeyInfoBuilder().buildObject();
     X509Data x509Data = new X509DataBuilder().buildObject();
     if (type == SigEntryType.CERTIFICATE)
     {
-      addCertificate(cert, x509Data);
+      addCertificate(encodedCert, x509Data);
     }
     else if (type == SigEntryType.ISSUERSERIAL)
     {
-      addIssuerSerial(cert, x509Data);
+      addIssuerSerial(credential.getEntityCertificate(), x509Data);
     }
     keyInfo.getX509Datas().add(x509Data);
     sig.setKeyInfo(keyInfo);
     signable.setSignature(sig);
 
-    ((SAMLObjectContentReference)sig.getContentReferences()
-                                    .get(0)).setDigestAlgorithm(CryptoAlgUtil.toXmlDigestAlgId(digestAlg));
+    ((SAMLObjectContentReference)sig.getContentReferences().get(0)).setDigestAlgorithm(digestAlgId);
   }
 
-  private static void addCertificate(X509Certificate cert, X509Data data) throws CertificateEncodingException
+  private static void addCertificate(String encodedCert, X509Data data)
   {
     org.opensaml.xmlsec.signature.X509Certificate xmlcert = new X509CertificateBuilder().buildObject();
-    xmlcert.setValue(DatatypeConverter.printBase64Binary(cert.getEncoded()));
+    xmlcert.setValue(encodedCert);
     data.getX509Certificates().add(xmlcert);
   }
 
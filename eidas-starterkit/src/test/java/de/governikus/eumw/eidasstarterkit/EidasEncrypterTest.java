@@ -1,9 +1,11 @@
 package de.governikus.eumw.eidasstarterkit;
 
 import java.io.ByteArrayInputStream;
+import java.security.Key;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
@@ -18,6 +20,7 @@ import org.opensaml.saml.saml2.core.AttributeStatement;
 import org.opensaml.saml.saml2.core.Response;
 import org.opensaml.saml.saml2.encryption.Decrypter;
 import org.opensaml.security.credential.CredentialSupport;
+import org.opensaml.xmlsec.encryption.EncryptedData;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -70,7 +73,7 @@ class EidasEncrypterTest
     PrivateKey pk = keypair[0].getKey();
     X509Certificate cert = keypair[0].getCert();
     EidasEncrypter encrypter = new EidasEncrypter(true, cert);
-    Assertions.assertNotNull(encrypter.encrypter);
+    Assertions.assertNotNull(encrypter.createEncrypter());
     EidasSigner signer = new EidasSigner(true, pk, cert);
 
     byte[] response = EidasSaml.createResponse(att,
@@ -110,7 +113,7 @@ class EidasEncrypterTest
     PrivateKey pk = keypair[0].getKey();
     X509Certificate cert = keypair[0].getCert();
     EidasEncrypter encrypter = new EidasEncrypter(true, cert);
-    Assertions.assertNotNull(encrypter.encrypter);
+    Assertions.assertNotNull(encrypter.createEncrypter());
     EidasSigner signer = new EidasSigner(true, pk, cert);
 
     byte[] response = EidasSaml.createResponse(att,
@@ -135,6 +138,43 @@ class EidasEncrypterTest
     Assertions.assertEquals(att.size(), attributeStatements.get(0).getAttributes().size());
   }
 
+  @Test
+  void testEncrypterIsReusable() throws Exception
+  {
+    List<EidasAttribute> att = getEidasAttributes();
+    Utils.X509KeyPair[] keypair = {Utils.readPKCS12(EidasEncrypterTest.class.getResourceAsStream(RSA_KEYSTORE),
+                                                    "123456".toCharArray())};
+    PrivateKey pk = keypair[0].getKey();
+    X509Certificate cert = keypair[0].getCert();
+    EidasEncrypter encrypter = new EidasEncrypter(true, cert);
+    EidasSigner signer = new EidasSigner(true, pk, cert);
+    Decrypter decrypter = new Decrypter(DecryptionUtils.createDecryptionParameters(CredentialSupport.getSimpleCredential(cert,
+                                                                                                                         pk)));
+
+    List<String> symmetricKeys = new ArrayList<>();
+    for ( int i = 0 ; i < 2 ; i++ )
+    {
+      byte[] response = EidasSaml.createResponse(att,
+                                                 "test destination",
+                                                 "test_recipient",
+                                                 new EidasPersistentNameId("eidasnameidTest"),
+                                                 "test issuer",
+                                                 EidasLoaEnum.LOA_SUBSTANTIAL,
+                                                 "test inResponseTo",
+                                                 encrypter,
+                                                 signer);
+      Response samlResponse = getSamlResponse(response);
+      EncryptedData encryptedData = samlResponse.getEncryptedAssertions().get(0).getEncryptedData();
+      Key symmetricKey = decrypter.decryptKey(encryptedData.getKeyInfo().getEncryptedKeys().get(0),
+                                              encryptedData.getEncryptionMethod().getAlgorithm());
+      symmetricKeys.add(Base64.getEncoder().encodeToString(symmetricKey.getEncoded()));
+      Assertion assertion = decrypter.decrypt(samlResponse.getEncryptedAssertions().get(0));
+      Assertions.assertEquals(att.size(), assertion.getAttributeStatements().get(0).getAttributes().size());
+    }
+    // every response must be encrypted with a new symmetric key
+    Assertions.assertNotEquals(symmetricKeys.get(0), symmetricKeys.get(1));
+  }
+
   private List<EidasAttribute> getEidasAttributes()
   {
     BirthNameAttribute birthName = new BirthNameAttribute("Meyer");
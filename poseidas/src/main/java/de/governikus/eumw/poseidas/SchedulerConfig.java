@@ -22,7 +22,7 @@ import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 public class SchedulerConfig implements SchedulingConfigurer
 {
 
-  private static final int POOL_SIZE = 2;
+  private static final int POOL_SIZE = 4;
 
   @Override
   public void configureTasks(ScheduledTaskRegistrar taskRegistrar)
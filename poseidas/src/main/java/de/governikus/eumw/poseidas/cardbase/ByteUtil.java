@@ -10,7 +10,6 @@
 
 package de.governikus.eumw.poseidas.cardbase;
 
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -89,10 +88,9 @@ public final class ByteUtil
     {
       return copy(bytes1);
     }
-    ByteBuffer buffer = ByteBuffer.allocate(bytes1.length + bytes2.length);
-    buffer.put(bytes1);
-    buffer.put(bytes2);
-    return buffer.array();
+    byte[] result = new byte[bytes1.length + bytes2.length];
+    combine(result, 0, bytes1, bytes2);
+    return result;
   }
 
   /**
@@ -119,15 +117,44 @@ public final class ByteUtil
     {
       return Constants.EMPTY_PRIMITIVE_BYTE_ARRAY;
     }
-    ByteBuffer buffer = ByteBuffer.allocate(size);
-    for ( byte[] b : bytes )
+    byte[] result = new byte[size];
+    combine(result, 0, bytes);
+    return result;
+  }
+
+  /**
+   * Combine multiple byte-arrays into a caller-provided array.
+   *
+   * @param dest destination array, <code>null</code> not permitted
+   * @param destOffset index of dest to write first byte to
+   * @param bytes byte-arrays to combine, <code>null</code> or empty array entries permitted and skipped
+   * @return index of dest behind the last written byte
+   * @throws IllegalArgumentException if dest <code>null</code> or too short
+   * @see #combine(byte[][])
+   */
+  public static final int combine(byte[] dest, int destOffset, byte[]... bytes)
+  {
+    if (dest == null)
     {
-      if (b != null && b.length > 0)
+      throw new IllegalArgumentException(DEFAULT_MESSAGE_BYTE_ARRAY_NOT_PERMITTED_AS_NULL);
+    }
+    if (destOffset < 0 || destOffset + count(bytes) > dest.length)
+    {
+      throw new IllegalArgumentException("destination array too short");
+    }
+    int offset = destOffset;
+    if (bytes != null)
+    {
+      for ( byte[] b : bytes )
       {
-        buffer.put(b);
+        if (b != null)
+        {
+          System.arraycopy(b, 0, dest, offset, b.length);
+          offset += b.length;
+        }
       }
     }
-    return buffer.array();
+    return offset;
   }
 
   /**
@@ -136,9 +163,6 @@ public final class ByteUtil
    * @param bytes byte-array
    * @return copied byte-array, <code>null</code> if byte-array <code>null</code> and
    *         {@link Constants#EMPTY_PRIMITIVE_BYTE_ARRAY} if byte-array empty
-   * @see ByteBuffer#allocate(int)
-   * @see ByteBuffer#put(byte[])
-   * @see ByteBuffer#array()
    */
   public static final byte[] copy(byte[] bytes)
   {
@@ -150,9 +174,7 @@ public final class ByteUtil
     {
       return Constants.EMPTY_PRIMITIVE_BYTE_ARRAY;
     }
-    ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
-    buffer.put(bytes);
-    return buffer.array();
+    return bytes.clone();
   }
 
   /**
@@ -251,10 +273,37 @@ public final class ByteUtil
     {
       return Constants.EMPTY_PRIMITIVE_BYTE_ARRAY;
     }
-    ByteBuffer buffer = ByteBuffer.allocate(endIndex - beginIndex);
+    return Arrays.copyOfRange(bytes, beginIndex, endIndex);
+  }
 
-    buffer.put(bytes, beginIndex, endIndex - beginIndex);
-    return buffer.array();
+  /**
+   * Copies the bytes of given byte array between given begin and end index into a caller-provided array.
+   *
+   * @param bytes byte-array, <code>null</code> not permitted
+   * @param beginIndex index to begin sub array, see {@link #subbytes(byte[], int, int)}
+   * @param endIndex index to end sub array, see {@link #subbytes(byte[], int, int)}
+   * @param dest destination array, <code>null</code> not permitted
+   * @param destOffset index of dest to write first byte to
+   * @return index of dest behind the last written byte
+   * @throws IllegalArgumentException if arrays <code>null</code>, indices not permitted or dest too short
+   * @see #subbytes(byte[], int, int)
+   */
+  public static final int subbytes(byte[] bytes, int beginIndex, int endIndex, byte[] dest, int destOffset)
+  {
+    if (bytes == null || dest == null)
+    {
+      throw new IllegalArgumentException(DEFAULT_MESSAGE_BYTE_ARRAY_NOT_PERMITTED_AS_NULL);
+    }
+    if (beginIndex < 0 || endIndex > bytes.length || endIndex < beginIndex)
+    {
+      throw new IllegalArgumentException("indices not permitted");
+    }
+    if (destOffset < 0 || destOffset + endIndex - beginIndex > dest.length)
+    {
+      throw new IllegalArgumentException("destination array too short");
+    }
+    System.arraycopy(bytes, beginIndex, dest, destOffset, endIndex - beginIndex);
+    return destOffset + endIndex - beginIndex;
   }
 
   /**
@@ -321,7 +370,9 @@ public final class ByteUtil
     {
       return arg;
     }
-    return ByteUtil.combine(new byte[]{0}, arg);
+    byte[] result = new byte[arg.length + 1];
+    System.arraycopy(arg, 0, result, 1, arg.length);
+    return result;
   }
 
   /**
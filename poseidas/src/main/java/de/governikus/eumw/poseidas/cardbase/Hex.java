@@ -11,7 +11,6 @@
 package de.governikus.eumw.poseidas.cardbase;
 
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import de.governikus.eumw.poseidas.cardbase.constants.Constants;
@@ -52,6 +51,11 @@ public final class Hex
    */
   private static final int DEFAULT_LINE_SIZE = 16;
 
+  /**
+   * Hex digits by value of nibble.
+   */
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
   /**
    * Hexify a byte value.
    *
@@ -60,7 +64,7 @@ public final class Hex
    */
   public static final String hexify(byte value)
   {
-    return hexify((int)value);
+    return new String(new char[]{DIGITS[(value >> 4) & 0x0f], DIGITS[value & 0x0f]});
   }
 
   /**
@@ -116,25 +120,90 @@ public final class Hex
     {
       return EMPTY_HEXSTRING;
     }
-    StringBuilder tmpBuffer = new StringBuilder();
-    tmpBuffer.append(new BigInteger(1, bytes).toString(16));
-    int l = bytes.length * 2 - tmpBuffer.length();
-    while (l-- > 0)
+    int separatorLength = separator == null ? 0 : separator.length();
+    StringBuilder result = new StringBuilder(bytes.length * (2 + separatorLength));
+    for ( int i = 0 ; i < bytes.length ; i++ )
     {
-      tmpBuffer.insert(0, "0");
+      if (i > 0 && separatorLength > 0)
+      {
+        result.append(separator);
+      }
+      appendHex(result, bytes[i]);
     }
-    if (separator == null || separator.length() == 0)
+    return result.toString();
+  }
+
+  /**
+   * Appends hex representation of a part of a byte[]-array to a buffer without creating intermediate objects.
+   *
+   * @param buffer buffer to append to, <code>null</code> not permitted
+   * @param bytes bytes to be hexified, <code>null</code> not permitted
+   * @param offset index of first byte to hexify
+   * @param length count of bytes to hexify
+   * @return given buffer
+   * @throws IllegalArgumentException if buffer or bytes <code>null</code> or range not within bytes
+   */
+  public static StringBuilder hexify(StringBuilder buffer, byte[] bytes, int offset, int length)
+  {
+    AssertUtil.notNull(buffer, "buffer");
+    AssertUtil.notNull(bytes, "bytes");
+    if (offset < 0 || length < 0 || offset + length > bytes.length)
     {
-      return tmpBuffer.toString();
+      throw new IllegalArgumentException("range not within bytes");
     }
-    StringBuilder resultBuffer = new StringBuilder();
-    for ( int i = 0 ; i < tmpBuffer.length() ; i += 2 )
+    buffer.ensureCapacity(buffer.length() + 2 * length);
+    for ( int i = offset ; i < offset + length ; i++ )
     {
-      resultBuffer.append(tmpBuffer.substring(i, i + 2));
-      resultBuffer.append(separator);
+      appendHex(buffer, bytes[i]);
     }
-    String result = resultBuffer.toString();
-    return result.substring(0, result.length() - separator.length());
+    return buffer;
+  }
+
+  /**
+   * Gets an object creating the hex representation of bytes only when its <code>toString</code> method is called,
+   * intended as parameter of logging methods so nothing is converted for disabled log levels.
+   *
+   * @param bytes bytes to be hexified, <code>null</code> or empty array permitted, not copied
+   * @return object with hex representation as String representation
+   * @see #hexify(byte[])
+   */
+  public static Object lazyHexify(byte[] bytes)
+  {
+    return new Object()
+    {
+
+      @Override
+      public String toString()
+      {
+        return hexify(bytes);
+      }
+    };
+  }
+
+  /**
+   * Gets an object creating the dump of bytes only when its <code>toString</code> method is called, intended as
+   * parameter of logging methods so nothing is converted for disabled log levels.
+   *
+   * @param bytes bytes to be dumped, <code>null</code> or empty array permitted, not copied
+   * @return object with dump as String representation
+   * @see #dump(byte[])
+   */
+  public static Object lazyDump(byte[] bytes)
+  {
+    return new Object()
+    {
+
+      @Override
+      public String toString()
+      {
+        return dump(bytes);
+      }
+    };
+  }
+
+  private static void appendHex(StringBuilder buffer, byte b)
+  {
+    buffer.append(DIGITS[(b >> 4) & 0x0f]).append(DIGITS[b & 0x0f]);
   }
 
   /**
@@ -151,55 +220,38 @@ public final class Hex
       return Constants.EMPTY_PRIMITIVE_BYTE_ARRAY;
     }
     String tmpHexString = cleanString(hexString);
-    BigInteger resultBI = parseBigInteger(tmpHexString);
-    byte[] tmp = null;
-    if (resultBI == null)
+    if (tmpHexString.length() == 0)
     {
       return Constants.EMPTY_PRIMITIVE_BYTE_ARRAY;
     }
-    byte[] resultBytes = resultBI.toByteArray();
-    if (resultBytes.length >= 1 && resultBytes[0] == (byte)0x00 && !tmpHexString.startsWith("00")
-        && resultBytes[1] < 0)
+    if (tmpHexString.length() % 2 != 0)
     {
-      tmp = resultBytes;
-      ByteBuffer bb = ByteBuffer.allocate(tmp.length - 1);
-      bb.put(tmp, 1, tmp.length - 1);
-      resultBytes = bb.array();
+      throw new IllegalArgumentException("String with hex representation expected as String with even length");
     }
-    int byteResultLength = tmpHexString.length() / 2;
-    int byteResultLengthDelta = byteResultLength - resultBytes.length;
-    if (byteResultLengthDelta > 0)
+    byte[] result = new byte[tmpHexString.length() / 2];
+    for ( int i = 0 ; i < result.length ; i++ )
     {
-      ByteBuffer bb = ByteBuffer.allocate(byteResultLength);
-      tmp = new byte[byteResultLengthDelta];
-      Arrays.fill(tmp, (byte)0x00);
-      bb.put(tmp);
-      bb.put(resultBytes);
-      resultBytes = bb.array();
+      result[i] = (byte)((digit(tmpHexString, 2 * i) << 4) | digit(tmpHexString, 2 * i + 1));
     }
-    return resultBytes;
+    return result;
   }
 
   /**
-   * Parses hex-String into a BigInteger.
+   * Gets value of hex digit.
    *
-   * @param hexString hex-String, <code>null</code> or empty String permitted, otherwise only Strings with
-   *          even length permitted, line breaks or white spaces are ignored,
-   * @return positive BigInteger, <code>null</code>, if String <code>null</code> or empty
-   * @throws IllegalArgumentException if hexString has not even length
+   * @param hexString hex-String
+   * @param index index of digit
+   * @return value of digit
+   * @throws NumberFormatException if character at index is no hex digit
    */
-  private static final BigInteger parseBigInteger(String hexString)
+  private static int digit(String hexString, int index)
   {
-    if (hexString == null || hexString.length() == 0)
+    int result = Character.digit(hexString.charAt(index), 16);
+    if (result < 0)
     {
-      return null;
+      throw new NumberFormatException("no hex digit at index " + index + ": " + hexString);
     }
-    String tmpHexString = cleanString(hexString);
-    if (tmpHexString.length() % 2 != 0)
-    {
-      throw new IllegalArgumentException("String with hex representation expected as String with even length");
-    }
-    return new BigInteger(tmpHexString, 16);
+    return result;
   }
 
   /**
@@ -210,6 +262,10 @@ public final class Hex
    */
   private static String cleanString(String src)
   {
+    if (src.indexOf(' ') < 0 && src.indexOf('\n') < 0 && src.indexOf('\r') < 0)
+    {
+      return src;
+    }
     String s1 = src.replace(" ", "");
     String s2 = s1.replace("\n", "");
     return s2.replace("\r", "");
@@ -264,16 +320,17 @@ public final class Hex
       {
         buffer.append(indent);
       }
-      buffer.append(hexify(new byte[]{(byte)(count / 256)}));
-      buffer.append(hexify(new byte[]{(byte)(count % 256)}));
+      appendHex(buffer, (byte)(count / 256));
+      appendHex(buffer, (byte)(count % 256));
       buffer.append(": ");
       for ( int j = 0 ; i * lineSize + j < data.length && j < lineSize ; j++ )
       {
         byte tmp = data[i * lineSize + j];
-        lineBytes.append(hexify(tmp) + " ");
+        appendHex(lineBytes, tmp);
+        lineBytes.append(' ');
         if ((tmp >= 32) && (tmp < 127))
         {
-          lineAsciiBuffer.append(new String(new byte[]{tmp}));
+          lineAsciiBuffer.append((char)tmp);
         }
         else
         {
@@ -282,7 +339,7 @@ public final class Hex
       }
       buffer.append(lineBytes.toString());
       buffer.append(String.copyValueOf(filler, 0, (lineSize * 3) - lineBytes.length()));
-      buffer.append("  " + lineAsciiBuffer.toString() + "\n");
+      buffer.append("  ").append(lineAsciiBuffer).append('\n');
       count += lineSize;
       if (count == data.length)
       {
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.asn1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.governikus.eumw.poseidas.cardbase.AssertUtil;
+
+
+/**
+ * Immutable read-only view of an ASN.1 TLV structure.
+ * <p>
+ * In contrast to {@link ASN1} the bytes are neither copied nor locked: an instance only stores offsets into the
+ * buffer it was parsed from, tags and lengths are plain ints and child elements are parsed on first access. The
+ * buffer must not be modified while views on it are in use.
+ * </p>
+ * <p>
+ * Notice: only definite lengths are supported, tags are limited to four bytes.
+ * </p>
+ *
+ * @see #of(ASN1)
+ * @see #toASN1()
+ */
+public final class TLV
+{
+
+  private final byte[] buffer;
+
+  private final int offset;
+
+  private final int valueOffset;
+
+  private final int length;
+
+  private final int dTag;
+
+  /**
+   * child elements, set on first access, a race only means parsing twice
+   */
+  private volatile List<TLV> children;
+
+  private TLV(byte[] buffer, int offset, int end) throws IOException
+  {
+    this.buffer = buffer;
+    this.offset = offset;
+    int pos = offset;
+    int tag = buffer[pos++] & 0xff;
+    if ((tag & ASN1Constants.TAG_BITS_FIRST_BYTE_MASK) == ASN1Constants.TAG_BITS_FIRST_BYTE_MASK)
+    {
+      int b;
+      do
+      {
+        if (pos >= end)
+        {
+          throw new IOException("tag exceeds available bytes at offset " + offset);
+        }
+        if (pos - offset == 4)
+        {
+          throw new IOException("tag with more than four bytes not supported at offset " + offset);
+        }
+        b = buffer[pos++] & 0xff;
+        tag = (tag << 8) | b;
+      }
+      while ((b & 0x80) != 0);
+    }
+    this.dTag = tag;
+
+    if (pos >= end)
+    {
+      throw new IOException("length missing at offset " + offset);
+    }
+    int len = buffer[pos++] & 0xff;
+    if (len == 0x80)
+    {
+      throw new IOException("undetermined length not supported at offset " + offset);
+    }
+    if (len > 0x80)
+    {
+      int count = len & 0x7f;
+      if (count > 4 || pos + count > end)
+      {
+        throw new IOException("invalid length encoding at offset " + offset);
+      }
+      len = 0;
+      for ( int i = 0 ; i < count ; i++ )
+      {
+        len = (len << 8) | (buffer[pos++] & 0xff);
+      }
+    }
+    if (len < 0 || len > end - pos)
+    {
+      throw new IOException("value exceeds available bytes at offset " + offset);
+    }
+    this.valueOffset = pos;
+    this.length = len;
+  }
+
+  /**
+   * Parses the first TLV structure of the given bytes, the bytes are not copied.
+   *
+   * @param bytes bytes of ASN.1, <code>null</code> or empty not permitted
+   * @return view of the first TLV structure
+   * @throws IOException if the bytes do not start with a valid TLV structure
+   */
+  public static TLV parse(byte[] bytes) throws IOException
+  {
+    AssertUtil.notNullOrEmpty(bytes, "bytes");
+    return new TLV(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Adapter for code still working with {@link ASN1}.
+   *
+   * @param asn1 ASN.1 object, <code>null</code> not permitted
+   * @return view of the encoded ASN.1 object
+   * @throws IOException if the ASN.1 object can not be viewed as TLV, e.g. because of an undetermined length
+   */
+  public static TLV of(ASN1 asn1) throws IOException
+  {
+    AssertUtil.notNull(asn1, "ASN.1");
+    return parse(asn1.getEncoded());
+  }
+
+  /**
+   * Adapter for code still working with {@link ASN1}.
+   *
+   * @return new {@link ASN1} object of the encoded bytes of this view
+   * @throws IOException if creating the {@link ASN1} object fails
+   */
+  public ASN1 toASN1() throws IOException
+  {
+    return new ASN1(getEncoded());
+  }
+
+  /**
+   * Gets description and tag as int, e.g. <code>0x7f21</code> for a CV certificate.
+   *
+   * @return description and tag
+   */
+  public int getDTag()
+  {
+    return dTag;
+  }
+
+  /**
+   * Checks the tag is constructed.
+   *
+   * @return <code>true</code>, if constructed
+   */
+  public boolean isConstructed()
+  {
+    return (buffer[offset] & 0x20) != 0;
+  }
+
+  /**
+   * Checks the tag is a universal sequence.
+   *
+   * @return <code>true</code>, if sequence
+   */
+  public boolean isSequence()
+  {
+    return dTag == 0x30;
+  }
+
+  /**
+   * Checks the tag is a universal set.
+   *
+   * @return <code>true</code>, if set
+   */
+  public boolean isSet()
+  {
+    return dTag == 0x31;
+  }
+
+  /**
+   * Checks the tag is universal.
+   *
+   * @return <code>true</code>, if universal
+   */
+  public boolean isUniversal()
+  {
+    return (buffer[offset] & ASN1Constants.TAG_CLASS_MASK) == ASN1Constants.TAG_CLASS_UNIVERSAL;
+  }
+
+  /**
+   * Checks the tag is context specific.
+   *
+   * @return <code>true</code>, if context specific
+   */
+  public boolean isContextSpecific()
+  {
+    return (buffer[offset] & ASN1Constants.TAG_CLASS_MASK) == ASN1Constants.TAG_CLASS_CONTEXT_SPECIFIC;
+  }
+
+  /**
+   * Gets length of value.
+   *
+   * @return length
+   */
+  public int getLength()
+  {
+    return length;
+  }
+
+  /**
+   * Gets length of the whole encoding including tag and length bytes.
+   *
+   * @return encoded length
+   */
+  public int getEncodedLength()
+  {
+    return valueOffset - offset + length;
+  }
+
+  /**
+   * Gets value bytes.
+   *
+   * @return copy of value bytes
+   */
+  public byte[] getValue()
+  {
+    byte[] result = new byte[length];
+    System.arraycopy(buffer, valueOffset, result, 0, length);
+    return result;
+  }
+
+  /**
+   * Gets value without copying.
+   *
+   * @return read-only buffer of the value bytes
+   */
+  public ByteBuffer getValueBuffer()
+  {
+    return ByteBuffer.wrap(buffer, valueOffset, length).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Compares value bytes without copying.
+   *
+   * @param value bytes to compare, <code>null</code> not permitted
+   * @return <code>true</code>, if the value bytes equal the given bytes
+   */
+  public boolean valueEquals(byte[] value)
+  {
+    AssertUtil.notNull(value, "value");
+    if (value.length != length)
+    {
+      return false;
+    }
+    for ( int i = 0 ; i < length ; i++ )
+    {
+      if (buffer[valueOffset + i] != value[i])
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets byte[]-array encoded representation.
+   *
+   * @return copy of encoded bytes
+   */
+  public byte[] getEncoded()
+  {
+    byte[] result = new byte[getEncodedLength()];
+    System.arraycopy(buffer, offset, result, 0, result.length);
+    return result;
+  }
+
+  /**
+   * Gets child elements, only constructed elements have children.
+   *
+   * @return unmodifiable list of child elements
+   * @throws IOException if the value is not a valid sequence of TLV structures
+   */
+  public List<TLV> getChildElements() throws IOException
+  {
+    List<TLV> result = children;
+    if (result == null)
+    {
+      result = parseChildren();
+      children = result;
+    }
+    return result;
+  }
+
+  /**
+   * Gets first child element with given description and tag.
+   *
+   * @param childDTag description and tag of child
+   * @return child element, <code>null</code> if not found
+   * @throws IOException if the value is not a valid sequence of TLV structures
+   */
+  public TLV getChildElement(int childDTag) throws IOException
+  {
+    for ( TLV child : getChildElements() )
+    {
+      if (child.dTag == childDTag)
+      {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  private List<TLV> parseChildren() throws IOException
+  {
+    if (!isConstructed())
+    {
+      return Collections.emptyList();
+    }
+    List<TLV> result = new ArrayList<>();
+    int end = valueOffset + length;
+    int pos = valueOffset;
+    while (pos < end)
+    {
+      TLV child = new TLV(buffer, pos, end);
+      result.add(child);
+      pos += child.getEncodedLength();
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "TLV " + Integer.toHexString(dTag) + ", length " + length;
+  }
+}
@@ -12,7 +12,6 @@ package de.governikus.eumw.poseidas.cardbase.asn1.npa;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -250,8 +249,7 @@ public class CertificateDescription extends AbstractASN1Encoder
     AssertUtil.notNull(cd, "certificate description");
 
     OID oid = new OID(rootCert.getChildElementByPath(ECCVCPath.PUBLIC_KEY_OID).getEncoded());
-    MessageDigest md = DigestUtil.getDigestByOID(oid);
-    return md.digest(cd.getEncoded());
+    return DigestUtil.digestByOID(oid, cd.getEncoded());
   }
 
   public String getIssuerName()
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+/**
+ * Reusable {@link MessageDigest} instances for the SHA algorithms, one instance per algorithm and thread.
+ * <p>
+ * Resolving a digest through the JCA provider list on every hash is comparatively expensive, so each thread
+ * keeps its own instance. The instances are never handed out: a hash is computed within a single call of
+ * {@link #digest(byte[]...)}, which resets the instance first. So nested use on the same thread is no problem.
+ * </p>
+ *
+ * @see HashConstants
+ */
+public enum DigestPool
+{
+
+  /**
+   * SHA-1.
+   */
+  SHA1(HashConstants.SHA1_JCE_NAME),
+  /**
+   * SHA-224.
+   */
+  SHA224(HashConstants.SHA224_JCE_NAME),
+  /**
+   * SHA-256.
+   */
+  SHA256(HashConstants.SHA256_JCE_NAME),
+  /**
+   * SHA-384.
+   */
+  SHA384(HashConstants.SHA384_JCE_NAME),
+  /**
+   * SHA-512.
+   */
+  SHA512(HashConstants.SHA512_JCE_NAME);
+
+  private final String jceName;
+
+  private final ThreadLocal<MessageDigest> digests;
+
+  DigestPool(String jceName)
+  {
+    this.jceName = jceName;
+    this.digests = ThreadLocal.withInitial(() -> newInstance(jceName));
+  }
+
+  /**
+   * Gets the pool for a JCE algorithm name.
+   *
+   * @param jceName JCE name of the algorithm, e.g. <code>SHA-256</code>, <code>null</code> not permitted
+   * @return pool, <code>null</code> if the algorithm is not pooled
+   */
+  public static DigestPool forName(String jceName)
+  {
+    for ( DigestPool pool : values() )
+    {
+      if (pool.jceName.equalsIgnoreCase(jceName))
+      {
+        return pool;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Hashes with the given algorithm, using the pooled instance if the algorithm is pooled.
+   *
+   * @param jceName JCE name of the algorithm, <code>null</code> not permitted
+   * @param segments data to be hashed, in the given order, <code>null</code> segments are skipped
+   * @return hash
+   * @throws NoSuchAlgorithmException if the algorithm is not pooled and not available
+   */
+  public static byte[] digest(String jceName, byte[]... segments) throws NoSuchAlgorithmException
+  {
+    DigestPool pool = forName(jceName);
+    if (pool != null)
+    {
+      return pool.digest(segments);
+    }
+    return digest(MessageDigest.getInstance(jceName), segments);
+  }
+
+  /**
+   * Gets JCE name of the algorithm.
+   *
+   * @return JCE name
+   */
+  public String getJceName()
+  {
+    return jceName;
+  }
+
+  /**
+   * Hashes the concatenation of the given segments without concatenating them.
+   *
+   * @param segments data to be hashed, in the given order, <code>null</code> segments are skipped
+   * @return hash
+   */
+  public byte[] digest(byte[]... segments)
+  {
+    MessageDigest md = digests.get();
+    md.reset();
+    return digest(md, segments);
+  }
+
+  /**
+   * Creates a new instance, e.g. for callers which have to keep a digest.
+   *
+   * @return new instance
+   */
+  public MessageDigest newInstance()
+  {
+    try
+    {
+      return (MessageDigest)digests.get().clone();
+    }
+    catch (CloneNotSupportedException e)
+    {
+      return newInstance(jceName);
+    }
+  }
+
+  private static byte[] digest(MessageDigest md, byte[]... segments)
+  {
+    for ( byte[] segment : segments )
+    {
+      if (segment != null)
+      {
+        md.update(segment);
+      }
+    }
+    return md.digest();
+  }
+
+  private static MessageDigest newInstance(String jceName)
+  {
+    try
+    {
+      return MessageDigest.getInstance(jceName);
+    }
+    catch (NoSuchAlgorithmException e)
+    {
+      // every Java platform provides the SHA algorithms
+      throw new IllegalStateException(jceName + " not available", e);
+    }
+  }
+}
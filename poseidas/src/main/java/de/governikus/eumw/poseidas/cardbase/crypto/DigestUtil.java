@@ -27,21 +27,49 @@ public final class DigestUtil
    * Gets {@link MessageDigest} instance by OID.
    *
    * @param oid OID of signature algorithm or hash algorithm, <code>null</code> not permitted
-   * @return appropriate {@link MessageDigest} instance, if available
+   * @return new {@link MessageDigest} instance owned by the caller
    * @throws IllegalArgumentException if given OID <code>null</code> or unknown
    * @throws NoSuchAlgorithmException if algorithm unknown
    * @see OIDConstants
+   * @see #digestByOID(OID, byte[]...)
+   */
+  public static MessageDigest getDigestByOID(OID oid) throws NoSuchAlgorithmException
+  {
+    return getDigestPoolByOID(oid).newInstance();
+  }
+
+  /**
+   * Hashes data with the algorithm indicated by OID using a pooled {@link MessageDigest} instance.
+   *
+   * @param oid OID of signature algorithm or hash algorithm, <code>null</code> not permitted
+   * @param segments data to be hashed, in the given order, <code>null</code> segments are skipped
+   * @return hash
+   * @throws IllegalArgumentException if given OID <code>null</code> or unknown
+   * @see DigestPool
+   */
+  public static byte[] digestByOID(OID oid, byte[]... segments)
+  {
+    return getDigestPoolByOID(oid).digest(segments);
+  }
+
+  /**
+   * Gets {@link DigestPool} by OID.
+   *
+   * @param oid OID of signature algorithm or hash algorithm, <code>null</code> not permitted
+   * @return appropriate {@link DigestPool}
+   * @throws IllegalArgumentException if given OID <code>null</code> or unknown
+   * @see OIDConstants
    * @see #getSHA1Digest(OID)
    * @see #getSHA224Digest(OID)
    * @see #getSHA256Digest(OID)
    * @see #getSHA384Digest(OID)
    * @see #getSHA512Digest(OID)
    */
-  public static MessageDigest getDigestByOID(OID oid) throws NoSuchAlgorithmException
+  public static DigestPool getDigestPoolByOID(OID oid)
   {
     AssertUtil.notNull(oid, "OID");
 
-    MessageDigest md = getSHA1Digest(oid);
+    DigestPool md = getSHA1Digest(oid);
     if (md != null)
     {
       return md;
@@ -70,99 +98,94 @@ public final class DigestUtil
   }
 
   /**
-   * Gets MessageDigest in case use of SHA1 indicated in OID.
+   * Gets DigestPool in case use of SHA1 indicated in OID.
    *
    * @param oid oid
-   * @return MessageDigest, <code>null</code> for SHA1 not used
-   * @throws NoSuchAlgorithmException if MessageDigest can not be instantiated
+   * @return digest pool, <code>null</code> for SHA1 not used
    * @see HashAlgorithmEnum#SHA1
    */
-  private static MessageDigest getSHA1Digest(OID oid) throws NoSuchAlgorithmException
+  private static DigestPool getSHA1Digest(OID oid)
   {
-    MessageDigest md = null;
+    DigestPool md = null;
     if (oid.equals(OIDConstants.OID_TA_ECDSA_SHA_1) || oid.equals(OIDConstants.OID_TA_RSA_PSS_SHA_1)
         || oid.equals(OIDConstants.OID_TA_RSA_V1_5_SHA_1) || oid.equals(OIDConstants.OID_RI_ECDH_SHA_1)
         || oid.equals(OIDConstants.OID_RI_DH_SHA_1) || oid.equals(HashAlgorithmEnum.SHA1.getOID()))
     {
-      md = MessageDigest.getInstance("SHA-1");
+      md = DigestPool.SHA1;
     }
     return md;
   }
 
   /**
-   * Gets MessageDigest in case use of SHA224 indicated in OID.
+   * Gets DigestPool in case use of SHA224 indicated in OID.
    *
    * @param oid oid
-   * @return MessageDigest, <code>null</code> for SHA224 not used
-   * @throws NoSuchAlgorithmException if MessageDigest can not be instantiated
+   * @return digest pool, <code>null</code> for SHA224 not used
    * @see HashAlgorithmEnum#SHA224
    */
-  private static MessageDigest getSHA224Digest(OID oid) throws NoSuchAlgorithmException
+  private static DigestPool getSHA224Digest(OID oid)
   {
-    MessageDigest md = null;
+    DigestPool md = null;
     if (oid.equals(OIDConstants.OID_TA_ECDSA_SHA_224) || oid.equals(OIDConstants.OID_RI_ECDH_SHA_224)
         || oid.equals(OIDConstants.OID_RI_DH_SHA_224) || oid.equals(HashAlgorithmEnum.SHA224.getOID()))
     {
-      md = MessageDigest.getInstance("SHA-224");
+      md = DigestPool.SHA224;
     }
     return md;
   }
 
   /**
-   * Gets MessageDigest in case use of SHA256 indicated in OID.
+   * Gets DigestPool in case use of SHA256 indicated in OID.
    *
    * @param oid oid
-   * @return MessageDigest, <code>null</code> for SHA256 not used
-   * @throws NoSuchAlgorithmException if MessageDigest can not be instantiated
+   * @return digest pool, <code>null</code> for SHA256 not used
    * @see HashAlgorithmEnum#SHA256
    */
-  private static MessageDigest getSHA256Digest(OID oid) throws NoSuchAlgorithmException
+  private static DigestPool getSHA256Digest(OID oid)
   {
-    MessageDigest md = null;
+    DigestPool md = null;
     if (oid.equals(OIDConstants.OID_TA_ECDSA_SHA_256) || oid.equals(OIDConstants.OID_TA_RSA_PSS_SHA_256)
         || oid.equals(OIDConstants.OID_TA_RSA_V1_5_SHA_256) || oid.equals(OIDConstants.OID_RI_ECDH_SHA_256)
         || oid.equals(OIDConstants.OID_RI_DH_SHA_256) || oid.equals(OIDConstants.OID_PSA_ECDH_ECSCHNORR_SHA256)
         || oid.equals(OIDConstants.OID_PSC_ECDH_ECSCHNORR_SHA256)
         || oid.equals(OIDConstants.OID_PSM_ECDH_ECSCHNORR_SHA256) || oid.equals(HashAlgorithmEnum.SHA256.getOID()))
     {
-      md = MessageDigest.getInstance("SHA-256");
+      md = DigestPool.SHA256;
     }
     return md;
   }
 
   /**
-   * Gets MessageDigest in case use of SHA384 indicated in OID.
+   * Gets DigestPool in case use of SHA384 indicated in OID.
    *
    * @param oid oid
-   * @return MessageDigest, <code>null</code> for SHA384 not used
-   * @throws NoSuchAlgorithmException if MessageDigest can not be instantiated
+   * @return digest pool, <code>null</code> for SHA384 not used
    * @see HashAlgorithmEnum#SHA384
    */
-  private static MessageDigest getSHA384Digest(OID oid) throws NoSuchAlgorithmException
+  private static DigestPool getSHA384Digest(OID oid)
   {
-    MessageDigest md = null;
+    DigestPool md = null;
     if (oid.equals(HashAlgorithmEnum.SHA384.getOID()) || oid.equals(OIDConstants.OID_TA_ECDSA_SHA_384)
         || oid.equals(OIDConstants.OID_RI_ECDH_SHA_384) || oid.equals(OIDConstants.OID_RI_DH_SHA_384)
         || oid.equals(OIDConstants.OID_PSA_ECDH_ECSCHNORR_SHA384)
         || oid.equals(OIDConstants.OID_PSC_ECDH_ECSCHNORR_SHA384)
         || oid.equals(OIDConstants.OID_PSM_ECDH_ECSCHNORR_SHA384))
     {
-      md = MessageDigest.getInstance("SHA-384");
+      md = DigestPool.SHA384;
     }
     return md;
   }
 
   /**
-   * Gets MessageDigest in case use of SHA512 indicated in OID.
+   * Gets DigestPool in case use of SHA512 indicated in OID.
    *
    * @param oid oid
-   * @return MessageDigest, <code>null</code> for SHA512 not used
-   * @throws NoSuchAlgorithmException if MessageDigest can not be instantiated
+   * @return digest pool, <code>null</code> for SHA512 not used
    * @see HashAlgorithmEnum#SHA512
    */
-  private static MessageDigest getSHA512Digest(OID oid) throws NoSuchAlgorithmException
+  private static DigestPool getSHA512Digest(OID oid)
   {
-    MessageDigest md = null;
+    DigestPool md = null;
     if (oid.equals(HashAlgorithmEnum.SHA512.getOID()) || oid.equals(OIDConstants.OID_TA_ECDSA_SHA_512)
         || oid.equals(OIDConstants.OID_TA_RSA_PSS_SHA_512) || oid.equals(OIDConstants.OID_TA_RSA_V1_5_SHA_512)
         || oid.equals(OIDConstants.OID_RI_ECDH_SHA_512) || oid.equals(OIDConstants.OID_RI_DH_SHA_512)
@@ -170,7 +193,7 @@ public final class DigestUtil
         || oid.equals(OIDConstants.OID_PSC_ECDH_ECSCHNORR_SHA512)
         || oid.equals(OIDConstants.OID_PSM_ECDH_ECSCHNORR_SHA512))
     {
-      md = MessageDigest.getInstance("SHA-512");
+      md = DigestPool.SHA512;
     }
     return md;
   }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECParameterSpec;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.governikus.eumw.poseidas.cardbase.AssertUtil;
+import de.governikus.eumw.poseidas.cardbase.crypto.DigestPool;
+
+
+/**
+ * {@link CvcSignatureVerifier} remembering successful verifications. The same CVCA and DV certificates are checked
+ * again for every terminal certificate of a chain, this verifier does the EC calculation only once for each
+ * combination of issuer key, hash algorithm, signed data and signature. Failed verifications are not remembered.
+ */
+public final class CachingCvcSignatureVerifier implements CvcSignatureVerifier
+{
+
+  /**
+   * maximum number of remembered verifications, when exceeded all entries are dropped
+   */
+  private static final int MAX_ENTRIES = 1024;
+
+  private static final CachingCvcSignatureVerifier INSTANCE = new CachingCvcSignatureVerifier(DIRECT);
+
+  private final CvcSignatureVerifier delegate;
+
+  private final Set<ByteBuffer> verified = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor.
+   *
+   * @param delegate verifier doing the actual verification, <code>null</code> not permitted
+   */
+  CachingCvcSignatureVerifier(CvcSignatureVerifier delegate)
+  {
+    AssertUtil.notNull(delegate, "delegate");
+    this.delegate = delegate;
+  }
+
+  /**
+   * @return instance shared by the whole application
+   */
+  public static CachingCvcSignatureVerifier getInstance()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public boolean verify(byte[] signature, byte[] signedData, ECPublicKey publicKey, String mdAlg)
+    throws NoSuchAlgorithmException
+  {
+    AssertUtil.notNullOrEmpty(signature, "signature");
+    AssertUtil.notNull(signedData, "signed data");
+    AssertUtil.notNull(publicKey, "public key");
+    AssertUtil.notNull(mdAlg, "digest algorithm");
+
+    ByteBuffer key = cacheKey(signature, signedData, publicKey, mdAlg);
+    if (verified.contains(key))
+    {
+      return true;
+    }
+    boolean result = delegate.verify(signature, signedData, publicKey, mdAlg);
+    if (result)
+    {
+      if (verified.size() >= MAX_ENTRIES)
+      {
+        verified.clear();
+      }
+      verified.add(key);
+    }
+    return result;
+  }
+
+  /**
+   * Forgets all remembered verifications.
+   */
+  void clear()
+  {
+    verified.clear();
+  }
+
+  private static ByteBuffer cacheKey(byte[] signature, byte[] signedData, ECPublicKey publicKey, String mdAlg)
+  {
+    ECParameterSpec params = publicKey.getParams();
+    byte[][] values = {mdAlg.getBytes(StandardCharsets.UTF_8),
+                       ((ECFieldFp)params.getCurve().getField()).getP().toByteArray(),
+                       params.getCurve().getA().toByteArray(), params.getCurve().getB().toByteArray(),
+                       params.getGenerator().getAffineX().toByteArray(),
+                       params.getGenerator().getAffineY().toByteArray(), params.getOrder().toByteArray(),
+                       publicKey.getW().getAffineX().toByteArray(), publicKey.getW().getAffineY().toByteArray(),
+                       signedData, signature};
+    // each value is preceded by its length, so that different splits of the same bytes give different keys
+    byte[][] segments = new byte[2 * values.length][];
+    for ( int i = 0 ; i < values.length ; i++ )
+    {
+      segments[2 * i] = ByteBuffer.allocate(Integer.BYTES).putInt(values[i].length).array();
+      segments[2 * i + 1] = values[i];
+    }
+    return ByteBuffer.wrap(DigestPool.SHA256.digest(segments));
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+
+
+/**
+ * Verifies the ECDSA signatures of card verifiable certificates.
+ */
+@FunctionalInterface
+public interface CvcSignatureVerifier
+{
+
+  /**
+   * Verifier doing the complete calculation on every call.
+   */
+  CvcSignatureVerifier DIRECT = ECMath::verifySignature;
+
+  /**
+   * Verifies a signature.
+   *
+   * @param signature raw signature, no ASN.1 structure, <code>null</code> or empty not permitted
+   * @param signedData data which was signed, <code>null</code> not permitted
+   * @param publicKey public key of signer, <code>null</code> not permitted
+   * @param mdAlg hash algorithm used in signing, <code>null</code> not permitted
+   * @return <code>true</code> in case of signature verified successfully, <code>false</code> otherwise
+   * @throws IllegalArgumentException if any argument <code>null</code> or signature empty
+   * @throws NoSuchAlgorithmException if given digest algorithm unknown
+   */
+  boolean verify(byte[] signature, byte[] signedData, ECPublicKey publicKey, String mdAlg)
+    throws NoSuchAlgorithmException;
+}
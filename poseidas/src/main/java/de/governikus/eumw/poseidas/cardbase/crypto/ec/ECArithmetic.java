@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.math.BigInteger;
+import java.security.spec.ECPoint;
+
+
+/**
+ * Point arithmetic on a curve y^2 = x^3 + ax + b over Fp using Jacobian coordinates (X, Y, Z) representing the affine
+ * point (X/Z^2, Y/Z^3). Additions and doublings need no inversion, only the conversion of the final result back to
+ * affine coordinates does.
+ * <p>
+ * </p>
+ * Scalars which are not secret, as in signature verification, are processed in width-w NAF form. Secret scalars are
+ * processed by a Montgomery ladder performing the same sequence of operations for every scalar of a curve, the bits
+ * of the scalar only decide a swap of the two ladder points done with masks. Note that
+ * {@link BigInteger} itself does not run in constant time, so this only removes the obvious data dependent
+ * branches.
+ */
+final class ECArithmetic
+{
+
+  /**
+   * window width of the NAF representation of public scalars
+   */
+  private static final int WINDOW = 4;
+
+  private static final BigInteger TWO = BigInteger.valueOf(2);
+
+  private static final BigInteger THREE = BigInteger.valueOf(3);
+
+  private static final BigInteger FOUR = BigInteger.valueOf(4);
+
+  private static final BigInteger EIGHT = BigInteger.valueOf(8);
+
+  private final BigInteger a;
+
+  private final BigInteger prime;
+
+  /**
+   * Constructor
+   *
+   * @param a first coefficient (domain parameters)
+   * @param prime prime integer (domain parameters)
+   */
+  ECArithmetic(BigInteger a, BigInteger prime)
+  {
+    this.a = a.mod(prime);
+    this.prime = prime;
+  }
+
+  /**
+   * Multiplies a point with a scalar which is not secret.
+   *
+   * @param p point
+   * @param k scalar, must be positive
+   * @return k * p in affine coordinates
+   */
+  ECPoint multiply(ECPoint p, BigInteger k)
+  {
+    return toAffine(multiply(fromAffine(p), k));
+  }
+
+  /**
+   * Multiplies a point of the given order with a secret scalar.
+   *
+   * @param p point
+   * @param k scalar, must be positive
+   * @param order order of the point
+   * @return k * p in affine coordinates
+   */
+  ECPoint multiplySecret(ECPoint p, BigInteger k, BigInteger order)
+  {
+    // add the order so that the number of ladder steps does not depend on the length of the scalar
+    BigInteger fixed = k.add(order);
+    if (fixed.bitLength() <= order.bitLength())
+    {
+      fixed = fixed.add(order);
+    }
+    byte[] bits = fixed.toByteArray();
+    JacobianPoint[] r = {fromAffine(p), null};
+    r[1] = twice(r[0]);
+    for ( int i = fixed.bitLength() - 2 ; i >= 0 ; i-- )
+    {
+      // invariant r1 = r0 + p, for a set bit the roles of r0 and r1 are exchanged
+      int bit = (bits[bits.length - 1 - i / 8] >> (i % 8)) & 1;
+      conditionalSwap(r, bit);
+      r[1] = add(r[0], r[1]);
+      r[0] = twice(r[0]);
+      conditionalSwap(r, bit);
+    }
+    return toAffine(r[0]);
+  }
+
+  /**
+   * Exchanges the two points if the bit is set, combining the coordinates with masks instead of branching on the
+   * bit.
+   */
+  private void conditionalSwap(JacobianPoint[] pair, int bit)
+  {
+    int mask = -bit;
+    byte[][] first = {toBytes(pair[0].x), toBytes(pair[0].y), toBytes(pair[0].z)};
+    byte[][] second = {toBytes(pair[1].x), toBytes(pair[1].y), toBytes(pair[1].z)};
+    for ( int c = 0 ; c < first.length ; c++ )
+    {
+      for ( int b = 0 ; b < first[c].length ; b++ )
+      {
+        int t = (first[c][b] ^ second[c][b]) & mask;
+        first[c][b] ^= t;
+        second[c][b] ^= t;
+      }
+    }
+    pair[0] = new JacobianPoint(new BigInteger(1, first[0]), new BigInteger(1, first[1]),
+                                new BigInteger(1, first[2]));
+    pair[1] = new JacobianPoint(new BigInteger(1, second[0]), new BigInteger(1, second[1]),
+                                new BigInteger(1, second[2]));
+  }
+
+  /**
+   * Encodes a field element unsigned with the length of the prime, so that the encoding does not reveal its size.
+   */
+  byte[] toBytes(BigInteger value)
+  {
+    int length = (prime.bitLength() + 7) / 8;
+    byte[] bytes = value.toByteArray();
+    byte[] result = new byte[length];
+    int count = Math.min(bytes.length, length);
+    System.arraycopy(bytes, bytes.length - count, result, length - count, count);
+    return result;
+  }
+
+  JacobianPoint multiply(JacobianPoint p, BigInteger k)
+  {
+    if (p.isInfinity() || k.signum() == 0)
+    {
+      return JacobianPoint.INFINITY;
+    }
+    JacobianPoint[] table = oddMultiples(p, 1 << (WINDOW - 2));
+    int[] naf = windowNaf(k, WINDOW);
+    JacobianPoint result = JacobianPoint.INFINITY;
+    for ( int i = naf.length - 1 ; i >= 0 ; i-- )
+    {
+      result = twice(result);
+      result = addDigit(result, table, naf[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Computes k * p + l * q for scalars which are not secret. Both NAFs are processed in one pass (Straus/Shamir), so
+   * the doublings are shared.
+   */
+  JacobianPoint multiplyAndAdd(JacobianPoint p, BigInteger k, JacobianPoint q, BigInteger l)
+  {
+    if (p.isInfinity() || k.signum() == 0)
+    {
+      return multiply(q, l);
+    }
+    if (q.isInfinity() || l.signum() == 0)
+    {
+      return multiply(p, k);
+    }
+    JacobianPoint[] tableP = oddMultiples(p, 1 << (WINDOW - 2));
+    JacobianPoint[] tableQ = oddMultiples(q, 1 << (WINDOW - 2));
+    int[] nafK = windowNaf(k, WINDOW);
+    int[] nafL = windowNaf(l, WINDOW);
+    JacobianPoint result = JacobianPoint.INFINITY;
+    for ( int i = Math.max(nafK.length, nafL.length) - 1 ; i >= 0 ; i-- )
+    {
+      result = twice(result);
+      if (i < nafK.length)
+      {
+        result = addDigit(result, tableP, nafK[i]);
+      }
+      if (i < nafL.length)
+      {
+        result = addDigit(result, tableQ, nafL[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Adds d * p to the given point, the table containing the odd multiples of p.
+   */
+  JacobianPoint addDigit(JacobianPoint q, JacobianPoint[] table, int digit)
+  {
+    if (digit > 0)
+    {
+      return add(q, table[digit >> 1]);
+    }
+    if (digit < 0)
+    {
+      return add(q, negate(table[(-digit) >> 1]));
+    }
+    return q;
+  }
+
+  /**
+   * Computes p, 3p, 5p, ... in affine form (Z = 1), so that additions with them are cheaper.
+   */
+  JacobianPoint[] oddMultiples(JacobianPoint p, int count)
+  {
+    JacobianPoint[] table = new JacobianPoint[count];
+    table[0] = p;
+    if (count > 1)
+    {
+      JacobianPoint twoP = twice(p);
+      for ( int i = 1 ; i < count ; i++ )
+      {
+        table[i] = add(table[i - 1], twoP);
+      }
+    }
+    return normalize(table);
+  }
+
+  /**
+   * Computes the width-w NAF of a positive scalar, least significant digit first. Every non zero digit is odd and
+   * smaller than 2^(w-1) in absolute value.
+   */
+  static int[] windowNaf(BigInteger k, int width)
+  {
+    int[] naf = new int[k.bitLength() + 1];
+    int modulus = 1 << width;
+    int mask = modulus - 1;
+    BigInteger rest = k;
+    int length = 0;
+    while (rest.signum() > 0)
+    {
+      int digit = 0;
+      if (rest.testBit(0))
+      {
+        digit = rest.intValue() & mask;
+        if (digit >= modulus >> 1)
+        {
+          digit -= modulus;
+        }
+        rest = rest.subtract(BigInteger.valueOf(digit));
+      }
+      naf[length++] = digit;
+      rest = rest.shiftRight(1);
+    }
+    int[] result = new int[length];
+    System.arraycopy(naf, 0, result, 0, length);
+    return result;
+  }
+
+  JacobianPoint fromAffine(ECPoint p)
+  {
+    if (ECPoint.POINT_INFINITY.equals(p))
+    {
+      return JacobianPoint.INFINITY;
+    }
+    return new JacobianPoint(p.getAffineX(), p.getAffineY(), BigInteger.ONE);
+  }
+
+  ECPoint toAffine(JacobianPoint p)
+  {
+    if (p.isInfinity())
+    {
+      return ECPoint.POINT_INFINITY;
+    }
+    if (p.z.equals(BigInteger.ONE))
+    {
+      return new ECPoint(p.x, p.y);
+    }
+    BigInteger zInv = p.z.modInverse(prime);
+    BigInteger zInv2 = mul(zInv, zInv);
+    return new ECPoint(mul(p.x, zInv2), mul(p.y, mul(zInv2, zInv)));
+  }
+
+  /**
+   * Converts all points to Z = 1 using a single inversion (Montgomery's trick).
+   */
+  JacobianPoint[] normalize(JacobianPoint[] points)
+  {
+    int n = points.length;
+    BigInteger[] products = new BigInteger[n];
+    BigInteger acc = BigInteger.ONE;
+    for ( int i = 0 ; i < n ; i++ )
+    {
+      products[i] = acc;
+      if (!points[i].isInfinity())
+      {
+        acc = mul(acc, points[i].z);
+      }
+    }
+    BigInteger inv = acc.modInverse(prime);
+    JacobianPoint[] result = new JacobianPoint[n];
+    for ( int i = n - 1 ; i >= 0 ; i-- )
+    {
+      JacobianPoint p = points[i];
+      if (p.isInfinity())
+      {
+        result[i] = p;
+        continue;
+      }
+      BigInteger zInv = mul(inv, products[i]);
+      inv = mul(inv, p.z);
+      BigInteger zInv2 = mul(zInv, zInv);
+      result[i] = new JacobianPoint(mul(p.x, zInv2), mul(p.y, mul(zInv2, zInv)), BigInteger.ONE);
+    }
+    return result;
+  }
+
+  JacobianPoint negate(JacobianPoint p)
+  {
+    if (p.isInfinity())
+    {
+      return p;
+    }
+    return new JacobianPoint(p.x, prime.subtract(p.y).mod(prime), p.z);
+  }
+
+  JacobianPoint twice(JacobianPoint p)
+  {
+    if (p.isInfinity() || p.y.signum() == 0)
+    {
+      return JacobianPoint.INFINITY;
+    }
+    BigInteger yy = mul(p.y, p.y);
+    BigInteger s = mul(FOUR.multiply(p.x), yy);
+    BigInteger zz = mul(p.z, p.z);
+    BigInteger m = THREE.multiply(mul(p.x, p.x)).add(mul(a, mul(zz, zz))).mod(prime);
+    BigInteger x3 = mul(m, m).subtract(TWO.multiply(s)).mod(prime);
+    BigInteger y3 = mul(m, s.subtract(x3)).subtract(EIGHT.multiply(mul(yy, yy))).mod(prime);
+    BigInteger z3 = mul(TWO.multiply(p.y), p.z);
+    return new JacobianPoint(x3, y3, z3);
+  }
+
+  JacobianPoint add(JacobianPoint p, JacobianPoint q)
+  {
+    if (p.isInfinity())
+    {
+      return q;
+    }
+    if (q.isInfinity())
+    {
+      return p;
+    }
+    BigInteger u1 = p.x;
+    BigInteger s1 = p.y;
+    if (!q.z.equals(BigInteger.ONE))
+    {
+      BigInteger z2z2 = mul(q.z, q.z);
+      u1 = mul(p.x, z2z2);
+      s1 = mul(p.y, mul(q.z, z2z2));
+    }
+    BigInteger u2 = q.x;
+    BigInteger s2 = q.y;
+    if (!p.z.equals(BigInteger.ONE))
+    {
+      BigInteger z1z1 = mul(p.z, p.z);
+      u2 = mul(q.x, z1z1);
+      s2 = mul(q.y, mul(p.z, z1z1));
+    }
+    BigInteger h = u2.subtract(u1).mod(prime);
+    BigInteger r = s2.subtract(s1).mod(prime);
+    if (h.signum() == 0)
+    {
+      return r.signum() == 0 ? twice(p) : JacobianPoint.INFINITY;
+    }
+    BigInteger hh = mul(h, h);
+    BigInteger hhh = mul(h, hh);
+    BigInteger v = mul(u1, hh);
+    BigInteger x3 = mul(r, r).subtract(hhh).subtract(TWO.multiply(v)).mod(prime);
+    BigInteger y3 = mul(r, v.subtract(x3)).subtract(mul(s1, hhh)).mod(prime);
+    BigInteger z3 = mul(mul(p.z, q.z), h);
+    return new JacobianPoint(x3, y3, z3);
+  }
+
+  private BigInteger mul(BigInteger x, BigInteger y)
+  {
+    return x.multiply(y).mod(prime);
+  }
+
+  /**
+   * Point in Jacobian coordinates, Z = 0 represents the point at infinity.
+   */
+  static final class JacobianPoint
+  {
+
+    static final JacobianPoint INFINITY = new JacobianPoint(BigInteger.ONE, BigInteger.ONE, BigInteger.ZERO);
+
+    final BigInteger x;
+
+    final BigInteger y;
+
+    final BigInteger z;
+
+    JacobianPoint(BigInteger x, BigInteger y, BigInteger z)
+    {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+    }
+
+    boolean isInfinity()
+    {
+      return z.signum() == 0;
+    }
+  }
+}
@@ -12,7 +12,6 @@ package de.governikus.eumw.poseidas.cardbase.crypto.ec;
 
 import java.math.BigInteger;
 import java.security.KeyPair;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.interfaces.ECPrivateKey;
@@ -23,6 +22,7 @@ import java.security.spec.ECPoint;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
 import de.governikus.eumw.poseidas.cardbase.ByteUtil;
+import de.governikus.eumw.poseidas.cardbase.crypto.DigestPool;
 
 
 /**
@@ -57,15 +57,11 @@ public final class ECMath
 
     BigInteger a = pub.getParams().getCurve().getA();
     BigInteger prime = ((ECFieldFp)pub.getParams().getCurve().getField()).getP();
-    return multiplyECPoint(pub.getW(), priv.getS(), a, prime);
+    return new ECArithmetic(a, prime).multiplySecret(pub.getW(), priv.getS(), pub.getParams().getOrder());
   }
 
   /**
    * Generates a KeyPair using given parameter spec.
-   * <p>
-   * </p>
-   * Note: to be removed as soon as Java provides (usable) own implementation. This version is actually not
-   * especially efficient.
    *
    * @param spec parameter specification, <code>null</code> not permitted
    * @return generated keypair
@@ -83,17 +79,25 @@ public final class ECMath
       d = new BigInteger(nbl, sr);
     }
     while (BigInteger.ZERO.equals(d) || d.compareTo(n) >= 0);
-    ECPoint g = spec.getGenerator();
-    ECPoint q = multiplyECPoint(g, d, spec.getCurve().getA(), ((ECFieldFp)spec.getCurve().getField()).getP());
+    FixedBaseTable table = FixedBaseTable.forSpec(spec);
+    ECPoint q;
+    if (table == null)
+    {
+      BigInteger a = spec.getCurve().getA();
+      BigInteger prime = ((ECFieldFp)spec.getCurve().getField()).getP();
+      q = new ECArithmetic(a, prime).multiplySecret(spec.getGenerator(), d, n);
+    }
+    else
+    {
+      q = table.multiply(d);
+    }
     return new KeyPair(new ECPublicKeyImpl(q, spec), new ECPrivateKeyImpl(d, spec));
   }
 
   /**
-   * Multiplies an {@link ECPoint} with a {@link BigInteger} factor.
-   * <p>
-   * </p>
-   * Note: to be removed as soon as Java provides (usable) own implementation. This version is actually not
-   * especially efficient.
+   * Multiplies an {@link ECPoint} with a {@link BigInteger} factor. The factor is not treated as a secret, use
+   * {@link #calcSharedSecret(ECPrivateKey, ECPublicKey)} or {@link #generateKeyPair(ECParameterSpec)} for
+   * calculations with private keys.
    *
    * @param p point, <code>null</code> not permitted
    * @param factor factor, <code>null</code> not permitted, must be positive
@@ -116,16 +120,7 @@ public final class ECMath
     {
       return p;
     }
-    ECPoint result = p;
-    for ( int i = factor.bitLength() - 2 ; i >= 0 ; i-- )
-    {
-      result = doubleECPoint(result, a, prime);
-      if (factor.testBit(i))
-      {
-        result = addECPoints(result, p, a, prime);
-      }
-    }
-    return result;
+    return new ECArithmetic(a, prime).multiply(p, factor);
   }
 
   /**
@@ -213,8 +208,7 @@ public final class ECMath
   }
 
   /**
-   * Verifies EC signature. (Note: not tuned for efficiency, to be replaced as soon as Java provides own
-   * usable implementation.)
+   * Verifies EC signature.
    *
    * @param signature raw signature, no ASN.1 structure, <code>null</code> or empty not permitted
    * @param signedData data which was signed, <code>null</code> not permitted
@@ -244,22 +238,31 @@ public final class ECMath
       return false;
     }
 
-    MessageDigest md = MessageDigest.getInstance(mdAlg);
-    byte[] digest = md.digest(signedData);
+    byte[] digest = DigestPool.digest(mdAlg, signedData);
 
     BigInteger sInv = s.modInverse(n);
 
-    BigInteger u1 = sInv.multiply(os2i(digest)).mod(n);
+    // SEC 1: only the leftmost bits of a hash longer than the order are used
+    BigInteger e = os2i(digest);
+    if (digest.length * 8 > n.bitLength())
+    {
+      e = e.shiftRight(digest.length * 8 - n.bitLength());
+    }
+    BigInteger u1 = sInv.multiply(e).mod(n);
     BigInteger u2 = sInv.multiply(r).mod(n);
 
     BigInteger a = pubKey.getParams().getCurve().getA();
     BigInteger prime = ((ECFieldFp)pubKey.getParams().getCurve().getField()).getP();
 
-    ECPoint q1 = multiplyECPoint(pubKey.getParams().getGenerator(), u1, a, prime);
-    ECPoint q2 = multiplyECPoint(pubKey.getW(), u2, a, prime);
-    ECPoint q = addECPoints(q1, q2, a, prime);
+    ECArithmetic arithmetic = new ECArithmetic(a, prime);
+    ECArithmetic.JacobianPoint g = arithmetic.fromAffine(pubKey.getParams().getGenerator());
+    ECPoint q = arithmetic.toAffine(arithmetic.multiplyAndAdd(g, u1, arithmetic.fromAffine(pubKey.getW()), u2));
+    if (ECPoint.POINT_INFINITY.equals(q))
+    {
+      return false;
+    }
 
-    BigInteger v = q.getAffineX();
+    BigInteger v = q.getAffineX().mod(n);
     return v.equals(r);
   }
 
@@ -12,12 +12,16 @@ package de.governikus.eumw.poseidas.cardbase.crypto.ec;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.interfaces.ECPublicKey;
 import java.security.spec.ECField;
 import java.security.spec.ECFieldFp;
 import java.security.spec.ECParameterSpec;
 import java.security.spec.ECPoint;
 import java.security.spec.EllipticCurve;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
 import de.governikus.eumw.poseidas.cardbase.ByteUtil;
@@ -37,6 +41,12 @@ import lombok.NoArgsConstructor;
 
 /**
  * Utilities for EC parameter specifications.
+ * <p>
+ * Parameter specifications are interned: the same curve values always give the same {@link ECParameterSpec}
+ * instance, for the standardized curves the one from {@link SecurityInfos#getDomainParameterMap()}. Explicit
+ * domain parameters given as {@link AlgorithmIdentifier} are additionally cached by their encoding, so they are
+ * parsed only once.
+ * </p>
  *
  * @author Arne Stahlbock, ast@bos-bremen.de
  * @author Jens Wothe, jw@bos-bremen.de
@@ -45,6 +55,25 @@ import lombok.NoArgsConstructor;
 public class ECUtil
 {
 
+  /**
+   * maximum number of cached explicit parameter specifications, when exceeded the caches are cleared
+   */
+  private static final int MAX_CACHED_SPECS = 32;
+
+  private static final Map<List<BigInteger>, ECParameterSpec> STANDARDIZED_SPECS = new ConcurrentHashMap<>();
+
+  private static final Map<List<BigInteger>, ECParameterSpec> INTERNED_SPECS = new ConcurrentHashMap<>();
+
+  private static final Map<ByteBuffer, ECParameterSpec> SPECS_BY_ENCODING = new ConcurrentHashMap<>();
+
+  static
+  {
+    for ( ECParameterSpec spec : SecurityInfos.getDomainParameterMap().values() )
+    {
+      STANDARDIZED_SPECS.putIfAbsent(curveValues(spec), spec);
+    }
+  }
+
   /**
    * Builds {@link ECParameterSpec} object using the different variants of domain parameter information
    * structures contained in EF.CardAccess.
@@ -91,6 +120,12 @@ public class ECUtil
     {
       throw new IllegalArgumentException("algorithm identifier does not contain explicit EC domain parameters");
     }
+    ByteBuffer encoding = ByteBuffer.wrap(ai.getEncoded());
+    ECParameterSpec cached = SPECS_BY_ENCODING.get(encoding);
+    if (cached != null)
+    {
+      return cached;
+    }
 
     ASN1 params = ai.getParameters();
     BigInteger primeModulus = new BigInteger(ByteUtil.addLeadingZero(params.getChildElementsByTag(0x30)[0].getChildElementsByTag(0x02)[0].getValue()));
@@ -100,12 +135,18 @@ public class ECUtil
     BigInteger orderOfBasePoint = new BigInteger(ByteUtil.addLeadingZero(params.getChildElementsByTag(0x02)[1].getValue()));
     BigInteger cofactor = new BigInteger(ByteUtil.addLeadingZero(params.getChildElementsByTag(0x02)[2].getValue()));
 
-    return buildParameterSpec(primeModulus,
-                              firstCoefficient,
-                              secondCoefficient,
-                              pointBytes,
-                              orderOfBasePoint,
-                              cofactor);
+    ECParameterSpec spec = buildParameterSpec(primeModulus,
+                                              firstCoefficient,
+                                              secondCoefficient,
+                                              pointBytes,
+                                              orderOfBasePoint,
+                                              cofactor);
+    if (SPECS_BY_ENCODING.size() >= MAX_CACHED_SPECS)
+    {
+      SPECS_BY_ENCODING.clear();
+    }
+    SPECS_BY_ENCODING.put(encoding, spec);
+    return spec;
   }
 
   /**
@@ -191,12 +232,39 @@ public class ECUtil
     AssertUtil.notNull(orderOfBasePoint, "order of base point");
     AssertUtil.notNull(cofactor, "cofactor");
 
-    ECField field = new ECFieldFp(primeModulus);
-    EllipticCurve curve = new EllipticCurve(field, firstCoefficient, secondCoefficient);
-
     ECPoint point = ECMath.pointFromBytes(pointBytes, primeModulus.bitLength() / 8);
+    List<BigInteger> values = List.of(primeModulus,
+                                      firstCoefficient,
+                                      secondCoefficient,
+                                      point.getAffineX(),
+                                      point.getAffineY(),
+                                      orderOfBasePoint,
+                                      BigInteger.valueOf(cofactor.intValue()));
+    ECParameterSpec standardized = STANDARDIZED_SPECS.get(values);
+    if (standardized != null)
+    {
+      return standardized;
+    }
+    if (INTERNED_SPECS.size() >= MAX_CACHED_SPECS)
+    {
+      INTERNED_SPECS.clear();
+    }
+    return INTERNED_SPECS.computeIfAbsent(values, k -> {
+      ECField field = new ECFieldFp(primeModulus);
+      EllipticCurve curve = new EllipticCurve(field, firstCoefficient, secondCoefficient);
+      return new ECParameterSpec(curve, point, orderOfBasePoint, cofactor.intValue());
+    });
+  }
 
-    return new ECParameterSpec(curve, point, orderOfBasePoint, cofactor.intValue());
+  private static List<BigInteger> curveValues(ECParameterSpec spec)
+  {
+    return List.of(((ECFieldFp)spec.getCurve().getField()).getP(),
+                   spec.getCurve().getA(),
+                   spec.getCurve().getB(),
+                   spec.getGenerator().getAffineX(),
+                   spec.getGenerator().getAffineY(),
+                   spec.getOrder(),
+                   BigInteger.valueOf(spec.getCofactor()));
   }
 
   /**
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.math.BigInteger;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.SecurityInfos;
+import de.governikus.eumw.poseidas.cardbase.crypto.ec.ECArithmetic.JacobianPoint;
+
+
+/**
+ * Precomputed multiples of the base point of a standardized curve. The scalar is recoded to 4 bit windows with odd
+ * digits d in -15..15, none of them zero, so for every window i the table holds |d| * 16^i * G for the eight odd
+ * values of |d|. A multiplication of G needs one addition per window and no doubling at all.
+ * <p>
+ * </p>
+ * As the scalar is a private key, every multiplication performs the same sequence of additions, and every table
+ * entry of a window is read to select the one needed, combining them with masks instead of indexing by the digit.
+ * Note that {@link BigInteger} itself does not run in constant time, see {@link ECArithmetic}.
+ * <p>
+ * </p>
+ * Tables exist only for the domain parameters of {@link SecurityInfos#getDomainParameterMap()} and are built once
+ * when the class is initialized, so parameters supplied by a card never cause tables to be built. Other curves use
+ * {@link ECArithmetic#multiplySecret(ECPoint, BigInteger, BigInteger)}.
+ */
+final class FixedBaseTable
+{
+
+  private static final int WIDTH = 4;
+
+  /**
+   * number of odd digit values per window
+   */
+  private static final int ENTRIES_PER_WINDOW = 1 << (WIDTH - 1);
+
+  private static final Map<List<BigInteger>, FixedBaseTable> TABLES;
+
+  static
+  {
+    Map<List<BigInteger>, FixedBaseTable> tables = new HashMap<>();
+    for ( ECParameterSpec spec : SecurityInfos.getDomainParameterMap().values() )
+    {
+      tables.computeIfAbsent(key(spec), k -> new FixedBaseTable(spec));
+    }
+    TABLES = Collections.unmodifiableMap(tables);
+  }
+
+  private final ECArithmetic arithmetic;
+
+  private final BigInteger prime;
+
+  private final BigInteger order;
+
+  private final int length;
+
+  private final int windows;
+
+  private final byte[][] xs;
+
+  private final byte[][] ys;
+
+  private final byte[][] negatedYs;
+
+  private FixedBaseTable(ECParameterSpec spec)
+  {
+    this.prime = ((ECFieldFp)spec.getCurve().getField()).getP();
+    this.order = spec.getOrder();
+    this.arithmetic = new ECArithmetic(spec.getCurve().getA(), prime);
+    this.length = (prime.bitLength() + 7) / 8;
+    // one more window than the order needs, the recoding may carry into it
+    this.windows = (order.bitLength() + WIDTH - 1) / WIDTH + 1;
+    JacobianPoint[] points = new JacobianPoint[windows * ENTRIES_PER_WINDOW];
+    JacobianPoint base = arithmetic.fromAffine(spec.getGenerator());
+    for ( int i = 0 ; i < windows ; i++ )
+    {
+      int offset = i * ENTRIES_PER_WINDOW;
+      JacobianPoint twoBase = arithmetic.twice(base);
+      points[offset] = base;
+      for ( int j = 1 ; j < ENTRIES_PER_WINDOW ; j++ )
+      {
+        points[offset + j] = arithmetic.add(points[offset + j - 1], twoBase);
+      }
+      // 15 * base + base
+      base = arithmetic.add(points[offset + ENTRIES_PER_WINDOW - 1], base);
+    }
+    JacobianPoint[] normalized = arithmetic.normalize(points);
+    this.xs = new byte[normalized.length][];
+    this.ys = new byte[normalized.length][];
+    this.negatedYs = new byte[normalized.length][];
+    for ( int i = 0 ; i < normalized.length ; i++ )
+    {
+      xs[i] = arithmetic.toBytes(normalized[i].x);
+      ys[i] = arithmetic.toBytes(normalized[i].y);
+      negatedYs[i] = arithmetic.toBytes(prime.subtract(normalized[i].y));
+    }
+  }
+
+  private static List<BigInteger> key(ECParameterSpec spec)
+  {
+    ECPoint generator = spec.getGenerator();
+    return List.of(((ECFieldFp)spec.getCurve().getField()).getP(),
+                   spec.getCurve().getA(),
+                   generator.getAffineX(),
+                   generator.getAffineY(),
+                   spec.getOrder());
+  }
+
+  /**
+   * Gets the table for the base point of the given parameters.
+   *
+   * @param spec parameters containing curve of Fp type
+   * @return table, <code>null</code> if the parameters are not standardized
+   */
+  static FixedBaseTable forSpec(ECParameterSpec spec)
+  {
+    if (!(spec.getCurve().getField() instanceof ECFieldFp))
+    {
+      return null;
+    }
+    return TABLES.get(key(spec));
+  }
+
+  /**
+   * Multiplies the base point with a secret scalar.
+   *
+   * @param k scalar, must be positive and smaller than the order
+   * @return k * G in affine coordinates
+   */
+  ECPoint multiply(BigInteger k)
+  {
+    if (k.signum() <= 0 || k.compareTo(order) >= 0)
+    {
+      throw new IllegalArgumentException("factor out of range");
+    }
+    // the recoding needs an odd scalar, for even k compute (n - k) * G = -(k * G) instead
+    int even = 1 - (k.intValue() & 1);
+    BigInteger odd = k.add(order.subtract(k.shiftLeft(1)).multiply(BigInteger.valueOf(even)));
+    int[] digits = new int[windows];
+    BigInteger rest = odd;
+    for ( int i = 0 ; i < windows - 1 ; i++ )
+    {
+      // odd digit in -15..15, the remaining scalar stays odd
+      digits[i] = (rest.intValue() & ((1 << (WIDTH + 1)) - 1)) - (1 << WIDTH);
+      rest = rest.subtract(BigInteger.valueOf(digits[i])).shiftRight(WIDTH);
+    }
+    digits[windows - 1] = rest.intValue();
+
+    JacobianPoint result = select(0, digits[0]);
+    for ( int i = 1 ; i < windows ; i++ )
+    {
+      result = arithmetic.add(result, select(i, digits[i]));
+    }
+    ECPoint affine = arithmetic.toAffine(result);
+    byte[] y = arithmetic.toBytes(affine.getAffineY());
+    byte[] negatedY = arithmetic.toBytes(prime.subtract(affine.getAffineY()));
+    int mask = -even;
+    for ( int b = 0 ; b < length ; b++ )
+    {
+      y[b] = (byte)((y[b] & ~mask) | (negatedY[b] & mask));
+    }
+    return new ECPoint(affine.getAffineX(), new BigInteger(1, y));
+  }
+
+  /**
+   * Gets d * 16^window * G, reading all entries of the window.
+   */
+  private JacobianPoint select(int window, int digit)
+  {
+    int sign = digit >> 31;
+    int index = ((digit ^ sign) - sign) >> 1;
+    byte[] x = new byte[length];
+    byte[] y = new byte[length];
+    for ( int j = 0 ; j < ENTRIES_PER_WINDOW ; j++ )
+    {
+      int mask = ((j ^ index) - 1) >> 31;
+      int entry = window * ENTRIES_PER_WINDOW + j;
+      for ( int b = 0 ; b < length ; b++ )
+      {
+        x[b] |= xs[entry][b] & mask;
+        y[b] |= ((ys[entry][b] & ~sign) | (negatedYs[entry][b] & sign)) & mask;
+      }
+    }
+    return new JacobianPoint(new BigInteger(1, x), new BigInteger(1, y), BigInteger.ONE);
+  }
+}
@@ -10,12 +10,10 @@
 
 package de.governikus.eumw.poseidas.cardbase.crypto.kdf;
 
-import java.security.MessageDigest;
-
 import javax.crypto.SecretKey;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
-import de.governikus.eumw.poseidas.cardbase.ByteUtil;
+import de.governikus.eumw.poseidas.cardbase.crypto.DigestPool;
 
 
 /**
@@ -43,20 +41,20 @@ public abstract class AbstractKeyDerivationFunction
   static final byte[] KDF_PI = new byte[]{0x00, 0x00, 0x00, 0x03};
 
   /**
-   * Digest instance.
+   * Digest algorithm, instances are taken from the pool on each derivation.
    */
-  private final MessageDigest digest;
+  private final DigestPool digest;
 
   /**
    * Constructor.
    *
-   * @param digest digest, <code>null</code> not permitted
+   * @param digest digest algorithm, <code>null</code> not permitted
    * @throws IllegalArgumentException if digest <code>null</code>
    */
-  AbstractKeyDerivationFunction(MessageDigest digest)
+  AbstractKeyDerivationFunction(DigestPool digest)
   {
     super();
-    AssertUtil.notNull(digest, "MessageDigest");
+    AssertUtil.notNull(digest, "digest");
     this.digest = digest;
   }
 
@@ -77,13 +75,7 @@ public abstract class AbstractKeyDerivationFunction
       throw new IllegalArgumentException("c must be 4 bytes");
     }
 
-    byte[] kInt = k;
-    if (r != null)
-    {
-      kInt = ByteUtil.combine(kInt, r);
-    }
-    kInt = ByteUtil.combine(kInt, c);
-    return this.digest.digest(kInt);
+    return this.digest.digest(k, r, c);
   }
 
   /**
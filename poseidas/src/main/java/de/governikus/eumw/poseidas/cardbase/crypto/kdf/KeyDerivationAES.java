@@ -10,13 +10,13 @@
 
 package de.governikus.eumw.poseidas.cardbase.crypto.kdf;
 
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
+import de.governikus.eumw.poseidas.cardbase.crypto.DigestPool;
 
 
 /**
@@ -48,7 +48,7 @@ class KeyDerivationAES extends AbstractKeyDerivationFunction implements KeyDeriv
   {
     // keyLength == 128: use SHA1
     // keyLength == 192 || keyLength == 256: use SHA 256
-    super(keyLength == 128 ? MessageDigest.getInstance("SHA-1") : MessageDigest.getInstance("SHA-256"));
+    super(keyLength == 128 ? DigestPool.SHA1 : DigestPool.SHA256);
     if (keyLength != 128 && keyLength != 192 && keyLength != 256)
     {
       throw new IllegalArgumentException("value " + keyLength + " for keyLength not accepted");
@@ -196,7 +196,7 @@ public class AESSecureMessaging implements SecureMessaging
       {
         if (tag >= 0x61 && tag <= 0x76)
         {
-          log.warn("Error 6419: data object {}", Hex.hexify(child.getEncoded()));
+          log.warn("Error 6419: data object {}", Hex.lazyHexify(child.getEncoded()));
         }
         throw new SecureMessagingException(SecureMessagingException.CODE_SOFTWARE, "unrecognized DO at response", null);
       }
@@ -271,10 +271,20 @@ public class AESSecureMessaging implements SecureMessaging
 
   private byte[] createMacDO(byte[] secureHeaderBytes, byte[] cryptogramDOBytes, byte[] neDOBytes)
   {
-    byte[] macData = ByteUtil.combine(new byte[][]{secureHeaderBytes, cryptogramDOBytes, neDOBytes});
+    int length = secureHeaderBytes.length + (cryptogramDOBytes == null ? 0 : cryptogramDOBytes.length)
+                 + (neDOBytes == null ? 0 : neDOBytes.length);
+    byte[] macData;
     if (!ArrayUtil.isNullOrEmpty(cryptogramDOBytes) || !ArrayUtil.isNullOrEmpty(neDOBytes))
     {
-      macData = pad(macData);
+      // combine and ISO pad into a single buffer, trailing pad bytes are zero already
+      macData = new byte[(length / CipherUtil.AES_IV_LENGTH + 1) * CipherUtil.AES_IV_LENGTH];
+      int end = ByteUtil.combine(macData, 0, secureHeaderBytes, cryptogramDOBytes, neDOBytes);
+      macData[end] = SMConstants.PAD_BYTE_LEADING_ISO;
+    }
+    else
+    {
+      macData = new byte[length];
+      ByteUtil.combine(macData, 0, secureHeaderBytes, cryptogramDOBytes, neDOBytes);
     }
     byte[] cMac = this.cMac(macData);
     ASN1 result = new ASN1(SMConstants.TAG_BYTE_DO_CRYPTOGRPAHIC_CHECKSUM, cMac);
@@ -320,7 +330,9 @@ public class AESSecureMessaging implements SecureMessaging
       ASN1 result;
       if (command.getINS() % 2 == 0)
       {
-        byte[] paddedCryptogram = ByteUtil.combine(new byte[]{SMConstants.PADDING_INDICATOR_BYTE_ISO}, cryptogram);
+        byte[] paddedCryptogram = new byte[cryptogram.length + 1];
+        paddedCryptogram[0] = SMConstants.PADDING_INDICATOR_BYTE_ISO;
+        System.arraycopy(cryptogram, 0, paddedCryptogram, 1, cryptogram.length);
         result = new ASN1(SMConstants.TAG_BYTE_DO_CRYPTOGRAM, paddedCryptogram);
       }
       else
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardserver.eac.functions.batch;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.governikus.eumw.poseidas.cardbase.AssertUtil;
+import iso.std.iso_iec._24727.tech.schema.InputAPDUInfoType;
+
+
+/**
+ * Cache for plaintext command lists of a {@link Batch}. Sessions asking the card for the same things send the same
+ * plaintext commands, only the secure messaging applied by the {@link Batch} differs. The cached lists are shared
+ * between sessions, so neither the lists nor the contained {@link InputAPDUInfoType} instances may be modified.
+ */
+public class CommandTemplateCache
+{
+
+  /**
+   * maximum number of cached command lists, when exceeded all entries are dropped
+   */
+  private static final int MAX_TEMPLATES = 256;
+
+  private final Map<Object, List<InputAPDUInfoType>> templates = new ConcurrentHashMap<>();
+
+  /**
+   * Gets a cached command list.
+   *
+   * @param key key describing the commands, <code>null</code> not permitted
+   * @return unmodifiable command list or <code>null</code> if nothing is cached for the key
+   */
+  public List<InputAPDUInfoType> get(Object key)
+  {
+    AssertUtil.notNull(key, "key");
+    return templates.get(key);
+  }
+
+  /**
+   * Caches a command list.
+   *
+   * @param key key describing the commands, must implement equals and hashCode by value, <code>null</code> not
+   *          permitted
+   * @param commands plaintext commands, <code>null</code> or empty not permitted, must not be modified afterwards
+   * @return the unmodifiable list now cached for the key
+   */
+  public List<InputAPDUInfoType> put(Object key, List<InputAPDUInfoType> commands)
+  {
+    AssertUtil.notNull(key, "key");
+    AssertUtil.notNullOrEmpty(commands, "commands");
+    if (templates.size() >= MAX_TEMPLATES)
+    {
+      templates.clear();
+    }
+    List<InputAPDUInfoType> template = Collections.unmodifiableList(commands);
+    List<InputAPDUInfoType> previous = templates.putIfAbsent(key, template);
+    return previous == null ? template : previous;
+  }
+
+  /**
+   * Drops all cached command lists.
+   */
+  public void clear()
+  {
+    templates.clear();
+  }
+}
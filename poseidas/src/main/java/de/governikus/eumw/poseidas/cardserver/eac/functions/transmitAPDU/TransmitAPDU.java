@@ -81,7 +81,10 @@ public class TransmitAPDU implements FunctionStep<TransmitAPDUParameter, Transmi
     for ( InputAPDUInfoType inputAPDU : parameter.getCommandList() )
     {
       CommandAPDU cmd = new CommandAPDU(inputAPDU.getInputAPDU());
-      LOG.debug("Command to be sent to card:\n" + Hex.dump(cmd.getBytes()));
+      if (LOG.isDebugEnabled())
+      {
+        LOG.debug("Command to be sent to card:\n" + Hex.dump(cmd.getBytes()));
+      }
       commands.add(cmd);
     }
     this.cc = new CardCommunicationImpl(commands.toArray(new CommandAPDU[0]));
@@ -132,7 +135,10 @@ public class TransmitAPDU implements FunctionStep<TransmitAPDUParameter, Transmi
         for ( ResponseAPDU r : plainResponses )
         {
           byte[] respBytes = r.getBytes();
-          LOG.debug("Response from card:\n" + Hex.dump(respBytes));
+          if (LOG.isDebugEnabled())
+          {
+            LOG.debug("Response from card:\n" + Hex.dump(respBytes));
+          }
           rByteList.add(respBytes);
         }
       }
@@ -22,6 +22,7 @@ import java.security.SignatureException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.security.spec.ECParameterSpec;
 import java.security.spec.InvalidKeySpecException;
 import java.util.ArrayList;
 import java.util.List;
@@ -191,13 +192,11 @@ public class EACServer
     this.paceInfo = InfoSelector.selectPACEInfo(paceInfoList);
     OID protocol = this.caData.getCaDomParamInfo().getProtocol();
     KeyHandler kh = null;
+    ECParameterSpec caParamSpec = null;
     if (protocol.equals(OIDConstants.OID_CA_ECDH))
     {
-      kh = new KeyHandlerEC(ECUtil.parameterSpecFromDomainParameters(this.caData.getCaDomParamInfo())
-                                  .getCurve()
-                                  .getField()
-                                  .getFieldSize()
-                            / 8);
+      caParamSpec = ECUtil.parameterSpecFromDomainParameters(this.caData.getCaDomParamInfo());
+      kh = new KeyHandlerEC(caParamSpec.getCurve().getField().getFieldSize() / 8);
     }
     else
     {
@@ -206,7 +205,7 @@ public class EACServer
     }
 
     // generate key pair
-    this.ephemeralTACAKeys = kh.generateKeyPair(this.caData.getCaDomParamInfo());
+    this.ephemeralTACAKeys = kh.generateKeyPair(caParamSpec);
     LOG.debug("Generated key pair, public part: "
               + Hex.hexify(this.ephemeralTACAKeys.getPublic().getEncoded()));
     byte[] compressedKey = kh.compressKey(this.ephemeralTACAKeys.getPublic());
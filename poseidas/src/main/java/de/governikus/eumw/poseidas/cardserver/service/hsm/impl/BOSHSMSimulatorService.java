@@ -27,7 +27,9 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
 import de.governikus.eumw.poseidas.cardbase.asn1.OID;
@@ -48,6 +50,12 @@ public class BOSHSMSimulatorService implements HSMService
    */
   private final LocalCertAndKeyProvider lcakp = LocalCertAndKeyProvider.getInstance();
 
+  /**
+   * {@link Signature} instances of the current thread by OID of the signature algorithm, avoiding the provider
+   * lookup for every signature.
+   */
+  private final ThreadLocal<Map<String, Signature>> signatures = ThreadLocal.withInitial(HashMap::new);
+
   /**
    * Single instance.
    */
@@ -110,15 +118,34 @@ public class BOSHSMSimulatorService implements HSMService
     AssertUtil.notNull(sigAlgOID, "OID for signature algorithm");
     AssertUtil.notNullOrEmpty(data, "data to be signed");
 
-    byte[] keyBytes = this.lcakp.getKeyByHolder(alias);
-    PrivateKey privSignKey = buildPrivateKey(keyBytes);
+    PrivateKey privSignKey = this.lcakp.getPrivateKeyByHolder(alias);
+    AssertUtil.notNull(privSignKey, "key for alias");
 
-    Signature signature = SignatureUtil.createSignature(sigAlgOID);
+    Signature signature = getSignature(sigAlgOID);
     signature.initSign(privSignKey);
     signature.update(data);
     return signature.sign();
   }
 
+  /**
+   * Gets the {@link Signature} instance of the current thread for the given algorithm.
+   *
+   * @param sigAlgOID OID of signature algorithm
+   * @return {@link Signature} instance, to be initialized by caller
+   * @throws NoSuchAlgorithmException if algorithm not supported
+   */
+  private Signature getSignature(OID sigAlgOID) throws NoSuchAlgorithmException
+  {
+    Map<String, Signature> threadSignatures = this.signatures.get();
+    Signature signature = threadSignatures.get(sigAlgOID.getOIDString());
+    if (signature == null)
+    {
+      signature = SignatureUtil.createSignature(sigAlgOID);
+      threadSignatures.put(sigAlgOID.getOIDString(), signature);
+    }
+    return signature;
+  }
+
   public static PrivateKey buildPrivateKey(byte[] keyBytes)
     throws NoSuchAlgorithmException, InvalidKeySpecException
   {
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except
+ * in compliance with the Licence. You may obtain a copy of the Licence at:
+ * http://joinup.ec.europa.eu/software/page/eupl Unless required by applicable law or agreed to in writing,
+ * software distributed under the Licence is distributed on an "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS
+ * OF ANY KIND, either express or implied. See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardserver.service.hsm.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Lock-free latency histogram for a single HSM operation. Durations are counted in fixed buckets given in
+ * milliseconds, the last bucket collecting everything above the highest bound.
+ */
+public class LatencyHistogram
+{
+
+  /**
+   * Upper bounds of the buckets in milliseconds.
+   */
+  static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder totalNanos = new LongAdder();
+
+  /**
+   * Constructor.
+   */
+  public LatencyHistogram()
+  {
+    for ( int i = 0 ; i < buckets.length ; i++ )
+    {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records one duration.
+   *
+   * @param nanos duration in nanoseconds
+   */
+  public void record(long nanos)
+  {
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+    int index = 0;
+    while (index < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[index])
+    {
+      index++;
+    }
+    buckets[index].increment();
+    count.increment();
+    totalNanos.add(nanos);
+  }
+
+  /**
+   * Gets the number of recorded durations.
+   *
+   * @return number of recorded durations
+   */
+  public long getCount()
+  {
+    return count.sum();
+  }
+
+  /**
+   * Gets the mean of the recorded durations.
+   *
+   * @return mean duration in milliseconds, 0 if nothing recorded
+   */
+  public double getMeanMillis()
+  {
+    long c = count.sum();
+    return c == 0 ? 0 : totalNanos.sum() / (c * 1_000_000d);
+  }
+
+  /**
+   * Gets the counts per bucket, index <code>i</code> counting durations below
+   * {@link #BUCKET_BOUNDS_MILLIS}<code>[i]</code> and not counted in a lower bucket.
+   *
+   * @return copy of the bucket counts
+   */
+  public long[] getBucketCounts()
+  {
+    long[] result = new long[buckets.length];
+    for ( int i = 0 ; i < buckets.length ; i++ )
+    {
+      result[i] = buckets[i].sum();
+    }
+    return result;
+  }
+
+  @Override
+  public String toString()
+  {
+    StringBuilder sb = new StringBuilder();
+    sb.append("count=").append(getCount()).append(", mean=").append(String.format("%.3f", getMeanMillis()));
+    sb.append("ms, buckets=[");
+    long[] counts = getBucketCounts();
+    for ( int i = 0 ; i < counts.length ; i++ )
+    {
+      if (i > 0)
+      {
+        sb.append(", ");
+      }
+      sb.append(i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] : ">=" + BUCKET_BOUNDS_MILLIS[i - 1])
+        .append("ms:")
+        .append(counts[i]);
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -11,9 +11,13 @@
 package de.governikus.eumw.poseidas.cardserver.service.hsm.impl;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
 import de.governikus.eumw.poseidas.cardserver.eac.ta.CertAndKeyProvider;
@@ -31,12 +35,17 @@ public class LocalCertAndKeyProvider implements CertAndKeyProvider
   /**
    * Map holding keys.
    */
-  private final Map<String, byte[]> keyMap = new HashMap<>();
+  private final Map<String, byte[]> keyMap = new ConcurrentHashMap<>();
+
+  /**
+   * Map holding the decoded keys, each together with the encoded form it was built from.
+   */
+  private final Map<String, DecodedKey> decodedKeyMap = new ConcurrentHashMap<>();
 
   /**
    * Reference to single instance.
    */
-  private static LocalCertAndKeyProvider INSTANCE = null;
+  private static final LocalCertAndKeyProvider INSTANCE = new LocalCertAndKeyProvider();
 
   /**
    * Private Constructor.
@@ -53,10 +62,6 @@ public class LocalCertAndKeyProvider implements CertAndKeyProvider
    */
   public static LocalCertAndKeyProvider getInstance()
   {
-    if (INSTANCE == null)
-    {
-      INSTANCE = new LocalCertAndKeyProvider();
-    }
     return INSTANCE;
   }
 
@@ -76,6 +81,33 @@ public class LocalCertAndKeyProvider implements CertAndKeyProvider
     return this.keyMap.get(holder);
   }
 
+  /**
+   * Gets the decoded private key for a holder. The key is decoded only once and reused until it is replaced or
+   * removed.
+   *
+   * @param holder holder of key, <code>null</code> not permitted
+   * @return decoded key, <code>null</code> if no key stored for holder
+   * @throws IllegalArgumentException if holder <code>null</code>
+   * @throws NoSuchAlgorithmException
+   * @throws InvalidKeySpecException if the stored key can not be decoded
+   */
+  PrivateKey getPrivateKeyByHolder(String holder) throws NoSuchAlgorithmException, InvalidKeySpecException
+  {
+    AssertUtil.notNull(holder, "holder");
+    byte[] keyBytes = this.keyMap.get(holder);
+    if (keyBytes == null)
+    {
+      return null;
+    }
+    DecodedKey decoded = this.decodedKeyMap.get(holder);
+    if (decoded == null || !Arrays.equals(decoded.encoded, keyBytes))
+    {
+      decoded = new DecodedKey(keyBytes, BOSHSMSimulatorService.buildPrivateKey(keyBytes));
+      this.decodedKeyMap.put(holder, decoded);
+    }
+    return decoded.key;
+  }
+
   /**
    * Adds a key to the map.
    *
@@ -87,7 +119,11 @@ public class LocalCertAndKeyProvider implements CertAndKeyProvider
   {
     AssertUtil.notNull(holder, "holder");
     AssertUtil.notNullOrEmpty(key, "key");
-    this.keyMap.put(holder, key);
+    byte[] oldKey = this.keyMap.put(holder, key);
+    if (oldKey != null && !Arrays.equals(oldKey, key))
+    {
+      this.decodedKeyMap.remove(holder);
+    }
   }
 
   /**
@@ -100,5 +136,23 @@ public class LocalCertAndKeyProvider implements CertAndKeyProvider
   {
     AssertUtil.notNull(holder, "holder");
     this.keyMap.remove(holder);
+    this.decodedKeyMap.remove(holder);
+  }
+
+  /**
+   * Decoded private key together with the bytes it was decoded from.
+   */
+  private static final class DecodedKey
+  {
+
+    private final byte[] encoded;
+
+    private final PrivateKey key;
+
+    private DecodedKey(byte[] encoded, PrivateKey key)
+    {
+      this.encoded = encoded;
+      this.key = key;
+    }
   }
 }
@@ -34,16 +34,38 @@ public class PKCS11HSMConfiguration implements HSMConfiguration
   private String password;
 
   /**
-   * Constructor.
+   * Number of provider instances used in parallel for signing, each with its own sessions on the HSM.
+   */
+  private int sessions;
+
+  /**
+   * Constructor using a single provider instance.
    *
    * @param configName path to PKCS#11 config file
    * @param password password for the user account on PKCS#11 HSM
    */
   public PKCS11HSMConfiguration(String configName, String password)
+  {
+    this(configName, password, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param configName path to PKCS#11 config file
+   * @param password password for the user account on PKCS#11 HSM
+   * @param sessions number of provider instances used in parallel for signing, at least 1
+   */
+  public PKCS11HSMConfiguration(String configName, String password, int sessions)
   {
     AssertUtil.notNull(configName, "config file name");
     AssertUtil.notNull(password, "password");
+    if (sessions < 1)
+    {
+      throw new IllegalArgumentException("at least one session required");
+    }
     this.configFileName = configName;
     this.password = password;
+    this.sessions = sessions;
   }
 }
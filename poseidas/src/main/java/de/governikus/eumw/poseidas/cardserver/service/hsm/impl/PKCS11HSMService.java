@@ -12,6 +12,7 @@ package de.governikus.eumw.poseidas.cardserver.service.hsm.impl;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.security.AuthProvider;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.KeyPair;
@@ -32,9 +33,17 @@ import java.security.cert.X509Certificate;
 import java.security.interfaces.ECPublicKey;
 import java.security.spec.AlgorithmParameterSpec;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.security.auth.login.LoginException;
 
 import de.governikus.eumw.poseidas.cardbase.AssertUtil;
 import de.governikus.eumw.poseidas.cardbase.ByteUtil;
@@ -57,6 +66,12 @@ public final class PKCS11HSMService implements HSMService
 
   private static final String MESSAGE_NOT_INITIALIZED = "HSM service not initialized";
 
+  static final String OPERATION_SIGN = "sign";
+
+  static final String OPERATION_GENERATE_KEY_PAIR = "generateKeyPair";
+
+  static final String OPERATION_DELETE_KEY = "deleteKey";
+
   /**
    * PKCS#11 security provider.
    */
@@ -73,6 +88,32 @@ public final class PKCS11HSMService implements HSMService
    */
   private PKCS11HSMConfiguration config;
 
+  /**
+   * Provider instances used for signing, the first one being {@link #provider}. Each thread is bound to one
+   * of them, so the number of configured sessions limits the signatures created in parallel.
+   */
+  private volatile SignerSlot[] slots = new SignerSlot[0];
+
+  /**
+   * Counter for distributing threads over the {@link #slots}.
+   */
+  private final AtomicInteger nextSlot = new AtomicInteger();
+
+  /**
+   * Slot and {@link Signature} instances of the current thread.
+   */
+  private final ThreadLocal<ThreadSigner> threadSigners = new ThreadLocal<>();
+
+  /**
+   * Latencies by operation name.
+   */
+  private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a provider instance from the PKCS#11 config file.
+   */
+  private final Function<String, Provider> providerFactory;
+
   /**
    * Single instance.
    */
@@ -82,8 +123,19 @@ public final class PKCS11HSMService implements HSMService
    * Default Constructor.
    */
   private PKCS11HSMService()
+  {
+    this(configFileName -> Security.getProvider("SunPKCS11").configure(configFileName));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param providerFactory creates a provider instance from the PKCS#11 config file
+   */
+  PKCS11HSMService(Function<String, Provider> providerFactory)
   {
     super();
+    this.providerFactory = providerFactory;
   }
 
   /**
@@ -129,6 +181,7 @@ public final class PKCS11HSMService implements HSMService
       }
     }
 
+    long start = System.nanoTime();
     KeyPairGenerator kpg = KeyPairGenerator.getInstance(algorithm, provider);
     kpg.initialize(spec);
     KeyPair kp = kpg.generateKeyPair();
@@ -167,6 +220,11 @@ public final class PKCS11HSMService implements HSMService
     {
       throw new HSMException(e);
     }
+    finally
+    {
+      invalidateKey(alias);
+      recordLatency(OPERATION_GENERATE_KEY_PAIR, start);
+    }
     return kp;
   }
 
@@ -189,22 +247,81 @@ public final class PKCS11HSMService implements HSMService
     {
       throw new IllegalStateException(MESSAGE_NOT_INITIALIZED);
     }
-    Signature s = Signature.getInstance(algNameFromOID(sigAlgOID), provider);
-    s.initSign((PrivateKey)keyStore.getKey(alias, null));
+    long start = System.nanoTime();
+    try
+    {
+      ThreadSigner signer = getThreadSigner();
+      CachedKey key = signer.slot.getKey(alias);
+      Signature s = signer.getSignature(algNameFromOID(sigAlgOID));
+      s.initSign(key.privateKey);
 
-    s.update(data);
-    byte[] sig = s.sign();
-    if (rawRequired(sigAlgOID))
+      s.update(data);
+      byte[] sig = s.sign();
+      if (rawRequired(sigAlgOID))
+      {
+        ECPublicKey pk = (ECPublicKey)key.publicKey;
+        return convertToRaw(sig, pk.getParams().getCurve().getField().getFieldSize() / 8);
+      }
+      else
+      {
+        return sig;
+      }
+    }
+    finally
     {
-      ECPublicKey pk = (ECPublicKey)keyStore.getCertificate(alias).getPublicKey();
-      return convertToRaw(sig, pk.getParams().getCurve().getField().getFieldSize() / 8);
+      recordLatency(OPERATION_SIGN, start);
     }
-    else
+  }
+
+  /**
+   * Gets the signing context of the current thread, binding the thread to a slot on first use or after the
+   * slots have been replaced.
+   */
+  private ThreadSigner getThreadSigner()
+  {
+    SignerSlot[] currentSlots = this.slots;
+    if (currentSlots.length == 0)
+    {
+      throw new IllegalStateException(MESSAGE_NOT_INITIALIZED);
+    }
+    ThreadSigner signer = threadSigners.get();
+    if (signer == null || signer.slots != currentSlots)
+    {
+      SignerSlot slot = currentSlots[Math.floorMod(nextSlot.getAndIncrement(), currentSlots.length)];
+      signer = new ThreadSigner(currentSlots, slot);
+      threadSigners.set(signer);
+    }
+    return signer;
+  }
+
+  /**
+   * Removes the cached handles of a key from all slots.
+   *
+   * @param alias alias of key
+   */
+  private void invalidateKey(String alias)
+  {
+    for ( SignerSlot slot : slots )
     {
-      return sig;
+      slot.keys.remove(alias);
     }
   }
 
+  private void recordLatency(String operation, long startNanos)
+  {
+    latencies.computeIfAbsent(operation, k -> new LatencyHistogram()).record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Gets the latencies recorded since startup.
+   *
+   * @return histograms by operation name
+   */
+  public Map<String, LatencyHistogram> getLatencies()
+  {
+    return Collections.unmodifiableMap(latencies);
+  }
+
   private static boolean rawRequired(OID oid)
   {
     if (oid.equals(OIDConstants.OID_TA_ECDSA_SHA_1) || oid.equals(OIDConstants.OID_TA_ECDSA_SHA_224)
@@ -320,6 +437,7 @@ public final class PKCS11HSMService implements HSMService
     {
       throw new IllegalStateException(MESSAGE_NOT_INITIALIZED);
     }
+    long start = System.nanoTime();
     try
     {
       keyStore.deleteEntry(alias);
@@ -328,6 +446,11 @@ public final class PKCS11HSMService implements HSMService
     {
       throw new HSMException(e);
     }
+    finally
+    {
+      invalidateKey(alias);
+      recordLatency(OPERATION_DELETE_KEY, start);
+    }
   }
 
   /** {@inheritDoc} */
@@ -360,16 +483,32 @@ public final class PKCS11HSMService implements HSMService
     }
     this.config = (PKCS11HSMConfiguration)config;
 
-    Provider p = Security.getProvider("SunPKCS11");
-    provider = p.configure(this.config.getConfigFileName());
+    provider = providerFactory.apply(this.config.getConfigFileName());
     Security.addProvider(provider);
+    SignerSlot[] newSlots = new SignerSlot[this.config.getSessions()];
     try
     {
       keyStore = KeyStore.getInstance("PKCS11", provider);
       keyStore.load(null, this.config.getPassword().toCharArray());
+
+      newSlots[0] = new SignerSlot(provider, keyStore);
+      for ( int i = 1 ; i < newSlots.length ; i++ )
+      {
+        // additional instances are not registered, they are only used directly by the signer slots
+        Provider additional = providerFactory.apply(this.config.getConfigFileName());
+        KeyStore additionalKeyStore = KeyStore.getInstance("PKCS11", additional);
+        additionalKeyStore.load(null, this.config.getPassword().toCharArray());
+        newSlots[i] = new SignerSlot(additional, additionalKeyStore);
+      }
+      slots = newSlots;
     }
     catch (KeyStoreException | NoSuchAlgorithmException | CertificateException | IOException e)
     {
+      LoginException logoutFailure = logoutAdditionalSlots(newSlots);
+      if (logoutFailure != null)
+      {
+        e.addSuppressed(logoutFailure);
+      }
       keyStore = null;
       Security.removeProvider(provider.getName());
       provider = null;
@@ -380,16 +519,57 @@ public final class PKCS11HSMService implements HSMService
 
   /** {@inheritDoc} */
   @Override
-  public void logout() throws IllegalStateException
+  public void logout() throws IllegalStateException, HSMException
   {
     if (keyStore == null)
     {
       throw new IllegalStateException(MESSAGE_NOT_INITIALIZED);
     }
+    SignerSlot[] oldSlots = slots;
+    slots = new SignerSlot[0];
     keyStore = null;
     config = null;
     Security.removeProvider(provider.getName());
     provider = null;
+    LoginException logoutFailure = logoutAdditionalSlots(oldSlots);
+    if (logoutFailure != null)
+    {
+      throw new HSMException(logoutFailure);
+    }
+  }
+
+  /**
+   * Logs out the provider instances of the slots except the first one, which is {@link #provider}. All slots are
+   * processed even if a logout fails.
+   *
+   * @param slotsToClose slots, may contain <code>null</code> for slots not created
+   * @return the first failure with the others suppressed, <code>null</code> if all logouts succeeded
+   */
+  private static LoginException logoutAdditionalSlots(SignerSlot[] slotsToClose)
+  {
+    LoginException failure = null;
+    for ( int i = 1 ; i < slotsToClose.length ; i++ )
+    {
+      if (slotsToClose[i] != null && slotsToClose[i].provider instanceof AuthProvider)
+      {
+        try
+        {
+          ((AuthProvider)slotsToClose[i].provider).logout();
+        }
+        catch (LoginException e)
+        {
+          if (failure == null)
+          {
+            failure = e;
+          }
+          else
+          {
+            failure.addSuppressed(e);
+          }
+        }
+      }
+    }
+    return failure;
   }
 
   /** {@inheritDoc} */
@@ -518,4 +698,88 @@ public final class PKCS11HSMService implements HSMService
       throw new HSMException(e);
     }
   }
+
+  /**
+   * Private key and public key of an alias as loaded from the key store.
+   */
+  private static final class CachedKey
+  {
+
+    private final PrivateKey privateKey;
+
+    private final PublicKey publicKey;
+
+    private CachedKey(PrivateKey privateKey, PublicKey publicKey)
+    {
+      this.privateKey = privateKey;
+      this.publicKey = publicKey;
+    }
+  }
+
+  /**
+   * One provider instance with its key store and the key handles loaded through it.
+   */
+  private static final class SignerSlot
+  {
+
+    private final Provider provider;
+
+    private final KeyStore keyStore;
+
+    private final Map<String, CachedKey> keys = new ConcurrentHashMap<>();
+
+    private SignerSlot(Provider provider, KeyStore keyStore)
+    {
+      this.provider = provider;
+      this.keyStore = keyStore;
+    }
+
+    private CachedKey getKey(String alias)
+      throws UnrecoverableKeyException, KeyStoreException, NoSuchAlgorithmException, InvalidKeyException
+    {
+      CachedKey key = keys.get(alias);
+      if (key == null)
+      {
+        PrivateKey privateKey = (PrivateKey)keyStore.getKey(alias, null);
+        if (privateKey == null)
+        {
+          throw new InvalidKeyException("no key found for alias " + alias);
+        }
+        Certificate cert = keyStore.getCertificate(alias);
+        key = new CachedKey(privateKey, cert == null ? null : cert.getPublicKey());
+        keys.put(alias, key);
+      }
+      return key;
+    }
+  }
+
+  /**
+   * Signing context of one thread, bound to one slot.
+   */
+  private static final class ThreadSigner
+  {
+
+    private final SignerSlot[] slots;
+
+    private final SignerSlot slot;
+
+    private final Map<String, Signature> signatures = new HashMap<>();
+
+    private ThreadSigner(SignerSlot[] slots, SignerSlot slot)
+    {
+      this.slots = slots;
+      this.slot = slot;
+    }
+
+    private Signature getSignature(String algName) throws NoSuchAlgorithmException
+    {
+      Signature signature = signatures.get(algName);
+      if (signature == null)
+      {
+        signature = Signature.getInstance(algName, slot.provider);
+        signatures.put(algName, signature);
+      }
+      return signature;
+    }
+  }
 }
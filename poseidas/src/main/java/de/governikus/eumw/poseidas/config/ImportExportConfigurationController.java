@@ -33,6 +33,7 @@ import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.eidascommon.ContextPaths;
 import de.governikus.eumw.poseidas.eidserver.crl.CertificationRevocationListImpl;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
 import de.governikus.eumw.utils.key.KeyStoreSupporter;
 import de.governikus.eumw.utils.key.SecurityProvider;
@@ -59,6 +60,8 @@ public class ImportExportConfigurationController
 
   private final TerminalPermissionAO facade;
 
+  private final SNMPTrapSender trapSender;
+
 
   /**
    * Index Page Show all information and options
@@ -151,7 +154,7 @@ public class ImportExportConfigurationController
     }
 
     model.addAttribute(MSG_ATTRIBUTE, "Configuration successfully imported!");
-    CertificationRevocationListImpl.tryInitialize(configurationService, facade);
+    CertificationRevocationListImpl.tryInitialize(configurationService, facade, trapSender);
     return CONFIGURATION_FORM;
   }
 
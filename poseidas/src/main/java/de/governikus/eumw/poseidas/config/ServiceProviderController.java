@@ -39,6 +39,7 @@ import de.governikus.eumw.poseidas.config.model.ServiceProviderViewModel;
 import de.governikus.eumw.poseidas.config.model.forms.ServiceProviderConfigModel;
 import de.governikus.eumw.poseidas.eidserver.crl.CertificationRevocationListImpl;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
 import de.governikus.eumw.utils.key.KeyStoreSupporter;
 import lombok.RequiredArgsConstructor;
@@ -77,6 +78,8 @@ public class ServiceProviderController
 
   private final TerminalPermissionAO facade;
 
+  private final SNMPTrapSender trapSender;
+
   @Value("#{'${hsm.type:}' == 'PKCS11'}")
   private boolean isHsmInUse;
 
@@ -216,7 +219,7 @@ public class ServiceProviderController
     redirectAttributes.addFlashAttribute(MSG_ATTRIBUTE,
                                          "Saved service provider successfully: "
                                                         + serviceProviderConfigModel.getName());
-    CertificationRevocationListImpl.tryInitialize(configurationService, facade);
+    CertificationRevocationListImpl.tryInitialize(configurationService, facade, trapSender);
     return REDIRECT_TO_SERVICE_PROVIDER_INDEX;
   }
 
@@ -288,7 +291,7 @@ public class ServiceProviderController
     redirectAttributes.addFlashAttribute(MSG_ATTRIBUTE,
                                          "Saved service provider successfully: "
                                                         + serviceProviderConfigModel.getName());
-    CertificationRevocationListImpl.tryInitialize(configurationService, facade);
+    CertificationRevocationListImpl.tryInitialize(configurationService, facade, trapSender);
     return REDIRECT_TO_SERVICE_PROVIDER_INDEX;
   }
 
@@ -15,7 +15,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -60,7 +59,7 @@ public class StatusController
   public String status(Model model)
   {
 
-    Optional<CvcTlsCheckResult> cvcTlsCheckResult = cvcTlsCheck.check();
+    Optional<CvcTlsCheckResult> cvcTlsCheckResult = cvcTlsCheck.getCachedResult();
 
     if (cvcTlsCheckResult.isEmpty())
     {
@@ -71,14 +70,14 @@ public class StatusController
     GlobalResultModel globalResultModel = new GlobalResultModel(cvcTlsCheckResult.get());
     model.addAttribute(globalResultModel);
 
-    Map<String, ServiceProviderStatus> serviceProviderResultModelMap;
-    serviceProviderResultModelMap = configurationService.getConfiguration()
-                                                        .map(EidasMiddlewareConfig::getEidConfiguration)
-                                                        .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
-                                                        .stream()
-                                                        .flatMap(List::stream)
-                                                        .collect(Collectors.toMap(ServiceProviderType::getName,
-                                                                                  serviceProviderStatusService::getServiceProviderStatus));
+    List<ServiceProviderType> serviceProviders = configurationService.getConfiguration()
+                                                                     .map(EidasMiddlewareConfig::getEidConfiguration)
+                                                                     .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
+                                                                     .orElse(List.of());
+    // the CVC checks are already done by cvcTlsCheck.getCachedResult()
+    Map<String, ServiceProviderStatus> serviceProviderResultModelMap = serviceProviderStatusService.getAllServiceProviderStatus(serviceProviders,
+                                                                                                                                cvcTlsCheckResult.get()
+                                                                                                                                                 .getProviderCvcChecks());
     model.addAttribute("valuesAvailable", true);
     model.addAttribute("globalResultModel", globalResultModel);
     model.addAttribute("serviceProviderResultModelMap", serviceProviderResultModelMap);
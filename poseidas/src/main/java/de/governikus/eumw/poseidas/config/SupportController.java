@@ -13,7 +13,6 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.stereotype.Controller;
@@ -22,7 +21,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.servlet.ModelAndView;
 
 import de.governikus.eumw.config.EidasMiddlewareConfig;
-import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.eidascommon.ContextPaths;
 import de.governikus.eumw.poseidas.config.model.ServiceProviderStatus;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
@@ -74,13 +72,10 @@ public class SupportController
   private String getMailText()
   {
     Map<String, ServiceProviderStatus> serviceProviderStatusMap;
-    serviceProviderStatusMap = configurationService.getConfiguration()
-                                                   .map(EidasMiddlewareConfig::getEidConfiguration)
-                                                   .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
-                                                   .stream()
-                                                   .flatMap(List::stream)
-                                                   .collect(Collectors.toMap(ServiceProviderType::getName,
-                                                                             serviceProviderStatusService::getServiceProviderStatus));
+    serviceProviderStatusMap = serviceProviderStatusService.getAllServiceProviderStatus(configurationService.getConfiguration()
+                                                                                                           .map(EidasMiddlewareConfig::getEidConfiguration)
+                                                                                                           .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
+                                                                                                           .orElse(List.of()));
 
     StringBuilder bodyBuilder = new StringBuilder("Dear Governikus support team,\n\n");
     bodyBuilder.append("<Please describe your problems here>\n\n");
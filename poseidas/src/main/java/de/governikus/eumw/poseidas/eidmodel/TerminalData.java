@@ -32,7 +32,7 @@ import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCPath;
 import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCertificate;
 import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECPublicKeyPath;
 import de.governikus.eumw.poseidas.cardbase.constants.OIDConstants;
-import de.governikus.eumw.poseidas.cardbase.crypto.ec.ECMath;
+import de.governikus.eumw.poseidas.cardbase.crypto.ec.CachingCvcSignatureVerifier;
 import de.governikus.eumw.poseidas.cardbase.crypto.ec.ECUtil;
 import de.governikus.eumw.poseidas.cardbase.crypto.key.KeyHandler;
 import de.governikus.eumw.poseidas.cardbase.crypto.key.KeyHandlerFactory;
@@ -682,7 +682,8 @@ public class TerminalData
       {
         throw new GeneralSecurityException("Unknown OID for hash algorithm");
       }
-      return ECMath.verifySignature(getSignatureBytes(), getEncodedBody(), ecPublicKey, hashAlgo);
+      return CachingCvcSignatureVerifier.getInstance()
+                                        .verify(getSignatureBytes(), getEncodedBody(), ecPublicKey, hashAlgo);
     }
   }
 
@@ -11,16 +11,17 @@
 package de.governikus.eumw.poseidas.eidserver.convenience;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCPath;
 import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCertificate;
 import de.governikus.eumw.poseidas.cardserver.eac.ta.CertAndKeyProvider;
 import de.governikus.eumw.poseidas.eidmodel.TerminalData;
@@ -28,7 +29,12 @@ import de.governikus.eumw.poseidas.eidmodel.TerminalData;
 
 
 /**
- * Implementation of the CertAndKeyProvider from the card server package
+ * Implementation of the CertAndKeyProvider from the card server package.
+ * <p>
+ * The provider is shared by all sessions. Readers work on an immutable snapshot without locking, writers
+ * replace the snapshot. The certificate chains for all stored holders are computed when a certificate is
+ * added, so {@link #getCertChain(String, String)} is a plain lookup.
+ * </p>
  *
  * @author <a href="mail:obe@bos-bremen.de">Ole Behrens</a>
  */
@@ -39,9 +45,10 @@ public class CertAndKeyProviderImpl implements CertAndKeyProvider
 
   private static final String LOG_PREFIX = "[Certificates and Keys]";
 
-  private final Map<String, ECCVCertificate> certMap = new HashMap<>();
-
-  private final Map<String, byte[]> keyMap = new HashMap<>();
+  /**
+   * Current content of the provider, replaced as a whole on every change.
+   */
+  private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
 
 
   /**
@@ -55,16 +62,23 @@ public class CertAndKeyProviderImpl implements CertAndKeyProvider
   {
     byte[] encoded = cvc.getEncoded();
     addCert(encoded);
-    ECCVCertificate cert = new ECCVCertificate(encoded);
-    String holderName = new String(cert.getCVCPart(ECCVCPath.HOLDER_REFERENCE).getValue(),
-                                   StandardCharsets.UTF_8);
-    if (this.keyMap.containsKey(holderName))
+    String holderName = cvc.getHolderReferenceString();
+    if (this.snapshot.keys.containsKey(holderName))
     {
       LOG.debug(LOG_PREFIX + "Terminal key already set for holder name: " + holderName);
+      return;
     }
-    else
+    synchronized (this)
     {
-      this.keyMap.put(holderName, cvc.getPrivateKey());
+      Snapshot current = this.snapshot;
+      if (current.keys.containsKey(holderName))
+      {
+        LOG.debug(LOG_PREFIX + "Terminal key already set for holder name: " + holderName);
+        return;
+      }
+      Map<String, byte[]> keys = new HashMap<>(current.keys);
+      keys.put(holderName, cvc.getPrivateKey());
+      this.snapshot = new Snapshot(current.certs, keys, current.chains);
     }
   }
 
@@ -78,15 +92,25 @@ public class CertAndKeyProviderImpl implements CertAndKeyProvider
   public void addCert(byte[] certBuffer) throws IOException
   {
     ECCVCertificate cert = new ECCVCertificate(certBuffer);
-    String holderName = new String(cert.getCVCPart(ECCVCPath.HOLDER_REFERENCE).getValue());
-    if (this.certMap.containsKey(holderName))
+    String holderName = cert.getHolderReferenceString();
+    if (this.snapshot.certs.containsKey(holderName))
     {
       LOG.debug(LOG_PREFIX + "Terminal or DV certificate already set for holder name: " + holderName);
+      return;
     }
-    else
+    StoredCert stored = new StoredCert(cert.getEncoded(), cert.getAuthorityReferenceString());
+    synchronized (this)
     {
+      Snapshot current = this.snapshot;
+      if (current.certs.containsKey(holderName))
+      {
+        LOG.debug(LOG_PREFIX + "Terminal or DV certificate already set for holder name: " + holderName);
+        return;
+      }
+      Map<String, StoredCert> certs = new HashMap<>(current.certs);
+      certs.put(holderName, stored);
+      this.snapshot = new Snapshot(certs, current.keys);
       LOG.debug(LOG_PREFIX + "Terminal or DV certificate added to provider: " + holderName);
-      this.certMap.put(holderName, cert);
     }
   }
 
@@ -94,7 +118,6 @@ public class CertAndKeyProviderImpl implements CertAndKeyProvider
   public List<byte[]> getCertChain(String rootHolder, String termHolder) throws
     IOException
   {
-    List<byte[]> result = new ArrayList<>();
     if (rootHolder == null || rootHolder.length() == 0 || termHolder == null || termHolder.length() == 0)
     {
       throw new IllegalArgumentException("Null or empty string not permitted for holder values");
@@ -102,60 +125,111 @@ public class CertAndKeyProviderImpl implements CertAndKeyProvider
 
     LOG.debug(LOG_PREFIX + "Find root '" + rootHolder + "' for term holder '" + termHolder + "'");
 
-    String nextTermHolder = termHolder;
-    // Get first term holder
-    do
+    Map<String, List<byte[]>> chainsByRoot = this.snapshot.chains.get(termHolder);
+    if (chainsByRoot == null)
     {
-      // Get certificate from map
-      ECCVCertificate cert = this.certMap.get(nextTermHolder);
-      if (cert == null)
-      {
-        LOG.debug(LOG_PREFIX + "term holder not available: " + nextTermHolder);
-        return null;
-      }
+      LOG.debug(LOG_PREFIX + "term holder not available: " + termHolder);
+      return null;
+    }
+    List<byte[]> result = chainsByRoot.get(rootHolder);
+    if (result == null)
+    {
+      LOG.info(LOG_PREFIX + termHolder + " not in chain with root: " + rootHolder);
+    }
+    return result;
+  }
 
-      // Get issuer from this certificate
-      String issuer = new String(cert.getCVCPart(ECCVCPath.CA_REFERENCE).getValue(), StandardCharsets.UTF_8);
-      LOG.debug(LOG_PREFIX + "Issuer to check: " + issuer);
+  @Override
+  public byte[] getKeyByHolder(String holder)
+  {
+    LOG.debug(LOG_PREFIX + " I:" + holder);
+    return this.snapshot.keys.get(holder);
+  }
 
-      // If issuer is the term holder check if this holder fits the root holder
-      if (issuer.equals(nextTermHolder))
-      {
-        if (issuer.equals(rootHolder))
-        {
-          // Issuer is the searched root holder. Do not add the root certificate
-          return result;
-        }
-        else
-        {
-          // Issuer do not fit searched root holder
-          LOG.info(LOG_PREFIX + termHolder + " with " + issuer + " not in chain with root: " + rootHolder);
-          return null;
-        }
-      }
-      else
+  /**
+   * Computes the chains starting at the given holder for all reachable roots. Starting at the holder, the
+   * issuers are followed until a self-signed certificate or an unknown issuer is reached. For each issuer on
+   * this way the chain leading to it is stored, ordered from the certificate issued by the root to the
+   * holder's certificate. The root certificate itself is never part of a chain.
+   *
+   * @param termHolder holder to start with
+   * @param certs all known certificates by holder
+   * @return chains by root holder
+   */
+  private static Map<String, List<byte[]>> computeChains(String termHolder, Map<String, StoredCert> certs)
+  {
+    Map<String, List<byte[]>> result = new HashMap<>();
+    List<byte[]> chain = new ArrayList<>();
+    Set<String> visited = new HashSet<>();
+    String nextTermHolder = termHolder;
+    StoredCert cert = certs.get(nextTermHolder);
+    while (cert != null && visited.add(nextTermHolder))
+    {
+      if (cert.caReference.equals(nextTermHolder))
       {
-        result.add(0, cert.getEncoded());
-        if (issuer.equals(rootHolder))
-        {
-          // Add this certificate. Do not need the term holder certificate
-          return result;
-        }
-        else
-        {
-          // Set next certificate to check
-          nextTermHolder = issuer;
-        }
+        // self-signed, the root certificate must not be contained in the chain
+        result.putIfAbsent(nextTermHolder, Collections.unmodifiableList(new ArrayList<>(chain)));
+        break;
       }
+      chain.add(0, cert.encoded);
+      result.putIfAbsent(cert.caReference, Collections.unmodifiableList(new ArrayList<>(chain)));
+      nextTermHolder = cert.caReference;
+      cert = certs.get(nextTermHolder);
     }
-    while (true);
+    return Collections.unmodifiableMap(result);
   }
 
-  @Override
-  public byte[] getKeyByHolder(String holder)
+  /**
+   * Certificate as stored in the provider.
+   */
+  private static final class StoredCert
   {
-    LOG.debug(LOG_PREFIX + " I:" + holder);
-    return keyMap.get(holder);
+
+    private final byte[] encoded;
+
+    private final String caReference;
+
+    private StoredCert(byte[] encoded, String caReference)
+    {
+      this.encoded = encoded;
+      this.caReference = caReference;
+    }
   }
 
+  /**
+   * Immutable state of the provider.
+   */
+  private static final class Snapshot
+  {
+
+    private final Map<String, StoredCert> certs;
+
+    private final Map<String, byte[]> keys;
+
+    private final Map<String, Map<String, List<byte[]>>> chains;
+
+    private Snapshot(Map<String, StoredCert> certs, Map<String, byte[]> keys)
+    {
+      this(certs, keys, buildChains(certs));
+    }
+
+    private Snapshot(Map<String, StoredCert> certs,
+                     Map<String, byte[]> keys,
+                     Map<String, Map<String, List<byte[]>>> chains)
+    {
+      this.certs = Collections.unmodifiableMap(certs);
+      this.keys = Collections.unmodifiableMap(keys);
+      this.chains = chains;
+    }
+
+    private static Map<String, Map<String, List<byte[]>>> buildChains(Map<String, StoredCert> certs)
+    {
+      Map<String, Map<String, List<byte[]>>> chains = new HashMap<>();
+      for ( String holder : certs.keySet() )
+      {
+        chains.put(holder, computeChains(holder, certs));
+      }
+      return Collections.unmodifiableMap(chains);
+    }
+  }
 }
@@ -13,8 +13,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
@@ -22,7 +24,6 @@ import java.util.zip.Inflater;
 import de.governikus.eumw.poseidas.cardbase.ArrayUtil;
 import de.governikus.eumw.poseidas.cardbase.Hex;
 import de.governikus.eumw.poseidas.cardbase.asn1.ASN1;
-import de.governikus.eumw.poseidas.cardbase.asn1.npa.SecurityInfos;
 import de.governikus.eumw.poseidas.cardbase.asn1.npa.si.RestrictedIdentificationInfo;
 import de.governikus.eumw.poseidas.cardbase.card.SecureMessagingException;
 import de.governikus.eumw.poseidas.cardbase.constants.EIDConstants;
@@ -30,6 +31,7 @@ import de.governikus.eumw.poseidas.cardbase.npa.CVCPermission;
 import de.governikus.eumw.poseidas.cardbase.npa.NPAUtil;
 import de.governikus.eumw.poseidas.cardserver.eac.functions.batch.Batch;
 import de.governikus.eumw.poseidas.cardserver.eac.functions.batch.BatchParameter;
+import de.governikus.eumw.poseidas.cardserver.eac.functions.batch.CommandTemplateCache;
 import de.governikus.eumw.poseidas.cardserver.eac.functions.impl.FileParameter;
 import de.governikus.eumw.poseidas.cardserver.eac.functions.read.Read;
 import de.governikus.eumw.poseidas.cardserver.eac.functions.read.ReadParameter;
@@ -76,6 +78,17 @@ public class EIDSequenceTransmit
 
   private static final String LOG_DATA = "[Transmit data]";
 
+  /**
+   * Plaintext commands of the first batch, depending on the verifications, the sector key and the restricted
+   * identification variants supported by the card
+   */
+  private static final CommandTemplateCache COMMAND_TEMPLATES = new CommandTemplateCache();
+
+  /**
+   * Plaintext commands of the second batch, depending on the fields to be read only
+   */
+  private static final CommandTemplateCache DATA_TEMPLATES = new CommandTemplateCache();
+
   /**
    * Sequence which reached the transmit process
    */
@@ -114,22 +127,22 @@ public class EIDSequenceTransmit
   /**
    * Command for age verification
    */
-  private AgeVerification ageVerification;
+  private final AgeVerification ageVerification;
 
   /**
    * Command for restricted and blocking identification
    */
-  private RestrictedIdentification restrictedIdentification;
+  private final RestrictedIdentification restrictedIdentification;
 
   /**
    * Command for the community ID
    */
-  private CommunityIDVerification communityIDVerification;
+  private final CommunityIDVerification communityIDVerification;
 
   /**
    * Command for document validity
    */
-  private DocumentValidityVerification documentValidityVerification;
+  private final DocumentValidityVerification documentValidityVerification;
 
   /**
    * Fields allowed to be read selected by the user on client side. Note: it is imperative that the field "install
@@ -179,6 +192,10 @@ public class EIDSequenceTransmit
     selectFile = new SelectFile(transmit);
     readFile = new Read(transmit);
     transmitBatch = new Batch(transmit);
+    ageVerification = new AgeVerification(transmit);
+    restrictedIdentification = new RestrictedIdentification(transmit);
+    communityIDVerification = new CommunityIDVerification(transmit);
+    documentValidityVerification = new DocumentValidityVerification(transmit);
   }
 
   /**
@@ -242,6 +259,45 @@ public class EIDSequenceTransmit
   }
 
   private Object getBatchCommands() throws ECardException
+  {
+    List<RestrictedIdentificationInfo> riInfos;
+    byte[] sectorKey;
+    try
+    {
+      riInfos = NPAUtil.fromCardSecurityBytes(parent.getEACFinal().getCardSecurityBytes())
+                       .getRestrictedIdentificationInfo();
+      sectorKey = new ASN1(parent.getCVC().getRIKey1()).getValue();
+    }
+    catch (Exception e)
+    {
+      throw new ECardException(ResultMinor.SAL_SECURITY_CONDITION_NOT_SATISFIED,
+                               "Unable to create command for blocking identification", e);
+    }
+
+    // The plaintext commands are the same for every session with equal verifications, sector key and restricted
+    // identification variants, only the secure messaging differs
+    List<Object> key = new ArrayList<>(verifications);
+    key.add(ByteBuffer.wrap(sectorKey));
+    for ( RestrictedIdentificationInfo info : riInfos )
+    {
+      key.add(ByteBuffer.wrap(info.getEncoded()));
+    }
+    List<InputAPDUInfoType> listBatches = COMMAND_TEMPLATES.get(key);
+    if (listBatches == null)
+    {
+      listBatches = COMMAND_TEMPLATES.put(key, createBatchCommands(riInfos, sectorKey));
+    }
+    else
+    {
+      log.debug("{}{}Using prepared commands", parent.getLogPrefix(), LOG_COMMAND);
+    }
+
+    BatchParameter batchParameters = new BatchParameter(listBatches);
+    return transmitBatch.parameterStep(batchParameters, slotHandle);
+  }
+
+  private List<InputAPDUInfoType> createBatchCommands(List<RestrictedIdentificationInfo> riInfos, byte[] sectorKey)
+    throws ECardException
   {
     // Collect all commands here, so mCard can handle internal encrypt/decrypt counter
     List<InputAPDUInfoType> listBatches = new ArrayList<>();
@@ -258,7 +314,7 @@ public class EIDSequenceTransmit
           listBatches.addAll(getCommandAgeVerification());
           break;
         case BLOCKING_IDENTIFICATION:
-          listBatches.addAll(getCommandBlockingIdentification());
+          listBatches.addAll(getCommandRestrictedIdentification(riInfos, sectorKey, false));
           break;
         case MUNICIPALITY_ID_VERIFICATION:
           listBatches.addAll(getCommandCommunityIdentification());
@@ -267,27 +323,54 @@ public class EIDSequenceTransmit
           listBatches.addAll(getCommandDocumentValidity());
           break;
         case RESTRICTED_IDENTIFICATION:
-          listBatches.addAll(getCommandRestrictedIdentification());
+          listBatches.addAll(getCommandRestrictedIdentification(riInfos, sectorKey, true));
           break;
         default:
       }
     }
-
-    BatchParameter batchParameters = new BatchParameter(listBatches);
-    return transmitBatch.parameterStep(batchParameters, slotHandle);
+    return listBatches;
   }
 
   private Object getBatchData() throws ECardException
+  {
+    // The read commands depend on the fields only, the key is a bitmap of these fields. This requires the fields
+    // to be in a fixed order, see setVerificationStates.
+    EnumSet<CVCPermission> key = EnumSet.noneOf(CVCPermission.class);
+    key.addAll(fields);
+    List<InputAPDUInfoType> batchList = DATA_TEMPLATES.get(key);
+    if (batchList == null)
+    {
+      batchList = createBatchData();
+      if (!batchList.isEmpty())
+      {
+        batchList = DATA_TEMPLATES.put(key, batchList);
+      }
+    }
+
+    if (batchList.isEmpty())
+    {
+      log.debug("{}{}No data field to be read", parent.getLogPrefix(), LOG_DATA);
+      state = SequenceState.TRANSMIT_DONE;
+      return getTransmitRequest();
+    }
+    BatchParameter batchParameter = new BatchParameter(batchList);
+    return transmitBatch.parameterStep(batchParameter, slotHandle);
+  }
+
+  private List<InputAPDUInfoType> createBatchData()
   {
     // Batch list to be filled
     List<InputAPDUInfoType> batchList = new ArrayList<>();
 
-    StringBuilder tempInfo = new StringBuilder("FIELDS:\n");
-    for ( CVCPermission field : fields )
+    if (log.isDebugEnabled())
     {
-      tempInfo.append(" o " + field.getDataFieldName());
+      StringBuilder tempInfo = new StringBuilder("FIELDS:\n");
+      for ( CVCPermission field : fields )
+      {
+        tempInfo.append(" o ").append(field.getDataFieldName());
+      }
+      log.debug("{}{}{}", parent.getLogPrefix(), LOG_DATA, tempInfo);
     }
-    log.debug("{}{}{}", parent.getLogPrefix(), LOG_DATA, tempInfo.toString());
 
     for ( CVCPermission field : fields )
     {
@@ -332,64 +415,39 @@ public class EIDSequenceTransmit
         log.debug("{}{}Empty field", parent.getLogPrefix(), LOG_DATA);
       }
     }
-
-    if (batchList.isEmpty())
-    {
-      log.debug("{}{}No data field to be read", parent.getLogPrefix(), LOG_DATA);
-      state = SequenceState.TRANSMIT_DONE;
-      return getTransmitRequest();
-    }
-    BatchParameter batchParameter = new BatchParameter(batchList);
-    return transmitBatch.parameterStep(batchParameter, slotHandle);
+    return batchList;
   }
 
   private List<InputAPDUInfoType> getCommandAgeVerification()
   {
-    if (ageVerification == null)
-    {
-      ageVerification = new AgeVerification(transmit);
-    }
     return ageVerification.create(new AgeVerificationParameter());
   }
 
-  private List<InputAPDUInfoType> getCommandBlockingIdentification() throws ECardException
-  {
-    return getCommandRestrictedIdentification(false);
-  }
-
   private List<InputAPDUInfoType> getCommandCommunityIdentification()
   {
-    if (communityIDVerification == null)
-    {
-      communityIDVerification = new CommunityIDVerification(transmit);
-    }
     return communityIDVerification.create(new CommunityIDVerificationParameter());
   }
 
   private List<InputAPDUInfoType> getCommandDocumentValidity()
   {
-    if (documentValidityVerification == null)
-    {
-      documentValidityVerification = new DocumentValidityVerification(transmit);
-    }
     return documentValidityVerification.create(new DocumentValidityVerificationParameter());
   }
 
-  private List<InputAPDUInfoType> getCommandRestrictedIdentification() throws ECardException
-  {
-    return getCommandRestrictedIdentification(true);
-  }
-
-  private List<InputAPDUInfoType> getCommandRestrictedIdentification(boolean ri) throws ECardException
+  private List<InputAPDUInfoType> getCommandRestrictedIdentification(List<RestrictedIdentificationInfo> riInfos,
+                                                                     byte[] sectorKey,
+                                                                     boolean ri)
+    throws ECardException
   {
     try
     {
-      RestrictedIdentificationParameter parameter = getParameterRestrictedIdentification(ri);
-      if (restrictedIdentification == null)
+      for ( RestrictedIdentificationInfo info : riInfos )
       {
-        restrictedIdentification = new RestrictedIdentification(transmit);
+        if (info.getParams().getAuthorizedOnly() == ri)
+        {
+          return restrictedIdentification.create(new RestrictedIdentificationParameter(info, sectorKey, null));
+        }
       }
-      return restrictedIdentification.create(parameter);
+      throw new IOException("no matching RestrictedIdentificationInfo found");
     }
     catch (Exception e)
     {
@@ -404,21 +462,6 @@ public class EIDSequenceTransmit
                              Hex.parse(EIDConstants.EID_FID_DG01_DOCUMENT_TYPE), true);
   }
 
-  private RestrictedIdentificationParameter getParameterRestrictedIdentification(boolean ri) throws IOException
-  {
-    ASN1 keyASN = new ASN1(parent.getCVC().getRIKey1());
-    SecurityInfos cardSecurity = NPAUtil.fromCardSecurityBytes(parent.getEACFinal().getCardSecurityBytes());
-    List<RestrictedIdentificationInfo> infos = cardSecurity.getRestrictedIdentificationInfo();
-    for ( RestrictedIdentificationInfo info : infos )
-    {
-      if (info.getParams().getAuthorizedOnly() == ri)
-      {
-        return new RestrictedIdentificationParameter(info, keyASN.getValue(), null);
-      }
-    }
-    throw new IOException("no matching RestrictedIdentificationInfo found");
-  }
-
   private Object getTransmitRequest() throws ECardException
   {
     log.debug("{}[Transmit] Get next transmit: {}", parent.getLogPrefix(), state.name());
@@ -944,6 +987,8 @@ public class EIDSequenceTransmit
   private void setVerificationStates(List<CVCPermission> fieldList)
   {
     this.fields = fieldList;
+    // fixed order, so the read commands of sessions with equal fields are equal
+    this.fields.sort(null);
 
     // Initialize the verification list
     verifications = new ArrayList<>();
@@ -967,8 +1012,11 @@ public class EIDSequenceTransmit
     }
 
     // Output which checks are done
-    StringBuilder debug = new StringBuilder(LOG_COMMAND + "VerificationStates set - Checks to be done: \n");
-    verifications.stream().forEach(s -> debug.append("    o " + s.name() + "\n"));
-    log.debug("{}{}", parent.getLogPrefix(), debug.toString());
+    if (log.isDebugEnabled())
+    {
+      StringBuilder debug = new StringBuilder(LOG_COMMAND).append("VerificationStates set - Checks to be done: \n");
+      verifications.forEach(s -> debug.append("    o ").append(s.name()).append('\n'));
+      log.debug("{}{}", parent.getLogPrefix(), debug);
+    }
   }
 }
@@ -36,7 +36,6 @@ import de.governikus.eumw.poseidas.eidserver.model.signeddata.MasterList;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.monitoring.SNMPConstants;
 import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
-import de.governikus.eumw.poseidas.server.pki.TerminalPermission;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -55,6 +54,8 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
 
   private final CrlFetcher crlFetcher;
 
+  private final SNMPTrapSender trapSender;
+
   @Getter
   private static boolean isInitialized;
 
@@ -68,13 +69,16 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
    * @param cscaRootCertificate to extract the CRL URL
    * @param crlFetcher Used to download the CRL
    * @param configurationService the service to load the eumw configuration from the database
+   * @param trapSender sender for the SNMP traps about the CRL renewal
    */
   private CertificationRevocationListImpl(Set<X509Certificate> masterList,
                                           X509Certificate cscaRootCertificate,
                                           CrlFetcher crlFetcher,
-                                          ConfigurationService configurationService)
+                                          ConfigurationService configurationService,
+                                          SNMPTrapSender trapSender)
     throws CertificateException
   {
+    this.trapSender = trapSender;
     Set<X509Certificate> trustSet;
     if (masterList == null)
     {
@@ -123,8 +127,11 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
    * 
    * @param configurationService configuration
    * @param facade terminal permission data
+   * @param trapSender sender for the SNMP traps about the CRL renewal
    */
-  public static synchronized void tryInitialize(ConfigurationService configurationService, TerminalPermissionAO facade)
+  public static synchronized void tryInitialize(ConfigurationService configurationService,
+                                                TerminalPermissionAO facade,
+                                                SNMPTrapSender trapSender)
   {
     if (isInitialized)
     {
@@ -139,22 +146,21 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
       return;
     }
 
-    Optional<TerminalPermission> terminalPermission = configuration.map(EidasMiddlewareConfig::getEidConfiguration)
-                                                                   .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
-                                                                   .stream()
-                                                                   .flatMap(List::stream)
-                                                                   .filter(ServiceProviderType::isEnabled)
-                                                                   .map(sp -> facade.getTerminalPermission(sp.getCVCRefID()))
-                                                                   .filter(tp -> tp != null
-                                                                                 && !ArrayUtil.isNullOrEmpty(tp.getMasterList()))
-                                                                   .findAny();
-    if (terminalPermission.isEmpty())
+    Optional<byte[]> masterList = configuration.map(EidasMiddlewareConfig::getEidConfiguration)
+                                               .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
+                                               .stream()
+                                               .flatMap(List::stream)
+                                               .filter(ServiceProviderType::isEnabled)
+                                               .map(sp -> facade.getMasterList(sp.getCVCRefID()))
+                                               .filter(list -> !ArrayUtil.isNullOrEmpty(list))
+                                               .findAny();
+    if (masterList.isEmpty())
     {
       log.warn("No terminal permission with master list found. Can not initialize CRL");
       return;
     }
-    MasterList ml = new MasterList(terminalPermission.get().getMasterList());
-    initialize(new HashSet<>(ml.getCertificates()), configurationService);
+    MasterList ml = new MasterList(masterList.get());
+    initialize(new HashSet<>(ml.getCertificates()), configurationService, trapSender);
   }
 
   /**
@@ -163,12 +169,15 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
    *
    * @param masterList set of trusted certificates to validate the CRL signature
    * @param configurationService the service to load the eumw configuration from the database
+   * @param trapSender sender for the SNMP traps about the CRL renewal
    * @throws IllegalStateException when the class is already initialized or there was an exception during the download
    *           of verification of the CRLs
    */
-  public static synchronized void initialize(Set<X509Certificate> masterList, ConfigurationService configurationService)
+  public static synchronized void initialize(Set<X509Certificate> masterList,
+                                             ConfigurationService configurationService,
+                                             SNMPTrapSender trapSender)
   {
-    initialize(masterList, null, null, configurationService);
+    initialize(masterList, null, null, configurationService, trapSender);
   }
 
   /**
@@ -182,13 +191,15 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
    * @param crlFetcher The @{@link CrlFetcher} that should be used to load CRLs, or <code>null</code> when the
    *          default @{@link CrlFetcher} should be used
    * @param configurationService the service to load the eumw configuration from the database
+   * @param trapSender sender for the SNMP traps about the CRL renewal
    * @throws IllegalStateException when the class is already initialized or there was an exception during the download
    *           of verification of the CRLs
    */
   static synchronized void initialize(Set<X509Certificate> masterList,
                                       X509Certificate certificate,
                                       CrlFetcher crlFetcher,
-                                      ConfigurationService configurationService)
+                                      ConfigurationService configurationService,
+                                      SNMPTrapSender trapSender)
   {
     if (isInitialized)
     {
@@ -196,20 +207,21 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
     }
     try
     {
-      crl = new CertificationRevocationListImpl(masterList, certificate, crlFetcher, configurationService);
+      crl = new CertificationRevocationListImpl(masterList, certificate, crlFetcher, configurationService,
+                                                trapSender);
       crl.fetchCrlForRoot();
       isInitialized = true;
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 0);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 0);
       log.info("CRL successful initialized");
     }
     catch (CertificateValidationException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 1);
       throw new IllegalStateException("Exception during initial retrieval of CRL", e);
     }
     catch (CertificateException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 1);
       throw new IllegalStateException("Exception during initial retrieval of CRL. Illegal trusted anchor certificate",
                                       e);
     }
@@ -358,14 +370,14 @@ public class CertificationRevocationListImpl implements CertificationRevocationL
       if (x509CRL != null)
       {
         crlCache.set(url, x509CRL);
-        SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 0);
+        trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 0);
         return true;
       }
     }
     catch (CertificateValidationException e)
     {
       log.error("Cannot request a valid CRL for this URL: {}", url, e);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CRL_TRAP_LAST_RENEWAL_STATUS, 1);
       return false;
     }
     return false;
@@ -24,6 +24,8 @@ import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.ASN1SequenceParser;
 import org.bouncycastle.asn1.ASN1TaggedObject;
 
+import de.governikus.eumw.poseidas.cardbase.asn1.TLV;
+
 
 /**
  * EIDAbstractASN1List Base Class for the Master-, Defect- and Blacklist.
@@ -62,6 +64,31 @@ public abstract class AbstractASN1List // ocard asn1
     }
     identifier = listType;
 
+    // Locate the list without parsing the whole structure, only the list itself is handed to the parser
+    byte[] listBytes = null;
+    try
+    {
+      listBytes = findList(TLV.parse(this.bytes),
+                           TLV.parse(new ASN1ObjectIdentifier(identifier).getEncoded()).getValue());
+    }
+    catch (IOException e)
+    {
+      LOGGER.debug("Unable to locate list without full parsing", e);
+    }
+    if (listBytes != null)
+    {
+      try
+      {
+        parseList(ASN1Primitive.fromByteArray(listBytes));
+        catalogued = true;
+        return;
+      }
+      catch (IOException e)
+      {
+        throw new IllegalArgumentException("Unable to parse data", e);
+      }
+    }
+
     // Check if stream is available
     // Parse the data from stream
     try (ASN1InputStream asn1 = new ASN1InputStream(this.bytes))
@@ -142,6 +169,57 @@ public abstract class AbstractASN1List // ocard asn1
   }
 
 
+  /**
+   * Search a sequence or tagged object for the list object identifier like
+   * {@link #parseDERSequence(ASN1Sequence)} does
+   *
+   * @param obj to search
+   * @param identifierValue value bytes of the list object identifier
+   * @return encoded object following the list object identifier, <code>null</code> if not found
+   * @throws IOException
+   */
+  private static byte[] findList(TLV obj, byte[] identifierValue) throws IOException
+  {
+    if (!obj.isSequence())
+    {
+      // Tagged objects are searched through the object they contain
+      List<TLV> content = obj.getChildElements();
+      if (content.size() == 1 && !obj.isUniversal())
+      {
+        return findList(content.get(0), identifierValue);
+      }
+      return null;
+    }
+
+    List<TLV> elements = obj.getChildElements();
+    for ( int i = 0 ; i < elements.size() ; i++ )
+    {
+      TLV element = elements.get(i);
+      if (element.getDTag() == 0x06)
+      {
+        if (element.valueEquals(identifierValue))
+        {
+          // the list is the content of the tagged object following the identifier
+          TLV next = i + 1 < elements.size() ? elements.get(i + 1) : null;
+          if (next != null && !next.isUniversal() && next.getChildElements().size() == 1)
+          {
+            return next.getChildElements().get(0).getEncoded();
+          }
+          return null;
+        }
+      }
+      else
+      {
+        byte[] result = findList(element, identifierValue);
+        if (result != null)
+        {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
   /**
    * Parse all nonSequence-objects and try to get the next sequence
    *
@@ -31,7 +31,7 @@ import de.governikus.eumw.poseidas.paosservlet.paos.handler.PaosHandlerFactory;
  *
  * @author <a href="mail:obe@bos-bremen.de">Ole Behrens</a>
  */
-@WebServlet(ContextPaths.EIDAS_CONTEXT_PATH + ContextPaths.PAOS_SERVLET)
+@WebServlet(urlPatterns = ContextPaths.EIDAS_CONTEXT_PATH + ContextPaths.PAOS_SERVLET, loadOnStartup = 1)
 public class PaosReceiver extends HttpServlet
 {
 
@@ -39,6 +39,12 @@ public class PaosReceiver extends HttpServlet
 
   private static final Log LOG = LogFactory.getLog(PaosReceiver.class.getName());
 
+  @Override
+  public void init()
+  {
+    Util.preload();
+  }
+
   @Override
   public void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException
   {
@@ -16,7 +16,6 @@ import java.net.URL;
 import java.util.UUID;
 
 import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.catalog.CatalogFeatures;
@@ -28,36 +27,55 @@ import javax.xml.soap.MessageFactory;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPHeader;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import de.governikus.eumw.eidascommon.Utils;
+import de.governikus.eumw.utils.xml.JaxbContextRegistry;
 
 
 public final class Util
 {
 
-  private static final ThreadLocal<DocumentBuilder> docBuilder = new ThreadLocal<>();
+  private static final Log LOG = LogFactory.getLog(Util.class.getName());
 
-  private static final JAXBContext JAXB_CONTEXT;
+  private static final ThreadLocal<DocumentBuilder> docBuilder = new ThreadLocal<>();
 
-  static
+  /**
+   * context path of the eCard API types exchanged in PAOS messages
+   */
+  public static final String ECARD_CONTEXT_PATH = "iso.std.iso_iec._24727.tech.schema";
+
+  /**
+   * compiled eCard schema, it is thread safe and compiling it takes much longer than validating a message
+   */
+  private static volatile Schema ecardSchema;
+
+  /**
+   * Create the JAXB context and compile the schema for the PAOS messages, so that the first client does not have to
+   * wait for it.
+   */
+  public static void preload()
   {
+    JaxbContextRegistry.preload(ECARD_CONTEXT_PATH);
     try
     {
-      JAXB_CONTEXT = JAXBContext.newInstance("iso.std.iso_iec._24727.tech.schema");
+      getEcardSchema();
     }
-    catch (JAXBException e)
+    catch (SAXException e)
     {
-      throw new RuntimeException("Cannot create JAXBContext for PAOS messages", e);
+      // the catalog might be outdated, will be tried again with the first message
+      LOG.warn("Cannot compile the eCard schema at startup", e);
     }
   }
 
-
   public static Document xml2document(InputStream documentStream)
     throws SAXException, IOException, ParserConfigurationException
   {
@@ -90,32 +108,55 @@ public final class Util
       }
       if (child != null)
       {
-        Unmarshaller um = JAXB_CONTEXT.createUnmarshaller();
-        SchemaFactory sf = Utils.getSchemaFactory();
-        // we must permit file access for there are some schema files referenced in the catalog
-        sf.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file");
-        String catalogUrlString = Util.class.getResource("/ecard115/ecard115catalog.xml").toString();
-
-        URL schemaUrl = Util.class.getResource("/ecard115/ISO24727-Protocols.xsd");
-        CatalogFeatures catalogFeatures = CatalogFeatures.builder()
-                                                         .with(CatalogFeatures.Feature.FILES, catalogUrlString)
-                                                         .build();
-        CatalogResolver catalogResolver = CatalogManager.catalogResolver(catalogFeatures);
-        sf.setResourceResolver(catalogResolver);
+        Schema schema;
         try
         {
-          um.setSchema(sf.newSchema(schemaUrl));
-          return um.unmarshal(child);
+          schema = getEcardSchema();
         }
         catch (SAXException e)
         {
           // the catalog might be outdated, force regeneration
+          return null;
+        }
+        JaxbContextRegistry.PooledContext context = JaxbContextRegistry.get(ECARD_CONTEXT_PATH);
+        Unmarshaller um = context.acquireUnmarshaller();
+        try
+        {
+          um.setSchema(schema);
+          return um.unmarshal(child);
+        }
+        finally
+        {
+          context.release(um);
         }
       }
     }
     return null;
   }
 
+  private static Schema getEcardSchema() throws SAXException
+  {
+    Schema schema = ecardSchema;
+    if (schema == null)
+    {
+      SchemaFactory sf = Utils.getSchemaFactory();
+      // we must permit file access for there are some schema files referenced in the catalog
+      sf.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file");
+      String catalogUrlString = Util.class.getResource("/ecard115/ecard115catalog.xml").toString();
+
+      URL schemaUrl = Util.class.getResource("/ecard115/ISO24727-Protocols.xsd");
+      CatalogFeatures catalogFeatures = CatalogFeatures.builder()
+                                                       .with(CatalogFeatures.Feature.FILES, catalogUrlString)
+                                                       .build();
+      CatalogResolver catalogResolver = CatalogManager.catalogResolver(catalogFeatures);
+      sf.setResourceResolver(catalogResolver);
+      // no synchronization needed, no problem when this happens two times
+      schema = sf.newSchema(schemaUrl);
+      ecardSchema = schema;
+    }
+    return schema;
+  }
+
   public static String generateUUID()
   {
     String uuid = UUID.randomUUID().toString();
@@ -13,6 +13,8 @@ package de.governikus.eumw.poseidas.paosservlet.paos.handler;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
@@ -45,7 +47,13 @@ public abstract class AbstractPaosHandler
 
   private static final Log LOG = LogFactory.getLog(AbstractPaosHandler.class.getName());
 
-  private static int currentID;
+  /**
+   * prefix of generated message IDs, random per JVM so that IDs of different nodes and restarts do not collide
+   */
+  private static final String ID_PREFIX = "Id" + Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36)
+                                          + "-";
+
+  private static final AtomicLong CURRENT_ID = new AtomicLong();
 
   protected String sessionId;
 
@@ -270,9 +278,15 @@ public abstract class AbstractPaosHandler
     }
   }
 
+  /**
+   * Generates a message ID which is unique within this JVM and very likely unique across nodes, safe to be called
+   * from concurrent servlet threads.
+   *
+   * @return message ID
+   */
   static String generateUniqueID()
   {
-    return "Id" + (currentID++);
+    return ID_PREFIX + CURRENT_ID.getAndIncrement();
   }
 
   protected SessionManager getSessionManager()
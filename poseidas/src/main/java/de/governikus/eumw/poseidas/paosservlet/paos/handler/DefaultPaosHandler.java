@@ -15,7 +15,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 
 import javax.servlet.http.HttpServletRequest;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.parsers.ParserConfigurationException;
@@ -28,6 +27,7 @@ import org.xml.sax.SAXException;
 import de.governikus.eumw.poseidas.ecardcore.utilities.XMLTransformer;
 import de.governikus.eumw.poseidas.eidserver.convenience.session.Session;
 import de.governikus.eumw.poseidas.paosservlet.authentication.paos.Util;
+import de.governikus.eumw.utils.xml.JaxbContextRegistry;
 import iso.std.iso_iec._24727.tech.schema.StartPAOS;
 
 
@@ -36,20 +36,6 @@ public class DefaultPaosHandler extends AbstractPaosHandler
 
   private static final String HTTP_WWW_W3_ORG_2005_03_ADDRESSING = "http://www.w3.org/2005/03/addressing";
 
-  private static final JAXBContext JAXB_CONTEXT;
-
-  static
-  {
-    try
-    {
-      JAXB_CONTEXT = JAXBContext.newInstance("iso.std.iso_iec._24727.tech.schema");
-    }
-    catch (JAXBException e)
-    {
-      throw new RuntimeException("Cannot create JAXBContext for PAOS messages", e);
-    }
-  }
-
   private final String relatesTo;
 
   private final String messageId;
@@ -137,15 +123,24 @@ public class DefaultPaosHandler extends AbstractPaosHandler
     Document paosEnvelope = Util.xml2document(new ByteArrayInputStream(out.toByteArray()));
     Node soapBody = paosEnvelope.getElementsByTagName("soap:Body").item(0);
 
+    JaxbContextRegistry.PooledContext context = JaxbContextRegistry.get(Util.ECARD_CONTEXT_PATH);
+    Marshaller m = null;
     try
     {
-      Marshaller m = JAXB_CONTEXT.createMarshaller();
+      m = context.acquireMarshaller();
       m.marshal(object, soapBody);
     }
     catch (JAXBException e)
     {
       e.getCause();
     }
+    finally
+    {
+      if (m != null)
+      {
+        context.release(m);
+      }
+    }
 
     return XMLTransformer.xmlToString(paosEnvelope);
   }
@@ -10,21 +10,69 @@
 
 package de.governikus.eumw.poseidas.paosservlet.paos.handler;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
+import de.governikus.eumw.poseidas.eidserver.convenience.session.SessionManager;
 
+
+/**
+ * Maps PAOS message IDs to the eID session they belong to. The mapper is used by concurrent servlet threads.
+ * <p>
+ * A mapping expires after the session lifetime, so conversations which are never finished do not stay in memory.
+ * The number of mappings is limited, when the limit is reached expired mappings are dropped first and then the
+ * mapping expiring next. The mappings are additionally kept in order of expiry, so dropping a mapping never requires
+ * a scan of all mappings.
+ * </p>
+ */
 public class MessageSessionMapper
 {
 
-  private static final MessageSessionMapper SINGLETON = new MessageSessionMapper();
+  /**
+   * lifetime of a mapping if no session timeout is configured, same as the default session timeout
+   */
+  static final long DEFAULT_TTL = 15L * 60 * 1000;
+
+  /**
+   * maximum number of mappings
+   */
+  static final int MAX_ENTRIES = 100_000;
+
+  private static final MessageSessionMapper SINGLETON = new MessageSessionMapper(MAX_ENTRIES, () -> {
+    Long timeout = SessionManager.getInstance().getSessionTimeout();
+    return timeout == null ? DEFAULT_TTL : timeout;
+  }, System::currentTimeMillis);
+
+  private final Map<String, Correlation> msgId2sessId = new ConcurrentHashMap<>();
+
+  /**
+   * the mappings in order of expiry, may briefly contain mappings already removed from {@link #msgId2sessId}
+   */
+  private final ConcurrentSkipListMap<Correlation, String> expiryOrder = new ConcurrentSkipListMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
 
-  private final Map<String, String> msgId2sessId;
+  private final int maxEntries;
 
+  private final LongSupplier ttl;
 
-  private MessageSessionMapper()
+  private final LongSupplier clock;
+
+  /**
+   * Constructor.
+   *
+   * @param maxEntries maximum number of mappings
+   * @param ttl lifetime of a mapping in milliseconds
+   * @param clock current time in milliseconds
+   */
+  MessageSessionMapper(int maxEntries, LongSupplier ttl, LongSupplier clock)
   {
-    msgId2sessId = new HashMap<>();
+    this.maxEntries = maxEntries;
+    this.ttl = ttl;
+    this.clock = clock;
   }
 
 
@@ -35,26 +83,124 @@ public class MessageSessionMapper
 
   String getSessionId(String messageId)
   {
-    return msgId2sessId.get(messageId);
+    Correlation correlation = msgId2sessId.get(messageId);
+    if (correlation == null)
+    {
+      return null;
+    }
+    if (correlation.isExpired(clock.getAsLong()))
+    {
+      remove(messageId, correlation);
+      return null;
+    }
+    return correlation.sessionId;
   }
 
   void add(String msgId, String sessionId)
   {
-    msgId2sessId.put(msgId, sessionId);
+    put(msgId, sessionId);
   }
 
   void overwriteMessageId(String oldMsgId, String newMsgId)
   {
-    String sessionId = msgId2sessId.remove(oldMsgId);
-    if (sessionId == null)
+    // remove is atomic, so of two requests relating to the same message only one continues the conversation
+    Correlation correlation = msgId2sessId.remove(oldMsgId);
+    if (correlation != null)
+    {
+      expiryOrder.remove(correlation);
+    }
+    if (correlation == null || correlation.isExpired(clock.getAsLong()))
     {
       throw new IllegalArgumentException("No sessionId found for messageId " + oldMsgId);
     }
-    msgId2sessId.put(newMsgId, sessionId);
+    put(newMsgId, correlation.sessionId);
   }
 
   void remove(String msgId)
   {
-    msgId2sessId.remove(msgId);
+    Correlation correlation = msgId2sessId.remove(msgId);
+    if (correlation != null)
+    {
+      expiryOrder.remove(correlation);
+    }
+  }
+
+  /**
+   * @return number of mappings, including expired mappings not yet dropped
+   */
+  int size()
+  {
+    return msgId2sessId.size();
+  }
+
+  private void remove(String msgId, Correlation correlation)
+  {
+    if (msgId2sessId.remove(msgId, correlation))
+    {
+      expiryOrder.remove(correlation);
+    }
+  }
+
+  private void put(String msgId, String sessionId)
+  {
+    long now = clock.getAsLong();
+    purge(now);
+    Correlation correlation = new Correlation(sessionId, now + ttl.getAsLong(), sequence.incrementAndGet());
+    Correlation previous = msgId2sessId.put(msgId, correlation);
+    if (previous != null)
+    {
+      expiryOrder.remove(previous);
+    }
+    expiryOrder.put(correlation, msgId);
+  }
+
+  /**
+   * Drops expired mappings, then the mappings expiring next while the limit is reached. Only the mappings which are
+   * dropped are visited. Concurrent adds may exceed the limit by the number of adding threads.
+   */
+  private void purge(long now)
+  {
+    Map.Entry<Correlation, String> first = expiryOrder.firstEntry();
+    while (first != null && (first.getKey().isExpired(now) || msgId2sessId.size() >= maxEntries))
+    {
+      if (expiryOrder.remove(first.getKey(), first.getValue()))
+      {
+        msgId2sessId.remove(first.getValue(), first.getKey());
+      }
+      first = expiryOrder.firstEntry();
+    }
+  }
+
+  /**
+   * Session ID with the time the mapping expires, ordered by expiry. Mappings expiring at the same time are ordered
+   * by creation.
+   */
+  private static final class Correlation implements Comparable<Correlation>
+  {
+
+    private final String sessionId;
+
+    private final long expiresAt;
+
+    private final long sequence;
+
+    Correlation(String sessionId, long expiresAt, long sequence)
+    {
+      this.sessionId = sessionId;
+      this.expiresAt = expiresAt;
+      this.sequence = sequence;
+    }
+
+    boolean isExpired(long now)
+    {
+      return now >= expiresAt;
+    }
+
+    @Override
+    public int compareTo(Correlation other)
+    {
+      int result = Long.compare(expiresAt, other.expiresAt);
+      return result == 0 ? Long.compare(sequence, other.sequence) : result;
+    }
   }
 }
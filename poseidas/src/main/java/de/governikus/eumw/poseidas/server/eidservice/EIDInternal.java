@@ -244,13 +244,13 @@ public class EIDInternal
       throw new IllegalArgumentException("no cvc configured");
     }
 
-    byte[] defectListData = tp.getDefectList();
+    byte[] defectListData = cvcFacade.getDefectList(refId);
     if (defectListData == null)
     {
       throw new IllegalArgumentException("no defect list stored");
     }
 
-    byte[] masterListData = tp.getMasterList();
+    byte[] masterListData = cvcFacade.getMasterList(refId);
     if (masterListData == null)
     {
       throw new IllegalArgumentException("no master list stored");
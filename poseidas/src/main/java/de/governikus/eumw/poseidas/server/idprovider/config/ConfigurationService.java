@@ -13,10 +13,15 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.opensaml.core.config.InitializationException;
@@ -29,12 +34,15 @@ import de.governikus.eumw.config.ConnectorMetadataType;
 import de.governikus.eumw.config.DvcaConfigurationType;
 import de.governikus.eumw.config.EidasMiddlewareConfig;
 import de.governikus.eumw.config.KeyPairType;
+import de.governikus.eumw.config.KeyStoreType;
 import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.eidascommon.ContextPaths;
 import de.governikus.eumw.eidascommon.ErrorCodeException;
 import de.governikus.eumw.eidasmiddleware.eid.RequestingServiceProvider;
 import de.governikus.eumw.eidasstarterkit.EidasMetadataNode;
 import de.governikus.eumw.eidasstarterkit.EidasSaml;
+import de.governikus.eumw.poseidas.cardbase.Hex;
+import de.governikus.eumw.poseidas.server.pki.caserviceaccess.PKIServiceConnector;
 import de.governikus.eumw.utils.key.KeyReader;
 import de.governikus.eumw.utils.key.KeyStoreSupporter;
 import de.governikus.eumw.utils.xml.XmlException;
@@ -58,6 +66,11 @@ public class ConfigurationService
 
   private final ConfigurationRepository configurationRepository;
 
+  /**
+   * key pairs already read from their key stores, by key pair name
+   */
+  private final Map<String, CachedKeyPair> keyPairCache = new ConcurrentHashMap<>();
+
   /**
    * Get the current configuration from the database
    *
@@ -125,6 +138,9 @@ public class ConfigurationService
     var entity = new Configuration();
     entity.setId(CONFIGURATION_ID);
     entity.setXmlConfigBlob(config.getBytes(StandardCharsets.UTF_8));
+    keyPairCache.clear();
+    // the certificates, keys or service providers may have changed
+    PKIServiceConnector.clearTlsClients();
     return new String(configurationRepository.save(entity).getXmlConfigBlob(), StandardCharsets.UTF_8);
   }
 
@@ -167,7 +183,8 @@ public class ConfigurationService
   }
 
   /**
-   * Get a wrapper for the initialized {@link KeyStore} with the given key pair name
+   * Get a wrapper for the initialized {@link KeyStore} with the given key pair name. Reading a key store is expensive,
+   * so the key pair is kept as long as the key pair and key store entries of the configuration do not change.
    *
    * @param keyPairName The name for this key pair
    * @return The key pair wrapped in a {@link KeyPair} class to provide easier access to the
@@ -192,19 +209,28 @@ public class ConfigurationService
                                      .orElseThrow(() -> new ConfigurationException("No key pair available with name "
                                                                                    + keyPairName));
 
-      return configuration.get()
-                          .getKeyData()
-                          .getKeyStore()
-                          .stream()
-                          .filter(k -> k.getName().equals(keyPairType.getKeyStoreName()))
-                          .findFirst()
-                          .map(keyStoreType -> new KeyPair(KeyStoreSupporter.readKeyStore(keyStoreType.getKeyStore(),
-                                                                                          KeyStoreSupporter.KeyStoreType.valueOf(keyStoreType.getType()
-                                                                                                                                             .value()),
-                                                                                          keyStoreType.getPassword()),
-                                                           keyPairType.getAlias(), keyPairType.getPassword()))
-                          .orElseThrow(() -> new ConfigurationException("No key store available with name "
-                                                                        + keyPairName));
+      var keyStoreType = configuration.get()
+                                      .getKeyData()
+                                      .getKeyStore()
+                                      .stream()
+                                      .filter(k -> k.getName().equals(keyPairType.getKeyStoreName()))
+                                      .findFirst()
+                                      .orElseThrow(() -> new ConfigurationException("No key store available with name "
+                                                                                    + keyPairName));
+
+      String fingerprint = fingerprint(keyPairType, keyStoreType);
+      CachedKeyPair cached = keyPairCache.get(keyPairName);
+      if (cached != null && cached.fingerprint.equals(fingerprint))
+      {
+        return cached.keyPair;
+      }
+      var keyPair = new KeyPair(KeyStoreSupporter.readKeyStore(keyStoreType.getKeyStore(),
+                                                               KeyStoreSupporter.KeyStoreType.valueOf(keyStoreType.getType()
+                                                                                                                  .value()),
+                                                               keyStoreType.getPassword()),
+                                keyPairType.getAlias(), keyPairType.getPassword());
+      keyPairCache.put(keyPairName, new CachedKeyPair(fingerprint, keyPair));
+      return keyPair;
     }
     catch (Exception e)
     {
@@ -213,6 +239,23 @@ public class ConfigurationService
     }
   }
 
+  private static String fingerprint(KeyPairType keyPairType, KeyStoreType keyStoreType)
+    throws NoSuchAlgorithmException
+  {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    for ( String value : new String[]{keyPairType.getAlias(), keyPairType.getPassword(), keyStoreType.getName(),
+                                      Objects.toString(keyStoreType.getType()), keyStoreType.getPassword()} )
+    {
+      digest.update(Objects.toString(value).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte)0);
+    }
+    if (keyStoreType.getKeyStore() != null)
+    {
+      digest.update(keyStoreType.getKeyStore());
+    }
+    return Hex.hexify(digest.digest());
+  }
+
   /**
    * Get the certificate with the given name
    */
@@ -323,4 +366,16 @@ public class ConfigurationService
                              .map(EidasMiddlewareConfig.KeyData::getCertificate)
                              .orElse(List.of());
   }
+
+  /**
+   * A key pair together with the fingerprint of the configuration entries it was created from
+   */
+  @RequiredArgsConstructor
+  private static class CachedKeyPair
+  {
+
+    private final String fingerprint;
+
+    private final KeyPair keyPair;
+  }
 }
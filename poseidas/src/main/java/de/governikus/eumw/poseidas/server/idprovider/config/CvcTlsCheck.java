@@ -14,7 +14,6 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.security.KeyManagementException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.cert.Certificate;
@@ -26,7 +25,13 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
@@ -35,37 +40,58 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import de.governikus.eumw.config.EidasMiddlewareConfig;
 import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.poseidas.cardbase.ByteUtil;
+import de.governikus.eumw.poseidas.cardbase.Hex;
+import de.governikus.eumw.poseidas.cardbase.crypto.DigestPool;
 import de.governikus.eumw.poseidas.cardbase.crypto.DigestUtil;
 import de.governikus.eumw.poseidas.eidmodel.TerminalData;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermission;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
+import de.governikus.eumw.poseidas.server.pki.TerminalPermissionStatus;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 
-
+/**
+ * Checks the own TLS server certificate and the CVCs of the service providers.
+ * <p>
+ * Fetching the own TLS certificate requires a TLS handshake with the own server. This is only done by {@link #check()},
+ * which runs on startup and periodically in the background. All other methods use the last fetched certificate. The
+ * results of the CVC checks are cached per service provider. An entry is only used as long as the CVC, the server URL
+ * and the TLS certificate did not change.
+ */
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Component
 public class CvcTlsCheck
 {
 
-  private TerminalPermissionAO facade;
+  private static final String NONE = "none";
+
+  private final TerminalPermissionAO facade;
 
   private final ConfigurationService configurationService;
 
+  private final Map<String, CachedCvcCheck> cvcCheckCache = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean tlsCertificateRefreshRunning = new AtomicBoolean();
+
+  private volatile OwnTlsCertificate ownTlsCertificate;
+
   /**
    * Performs the following checks: - TLS server certificate valid? - CVC valid? - server URL matches the one in CVC? -
-   * TLS server certificate referenced in CVC?
+   * TLS server certificate referenced in CVC? The TLS certificate is fetched from the server.
    *
    * @return object holding the results
    */
@@ -78,8 +104,42 @@ public class CvcTlsCheck
       return Optional.empty();
     }
     EidasMiddlewareConfig config = configuration.get();
+    return Optional.of(createResult(config, fetchOwnTlsCertificate(config.getServerUrl())));
+  }
+
+  /**
+   * Performs the same checks as {@link #check()} but uses the last fetched TLS certificate, so no connection to the
+   * server is made. If the server URL was changed, the TLS certificate is fetched in the background and is considered
+   * not present until then.
+   *
+   * @return object holding the results
+   */
+  public Optional<CvcTlsCheckResult> getCachedResult()
+  {
+    Optional<EidasMiddlewareConfig> configuration = configurationService.getConfiguration();
+    if (configuration.isEmpty())
+    {
+      log.warn("No eidas middleware configuration present. Cannot perform cvc tls checks");
+      return Optional.empty();
+    }
+    EidasMiddlewareConfig config = configuration.get();
+    return Optional.of(createResult(config, getCachedOwnTlsCertificate(config.getServerUrl())));
+  }
+
+  /**
+   * Fetch the own TLS certificate again and update the cached results.
+   */
+  @Scheduled(fixedDelayString = "${poseidas.cvctlscheck.refresh:300}",
+             initialDelayString = "${poseidas.cvctlscheck.refresh:300}",
+             timeUnit = TimeUnit.SECONDS)
+  public void refresh()
+  {
+    check();
+  }
+
+  private CvcTlsCheckResult createResult(EidasMiddlewareConfig config, Optional<X509Certificate> certificate)
+  {
     CvcTlsCheckResult resultHolder = new CvcTlsCheckResult();
-    Optional<X509Certificate> certificate = getOwnTlsCertificate(config.getServerUrl());
 
     // Test TLS Certificates
     if (certificate.isPresent())
@@ -93,18 +153,20 @@ public class CvcTlsCheck
     }
 
     // Check CVCs
-    configuration.map(EidasMiddlewareConfig::getEidConfiguration)
-                 .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
-                 .stream()
-                 .flatMap(List::stream)
-                 .forEach(sp -> resultHolder.getProviderCvcChecks()
-                                            .put(sp.getName(), getCvcResultsForSp(sp, config, certificate)));
-    return Optional.of(resultHolder);
+    Optional.ofNullable(config.getEidConfiguration())
+            .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
+            .stream()
+            .flatMap(List::stream)
+            .forEach(sp -> resultHolder.getProviderCvcChecks()
+                                       .put(sp.getName(), getCvcResultsForSp(sp, config, certificate)));
+    // forget service providers removed from the configuration
+    cvcCheckCache.keySet().retainAll(resultHolder.getProviderCvcChecks().keySet());
+    return resultHolder;
   }
 
   /**
    * Performs the following checks for one service provider: - CVC valid? - server URL matches the one in CVC? - TLS
-   * server certificate referenced in CVC?
+   * server certificate referenced in CVC? The last fetched TLS certificate is used, see {@link #getCachedResult()}.
    *
    * @param entityId the entity id for the service provider
    * @return object holding the results
@@ -128,7 +190,7 @@ public class CvcTlsCheck
     if (serviceProvider.isPresent())
     {
       ServiceProviderType sp = serviceProvider.get();
-      Optional<X509Certificate> certificate = getOwnTlsCertificate(configuration.get().getServerUrl());
+      Optional<X509Certificate> certificate = getCachedOwnTlsCertificate(configuration.get().getServerUrl());
       cvcResults = getCvcResultsForSp(sp, configuration.get(), certificate);
     }
     return cvcResults;
@@ -137,25 +199,73 @@ public class CvcTlsCheck
   private CvcCheckResults getCvcResultsForSp(ServiceProviderType sp,
                                              EidasMiddlewareConfig config,
                                              Optional<X509Certificate> certificate)
+  {
+    // the status does not contain the keys, chain and lists, so it is much cheaper to load than the permission
+    TerminalPermissionStatus status = facade.getTerminalPermissionStatus(sp.getCVCRefID());
+    String key = String.join("|",
+                             sp.getCVCRefID(),
+                             Objects.toString(config.getServerUrl()),
+                             status == null ? NONE : hash(status.getCvc()),
+                             fingerprint(certificate));
+    CachedCvcCheck cached = cvcCheckCache.get(sp.getName());
+    if (cached == null || !cached.getKey().equals(key))
+    {
+      TerminalPermission tp = facade.getTerminalPermission(sp.getCVCRefID());
+      cached = createCvcCheck(key, tp, config.getServerUrl(), certificate);
+      cvcCheckCache.put(sp.getName(), cached);
+    }
+    return cached.getResults();
+  }
+
+  private static CachedCvcCheck createCvcCheck(String key,
+                                               TerminalPermission tp,
+                                               String serverUrl,
+                                               Optional<X509Certificate> certificate)
   {
     CvcCheckResults cvcResults = new CvcCheckResults();
-    TerminalPermission tp = facade.getTerminalPermission(sp.getCVCRefID());
     if (tp != null)
     {
       try
       {
         TerminalData data = tp.getFullCvc();
         cvcResults.setCvcPresent(true);
-        cvcResults.setCvcValidity(testCvcExpired(data));
-        cvcResults.setCvcUrlMatch(testCvcUrlMatch(data, config.getServerUrl()));
+        cvcResults.setCvcUrlMatch(testCvcUrlMatch(data, serverUrl));
         cvcResults.setCvcTlsMatch(testCvcTlsMatch(data, certificate));
+        return new CachedCvcCheck(key, cvcResults, data.getHolderReferenceString(), data.getEffectiveDate(),
+                                  data.getExpirationDate());
       }
       catch (IllegalArgumentException e)
       {
         // happens if no cvc in terminalpermission
       }
     }
-    return cvcResults;
+    return new CachedCvcCheck(key, cvcResults, null, null, null);
+  }
+
+  private static String fingerprint(Optional<X509Certificate> certificate)
+  {
+    if (certificate.isEmpty())
+    {
+      return NONE;
+    }
+    try
+    {
+      return hash(certificate.get().getEncoded());
+    }
+    catch (CertificateEncodingException e)
+    {
+      log.warn("Unable to encode TLS certificate", e);
+      return NONE;
+    }
+  }
+
+  private static String hash(byte[] data)
+  {
+    if (data == null)
+    {
+      return NONE;
+    }
+    return Hex.hexify(DigestPool.SHA256.digest(data));
   }
 
   private static boolean testCvcTlsMatch(TerminalData data, Optional<X509Certificate> certificate)
@@ -168,10 +278,9 @@ public class CvcTlsCheck
     byte[] digest;
     try
     {
-      MessageDigest md = DigestUtil.getDigestByOID(data.getPublicKey().getOID());
-      digest = md.digest(certificate.get().getEncoded());
+      digest = DigestUtil.digestByOID(data.getPublicKey().getOID(), certificate.get().getEncoded());
     }
-    catch (IOException | NoSuchAlgorithmException | CertificateEncodingException e)
+    catch (IOException | CertificateEncodingException e)
     {
       log.warn("Unable to check if TLS certificate is referenced in CVC {}: Exception {}",
                data.getHolderReferenceString(),
@@ -231,6 +340,40 @@ public class CvcTlsCheck
     return port;
   }
 
+  /**
+   * Return the last fetched TLS certificate if it belongs to the given URL. Otherwise, start fetching it in the
+   * background and return nothing for now.
+   */
+  private Optional<X509Certificate> getCachedOwnTlsCertificate(String url)
+  {
+    OwnTlsCertificate cached = ownTlsCertificate;
+    if (cached != null && Objects.equals(cached.getUrl(), url))
+    {
+      return Optional.ofNullable(cached.getCertificate());
+    }
+    if (tlsCertificateRefreshRunning.compareAndSet(false, true))
+    {
+      CompletableFuture.runAsync(() -> {
+        try
+        {
+          fetchOwnTlsCertificate(url);
+        }
+        finally
+        {
+          tlsCertificateRefreshRunning.set(false);
+        }
+      });
+    }
+    return Optional.empty();
+  }
+
+  private Optional<X509Certificate> fetchOwnTlsCertificate(String url)
+  {
+    Optional<X509Certificate> certificate = getOwnTlsCertificate(url);
+    ownTlsCertificate = new OwnTlsCertificate(url, certificate.orElse(null));
+    return certificate;
+  }
+
   private static Optional<X509Certificate> getOwnTlsCertificate(String url)
   {
     if (StringUtils.isBlank(url))
@@ -319,28 +462,88 @@ public class CvcTlsCheck
     return false;
   }
 
-  private static boolean testCvcExpired(TerminalData data)
+  /**
+   * Return the expiration date of the own TLS certificate. The certificate is only fetched from the server if it was
+   * not fetched for the configured server URL before.
+   */
+  public Date getTLSExpirationDate() throws IOException
   {
-    Date currentDate = new Date();
-    boolean result = currentDate.before(data.getExpirationDate()) && currentDate.after(data.getEffectiveDate());
-    if (result)
+    String url = configurationService.getConfiguration()
+                                     .orElseThrow(() -> new ConfigurationException("Cannot retrieve own TLS certificate. No eumw configuration present"))
+                                     .getServerUrl();
+    OwnTlsCertificate cached = ownTlsCertificate;
+    Optional<X509Certificate> certificate = cached != null && Objects.equals(cached.getUrl(), url)
+      ? Optional.ofNullable(cached.getCertificate()) : fetchOwnTlsCertificate(url);
+    return certificate.map(X509Certificate::getNotAfter)
+                      .orElseThrow(() -> new IOException("Cannot retrieve own TLS certificate"));
+  }
+
+  @Getter
+  @AllArgsConstructor
+  private static class OwnTlsCertificate
+  {
+
+    private final String url;
+
+    private final X509Certificate certificate;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  private static class CachedCvcCheck
+  {
+
+    private final String key;
+
+    private final CvcCheckResults checkResults;
+
+    private final String holderReference;
+
+    private final Date effectiveDate;
+
+    private final Date expirationDate;
+
+    /**
+     * validity of the CVC when it was last logged, <code>null</code> if not logged yet
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<Boolean> loggedValidity = new AtomicReference<>();
+
+    /**
+     * @return a copy of the cached results, the validity of the CVC is checked against the current time
+     */
+    CvcCheckResults getResults()
     {
-      log.info("CVC {} valid", data.getHolderReferenceString());
+      CvcCheckResults results = new CvcCheckResults();
+      results.setCvcPresent(checkResults.isCvcPresent());
+      results.setCvcUrlMatch(checkResults.isCvcUrlMatch());
+      results.setCvcTlsMatch(checkResults.isCvcTlsMatch());
+      if (effectiveDate != null && expirationDate != null)
+      {
+        Date currentDate = new Date();
+        boolean valid = currentDate.before(expirationDate) && currentDate.after(effectiveDate);
+        // log the first check and changes only, the cached results are requested for every eID response
+        Boolean previous = loggedValidity.getAndSet(valid);
+        if (previous == null || previous != valid)
+        {
+          logValidity(valid);
+        }
+        results.setCvcValidity(valid);
+      }
+      return results;
     }
-    else
+
+    private void logValidity(boolean valid)
     {
-      log.warn("CVC {} invalid", data.getHolderReferenceString());
+      if (valid)
+      {
+        log.info("CVC {} valid", holderReference);
+      }
+      else
+      {
+        log.warn("CVC {} invalid", holderReference);
+      }
     }
-    return result;
-  }
-
-  public Date getTLSExpirationDate() throws IOException
-  {
-    Optional<X509Certificate> ownTlsCertificate = getOwnTlsCertificate(configurationService.getConfiguration()
-                                                                                           .orElseThrow(() -> new ConfigurationException("Cannot retrieve own TLS certificate. No eumw configuration present"))
-                                                                                           .getServerUrl());
-    return ownTlsCertificate.map(X509Certificate::getNotAfter)
-                            .orElseThrow(() -> new IOException("Cannot retrieve own TLS certificate"));
   }
 
   @Getter
@@ -12,11 +12,15 @@ package de.governikus.eumw.poseidas.server.monitoring;
 import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,10 +32,12 @@ import org.snmp4j.PDU;
 import org.snmp4j.agent.mo.snmp.DateAndTime;
 import org.snmp4j.mp.StatusInformation;
 import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.Null;
 import org.snmp4j.smi.OID;
 import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.Variable;
 import org.snmp4j.smi.VariableBinding;
-import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import de.governikus.eumw.config.EidasMiddlewareConfig;
@@ -44,22 +50,37 @@ import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService
 import de.governikus.eumw.poseidas.server.idprovider.config.CvcTlsCheck;
 import de.governikus.eumw.poseidas.server.pki.PermissionDataHandlingMBean;
 import de.governikus.eumw.poseidas.server.pki.RequestSignerCertificateService;
-import de.governikus.eumw.poseidas.server.pki.TerminalPermission;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
-import lombok.AllArgsConstructor;
+import de.governikus.eumw.poseidas.server.pki.TerminalPermissionStatus;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 
 /**
- * SNMP Agent implementation, listens for SNMP GET and GET NEXT requests.
+ * SNMP Agent implementation, listens for SNMP GET, GET NEXT and GET BULK requests.
+ * <p>
+ * The provider specific values are answered from an immutable snapshot, so requests neither lock nor access the
+ * database. The snapshot is created on the first request and refreshed periodically. The values which need a
+ * connection to the DVCA or the own server are only determined by the periodic refresh.
  */
 @Slf4j
 @Component
-@DependsOn("SNMPTrapSender")
-@AllArgsConstructor
+@RequiredArgsConstructor
 public final class SNMPAgent implements CommandResponder
 {
 
+  /**
+   * upper limit for the max-repetitions of a GET BULK request
+   */
+  private static final int MAX_BULK_REPETITIONS = 100;
+
+  /**
+   * upper limit for OIDs without value skipped while searching the next value in a GET BULK request
+   */
+  private static final int MAX_BULK_SKIPPED = 1000;
+
+  private static final String TLS_CERTIFICATE_VALID_KEY = "tls";
+
   private static final Pattern SERVICE_PROVIDER_PREFIX_PATTERN = Pattern.compile(SNMPConstants.PROVIDER_SPECIFIC_PREFIX
                                                                                  + "(\\d+).(\\d+)");
 
@@ -71,22 +92,37 @@ public final class SNMPAgent implements CommandResponder
 
   private final ConfigurationService configurationService;
 
+  private final CvcTlsCheck cvcTlsCheck;
+
+  private final SNMPTrapSender trapSender;
+
+  private final Object snapshotLock = new Object();
+
+  private volatile MibSnapshot snapshot;
+
+  private volatile Map<String, Variable> checkValues = Collections.emptyMap();
+
   private static VariableBinding getDateAndTime(String oid, Date date)
+  {
+    return new VariableBinding(new OID(oid), getDateAndTime(date));
+  }
+
+  private static Variable getDateAndTime(Date date)
   {
     GregorianCalendar calendar = GregorianCalendar.from(ZonedDateTime.now());
     calendar.setTime(date);
-    return new VariableBinding(new OID(oid), DateAndTime.makeDateAndTime(calendar));
+    return DateAndTime.makeDateAndTime(calendar);
   }
 
   @PostConstruct
   public void initialize()
   {
-    if (SNMPTrapSender.getSnmp() == null)
+    if (trapSender.getSnmp() == null)
     {
       log.info("Snmp was not initialized. SNMP Agent can not listen for SNMP GET and GET NEXT request.");
       return;
     }
-    SNMPTrapSender.getSnmp().addCommandResponder(this);
+    trapSender.getSnmp().addCommandResponder(this);
   }
 
   private void setErrorInfos(PDU ret, int error, int index)
@@ -96,7 +132,7 @@ public final class SNMPAgent implements CommandResponder
   }
 
   @Override
-  public synchronized void processPdu(CommandResponderEvent event)
+  public void processPdu(CommandResponderEvent event)
   {
     // accept only SNMPv3 with authentication and encryption
     if (event.getSecurityModel() != 3 || event.getSecurityLevel() != 3)
@@ -145,6 +181,10 @@ public final class SNMPAgent implements CommandResponder
         setErrorInfos(re, PDU.resourceUnavailable, i + 1);
       }
     }
+    else if (type == PDU.GETBULK)
+    {
+      processGetBulk(command, re);
+    }
     else
     {
       setErrorInfos(re, PDU.genErr, 0);
@@ -209,7 +249,12 @@ public final class SNMPAgent implements CommandResponder
           return getDateAndTime(oid, new Date(latestRetrieval));
         }
       case GET_TLS_CERTIFICATE_VALID:
-        return getDateAndTime(oid, new CvcTlsCheck(facade, configurationService).getTLSExpirationDate());
+        Variable tlsExpiration = checkValues.get(TLS_CERTIFICATE_VALID_KEY);
+        if (tlsExpiration == null)
+        {
+          throw new IOException("Expiration date of the TLS certificate not yet available");
+        }
+        return new VariableBinding(new OID(oid), tlsExpiration);
       default:
         log.warn("No matching case for this OID: {}", oidConstant.getValue());
         throw new IllegalArgumentException("No matching case for this OID: " + oidConstant.getValue());
@@ -221,66 +266,254 @@ public final class SNMPAgent implements CommandResponder
     Matcher matcher = SERVICE_PROVIDER_PREFIX_PATTERN.matcher(oid);
     if (matcher.find())
     {
-      String stringType = matcher.group(1);
-      Integer type = Integer.valueOf(stringType);
-      String stringId = matcher.group(2);
-      Integer id = Integer.valueOf(stringId);
+      int type = Integer.parseInt(matcher.group(1));
+      int id = Integer.parseInt(matcher.group(2));
+      MibSnapshot mib = getSnapshot();
+      if (mib.providerCount <= id)
+      {
+        throw new IllegalArgumentException("Invalid SP index: " + id);
+      }
+      String key = valueKey(type, id);
+      Variable value = mib.values.get(key);
+      if (value == null)
+      {
+        value = checkValues.get(key);
+      }
+      if (value == null)
+      {
+        throw new IOException("No value available for OID: " + oid);
+      }
+      return new VariableBinding(new OID(oid), value);
+    }
+    throw new IllegalArgumentException("Invalid OID: " + oid);
+  }
 
-      EidasMiddlewareConfig configuration = configurationService.getConfiguration()
-                                                                .orElseThrow(() -> new ConfigurationException("No eidas middleware configuration present"));
+  private static String valueKey(int type, int id)
+  {
+    return type + "." + id;
+  }
+
+  private MibSnapshot getSnapshot()
+  {
+    MibSnapshot current = snapshot;
+    if (current != null)
+    {
+      return current;
+    }
+    synchronized (snapshotLock)
+    {
+      if (snapshot == null)
+      {
+        snapshot = createSnapshot();
+      }
+      return snapshot;
+    }
+  }
 
-      List<ServiceProviderType> spList = new ArrayList<>(configuration.getEidConfiguration().getServiceProvider());
-      if (spList.size() <= id)
+  /**
+   * Refresh the snapshot of the provider specific values and the values which need a connection to the DVCA or the
+   * own server.
+   */
+  @Scheduled(fixedDelayString = "${poseidas.snmp.mibrefresh:60}", initialDelay = 30, timeUnit = TimeUnit.SECONDS)
+  public void refresh()
+  {
+    if (trapSender.getSnmp() == null)
+    {
+      return;
+    }
+    try
+    {
+      MibSnapshot refreshed = createSnapshot();
+      synchronized (snapshotLock)
       {
-        throw new IllegalArgumentException("Invalid SP index: " + id);
+        snapshot = refreshed;
       }
+    }
+    catch (Exception e)
+    {
+      log.warn("Cannot refresh SNMP values, keeping the previous values", e);
+    }
+    try
+    {
+      checkValues = createCheckValues();
+    }
+    catch (Exception e)
+    {
+      log.warn("Cannot refresh SNMP availability values, keeping the previous values", e);
+    }
+  }
+
+  private MibSnapshot createSnapshot()
+  {
+    EidasMiddlewareConfig configuration = configurationService.getConfiguration()
+                                                              .orElseThrow(() -> new ConfigurationException("No eidas middleware configuration present"));
+    List<ServiceProviderType> spList = new ArrayList<>(configuration.getEidConfiguration().getServiceProvider());
+    Map<String, TerminalPermissionStatus> statusByRefId = new HashMap<>();
+    for ( TerminalPermissionStatus status : facade.getTerminalPermissionStatus() )
+    {
+      statusByRefId.put(status.getRefID(), status);
+    }
+
+    Map<String, Variable> values = new HashMap<>();
+    for ( int id = 0 ; id < spList.size() ; id++ )
+    {
       ServiceProviderType sp = spList.get(id);
-      TerminalPermission tp = facade.getTerminalPermission(sp.getCVCRefID());
-      switch (type)
+      putValue(values, SNMPConstants.PROVIDER_NAME, id, () -> new OctetString(sp.getName()));
+      putValue(values,
+               SNMPConstants.RSC_PENDING_AVAILABLE,
+               id,
+               () -> new Integer32(rscService.getRequestSignerCertificate(sp.getName(), false) == null ? 0 : 1));
+      putValue(values,
+               SNMPConstants.RSC_CURRENT_CERTIFICATE_VALID_UNTIL,
+               id,
+               () -> getDateAndTime(rscService.getRequestSignerCertificate(sp.getName(), true).getNotAfter()));
+
+      TerminalPermissionStatus tp = statusByRefId.get(sp.getCVCRefID());
+      if (tp == null)
       {
-        case SNMPConstants.PROVIDER_NAME:
-          return new VariableBinding(new OID(oid), new OctetString(sp.getName()));
-        case SNMPConstants.BLACKLIST_LIST_AVAILABLE:
-          return new VariableBinding(new OID(oid), new Integer32(tp.getBlackListVersion() == null ? 0 : 1));
-        case SNMPConstants.BLACKLIST_LAST_SUCCESSFUL_RETRIEVAL:
-          return getDateAndTime(oid, tp.getBlackListStoreDate());
-        case SNMPConstants.BLACKLIST_DVCA_AVAILABILITY:
-          return new VariableBinding(new OID(oid),
-                                     new Integer32(permissionDataHandling.pingRIService(sp.getName()) ? 1 : 0));
-        case SNMPConstants.MASTERLIST_LIST_AVAILABLE:
-          return new VariableBinding(new OID(oid), new Integer32(tp.getMasterList() == null ? 0 : 1));
-        case SNMPConstants.MASTERLIST_LAST_SUCCESSFUL_RETRIEVAL:
-          return getDateAndTime(oid, tp.getMasterListStoreDate());
-        case SNMPConstants.DEFECTLIST_LIST_AVAILABLE:
-          return new VariableBinding(new OID(oid), new Integer32(tp.getDefectList() == null ? 0 : 1));
-        case SNMPConstants.DEFECTLIST_LAST_SUCCESSFUL_RETRIEVAL:
-          return getDateAndTime(oid, tp.getDefectListStoreDate());
-        case SNMPConstants.MASTERLIST_DVCA_AVAILABILITY:
-        case SNMPConstants.DEFECTLIST_DVCA_AVAILABILITY:
-          return new VariableBinding(new OID(oid),
-                                     new Integer32(permissionDataHandling.pingPAService(sp.getName()) ? 1 : 0));
-        case SNMPConstants.RSC_PENDING_AVAILABLE:
-          return new VariableBinding(new OID(oid),
-                                     new Integer32(rscService.getRequestSignerCertificate(sp.getName(),
-                                                                                          false) == null ? 0 : 1));
-        case SNMPConstants.RSC_CURRENT_CERTIFICATE_VALID_UNTIL:
-          return getDateAndTime(oid, rscService.getRequestSignerCertificate(sp.getName(), true).getNotAfter());
-        case SNMPConstants.CVC_PRESENT:
-          return new VariableBinding(new OID(oid), new Integer32(tp.getCvc() == null ? 0 : 1));
-        case SNMPConstants.CVC_SUBJECT_URL:
-          return new VariableBinding(new OID(oid),
-                                     new OctetString(new CertificateDescription(tp.getCvcDescription()).getSubjectUrl()));
-        case SNMPConstants.CVC_VALID_UNTIL:
-          return getDateAndTime(oid, new TerminalData(tp.getCvc()).getExpirationDate());
-        case SNMPConstants.CVC_TLS_CERTIFICATE_LINK_STATUS:
-          return new VariableBinding(new OID(oid),
-                                     new Integer32(new CvcTlsCheck(facade,
-                                                                   configurationService).checkCvcProvider(sp.getName())
-                                                                          .isCvcTlsMatch() ? 1 : 0));
-        default:
+        continue;
       }
+      putValue(values,
+               SNMPConstants.BLACKLIST_LIST_AVAILABLE,
+               id,
+               () -> new Integer32(tp.getBlackListVersion() == null ? 0 : 1));
+      putValue(values,
+               SNMPConstants.BLACKLIST_LAST_SUCCESSFUL_RETRIEVAL,
+               id,
+               () -> getDateAndTime(tp.getBlackListStoreDate()));
+      putValue(values,
+               SNMPConstants.MASTERLIST_LIST_AVAILABLE,
+               id,
+               () -> new Integer32(tp.isMasterListPresent() ? 1 : 0));
+      putValue(values,
+               SNMPConstants.MASTERLIST_LAST_SUCCESSFUL_RETRIEVAL,
+               id,
+               () -> getDateAndTime(tp.getMasterListStoreDate()));
+      putValue(values,
+               SNMPConstants.DEFECTLIST_LIST_AVAILABLE,
+               id,
+               () -> new Integer32(tp.isDefectListPresent() ? 1 : 0));
+      putValue(values,
+               SNMPConstants.DEFECTLIST_LAST_SUCCESSFUL_RETRIEVAL,
+               id,
+               () -> getDateAndTime(tp.getDefectListStoreDate()));
+      putValue(values, SNMPConstants.CVC_PRESENT, id, () -> new Integer32(tp.getCvc() == null ? 0 : 1));
+      putValue(values,
+               SNMPConstants.CVC_SUBJECT_URL,
+               id,
+               () -> new OctetString(new CertificateDescription(tp.getCvcDescription()).getSubjectUrl()));
+      putValue(values,
+               SNMPConstants.CVC_VALID_UNTIL,
+               id,
+               () -> getDateAndTime(new TerminalData(tp.getCvc()).getExpirationDate()));
     }
-    throw new IllegalArgumentException("Invalid OID: " + oid);
+    return new MibSnapshot(spList.size(), values);
+  }
+
+  private Map<String, Variable> createCheckValues()
+  {
+    EidasMiddlewareConfig configuration = configurationService.getConfiguration()
+                                                              .orElseThrow(() -> new ConfigurationException("No eidas middleware configuration present"));
+    List<ServiceProviderType> spList = new ArrayList<>(configuration.getEidConfiguration().getServiceProvider());
+
+    Map<String, Variable> values = new HashMap<>();
+    putValue(values, TLS_CERTIFICATE_VALID_KEY, () -> getDateAndTime(cvcTlsCheck.getTLSExpirationDate()));
+    for ( int id = 0 ; id < spList.size() ; id++ )
+    {
+      String name = spList.get(id).getName();
+      putValue(values,
+               SNMPConstants.BLACKLIST_DVCA_AVAILABILITY,
+               id,
+               () -> new Integer32(permissionDataHandling.pingRIService(name) ? 1 : 0));
+      // master and defect list are fetched from the same service
+      Variable paAvailable = new Integer32(permissionDataHandling.pingPAService(name) ? 1 : 0);
+      values.put(valueKey(SNMPConstants.MASTERLIST_DVCA_AVAILABILITY, id), paAvailable);
+      values.put(valueKey(SNMPConstants.DEFECTLIST_DVCA_AVAILABILITY, id), paAvailable);
+      putValue(values,
+               SNMPConstants.CVC_TLS_CERTIFICATE_LINK_STATUS,
+               id,
+               () -> new Integer32(cvcTlsCheck.checkCvcProvider(name).isCvcTlsMatch() ? 1 : 0));
+    }
+    return Collections.unmodifiableMap(values);
+  }
+
+  private static void putValue(Map<String, Variable> values, int type, int id, ValueSupplier supplier)
+  {
+    putValue(values, valueKey(type, id), supplier);
+  }
+
+  private static void putValue(Map<String, Variable> values, String key, ValueSupplier supplier)
+  {
+    try
+    {
+      values.put(key, supplier.get());
+    }
+    catch (Exception e)
+    {
+      // leave the value out, a request for it is answered with resourceUnavailable
+      log.trace("No SNMP value for {}", key, e);
+    }
+  }
+
+  private void processGetBulk(PDU command, PDU response)
+  {
+    List<? extends VariableBinding> vbs = command.getVariableBindings();
+    int nonRepeaters = Math.min(Math.max(command.getNonRepeaters(), 0), vbs.size());
+    int maxRepetitions = Math.min(Math.max(command.getMaxRepetitions(), 0), MAX_BULK_REPETITIONS);
+    // in a response, these fields hold the error status and index
+    setErrorInfos(response, PDU.noError, 0);
+
+    List<VariableBinding> result = new ArrayList<>();
+    for ( int i = 0 ; i < nonRepeaters ; i++ )
+    {
+      result.add(getNextAvailableValue(vbs.get(i).getOid()));
+    }
+    List<OID> current = new ArrayList<>();
+    for ( int i = nonRepeaters ; i < vbs.size() ; i++ )
+    {
+      current.add(vbs.get(i).getOid());
+    }
+    for ( int r = 0 ; r < maxRepetitions && !current.isEmpty() ; r++ )
+    {
+      boolean endOfMib = true;
+      for ( int i = 0 ; i < current.size() ; i++ )
+      {
+        VariableBinding next = getNextAvailableValue(current.get(i));
+        result.add(next);
+        current.set(i, next.getOid());
+        endOfMib &= Null.endOfMibView.equals(next.getVariable());
+      }
+      if (endOfMib)
+      {
+        break;
+      }
+    }
+    response.setVariableBindings(result);
+  }
+
+  private VariableBinding getNextAvailableValue(OID oid)
+  {
+    String oidStr = oid.toString();
+    for ( int i = 0 ; i < MAX_BULK_SKIPPED ; i++ )
+    {
+      try
+      {
+        oidStr = nextOID(oidStr);
+      }
+      catch (IllegalStateException e)
+      {
+        break;
+      }
+      try
+      {
+        return getValue(oidStr);
+      }
+      catch (Exception e)
+      {
+        log.trace("No value for {}, trying the next OID", oidStr, e);
+      }
+    }
+    return new VariableBinding(oid, Null.endOfMibView);
   }
 
   private String nextOID(String oidStr)
@@ -291,10 +524,8 @@ public final class SNMPAgent implements CommandResponder
       Matcher matcher = SERVICE_PROVIDER_PREFIX_PATTERN.matcher(oidStr);
       if (matcher.find())
       {
-        Integer id = Integer.valueOf(matcher.group(2));
-        EidasMiddlewareConfig configuration = configurationService.getConfiguration()
-                                                                  .orElseThrow(() -> new ConfigurationException("No eidas middleware configuration present"));
-        if (id + 1 < configuration.getEidConfiguration().getServiceProvider().size())
+        int id = Integer.parseInt(matcher.group(2));
+        if (id + 1 < getSnapshot().providerCount)
         {
           return oidStr.substring(0, oidStr.lastIndexOf('.') + 1) + (id + 1);
         }
@@ -326,4 +557,28 @@ public final class SNMPAgent implements CommandResponder
 
     throw new IllegalStateException("end of OIDs reached");
   }
+
+  @FunctionalInterface
+  private interface ValueSupplier
+  {
+
+    Variable get() throws Exception;
+  }
+
+  /**
+   * Immutable provider specific values
+   */
+  private static final class MibSnapshot
+  {
+
+    private final int providerCount;
+
+    private final Map<String, Variable> values;
+
+    MibSnapshot(int providerCount, Map<String, Variable> values)
+    {
+      this.providerCount = providerCount;
+      this.values = Collections.unmodifiableMap(values);
+    }
+  }
 }
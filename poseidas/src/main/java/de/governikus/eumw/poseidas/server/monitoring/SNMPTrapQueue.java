@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2021 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.server.monitoring;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.snmp4j.PDU;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Bounded queue for SNMP traps which are sent by a dedicated thread, so that the threads creating a trap never wait
+ * for the network. Optionally, a trap is not sent if it is identical to the previous trap with the same OID and that
+ * trap was sent shortly before. As only repetitions of the previous trap are suppressed, the latest value of a trap
+ * OID is always sent. When the queue is full, new traps are dropped. Both cases are counted.
+ */
+@Slf4j
+public class SNMPTrapQueue
+{
+
+  private final TrapTransport transport;
+
+  private final BlockingQueue<PDU> queue;
+
+  private final long coalesceMillis;
+
+  /**
+   * previous trap per trap OID
+   */
+  private final Map<String, QueuedTrap> previousTraps = new ConcurrentHashMap<>();
+
+  private final AtomicLong sent = new AtomicLong();
+
+  private final AtomicLong failed = new AtomicLong();
+
+  private final AtomicLong dropped = new AtomicLong();
+
+  private final AtomicLong coalesced = new AtomicLong();
+
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private Thread senderThread;
+
+  /**
+   * Create a new queue, {@link #start()} must be called before traps are sent.
+   *
+   * @param transport the transport used for sending
+   * @param capacity maximum number of traps waiting to be sent
+   * @param coalesceMillis a trap identical to the previous trap with the same OID is not sent within this number of
+   *          milliseconds, 0 to send every trap
+   */
+  public SNMPTrapQueue(TrapTransport transport, int capacity, long coalesceMillis)
+  {
+    this.transport = transport;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    this.coalesceMillis = coalesceMillis;
+  }
+
+  /**
+   * Queue a trap for sending. This method never blocks.
+   *
+   * @param trap the trap
+   * @param oid the trap OID
+   * @param content identifies the values of the trap, a trap is coalesced with the previous trap with the same OID if
+   *          the content is the same
+   * @return <code>true</code> if the trap was queued, <code>false</code> if it was coalesced or dropped
+   */
+  public boolean offer(PDU trap, String oid, String content)
+  {
+    QueuedTrap queued = new QueuedTrap(content, System.currentTimeMillis());
+    if (coalesceMillis > 0)
+    {
+      QueuedTrap previous = previousTraps.put(oid, queued);
+      if (previous != null && previous.content.equals(content) && queued.time - previous.time < coalesceMillis)
+      {
+        // keep the time of the trap which was actually sent
+        previousTraps.replace(oid, queued, previous);
+        coalesced.incrementAndGet();
+        return false;
+      }
+    }
+    if (!queue.offer(trap))
+    {
+      // the trap is not sent, so the next trap with this OID must not be coalesced with it
+      previousTraps.remove(oid, queued);
+      if (dropped.incrementAndGet() % 100 == 1)
+      {
+        log.warn("SNMP trap queue is full, {} traps dropped so far", dropped.get());
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Start the sender thread.
+   */
+  public void start()
+  {
+    if (!running.compareAndSet(false, true))
+    {
+      return;
+    }
+    senderThread = new Thread(this::sendLoop, "snmpTrapSender");
+    senderThread.setDaemon(true);
+    senderThread.start();
+  }
+
+  /**
+   * Stop the sender thread. Traps still in the queue are sent as long as this does not take longer than the given
+   * time. This method never waits without limit, with a timeout of 0 or less the sender thread is interrupted at
+   * once and remaining traps are discarded.
+   *
+   * @param timeoutMillis maximum time to wait for the remaining traps
+   */
+  public void stop(long timeoutMillis)
+  {
+    if (!running.compareAndSet(true, false))
+    {
+      return;
+    }
+    if (timeoutMillis > 0)
+    {
+      try
+      {
+        senderThread.join(timeoutMillis);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
+    queue.clear();
+    senderThread.interrupt();
+    log.debug("SNMP trap queue stopped: {}", this);
+  }
+
+  private void sendLoop()
+  {
+    while (running.get() || !queue.isEmpty())
+    {
+      PDU trap;
+      try
+      {
+        trap = queue.poll(500, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (trap == null)
+      {
+        continue;
+      }
+      try
+      {
+        transport.send(trap);
+        sent.incrementAndGet();
+      }
+      catch (IOException | RuntimeException e)
+      {
+        failed.incrementAndGet();
+        log.error("An error occurred sending SNMP trap: ", e);
+      }
+    }
+  }
+
+  /**
+   * @return number of traps sent successfully
+   */
+  public long getSent()
+  {
+    return sent.get();
+  }
+
+  /**
+   * @return number of traps which could not be sent
+   */
+  public long getFailed()
+  {
+    return failed.get();
+  }
+
+  /**
+   * @return number of traps dropped because the queue was full
+   */
+  public long getDropped()
+  {
+    return dropped.get();
+  }
+
+  /**
+   * @return number of traps not sent because an identical trap was sent shortly before
+   */
+  public long getCoalesced()
+  {
+    return coalesced.get();
+  }
+
+  /**
+   * @return number of traps waiting to be sent
+   */
+  public int getQueued()
+  {
+    return queue.size();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "sent=" + sent + ", failed=" + failed + ", dropped=" + dropped + ", coalesced=" + coalesced + ", queued="
+           + queue.size();
+  }
+
+  /**
+   * Content of a queued trap with the time it was queued.
+   */
+  private static final class QueuedTrap
+  {
+
+    private final String content;
+
+    private final long time;
+
+    QueuedTrap(String content, long time)
+    {
+      this.content = content;
+      this.time = time;
+    }
+  }
+}
@@ -20,7 +20,6 @@ import org.snmp4j.SNMP4JSettings;
 import org.snmp4j.ScopedPDU;
 import org.snmp4j.Snmp;
 import org.snmp4j.TransportMapping;
-import org.snmp4j.UserTarget;
 import org.snmp4j.mp.MPv3;
 import org.snmp4j.mp.SnmpConstants;
 import org.snmp4j.security.AuthHMAC128SHA224;
@@ -34,7 +33,6 @@ import org.snmp4j.security.PrivAES128;
 import org.snmp4j.security.PrivAES192;
 import org.snmp4j.security.PrivAES256;
 import org.snmp4j.security.PrivDES;
-import org.snmp4j.security.SecurityLevel;
 import org.snmp4j.security.SecurityModels;
 import org.snmp4j.security.SecurityProtocols;
 import org.snmp4j.security.USM;
@@ -57,7 +55,9 @@ import lombok.extern.slf4j.Slf4j;
 
 
 /**
- * Sends SNMP traps with specified parameters.
+ * Sends SNMP traps with specified parameters. The traps are only queued by the calling thread and sent by the
+ * {@link SNMPTrapQueue}. The sender is a bean which is injected where traps are sent. An instance which is not
+ * configured, e.g. created in a test, does not send any traps.
  *
  * @author nagel, am
  */
@@ -70,13 +70,13 @@ public final class SNMPTrapSender
   private static final long SYSTEM_START_TIME = System.currentTimeMillis();
 
   @Getter(AccessLevel.PACKAGE)
-  private static Snmp snmp;
+  private Snmp snmp;
 
-  private static boolean initialized = false;
+  private String userName;
 
-  private static String userName;
+  private UdpAddress targetAddress;
 
-  private static UdpAddress targetAddress;
+  private volatile SNMPTrapQueue trapQueue;
 
   private String managementHost;
 
@@ -96,6 +96,10 @@ public final class SNMPTrapSender
 
   private OctetString engineId;
 
+  private int trapQueueSize;
+
+  private long trapCoalesceMillis;
+
   @Value("${poseidas.snmp.managementhost:#{null}}")
   public void setManagementHost(String host)
   {
@@ -198,6 +202,18 @@ public final class SNMPTrapSender
     engineId = new OctetString(id);
   }
 
+  @Value("${poseidas.snmp.trapqueuesize:1000}")
+  public void setTrapQueueSize(int size)
+  {
+    trapQueueSize = size;
+  }
+
+  @Value("${poseidas.snmp.trapcoalescemillis:0}")
+  public void setTrapCoalesceMillis(long millis)
+  {
+    trapCoalesceMillis = millis;
+  }
+
   @PostConstruct
   public void init()
   {
@@ -232,7 +248,13 @@ public final class SNMPTrapSender
                    new UsmUser(new OctetString(userName), authAlgo, new OctetString(authPassword), privAlgo,
                                new OctetString(privPassword)));
       snmp.listen();
-      initialized = true;
+      if (targetAddress != null)
+      {
+        SNMPTrapQueue queue = new SNMPTrapQueue(TrapTransport.forUserTarget(snmp, targetAddress, userName),
+                                                trapQueueSize, trapCoalesceMillis);
+        queue.start();
+        trapQueue = queue;
+      }
     }
     catch (IOException e)
     {
@@ -243,6 +265,12 @@ public final class SNMPTrapSender
   @PreDestroy
   public void closeSnmpConnection()
   {
+    SNMPTrapQueue queue = trapQueue;
+    if (queue != null)
+    {
+      trapQueue = null;
+      queue.stop(2000);
+    }
     if (snmp != null)
     {
       try
@@ -263,7 +291,7 @@ public final class SNMPTrapSender
    * @param oid
    * @param message optional
    */
-  public static void sendSNMPTrap(SNMPConstants.TrapOID oid, String... message)
+  public void sendSNMPTrap(SNMPConstants.TrapOID oid, String... message)
   {
     StringBuilder text = new StringBuilder();
     for ( String msg : message )
@@ -281,7 +309,7 @@ public final class SNMPTrapSender
    * @param oid
    * @param val
    */
-  public static void sendSNMPTrap(SNMPConstants.TrapOID oid, int val)
+  public void sendSNMPTrap(SNMPConstants.TrapOID oid, int val)
   {
     sendNotification(oid.getValue(), new String[]{SNMPConstants.TrapOID.TRAP_TYPE_INT.getValue()}, new Integer32(val));
   }
@@ -292,7 +320,7 @@ public final class SNMPTrapSender
    * @param oid
    * @param val
    */
-  public static void sendSNMPTrap(SNMPConstants.TrapOID oid, long val)
+  public void sendSNMPTrap(SNMPConstants.TrapOID oid, long val)
   {
     sendNotification(oid.getValue(), new String[]{SNMPConstants.TrapOID.TRAP_TYPE_LONG.getValue()}, new Counter64(val));
   }
@@ -304,9 +332,10 @@ public final class SNMPTrapSender
    * @param varBindOIDs array containing the OIDs of the variable bindings
    * @param varBindValues the values of the variable bindings
    */
-  private static void sendNotification(String applicationTrapOID, String[] varBindOIDs, Variable... varBindValues)
+  private void sendNotification(String applicationTrapOID, String[] varBindOIDs, Variable... varBindValues)
   {
-    if (!initialized || targetAddress == null)
+    SNMPTrapQueue queue = trapQueue;
+    if (queue == null)
     {
       log.debug("sendNotification() could not be processed because SNMP was not initialized / properly configured");
       return;
@@ -320,33 +349,21 @@ public final class SNMPTrapSender
       return;
     }
 
-    try
-    {
-      // Create trap PDU
-      PDU trap = createPDU();
-
-      // Add Payload
-      trap.add(new VariableBinding(SnmpConstants.snmpTrapOID, new OID(applicationTrapOID)));
+    // Create trap PDU
+    PDU trap = createPDU();
 
-      for ( int i = 0 ; i < varBindOIDs.length ; i++ )
-      {
-        trap.add(new VariableBinding(new OID(varBindOIDs[i]), varBindValues[i]));
-      }
-
-      UserTarget target = new UserTarget();
-      target.setAddress(targetAddress);
-      target.setRetries(2);
-      target.setTimeout(2000);
-      target.setSecurityLevel(SecurityLevel.AUTH_PRIV);
-      target.setSecurityName(new OctetString(userName));
+    // Add Payload
+    trap.add(new VariableBinding(SnmpConstants.snmpTrapOID, new OID(applicationTrapOID)));
 
-      // send trap
-      snmp.notify(trap, target);
-    }
-    catch (IOException ex)
+    StringBuilder content = new StringBuilder();
+    for ( int i = 0 ; i < varBindOIDs.length ; i++ )
     {
-      log.error("An error occurred sending SNMP trap: ", ex);
+      trap.add(new VariableBinding(new OID(varBindOIDs[i]), varBindValues[i]));
+      content.append(varBindOIDs[i]).append('=').append(varBindValues[i]).append(' ');
     }
+
+    // sending is done by the queue
+    queue.offer(trap, applicationTrapOID, content.toString());
   }
 
   // creating default PDU trap with system uptime
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2021 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.server.monitoring;
+
+import java.io.IOException;
+
+import org.snmp4j.PDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.UserTarget;
+import org.snmp4j.security.SecurityLevel;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.UdpAddress;
+
+
+/**
+ * Delivers a complete trap PDU to the management host.
+ */
+@FunctionalInterface
+public interface TrapTransport
+{
+
+  /**
+   * Send the given trap.
+   *
+   * @param trap the trap PDU
+   * @throws IOException if the trap could not be sent
+   */
+  void send(PDU trap) throws IOException;
+
+  /**
+   * Create a transport sending SNMPv3 traps with authentication and encryption through the given SNMP session.
+   *
+   * @param snmp the SNMP session, the user must already be known to its USM
+   * @param targetAddress address of the management host
+   * @param userName name of the USM user
+   */
+  static TrapTransport forUserTarget(Snmp snmp, UdpAddress targetAddress, String userName)
+  {
+    UserTarget target = new UserTarget();
+    target.setAddress(targetAddress);
+    target.setRetries(2);
+    target.setTimeout(2000);
+    target.setSecurityLevel(SecurityLevel.AUTH_PRIV);
+    target.setSecurityName(new OctetString(userName));
+    return trap -> snmp.notify(trap, target);
+  }
+}
@@ -19,6 +19,7 @@ import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.poseidas.gov2server.GovManagementException;
 import de.governikus.eumw.poseidas.gov2server.constants.admin.IDManagementCodes;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 
 
 /**
@@ -56,6 +57,11 @@ class BerCaRequestHandlerBase
 
   protected final ConfigurationService configurationService;
 
+  /**
+   * sender for the SNMP traps about the renewal results
+   */
+  protected final SNMPTrapSender trapSender;
+
   /**
    * Create new instance for current configuration
    *
@@ -64,13 +70,15 @@ class BerCaRequestHandlerBase
   protected BerCaRequestHandlerBase(ServiceProviderType serviceProvider,
                                     TerminalPermissionAO facade,
                                     KeyStore hsmKeyStore,
-                                    ConfigurationService configurationService)
+                                    ConfigurationService configurationService,
+                                    SNMPTrapSender trapSender)
     throws GovManagementException
   {
     this.hsmKeyStore = hsmKeyStore;
     this.facade = facade;
     this.serviceProvider = serviceProvider;
     this.configurationService = configurationService;
+    this.trapSender = trapSender;
     if (StringUtils.isBlank(serviceProvider.getDvcaConfigurationName()))
     {
       throw new GovManagementException(IDManagementCodes.INVALID_INPUT_DATA.createMessage("this is not configured for nPA"));
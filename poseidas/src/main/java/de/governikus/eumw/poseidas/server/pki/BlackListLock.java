@@ -10,6 +10,8 @@
 
 package de.governikus.eumw.poseidas.server.pki;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import lombok.Getter;
@@ -17,7 +19,7 @@ import lombok.Getter;
 
 /**
  * Add locking mechanism for black list updates to prevent parallel black list updates executed manually and
- * by timer
+ * by timer. There is one lock per DVCA as each DVCA delivers its own black list.
  */
 final class BlackListLock
 {
@@ -25,12 +27,19 @@ final class BlackListLock
   @Getter
   private static final BlackListLock INSTANCE = new BlackListLock();
 
-  @Getter
-  private ReentrantLock blackListUpdateLock;
+  private final Map<String, ReentrantLock> blackListUpdateLocks = new ConcurrentHashMap<>();
 
   private BlackListLock()
   {
-    blackListUpdateLock = new ReentrantLock();
+    // singleton
+  }
+
+  /**
+   * Return the lock for black list updates from the given DVCA
+   */
+  ReentrantLock getBlackListUpdateLock(String dvcaName)
+  {
+    return blackListUpdateLocks.computeIfAbsent(String.valueOf(dvcaName), k -> new ReentrantLock());
   }
 
 }
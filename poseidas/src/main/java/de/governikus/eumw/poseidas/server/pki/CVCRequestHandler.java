@@ -28,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.xml.bind.DatatypeConverter;
 import javax.xml.ws.WebServiceException;
@@ -99,15 +100,17 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
    * @param epaConfig The connection configuration for the terminal
    * @param facade The terminal configuration
    * @param hsmKeyStore HSM keystore
+   * @param trapSender sender for the SNMP traps
    */
   CVCRequestHandler(ServiceProviderType epaConfig,
                     TerminalPermissionAO facade,
                     KeyStore hsmKeyStore,
                     ConfigurationService configurationService,
-                    PendingCertificateRequestRepository pendingCertificateRequestRepository)
+                    PendingCertificateRequestRepository pendingCertificateRequestRepository,
+                    SNMPTrapSender trapSender)
     throws GovManagementException
   {
-    super(epaConfig, facade, hsmKeyStore, configurationService);
+    super(epaConfig, facade, hsmKeyStore, configurationService, trapSender);
   }
 
   private static void addKnowRootCert(String base64)
@@ -462,22 +465,22 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
           throw e;
         }
       }
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 0);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 0);
 
       // After storing the very first CVC, also request black, master and defect lists and public sector key
       // if needed
       requestBlackListAndPublicSectorKey(tp);
       requestMasterAndDefectList();
-      CertificationRevocationListImpl.tryInitialize(configurationService, facade);
+      CertificationRevocationListImpl.tryInitialize(configurationService, facade, trapSender);
     }
     catch (GovManagementException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
       throw e;
     }
     catch (IOException | SignatureException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
       internalError("cannot create cert request", e);
     }
   }
@@ -568,7 +571,7 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
       }
       installNewCertificate(newCert);
       log.debug("{}: successfully finished makeSubsequentRequest", cvcRefId);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 0);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 0);
     }
     catch (Exception e)
     {
@@ -582,7 +585,7 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
         return renewCvc(tp, false);
       }
       log.error("{}: cannot renew certificate", cvcRefId, e);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
       if (e instanceof GovManagementException)
       {
         return ((GovManagementException)e).getManagementMessage();
@@ -745,17 +748,20 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
   private void requestMasterAndDefectList() throws GovManagementException
   {
     MasterAndDefectListHandler mslHandler = new MasterAndDefectListHandler(serviceProvider, facade, hsmKeyStore,
-                                                                           configurationService);
+                                                                           configurationService, trapSender);
     mslHandler.updateLists();
   }
 
   private void requestBlackListAndPublicSectorKey(TerminalPermission tp) throws GovManagementException
   {
-    RestrictedIdHandler riHandler = new RestrictedIdHandler(serviceProvider, facade, hsmKeyStore, configurationService);
+    RestrictedIdHandler riHandler = new RestrictedIdHandler(serviceProvider, facade, hsmKeyStore, configurationService,
+                                                            trapSender);
 
     if (tp.getSectorID() == null)
     {
-      if (BlackListLock.getINSTANCE().getBlackListUpdateLock().tryLock())
+      ReentrantLock blackListUpdateLock = BlackListLock.getINSTANCE()
+                                                       .getBlackListUpdateLock(serviceProvider.getDvcaConfigurationName());
+      if (blackListUpdateLock.tryLock())
       {
         try
         {
@@ -767,7 +773,7 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
         }
         finally
         {
-          BlackListLock.getINSTANCE().getBlackListUpdateLock().unlock();
+          blackListUpdateLock.unlock();
         }
       }
       else
@@ -832,7 +838,6 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
     boolean increaseCounter = false;
     try
     {
-      PKIServiceConnector.getContextLock();
       TermAuthService service = createService();
       obtainedCert = service.requestCertificate(certReq, null, null);
       increaseCounter = true;
@@ -847,7 +852,6 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
     }
     finally
     {
-      PKIServiceConnector.releaseContextLock();
       if (increaseCounter)
       {
         facade.increaseSequenceNumber(cvcRefId);
@@ -862,21 +866,11 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
    */
   private byte[] fetchCertDescription(byte[] cvc) throws GovManagementException, IOException
   {
-    byte[] obtainedCert = null;
     ECCVCertificate atcvc = new ECCVCertificate(cvc);
     byte[] certificateDescriptionHash = atcvc.getChildElementByPath(ECCVCPath.EXTENSIONS_DISCRETIONARY_DATA_CERTIFICATE_DESCRIPTION_HASH)
                                              .getValue();
-    try
-    {
-      PKIServiceConnector.getContextLock();
-      DvcaCertDescriptionService wrapper = createCertDescriptionService();
-      obtainedCert = wrapper.getCertificateDescription(certificateDescriptionHash);
-    }
-    finally
-    {
-      PKIServiceConnector.releaseContextLock();
-    }
-    return obtainedCert;
+    DvcaCertDescriptionService wrapper = createCertDescriptionService();
+    return wrapper.getCertificateDescription(certificateDescriptionHash);
   }
 
   private TermAuthService createService() throws GovManagementException
@@ -957,8 +951,6 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
     byte[][] result;
     try
     {
-      PKIServiceConnector.getContextLock();
-      log.debug("{}: obtained lock on SSL context for downloading CACerts", cvcRefId);
       TermAuthService service = createService();
       result = service.getCACertificates();
     }
@@ -967,10 +959,6 @@ public class CVCRequestHandler extends BerCaRequestHandlerBase
       log.error("{}: cannot get certificates", cvcRefId, e);
       throw new GovManagementException(GlobalManagementCodes.EC_UNEXPECTED_ERROR, e.getMessage());
     }
-    finally
-    {
-      PKIServiceConnector.releaseContextLock();
-    }
     // chain contains all the certificates we got, when we got one certificate more than once, take the one
     // which was not self singed. We will use that map later on to fetch the certificates we need.
     Map<String, TerminalData> chain = new HashMap<>();
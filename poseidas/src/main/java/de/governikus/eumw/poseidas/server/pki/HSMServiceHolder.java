@@ -58,12 +58,13 @@ public class HSMServiceHolder implements WarmupListener
 
   public HSMServiceHolder(@Value("${hsm.type:}") String hsmTypeStr,
                           @Value("${pkcs11.config:}") String pathToPkcs11Config,
-                          @Value("${pkcs11.passwd:}") String pkcs11Passwd)
+                          @Value("${pkcs11.passwd:}") String pkcs11Passwd,
+                          @Value("${pkcs11.sessions:1}") int pkcs11Sessions)
   {
     if ("PKCS11".equalsIgnoreCase(hsmTypeStr))
     {
       hsmType = HSMService.PKCS11_HSM;
-      hsmConfig = new PKCS11HSMConfiguration(pathToPkcs11Config, pkcs11Passwd);
+      hsmConfig = new PKCS11HSMConfiguration(pathToPkcs11Config, pkcs11Passwd, pkcs11Sessions);
     }
     else
     {
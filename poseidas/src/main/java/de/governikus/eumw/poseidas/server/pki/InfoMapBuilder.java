@@ -146,7 +146,7 @@ public class InfoMapBuilder
       addErrorMessage(result, IDManagementCodes.CVC_DESCRIPTION_NOT_MATCH.createMessage(terminal.getRefID()));
       return result;
     }
-    checkTerminalPermission(result, terminal);
+    checkTerminalPermission(result, terminal, facade.getTerminalPermissionStatus(cvcRefID));
     return result;
   }
 
@@ -157,15 +157,17 @@ public class InfoMapBuilder
     errorMessages.add(message);
   }
 
-  private static void checkTerminalPermission(Map<String, Object> result, TerminalPermission terminal)
+  private static void checkTerminalPermission(Map<String, Object> result,
+                                              TerminalPermission terminal,
+                                              TerminalPermissionStatus status)
   {
-    if (terminal.getMasterList() == null)
+    if (status == null || !status.isMasterListPresent())
     {
       addErrorMessage(result,
                       IDManagementCodes.NO_LIST_AVAILABLE.createMessage(terminal.getRefID(),
                                                                         "ID.jsp.nPaConfiguration.masterList"));
     }
-    if (terminal.getDefectList() == null)
+    if (status == null || !status.isDefectListPresent())
     {
       addErrorMessage(result,
                       IDManagementCodes.NO_LIST_AVAILABLE.createMessage(terminal.getRefID(),
@@ -54,10 +54,11 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
   MasterAndDefectListHandler(ServiceProviderType nPaConf,
                              TerminalPermissionAO facade,
                              KeyStore hsmKeyStore,
-                             ConfigurationService configurationService)
+                             ConfigurationService configurationService,
+                             SNMPTrapSender trapSender)
     throws GovManagementException
   {
-    super(nPaConf, facade, hsmKeyStore, configurationService);
+    super(nPaConf, facade, hsmKeyStore, configurationService, trapSender);
   }
 
   /**
@@ -76,8 +77,6 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
 
     try
     {
-      PKIServiceConnector.getContextLock();
-      log.debug("{}: obtained lock on SSL context for downloading master and defect list", cvcRefId);
       PassiveAuthService service = createService();
 
       masterListStart = System.currentTimeMillis();
@@ -87,7 +86,7 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
       {
         // if we do not get a new master list from CA, at least try to use old stored version for defect
         // list check
-        ml = new MasterList(facade.getTerminalPermission(cvcRefId).getMasterList());
+        ml = new MasterList(facade.getMasterList(cvcRefId));
       }
       else
       {
@@ -116,22 +115,18 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
       log.error("{}: cannot renew master and defect list", cvcRefId, e);
       throw new GovManagementException(GlobalManagementCodes.INTERNAL_ERROR);
     }
-    finally
-    {
-      PKIServiceConnector.releaseContextLock();
-    }
 
     if (masterList != null)
     {
       facade.storeMasterList(cvcRefId, masterList);
-      SNMPTrapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
-                                  System.currentTimeMillis() - masterListStart);
+      trapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
+                              System.currentTimeMillis() - masterListStart);
     }
     if (defectList != null)
     {
       facade.storeDefectList(cvcRefId, defectList);
-      SNMPTrapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
-                                  System.currentTimeMillis() - defectListStart);
+      trapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
+                              System.currentTimeMillis() - defectListStart);
     }
     if (masterList == null || defectList == null)
     {
@@ -177,12 +172,12 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
     byte[] masterList = service.getMasterList();
     if (masterList == null)
     {
-      SNMPTrapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_NOT_RECEIVED);
       return null;
     }
     else if (!isLocalZip(masterList))
     {
-      byte[] masterListFromTerminalPermission = facade.getTerminalPermission(cvcRefId).getMasterList();
+      byte[] masterListFromTerminalPermission = facade.getMasterList(cvcRefId);
       if (ArrayUtil.isNullOrEmpty(masterListFromTerminalPermission)
           || !checkWithMasterListAsTrustAnchorSuccessful(masterList, masterListFromTerminalPermission))
       {
@@ -194,13 +189,13 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
         }
         catch (SignatureException | CMSException e)
         {
-          SNMPTrapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_STATUS,
-                                      SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
+          trapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_STATUS,
+                                  SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
           log.debug("Signature check on master list with trust anchor from configuration not successful", e);
           return null;
         }
       }
-      SNMPTrapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
+      trapSender.sendSNMPTrap(TrapOID.MASTERLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
     }
     log.debug("Successfully received master list");
     return masterList;
@@ -227,7 +222,7 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
     byte[] defectList = service.getDefectList();
     if (defectList == null)
     {
-      SNMPTrapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_NOT_RECEIVED);
       return null;
     }
     else if (!isLocalZip(defectList))
@@ -239,12 +234,12 @@ public class MasterAndDefectListHandler extends BerCaRequestHandlerBase
       }
       catch (SignatureException | CMSException e)
       {
-        SNMPTrapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_STATUS,
-                                    SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
+        trapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_STATUS,
+                                SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
         log.debug("Signature check on defect list not successful", e);
         return null;
       }
-      SNMPTrapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
+      trapSender.sendSNMPTrap(TrapOID.DEFECTLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
     }
     log.debug("Successfully received defect list");
     return defectList;
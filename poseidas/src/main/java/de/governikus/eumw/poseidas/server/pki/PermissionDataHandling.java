@@ -25,6 +25,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
 
@@ -67,6 +70,12 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
 
   private static final String ID_CONNECTOR_CONFIGURATION = "ID.jsp.serviceProvider.nPaPkiConnectorConfiguration.";
 
+  static final String JOB_MASTER_AND_DEFECT_LIST = "master and defect list renewal";
+
+  static final String JOB_BLACK_LIST = "black list renewal";
+
+  static final String JOB_CVC_RENEWAL = "CVC renewal";
+
   protected final HSMServiceHolder hsmServiceHolder;
 
   private final TerminalPermissionAO facade;
@@ -77,10 +86,14 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
 
   private final PendingCertificateRequestRepository pendingCertificateRequestRepository;
 
+  private final ProviderJobExecutor providerJobExecutor;
+
+  private final SNMPTrapSender trapSender;
+
   private CVCRequestHandler getCvcRequestHandler(ServiceProviderType serviceProvider) throws GovManagementException
   {
     return new CVCRequestHandler(serviceProvider, facade, hsmServiceHolder.getKeyStore(), configurationService,
-                                 pendingCertificateRequestRepository);
+                                 pendingCertificateRequestRepository, trapSender);
   }
 
   private ServiceProviderType getServiceProvider(String entityID) throws GovManagementException
@@ -147,13 +160,16 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
   {
     try
     {
-      configurationService.getConfiguration()
-                          .map(EidasMiddlewareConfig::getEidConfiguration)
-                          .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
-                          .stream()
-                          .flatMap(List::stream)
-                          .filter(ServiceProviderType::isEnabled)
-                          .forEach(sp -> renewMasterAndDefectList(sp, configurationService.getDvcaConfiguration(sp)));
+      List<ServiceProviderType> providers = configurationService.getConfiguration()
+                                                                .map(EidasMiddlewareConfig::getEidConfiguration)
+                                                                .map(EidasMiddlewareConfig.EidConfiguration::getServiceProvider)
+                                                                .stream()
+                                                                .flatMap(List::stream)
+                                                                .filter(ServiceProviderType::isEnabled)
+                                                                .collect(Collectors.toList());
+      providerJobExecutor.runForEach(JOB_MASTER_AND_DEFECT_LIST,
+                                     providers,
+                                     sp -> renewMasterAndDefectList(sp, configurationService.getDvcaConfiguration(sp)));
     }
     catch (Exception e)
     {
@@ -177,7 +193,7 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
         }
         MasterAndDefectListHandler handler = new MasterAndDefectListHandler(prov, facade,
                                                                             hsmServiceHolder.getKeyStore(),
-                                                                            configurationService);
+                                                                            configurationService, trapSender);
         handler.updateLists();
         return GlobalManagementCodes.OK.createMessage();
       }
@@ -244,7 +260,9 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
       {
         return;
       }
-      Set<ByteBuffer> alreadyRenewed = new HashSet<>();
+      // shared by all providers, the black list of one DVCA usually covers the sectors of several providers
+      Set<ByteBuffer> alreadyRenewed = ConcurrentHashMap.newKeySet();
+      List<ServiceProviderType> providers = new ArrayList<>();
       for ( ServiceProviderType provider : config.get().getEidConfiguration().getServiceProvider() )
       {
         if (!provider.isEnabled())
@@ -254,10 +272,13 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
                     provider.getCVCRefID());
           continue;
         }
+        providers.add(provider);
+      }
+      providerJobExecutor.runForEach(JOB_BLACK_LIST, providers, provider -> {
         DvcaConfigurationType dvcaConfiguration = configurationService.getDvcaConfiguration(provider);
         renewBlackList(provider, dvcaConfiguration, true, alreadyRenewed, delta);
         requestPublicSectorKeyIfNeeded(provider, dvcaConfiguration);
-      }
+      });
     }
     catch (Exception e)
     {
@@ -292,18 +313,30 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
         return IDManagementCodes.DATABASE_ENTRY_EXISTS.createMessage(tp.getRefID());
       }
       RestrictedIdHandler riHandler = new RestrictedIdHandler(prov, facade, hsmServiceHolder.getKeyStore(),
-                                                              configurationService);
+                                                              configurationService, trapSender);
       if (alreadyRenewed != null)
       {
-        if (BlackListLock.getINSTANCE().getBlackListUpdateLock().tryLock())
+        ReentrantLock blackListUpdateLock = BlackListLock.getINSTANCE()
+                                                         .getBlackListUpdateLock(prov.getDvcaConfigurationName());
+        // The timer renews the providers of one DVCA in parallel, so wait for the other providers and check again
+        // whether their black list already contained this sector. Manual updates are skipped instead.
+        if (all)
+        {
+          blackListUpdateLock.lock();
+        }
+        if (all || blackListUpdateLock.tryLock())
         {
           try
           {
+            if (all && tp.getSectorID() != null && alreadyRenewed.contains(ByteBuffer.wrap(tp.getSectorID())))
+            {
+              return IDManagementCodes.DATABASE_ENTRY_EXISTS.createMessage(tp.getRefID());
+            }
             alreadyRenewed.addAll(riHandler.requestBlackList(all, delta));
           }
           finally
           {
-            BlackListLock.getINSTANCE().getBlackListUpdateLock().unlock();
+            blackListUpdateLock.unlock();
           }
         }
         else
@@ -345,7 +378,7 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
       }
 
       RestrictedIdHandler riHandler = new RestrictedIdHandler(prov, facade, hsmServiceHolder.getKeyStore(),
-                                                              configurationService);
+                                                              configurationService, trapSender);
       riHandler.requestPublicSectorKeyIfNeeded();
       return GlobalManagementCodes.OK.createMessage();
     }
@@ -378,23 +411,22 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
       {
         return;
       }
-      List<String> lockedServiceProviders = new ArrayList<>();
+      Set<String> lockedServiceProviders = ConcurrentHashMap.newKeySet();
 
-      config.get()
-            .getEidConfiguration()
-            .getServiceProvider()
-            .forEach(sp -> renewCvcForProvider(sp, expirationDateMap, lockedServiceProviders));
+      providerJobExecutor.runForEach(JOB_CVC_RENEWAL,
+                                     config.get().getEidConfiguration().getServiceProvider(),
+                                     sp -> renewCvcForProvider(sp, expirationDateMap, lockedServiceProviders));
     }
     catch (Exception e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
       log.error("unable to renew any CVCs", e);
     }
   }
 
   private void renewCvcForProvider(ServiceProviderType provider,
                                    Map<String, Date> expirationDateMap,
-                                   List<String> lockedServiceProviders)
+                                   Set<String> lockedServiceProviders)
   {
     CVCUpdateLock lock = null;
     String serviceProviderName = provider.getName();
@@ -455,7 +487,7 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
     }
     catch (Exception e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
       log.error("{}: unable to renew CVC", serviceProviderName, e);
     }
     finally
@@ -486,7 +518,7 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
     }
     catch (Exception e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS, 1);
       return GlobalManagementCodes.EC_UNEXPECTED_ERROR.createMessage("unable to renew CVC: " + e.getMessage());
     }
   }
@@ -669,8 +701,6 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
     String serviceProviderName = serviceProvider.getName();
     try
     {
-      PKIServiceConnector.getContextLock();
-      log.debug("{}: obtained lock on SSL context for connection check", serviceProviderName);
       PKIServiceConnector connector;
       if (hsmServiceHolder.getKeyStore() == null)
       {
@@ -697,10 +727,6 @@ public class PermissionDataHandling implements PermissionDataHandlingMBean
       throw new GovManagementException(GlobalManagementCodes.EXTERNAL_SERVICE_NOT_REACHABLE, pkiUrl, e.getMessage());
 
     }
-    finally
-    {
-      PKIServiceConnector.releaseContextLock();
-    }
   }
 
   private void assertHsmAlive() throws GovManagementException
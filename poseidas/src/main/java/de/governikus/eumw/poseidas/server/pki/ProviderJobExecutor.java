@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.server.pki;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import de.governikus.eumw.config.ServiceProviderType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Runs the periodic PKI jobs (black list, master and defect list, CVC renewal) for all service providers in
+ * parallel. The number of providers which are processed at the same time for one DVCA is limited, and a provider
+ * whose previous run of the same job has not finished yet is skipped. A call returns when all providers are done, so
+ * the duration of one cycle depends on the slowest provider instead of the sum of all providers.
+ */
+@Component
+@Slf4j
+public class ProviderJobExecutor
+{
+
+  /**
+   * State of one job for one provider
+   */
+  public enum State
+  {
+    RUNNING, FINISHED, FAILED, SKIPPED
+  }
+
+  /**
+   * Progress of one job for one provider
+   */
+  @Getter
+  public static final class Progress
+  {
+
+    private final State state;
+
+    private final long startTime;
+
+    private final long endTime;
+
+    Progress(State state, long startTime, long endTime)
+    {
+      this.state = state;
+      this.startTime = startTime;
+      this.endTime = endTime;
+    }
+  }
+
+  private final ExecutorService executor;
+
+  private final int parallelRequestsPerDvca;
+
+  private final Map<String, Semaphore> dvcaPermits = new ConcurrentHashMap<>();
+
+  private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Map<String, Progress>> progress = new ConcurrentHashMap<>();
+
+  public ProviderJobExecutor(@Value("${poseidas.pki.threads:4}") int threads,
+                             @Value("${poseidas.pki.parallelRequestsPerDvca:2}") int parallelRequestsPerDvca)
+  {
+    this.executor = Executors.newFixedThreadPool(Math.max(1, threads), new PkiThreadFactory());
+    this.parallelRequestsPerDvca = Math.max(1, parallelRequestsPerDvca);
+  }
+
+  /**
+   * Run a job for each of the given providers and wait until all of them are finished. Exceptions thrown by the job
+   * are logged and recorded in the progress, they do not affect the other providers.
+   *
+   * @param jobName name of the job, used for logging, skipping and progress tracking
+   * @param providers the providers to run the job for
+   * @param job the job for one provider
+   */
+  public void runForEach(String jobName, Collection<ServiceProviderType> providers, Consumer<ServiceProviderType> job)
+  {
+    long start = System.currentTimeMillis();
+    Map<String, Progress> jobProgress = progress.computeIfAbsent(jobName, k -> new ConcurrentHashMap<>());
+    List<Future<?>> futures = new ArrayList<>(providers.size());
+    int skipped = 0;
+    for ( ServiceProviderType provider : providers )
+    {
+      String providerName = provider.getName();
+      String key = jobName + '/' + providerName;
+      if (!inFlight.add(key))
+      {
+        log.info("{}: skipping {} because the previous run is still in progress", providerName, jobName);
+        Progress running = jobProgress.get(providerName);
+        long runningSince = running == null ? start : running.getStartTime();
+        jobProgress.put(providerName, new Progress(State.SKIPPED, runningSince, 0));
+        skipped++;
+        continue;
+      }
+      jobProgress.put(providerName, new Progress(State.RUNNING, System.currentTimeMillis(), 0));
+      try
+      {
+        futures.add(executor.submit(() -> runForProvider(jobName, provider, job, jobProgress, key)));
+      }
+      catch (RuntimeException e)
+      {
+        inFlight.remove(key);
+        jobProgress.put(providerName, new Progress(State.FAILED, start, System.currentTimeMillis()));
+        log.error("{}: unable to schedule {}", providerName, jobName, e);
+      }
+    }
+    for ( Future<?> future : futures )
+    {
+      try
+      {
+        future.get();
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while waiting for {} to finish", jobName);
+        return;
+      }
+      catch (ExecutionException e)
+      {
+        // runForProvider handles all exceptions itself
+        log.error("Unexpected error in {}", jobName, e.getCause());
+      }
+    }
+    log.debug("{} finished for {} providers in {} ms, {} skipped",
+              jobName,
+              futures.size(),
+              System.currentTimeMillis() - start,
+              skipped);
+  }
+
+  private void runForProvider(String jobName,
+                              ServiceProviderType provider,
+                              Consumer<ServiceProviderType> job,
+                              Map<String, Progress> jobProgress,
+                              String key)
+  {
+    String providerName = provider.getName();
+    Semaphore permits = dvcaPermits.computeIfAbsent(String.valueOf(provider.getDvcaConfigurationName()),
+                                                    k -> new Semaphore(parallelRequestsPerDvca));
+    long start = System.currentTimeMillis();
+    State result = State.FAILED;
+    try
+    {
+      permits.acquire();
+      try
+      {
+        start = System.currentTimeMillis();
+        jobProgress.put(providerName, new Progress(State.RUNNING, start, 0));
+        job.accept(provider);
+        result = State.FINISHED;
+      }
+      finally
+      {
+        permits.release();
+      }
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      log.warn("{}: interrupted while waiting to run {}", providerName, jobName);
+    }
+    catch (Exception e)
+    {
+      log.error("{}: unable to run {}", providerName, jobName, e);
+    }
+    finally
+    {
+      jobProgress.put(providerName, new Progress(result, start, System.currentTimeMillis()));
+      inFlight.remove(key);
+    }
+  }
+
+  /**
+   * Return the progress of the last run of a job for each provider.
+   *
+   * @param jobName name of the job
+   * @return unmodifiable map from provider name to progress, empty if the job was never run
+   */
+  public Map<String, Progress> getProgress(String jobName)
+  {
+    Map<String, Progress> jobProgress = progress.get(jobName);
+    if (jobProgress == null)
+    {
+      return Collections.emptyMap();
+    }
+    return Collections.unmodifiableMap(new HashMap<>(jobProgress));
+  }
+
+  @PreDestroy
+  void shutdown()
+  {
+    executor.shutdownNow();
+  }
+
+  private static final class PkiThreadFactory implements ThreadFactory
+  {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r)
+    {
+      Thread thread = new Thread(r, "pkiJob-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -57,6 +57,8 @@ public class RequestSignerCertificateServiceImpl implements RequestSignerCertifi
 
   private final HSMServiceHolder hsmServiceHolder;
 
+  private final SNMPTrapSender trapSender;
+
   static String getRscChrIdAsString(Integer id)
   {
     if (id == null)
@@ -148,7 +150,7 @@ public class RequestSignerCertificateServiceImpl implements RequestSignerCertifi
       saveRscInDB(cvcRefId, lifespan, hsm, keyPair, alias, issuerAlias, nextRscId);
       String infoText = String.format("Request signer certificate with alias %s was successfully created.", alias);
       log.info(infoText);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_NEW_PENDING_CERTIFICATE, infoText);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_NEW_PENDING_CERTIFICATE, infoText);
       return true;
     }
     catch (Exception e)
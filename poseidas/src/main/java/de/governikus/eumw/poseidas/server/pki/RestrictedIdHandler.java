@@ -17,7 +17,6 @@ import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
@@ -30,6 +29,7 @@ import org.bouncycastle.cms.CMSException;
 import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.poseidas.cardbase.asn1.OID;
 import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCertificate;
+import de.governikus.eumw.poseidas.cardbase.crypto.DigestPool;
 import de.governikus.eumw.poseidas.cardbase.crypto.DigestUtil;
 import de.governikus.eumw.poseidas.eidserver.model.signeddata.BlackList;
 import de.governikus.eumw.poseidas.eidserver.model.signeddata.BlackListDetails;
@@ -65,14 +65,16 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
    * @param nPaConf
    * @param facade
    * @param configurationService
+   * @param trapSender
    */
   RestrictedIdHandler(ServiceProviderType nPaConf,
                       TerminalPermissionAO facade,
                       KeyStore hsmKeyStore,
-                      ConfigurationService configurationService)
+                      ConfigurationService configurationService,
+                      SNMPTrapSender trapSender)
     throws GovManagementException
   {
-    super(nPaConf, facade, hsmKeyStore, configurationService);
+    super(nPaConf, facade, hsmKeyStore, configurationService, trapSender);
   }
 
 
@@ -110,23 +112,14 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     }
     else
     {
-      try
-      {
-        MessageDigest digest = getMessageDigestForTerminal(data);
-        byte[] hash = digest.digest(data.getRiKey1());
-        byte[] sectorId = getSectorID(data);
+      byte[] hash = getDigestPoolForTerminal(data).digest(data.getRiKey1());
+      byte[] sectorId = getSectorID(data);
 
-        if (hash == null || !Arrays.equals(sectorId, hash))
-        {
-          log.info("{}: public sector key has changed, will fetch new one now", cvcRefId);
-          requestPublicSectorKey();
-          log.info("{}: new public sector key was fetched", cvcRefId);
-        }
-      }
-      catch (NoSuchAlgorithmException e)
+      if (hash == null || !Arrays.equals(sectorId, hash))
       {
-        throw new GovManagementException(GlobalManagementCodes.EC_UNEXPECTED_ERROR.createMessage("SHA-256 not supported "
-                                                                                                 + cvcRefId));
+        log.info("{}: public sector key has changed, will fetch new one now", cvcRefId);
+        requestPublicSectorKey();
+        log.info("{}: new public sector key was fetched", cvcRefId);
       }
     }
   }
@@ -137,23 +130,20 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
    * @param data The terminal whose digest algorithm should be returned
    * @return The digest algorithm that was used in the public key of the CVC or SHA-256 if the public key digest
    *         algorithm could not be determined
-   * @throws NoSuchAlgorithmException
    */
-  private MessageDigest getMessageDigestForTerminal(TerminalPermission data) throws NoSuchAlgorithmException
+  private DigestPool getDigestPoolForTerminal(TerminalPermission data)
   {
-    MessageDigest digest;
     try
     {
       OID oid = data.getFullCvc().getPublicKey().getOID();
-      digest = DigestUtil.getDigestByOID(oid);
+      return DigestUtil.getDigestPoolByOID(oid);
     }
-    catch (IOException | IllegalArgumentException | NoSuchAlgorithmException e)
+    catch (IOException | IllegalArgumentException e)
     {
       // fallback, not guaranteed to work (SHA-256 is currently the only algorithm employed, subject to
       // change)
-      digest = MessageDigest.getInstance("SHA-256");
+      return DigestPool.SHA256;
     }
-    return digest;
   }
 
   /**
@@ -165,18 +155,8 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
   {
     TerminalPermission data = facade.getTerminalPermission(cvcRefId);
     byte[] sectorId = getSectorID(data);
-    byte[] sectorPK;
-    try
-    {
-      PKIServiceConnector.getContextLock();
-      log.debug("{}: obtained lock on SSL context for downloading public sector key", cvcRefId);
-      RestrictedIdService wrapper = createService();
-      sectorPK = wrapper.getSectorPublicKey(sectorId);
-    }
-    finally
-    {
-      PKIServiceConnector.releaseContextLock();
-    }
+    RestrictedIdService wrapper = createService();
+    byte[] sectorPK = wrapper.getSectorPublicKey(sectorId);
     facade.storePublicSectorKey(cvcRefId, sectorPK);
   }
 
@@ -195,8 +175,6 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     BlackListResult blResult;
     try
     {
-      PKIServiceConnector.getContextLock();
-      log.debug("{}: obtained lock on SSL context for downloading black list", cvcRefId);
       RestrictedIdService wrapper = createService();
 
       blackListStart = System.currentTimeMillis();
@@ -212,37 +190,36 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     }
     catch (GovManagementException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_NOT_RECEIVED);
       throw e;
     }
     catch (Exception e)
     {
       log.error("{}: cannot download black list", cvcRefId, e);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_NOT_RECEIVED);
       throw new GovManagementException(GlobalManagementCodes.EXTERNAL_SERVICE_NOT_REACHABLE,
                                        dvcaConfiguration.getRestrictedIdServiceUrl(), e.getLocalizedMessage());
     }
     finally
     {
-      PKIServiceConnector.releaseContextLock();
       log.debug("{}: BlackList request done", cvcRefId);
     }
     if (blResult == null || (blResult.getUri() == null && blResult.getDeltaAdded() == null))
     {
       log.info("{}: Did not receive a blacklist from BerCa", cvcRefId);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_NOT_RECEIVED);
       return new HashSet<>();
     }
     if (RestrictedIdService.NO_NEW_DATA.equals(blResult))
     {
       log.info("{}: No newer delta blacklist from BerCa available", cvcRefId);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
       facade.updateBlackListStoreDate(cvcRefId, null, null);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
-                                  System.currentTimeMillis() - blackListStart);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
+                              System.currentTimeMillis() - blackListStart);
       return new HashSet<>();
     }
 
@@ -250,15 +227,15 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     if (blResult.getUri() != null)
     {
       Set<ByteBuffer> result = processFullBlackList(all, blResult);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
-                                  System.currentTimeMillis() - blackListStart);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
+                              System.currentTimeMillis() - blackListStart);
       return result;
     }
     else
     {
       Set<ByteBuffer> result = processDeltaBlackList(all, blResult);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
-                                  System.currentTimeMillis() - blackListStart);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_PROCESSING_DURATION,
+                              System.currentTimeMillis() - blackListStart);
       return result;
     }
   }
@@ -269,8 +246,8 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     if (!checkBlacklistsSignature(blResult.getDeltaAdded(), blackListTrustAnchor)
         || !checkBlacklistsSignature(blResult.getDeltaRemoved(), blackListTrustAnchor))
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
       throw new GovManagementException(GlobalManagementCodes.EC_UNEXPECTED_ERROR,
                                        "signature check of black list failed");
     }
@@ -281,7 +258,7 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
                                                             BlackList.TYPE_REMOVED);
       entityIDs.addAll(importBlacklistCollection(new BlackListContent(blResult.getDeltaAdded()), BlackList.TYPE_ADDED));
       log.info("Successfully finished requestBlackList for {} terminals", entityIDs.size());
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
       return entityIDs;
     }
     else
@@ -305,14 +282,14 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
         {
           result.add(ByteBuffer.wrap(sectorID));
         }
-        SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                    SNMPConstants.LIST_RENEWED);
+        trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                                SNMPConstants.LIST_RENEWED);
         return result;
       }
       catch (IOException e)
       {
-        SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                    SNMPConstants.LIST_PROCESSING_ERROR);
+        trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                                SNMPConstants.LIST_PROCESSING_ERROR);
         throw new IllegalArgumentException(UNABLE_TO_PARSE_GIVEN_CVC, e);
       }
     }
@@ -327,7 +304,7 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     {
       Set<ByteBuffer> updatedSectorIDs = importBlacklistCollection(blackList, BlackList.TYPE_COMPLETE);
       log.info("Successfully finished requestBlackList for {} terminals", updatedSectorIDs.size());
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
       return updatedSectorIDs;
     }
     TerminalPermission tp = facade.getTerminalPermission(cvcRefId);
@@ -342,13 +319,13 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
       {
         result.add(ByteBuffer.wrap(sectorID));
       }
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS, SNMPConstants.LIST_RENEWED);
       return result;
     }
     catch (IOException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_PROCESSING_ERROR);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_PROCESSING_ERROR);
       throw new IllegalArgumentException(UNABLE_TO_PARSE_GIVEN_CVC, e);
     }
   }
@@ -358,34 +335,32 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
     BlackListContent blackList;
     try
     {
-      PKIServiceConnector.getContextLock();
       log.debug("{}: Blacklist file download started", cvcRefId);
       blackList = new BlackListContent(connector.getFile(blResult.getUri()));
     }
     catch (SocketException e)
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_NOT_RECEIVED);
       throw new GovManagementException(GlobalManagementCodes.EXTERNAL_SERVICE_NOT_REACHABLE, blResult.getUri(),
                                        e.getMessage());
     }
     catch (Exception e)
     {
       log.error("{}: cannot download black list", cvcRefId, e);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_NOT_RECEIVED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_NOT_RECEIVED);
       throw new GovManagementException(GlobalManagementCodes.INTERNAL_ERROR);
     }
     finally
     {
-      PKIServiceConnector.releaseContextLock();
       log.debug("{}: Blacklist file download finished", cvcRefId);
     }
     X509Certificate blackListTrustAnchor = configurationService.getCertificate(dvcaConfiguration.getBlackListTrustAnchorCertificateName());
     if (!checkBlacklistsSignature(blackList.getContent(), blackListTrustAnchor))
     {
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                  SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                              SNMPConstants.LIST_SIGNATURE_CHECK_FAILED);
       throw new GovManagementException(GlobalManagementCodes.EC_UNEXPECTED_ERROR,
                                        "signature check of black list failed");
     }
@@ -564,8 +539,8 @@ public class RestrictedIdHandler extends BerCaRequestHandlerBase
       }
     }
     log.error("{}:The blacklist did not contain a part suitable for this cvcRefId", cvcRefId);
-    SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
-                                SNMPConstants.LIST_PROCESSING_ERROR);
+    trapSender.sendSNMPTrap(SNMPConstants.TrapOID.BLACKLIST_TRAP_LAST_RENEWAL_STATUS,
+                            SNMPConstants.LIST_PROCESSING_ERROR);
     return null;
   }
 
@@ -14,56 +14,256 @@ import java.security.cert.X509Certificate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import de.governikus.eumw.config.DvcaConfigurationType;
+import de.governikus.eumw.config.EidasMiddlewareConfig;
 import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.poseidas.cardbase.asn1.npa.CertificateDescription;
 import de.governikus.eumw.poseidas.config.model.ServiceProviderStatus;
+import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.CvcTlsCheck;
 import lombok.extern.slf4j.Slf4j;
 
 
+/**
+ * Collects the status of the service providers for the admin interface. The checks which need a connection to the
+ * DVCA or the own server are executed in parallel and with a timeout, checks still running at the timeout are
+ * cancelled. The results of the DVCA checks are cached for a short time per service provider and DVCA service URL.
+ * The results are not shared between service providers, as each provider connects with its own client key.
+ */
 @Slf4j
 @Service
 public class ServiceProviderStatusService
 {
 
+  private static final int THREADS = 8;
+
+  private final long checkTimeoutMillis;
+
+  private final long dvcaAvailabilityTtlMillis;
+
   private final TerminalPermissionAOBean facade;
 
+  private final ConfigurationService configurationService;
+
   private final CvcTlsCheck cvcTlsCheck;
 
   private final PermissionDataHandlingMBean permissionDataHandling;
 
   private final RequestSignerCertificateService rscService;
 
+  private final ExecutorService executor;
+
+  /**
+   * key is the service provider name and the DVCA service URL
+   */
+  private final Map<List<String>, CachedAvailability> dvcaAvailability = new ConcurrentHashMap<>();
+
   public ServiceProviderStatusService(TerminalPermissionAOBean facade,
+                                      ConfigurationService configurationService,
                                       CvcTlsCheck cvcTlsCheck,
                                       PermissionDataHandlingMBean permissionDataHandling,
-                                      RequestSignerCertificateService rscService)
+                                      RequestSignerCertificateService rscService,
+                                      @Value("${poseidas.status.checkTimeout:10}") long checkTimeout,
+                                      @Value("${poseidas.status.dvcaAvailabilityCache:60}") long dvcaAvailabilityCache)
   {
     this.facade = facade;
+    this.configurationService = configurationService;
+    this.checkTimeoutMillis = TimeUnit.SECONDS.toMillis(checkTimeout);
+    this.dvcaAvailabilityTtlMillis = TimeUnit.SECONDS.toMillis(dvcaAvailabilityCache);
     this.cvcTlsCheck = cvcTlsCheck;
     this.permissionDataHandling = permissionDataHandling;
     this.rscService = rscService;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(THREADS, r -> {
+      Thread thread = new Thread(r, "serviceProviderStatus-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @PreDestroy
+  void shutdown()
+  {
+    executor.shutdownNow();
   }
 
   public ServiceProviderStatus getServiceProviderStatus(ServiceProviderType serviceProviderType)
   {
-    ServiceProviderStatus.ServiceProviderStatusBuilder builder = ServiceProviderStatus.builder();
-    TerminalPermission terminalPermission = facade.getTerminalPermission(serviceProviderType.getCVCRefID());
-    if (terminalPermission == null)
+    Map<String, ServiceProviderStatus> result = getAllServiceProviderStatus(List.of(serviceProviderType));
+    return result.get(serviceProviderType.getName());
+  }
+
+  /**
+   * Determine the status of several service providers in parallel.
+   *
+   * @param serviceProviders the service providers
+   * @return map from service provider name to status, in the order of the given list
+   */
+  public Map<String, ServiceProviderStatus> getAllServiceProviderStatus(List<ServiceProviderType> serviceProviders)
+  {
+    return getAllServiceProviderStatus(serviceProviders, Collections.emptyMap());
+  }
+
+  /**
+   * Determine the status of several service providers in parallel.
+   *
+   * @param serviceProviders the service providers
+   * @param cvcCheckResults results of CVC checks which are already known, by service provider name. The check is
+   *          executed for the service providers which are not contained.
+   * @return map from service provider name to status, in the order of the given list
+   */
+  public Map<String, ServiceProviderStatus> getAllServiceProviderStatus(List<ServiceProviderType> serviceProviders,
+                                                                     Map<String, CvcTlsCheck.CvcCheckResults> cvcCheckResults)
+  {
+    Map<String, TerminalPermissionStatus> statusByRefId = new HashMap<>();
+    if (serviceProviders.size() == 1)
     {
-      // there is no terminal permission present, therefore no data to be shown in the status page
-      return builder.build();
+      TerminalPermissionStatus status = facade.getTerminalPermissionStatus(serviceProviders.get(0).getCVCRefID());
+      if (status != null)
+      {
+        statusByRefId.put(status.getRefID(), status);
+      }
     }
+    else
+    {
+      facade.getTerminalPermissionStatus().forEach(status -> statusByRefId.put(status.getRefID(), status));
+    }
+
+    Map<String, DvcaConfigurationType> dvcaConfigurations = new HashMap<>();
+    configurationService.getConfiguration()
+                        .map(EidasMiddlewareConfig::getEidConfiguration)
+                        .map(EidasMiddlewareConfig.EidConfiguration::getDvcaConfiguration)
+                        .ifPresent(list -> list.forEach(dvca -> dvcaConfigurations.put(dvca.getName(), dvca)));
+
+    // start all checks first, then collect the results
+    Map<String, PendingChecks> pendingChecks = new LinkedHashMap<>();
+    for ( ServiceProviderType serviceProvider : serviceProviders )
+    {
+      if (statusByRefId.containsKey(serviceProvider.getCVCRefID()))
+      {
+        pendingChecks.put(serviceProvider.getName(),
+                          startChecks(serviceProvider,
+                                      dvcaConfigurations.get(serviceProvider.getDvcaConfigurationName()),
+                                      cvcCheckResults));
+      }
+    }
+
+    long deadline = System.currentTimeMillis() + checkTimeoutMillis;
+    Map<String, ServiceProviderStatus> result = new LinkedHashMap<>();
+    for ( ServiceProviderType serviceProvider : serviceProviders )
+    {
+      TerminalPermissionStatus terminalPermission = statusByRefId.get(serviceProvider.getCVCRefID());
+      if (terminalPermission == null)
+      {
+        // there is no terminal permission present, therefore no data to be shown in the status page
+        result.put(serviceProvider.getName(), ServiceProviderStatus.builder().build());
+        continue;
+      }
+      result.put(serviceProvider.getName(),
+                 buildStatus(serviceProvider,
+                             terminalPermission,
+                             pendingChecks.get(serviceProvider.getName()),
+                             deadline));
+    }
+    return result;
+  }
+
+  private PendingChecks startChecks(ServiceProviderType serviceProvider,
+                                    DvcaConfigurationType dvcaConfiguration,
+                                    Map<String, CvcTlsCheck.CvcCheckResults> cvcCheckResults)
+  {
+    String name = serviceProvider.getName();
+    CvcTlsCheck.CvcCheckResults knownCvcResults = cvcCheckResults.get(name);
+    Future<CvcTlsCheck.CvcCheckResults> cvcCheck = knownCvcResults == null
+      ? executor.submit(() -> cvcTlsCheck.checkCvcProvider(name)) : CompletableFuture.completedFuture(knownCvcResults);
+    if (dvcaConfiguration == null)
+    {
+      // the ping would fail for the same reason
+      log.debug("{}: no DVCA configuration present", name);
+      return new PendingChecks(cvcCheck,
+                               CompletableFuture.completedFuture(false),
+                               CompletableFuture.completedFuture(false));
+    }
+    Future<Boolean> riAvailable = checkDvcaAvailability(name,
+                                                        dvcaConfiguration.getRestrictedIdServiceUrl(),
+                                                        () -> permissionDataHandling.pingRIService(name));
+    // master and defect list are fetched from the same service
+    Future<Boolean> paAvailable = checkDvcaAvailability(name,
+                                                        dvcaConfiguration.getPassiveAuthServiceUrl(),
+                                                        () -> permissionDataHandling.pingPAService(name));
+    return new PendingChecks(cvcCheck, riAvailable, paAvailable);
+  }
+
+  /**
+   * Returns the cached or running check of the given DVCA service for the given service provider, otherwise starts a
+   * new one.
+   */
+  private Future<Boolean> checkDvcaAvailability(String name, String url, Callable<Boolean> ping)
+  {
+    if (url == null)
+    {
+      return CompletableFuture.completedFuture(false);
+    }
+    List<String> key = List.of(name, url);
+    long now = System.currentTimeMillis();
+    return dvcaAvailability.compute(key, (k, cached) -> {
+      if (cached != null && !cached.result.isCancelled() && cached.validUntil > now)
+      {
+        return cached;
+      }
+      FutureTask<Boolean> task = new FutureTask<>(ping);
+      CachedAvailability created = new CachedAvailability(task);
+      executor.execute(() -> {
+        task.run();
+        if (task.isCancelled())
+        {
+          dvcaAvailability.remove(key, created);
+        }
+        else
+        {
+          created.validUntil = System.currentTimeMillis() + dvcaAvailabilityTtlMillis;
+        }
+      });
+      return created;
+    }).result;
+  }
 
-    CvcTlsCheck.CvcCheckResults cvcCheckResults = cvcTlsCheck.checkCvcProvider(serviceProviderType.getName());
+  private ServiceProviderStatus buildStatus(ServiceProviderType serviceProviderType,
+                                            TerminalPermissionStatus terminalPermission,
+                                            PendingChecks checks,
+                                            long deadline)
+  {
+    ServiceProviderStatus.ServiceProviderStatusBuilder builder = ServiceProviderStatus.builder();
+    String name = serviceProviderType.getName();
+    CvcTlsCheck.CvcCheckResults cvcCheckResults = await(checks.cvcCheck, deadline, name, "CVC check");
 
-    builder.serviceProviderName(serviceProviderType.getName());
-    boolean cvcPresent = cvcCheckResults.isCvcPresent();
+    builder.serviceProviderName(name);
+    boolean cvcPresent = cvcCheckResults != null && cvcCheckResults.isCvcPresent();
     if (cvcPresent)
     {
       builder.enabled(serviceProviderType.isEnabled())
@@ -86,30 +286,60 @@ public class ServiceProviderStatusService
         }
       }
     }
+    boolean paAvailable = Boolean.TRUE.equals(await(checks.paAvailable, deadline, name, "passive auth service check"));
     builder.blackListPresent(terminalPermission.getBlackListVersion() != null)
-             .blackListLastRetrieval(dateToLocalDateTime(terminalPermission.getBlackListStoreDate()))
-             .blackListDVCAAvailability(permissionDataHandling.pingRIService(serviceProviderType.getName()))
-             .masterListPresent(terminalPermission.getMasterListStoreDate() != null)
-             .masterListLastRetrieval(dateToLocalDateTime(terminalPermission.getMasterListStoreDate()))
-             .masterListDVCAAvailability(permissionDataHandling.pingPAService(serviceProviderType.getName()))
-             .defectListPresent(terminalPermission.getDefectListStoreDate() != null)
-             .defectListLastRetrieval(dateToLocalDateTime(terminalPermission.getDefectListStoreDate()))
-             .defectListDVCAAvailability(permissionDataHandling.pingPAService(serviceProviderType.getName()));
-
-      X509Certificate pendingRSC = rscService.getRequestSignerCertificate(serviceProviderType.getName(), false);
-      if (pendingRSC != null)
-      {
-        builder.rscPendingPresent(true).rscAnyPresent(true);
-      }
-      X509Certificate currentRSC = rscService.getRequestSignerCertificate(serviceProviderType.getName(), true);
-      if (currentRSC != null)
-      {
-        builder.rscCurrentValidUntil(dateToLocalDate(currentRSC.getNotAfter())).rscAnyPresent(true);
-      }
+           .blackListLastRetrieval(dateToLocalDateTime(terminalPermission.getBlackListStoreDate()))
+           .blackListDVCAAvailability(Boolean.TRUE.equals(await(checks.riAvailable,
+                                                                deadline,
+                                                                name,
+                                                                "restricted id service check")))
+           .masterListPresent(terminalPermission.getMasterListStoreDate() != null)
+           .masterListLastRetrieval(dateToLocalDateTime(terminalPermission.getMasterListStoreDate()))
+           .masterListDVCAAvailability(paAvailable)
+           .defectListPresent(terminalPermission.getDefectListStoreDate() != null)
+           .defectListLastRetrieval(dateToLocalDateTime(terminalPermission.getDefectListStoreDate()))
+           .defectListDVCAAvailability(paAvailable);
+
+    X509Certificate pendingRSC = rscService.getRequestSignerCertificate(name, false);
+    if (pendingRSC != null)
+    {
+      builder.rscPendingPresent(true).rscAnyPresent(true);
+    }
+    X509Certificate currentRSC = rscService.getRequestSignerCertificate(name, true);
+    if (currentRSC != null)
+    {
+      builder.rscCurrentValidUntil(dateToLocalDate(currentRSC.getNotAfter())).rscAnyPresent(true);
+    }
 
     return builder.build();
   }
 
+  private <T> T await(Future<T> future, long deadline, String providerName, String check)
+  {
+    try
+    {
+      return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+    catch (TimeoutException e)
+    {
+      future.cancel(true);
+      log.warn("{}: {} did not finish within {} ms", providerName, check, checkTimeoutMillis);
+    }
+    catch (CancellationException e)
+    {
+      log.warn("{}: {} was cancelled", providerName, check);
+    }
+    catch (ExecutionException e)
+    {
+      log.warn("{}: {} failed", providerName, check, e.getCause());
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
   private LocalDate dateToLocalDate(Date date)
   {
     if (date == null)
@@ -128,4 +358,38 @@ public class ServiceProviderStatusService
     return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
   }
 
+  private static final class PendingChecks
+  {
+
+    private final Future<CvcTlsCheck.CvcCheckResults> cvcCheck;
+
+    private final Future<Boolean> riAvailable;
+
+    private final Future<Boolean> paAvailable;
+
+    PendingChecks(Future<CvcTlsCheck.CvcCheckResults> cvcCheck,
+                  Future<Boolean> riAvailable,
+                  Future<Boolean> paAvailable)
+    {
+      this.cvcCheck = cvcCheck;
+      this.riAvailable = riAvailable;
+      this.paAvailable = paAvailable;
+    }
+  }
+
+  private static final class CachedAvailability
+  {
+
+    private final Future<Boolean> result;
+
+    /**
+     * end of the caching period, not before the check has finished
+     */
+    private volatile long validUntil = Long.MAX_VALUE;
+
+    CachedAvailability(Future<Boolean> result)
+    {
+      this.result = result;
+    }
+  }
 }
@@ -35,7 +35,9 @@ import lombok.Data;
 
 /**
  * Entity to persist the terminal permission data needed to access an ePA. That data contains the access data for the
- * PKI which issues the terminal certificates as well because it is needed in the renewal process.
+ * PKI which issues the terminal certificates as well because it is needed in the renewal process. The master list and
+ * defect list are stored in the same table but mapped by {@link TerminalPermissionLists}, so they are read only when
+ * needed.
  *
  * @author TT
  */
@@ -77,15 +79,9 @@ public class TerminalPermission implements Serializable
   @OneToMany(mappedBy = "terminalPermission", cascade = CascadeType.REMOVE, fetch = FetchType.EAGER)
   private Set<CertInChain> chain;
 
-  @Lob
-  private byte[] masterList;
-
   @Temporal(TemporalType.TIMESTAMP)
   private Date masterListStoreDate;
 
-  @Lob
-  private byte[] defectList;
-
   @Temporal(TemporalType.TIMESTAMP)
   private Date defectListStoreDate;
 
@@ -116,10 +116,42 @@ public interface TerminalPermissionAO
   void storeDefectList(String refID, byte[] defectList);
 
   /**
+   * Return the terminal permission without master list and defect list, use {@link #getMasterList(String)} and
+   * {@link #getDefectList(String)} to get these.
+   *
    * @param refID
    */
   TerminalPermission getTerminalPermission(String refID);
 
+  /**
+   * Return the stored master list.
+   *
+   * @param refID
+   * @return the master list or <code>null</code> if there is none
+   */
+  byte[] getMasterList(String refID);
+
+  /**
+   * Return the stored defect list.
+   *
+   * @param refID
+   * @return the defect list or <code>null</code> if there is none
+   */
+  byte[] getDefectList(String refID);
+
+  /**
+   * Return the status of all terminal permissions without loading the lists, keys and chains.
+   */
+  List<TerminalPermissionStatus> getTerminalPermissionStatus();
+
+  /**
+   * Return the status of a terminal permission without loading the lists, keys and chains.
+   *
+   * @param refID
+   * @return the status or <code>null</code> if there is no terminal permission for this refID
+   */
+  TerminalPermissionStatus getTerminalPermissionStatus(String refID);
+
   /**
    * returns a Map with all refIDs as key and the expire dates of the CVCs as value.
    */
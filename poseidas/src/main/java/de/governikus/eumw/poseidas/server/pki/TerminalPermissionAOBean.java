@@ -99,6 +99,10 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
 
   private final ConfigurationService configurationService;
 
+  private final TerminalPermissionListsRepository terminalPermissionListsRepository;
+
+  private final SNMPTrapSender trapSender;
+
   /**
    * {@inheritDoc}
    */
@@ -164,6 +168,42 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
     return terminalPermissionRepository.findById(refID).orElse(null);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public byte[] getMasterList(String refID)
+  {
+    return terminalPermissionListsRepository.findMasterListByRefID(refID).orElse(null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public byte[] getDefectList(String refID)
+  {
+    return terminalPermissionListsRepository.findDefectListByRefID(refID).orElse(null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<TerminalPermissionStatus> getTerminalPermissionStatus()
+  {
+    return terminalPermissionRepository.findAllStatus();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public TerminalPermissionStatus getTerminalPermissionStatus(String refID)
+  {
+    return terminalPermissionRepository.findStatusByRefID(refID).orElse(null);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -171,8 +211,7 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
   public Map<String, Date> getExpirationDates()
   {
     Map<String, Date> result = new HashMap<>();
-    List<TerminalPermission> tpList = terminalPermissionRepository.findAll(Sort.by(Sort.Direction.ASC, "notOnOrAfter"));
-    for ( TerminalPermission permission : tpList )
+    for ( TerminalPermissionStatus permission : terminalPermissionRepository.findAllStatus() )
     {
       if (permission.getNotOnOrAfter() != null)
       {
@@ -689,7 +728,9 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
     }
 
     TerminalPermission tp = tpOptional.get();
-    tp.setDefectList(defectList);
+    // make sure a newly created terminal permission row exists before the lists are loaded
+    terminalPermissionRepository.flush();
+    terminalPermissionListsRepository.findById(refID).ifPresent(lists -> lists.setDefectList(defectList));
     tp.setDefectListStoreDate(new Date());
   }
 
@@ -704,7 +745,9 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
     }
 
     TerminalPermission tp = tpOptional.get();
-    tp.setMasterList(masterList);
+    // make sure a newly created terminal permission row exists before the lists are loaded
+    terminalPermissionRepository.flush();
+    terminalPermissionListsRepository.findById(refID).ifPresent(lists -> lists.setMasterList(masterList));
     tp.setMasterListStoreDate(new Date());
   }
 
@@ -1005,7 +1048,7 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
     if (!terminalPermissionOptional.isPresent())
     {
       log.error("{}: Could not set current request signer certificate. RefID does not exist.", refID);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_CHANGE_TO_CURRENT_RSC, SNMPConstants.RSC_NO_REFID);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_CHANGE_TO_CURRENT_RSC, SNMPConstants.RSC_NO_REFID);
       return;
     }
 
@@ -1015,7 +1058,7 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
     {
       log.error("{}: Could not change pending request signer certificate to current, because there is no pending one!",
                 refID);
-      SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_CHANGE_TO_CURRENT_RSC, SNMPConstants.RSC_NO_PENDING);
+      trapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_CHANGE_TO_CURRENT_RSC, SNMPConstants.RSC_NO_PENDING);
       return;
     }
 
@@ -1029,7 +1072,7 @@ public class TerminalPermissionAOBean implements TerminalPermissionAO
 
     terminalPermissionRepository.saveAndFlush(terminalPermission);
     log.info("{}: Successfully set current request signer certificate", refID);
-    SNMPTrapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_CHANGE_TO_CURRENT_RSC, SNMPConstants.RSC_SET_CURRENT);
+    trapSender.sendSNMPTrap(SNMPConstants.TrapOID.RSC_TRAP_CHANGE_TO_CURRENT_RSC, SNMPConstants.RSC_SET_CURRENT);
   }
 
   /**
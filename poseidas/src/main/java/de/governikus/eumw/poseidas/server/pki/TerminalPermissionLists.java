@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.server.pki;
+
+import java.io.Serializable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import lombok.Data;
+
+
+/**
+ * Master list and defect list of a {@link TerminalPermission}. The lists are mapped to the same table as the terminal
+ * permission but in an entity of their own, so loading a terminal permission does not read them. Rows are created
+ * through {@link TerminalPermission} only, this entity is just loaded and updated.
+ */
+@Entity
+@Table(name = "TerminalPermission")
+@Data
+public class TerminalPermissionLists implements Serializable
+{
+
+  private static final long serialVersionUID = 1L;
+
+  @Id
+  private String refID;
+
+  @Lob
+  private byte[] masterList;
+
+  @Lob
+  private byte[] defectList;
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.server.pki;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+
+@Repository
+public interface TerminalPermissionListsRepository extends JpaRepository<TerminalPermissionLists, String>
+{
+
+  @Query("SELECT l.masterList FROM TerminalPermissionLists l WHERE l.refID = ?1")
+  public Optional<byte[]> findMasterListByRefID(String refID);
+
+  @Query("SELECT l.defectList FROM TerminalPermissionLists l WHERE l.refID = ?1")
+  public Optional<byte[]> findDefectListByRefID(String refID);
+}
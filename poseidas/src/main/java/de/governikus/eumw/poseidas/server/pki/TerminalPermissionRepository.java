@@ -1,8 +1,10 @@
 package de.governikus.eumw.poseidas.server.pki;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 
@@ -10,5 +12,21 @@ import org.springframework.stereotype.Repository;
 public interface TerminalPermissionRepository extends JpaRepository<TerminalPermission, String>
 {
 
+  /**
+   * Selects the status of terminal permissions without the list, key and chain columns
+   */
+  String SELECT_STATUS = "SELECT new de.governikus.eumw.poseidas.server.pki.TerminalPermissionStatus("
+                         + "t.refID, t.cvc, t.cvcDescription, t.notOnOrAfter, t.blackListStoreDate,"
+                         + " t.blackListVersion, CASE WHEN l.masterList IS NULL THEN 0 ELSE 1 END,"
+                         + " t.masterListStoreDate, CASE WHEN l.defectList IS NULL THEN 0 ELSE 1 END,"
+                         + " t.defectListStoreDate) FROM TerminalPermission t, TerminalPermissionLists l"
+                         + " WHERE l.refID = t.refID";
+
   public Optional<TerminalPermission> findByPendingRequest_MessageID(String messageID);
+
+  @Query(SELECT_STATUS)
+  public List<TerminalPermissionStatus> findAllStatus();
+
+  @Query(SELECT_STATUS + " AND t.refID = ?1")
+  public Optional<TerminalPermissionStatus> findStatusByRefID(String refID);
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.server.pki;
+
+import java.util.Date;
+
+import lombok.Getter;
+
+
+/**
+ * Status information of a {@link TerminalPermission} without the master list, defect list, key and chain data. Loaded
+ * by a projection query, so the large columns are not read from the database.
+ */
+@Getter
+public class TerminalPermissionStatus
+{
+
+  private final String refID;
+
+  private final byte[] cvc;
+
+  private final byte[] cvcDescription;
+
+  private final Date notOnOrAfter;
+
+  private final Date blackListStoreDate;
+
+  private final Long blackListVersion;
+
+  private final boolean masterListPresent;
+
+  private final Date masterListStoreDate;
+
+  private final boolean defectListPresent;
+
+  private final Date defectListStoreDate;
+
+  /**
+   * Constructor used by the queries in {@link TerminalPermissionRepository}
+   */
+  public TerminalPermissionStatus(String refID,
+                                  byte[] cvc,
+                                  byte[] cvcDescription,
+                                  Date notOnOrAfter,
+                                  Date blackListStoreDate,
+                                  Long blackListVersion,
+                                  Integer masterListPresent,
+                                  Date masterListStoreDate,
+                                  Integer defectListPresent,
+                                  Date defectListStoreDate)
+  {
+    this.refID = refID;
+    this.cvc = cvc;
+    this.cvcDescription = cvcDescription;
+    this.notOnOrAfter = notOnOrAfter;
+    this.blackListStoreDate = blackListStoreDate;
+    this.blackListVersion = blackListVersion;
+    this.masterListPresent = masterListPresent != null && masterListPresent == 1;
+    this.masterListStoreDate = masterListStoreDate;
+    this.defectListPresent = defectListPresent != null && defectListPresent == 1;
+    this.defectListStoreDate = defectListStoreDate;
+  }
+}
@@ -36,7 +36,7 @@ public class DvcaCertDescriptionService
    */
   public DvcaCertDescriptionService(PKIServiceConnector con, String uri) throws URISyntaxException
   {
-    DVCACertDescriptionService service = new DVCACertDescriptionService(getClass().getResource("/META-INF/wsdl/CA-Services/CertDesc/WS_DV_CertDesc.wsdl"));
+    DVCACertDescriptionService service = ServiceHolder.SERVICE;
     DVCACERTDESCRIPTION tmpPort = service.getSoap12();
     con.setHttpsConnectionSetting((BindingProvider)tmpPort, uri);
     port = tmpPort;
@@ -55,4 +55,12 @@ public class DvcaCertDescriptionService
     return result.getCertificateDescription();
   }
 
+  /**
+   * Shared by all wrappers, the certificate description WSDL is parsed when the first wrapper is created.
+   */
+  private static final class ServiceHolder
+  {
+
+    private static final DVCACertDescriptionService SERVICE = new DVCACertDescriptionService(DvcaCertDescriptionService.class.getResource("/META-INF/wsdl/CA-Services/CertDesc/WS_DV_CertDesc.wsdl"));
+  }
 }
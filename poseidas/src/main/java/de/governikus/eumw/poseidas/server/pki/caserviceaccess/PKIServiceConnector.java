@@ -11,6 +11,7 @@
 package de.governikus.eumw.poseidas.server.pki.caserviceaccess;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.Socket;
 import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
@@ -18,20 +19,28 @@ import java.security.Key;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.Principal;
 import java.security.PrivateKey;
 import java.security.SecureRandom;
 import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509KeyManager;
@@ -43,7 +52,9 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.frontend.ClientProxy;
 import org.apache.cxf.transport.http.HTTPConduit;
+import org.apache.cxf.transports.http.configuration.ConnectionType;
 import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -52,6 +63,7 @@ import org.apache.http.impl.client.HttpClients;
 import org.apache.tomcat.util.net.Constants;
 
 import de.governikus.eumw.eidascommon.Utils;
+import de.governikus.eumw.poseidas.cardbase.Hex;
 import de.governikus.eumw.utils.key.SecurityProvider;
 import lombok.RequiredArgsConstructor;
 
@@ -60,6 +72,12 @@ import lombok.RequiredArgsConstructor;
  * Handles all aspects of getting the connection to the PKI service. Especially the SSL client authentication
  * is not handled properly by Metro. Current work-around is getting the WSDLs from own jar which is OK since
  * the WSDLs where already required at compile time.
+ * <p>
+ * The TLS client context of each entity is built once and cached together with a pooled HTTP client as long as
+ * the trusted server certificate and the client key do not change. No JVM-global SSL settings are touched, so
+ * connections for different entities may run concurrently. The cache is cleared by {@link #clearTlsClients()}
+ * whenever the configuration changes.
+ * </p>
  *
  * @author tautenhahn
  */
@@ -95,9 +113,10 @@ public class PKIServiceConnector
 
   private static final char[] DUMMY_KEYPASS = "123456".toCharArray();
 
-  private static boolean sslContextLocked = false;
-
-  private static long lockStealTime;
+  /**
+   * TLS clients by entity ID and timeout, replaced as soon as the certificates or keys of the entity change.
+   */
+  private static final Map<List<Object>, TlsClient> TLS_CLIENTS = new ConcurrentHashMap<>();
 
   private final X509Certificate sslServersCert;
 
@@ -202,80 +221,152 @@ public class PKIServiceConnector
   }
 
   /**
-   * Block as long as another thread uses the SSL context. After calling this method, a client can set its own
-   * static properties to the SSL context without breaking some other process.
+   * Get a document (usually a WSDL) via configured transport HTTP GET and return the content.
+   *
+   * @param uri
+   * @throws URISyntaxException
+   * @throws IOException
    */
-  public static synchronized void getContextLock()
+  public byte[] getFile(String uri) throws IOException
   {
-    long now = System.currentTimeMillis();
-    while (sslContextLocked && now < lockStealTime)
+    TlsClient client;
+    try
     {
-      try
-      {
-        PKIServiceConnector.class.wait(lockStealTime - now);
-      }
-      catch (InterruptedException e)
-      {
-        LOG.error("Thread was interrupted while waiting for the SSL context lock", e);
-        // Reinterrupt the current thread to make sure we are not ignoring the interrupt signal
-        Thread.currentThread().interrupt();
-      }
-      now = System.currentTimeMillis();
+      client = getTlsClient();
+    }
+    catch (CertificateException | NoSuchAlgorithmException | UnrecoverableKeyException | KeyStoreException
+      | KeyManagementException | NoSuchProviderException e)
+    {
+      throw new IOException("Cannot create http client", e);
     }
-    if (sslContextLocked)
+    SSL_LOGGER.debug(entityID + ": Starting download of " + uri);
+    try (CloseableHttpResponse response = client.httpClient.execute(new HttpGet(uri)))
     {
-      LOG.error("stealing lock on SSL context: another thread did not release it after two minutes",
-                new Exception("this is only for printing the stack trace"));
+      return Utils.readBytesFromStream(response.getEntity().getContent());
+    }
+    finally
+    {
+      client.release();
+      SSL_LOGGER.debug(entityID + ": Download finished");
     }
-    final long twoMinutesInMillis = 2 * 60 * 1000L;
-    lockStealTime = System.currentTimeMillis() + twoMinutesInMillis;
-    sslContextLocked = true;
-    SSL_LOGGER.debug("Starting communication:");
   }
 
   /**
-   * Release the lock on the SSL context - other threads may now set their static properties
+   * Drops all cached TLS clients, to be called when the configuration changes. Clients still in use are closed as
+   * soon as they are released.
    */
-  public static synchronized void releaseContextLock()
+  public static void clearTlsClients()
   {
-    if (SSL_LOGGER.isDebugEnabled())
+    for ( List<Object> key : TLS_CLIENTS.keySet() )
     {
-      SSL_LOGGER.debug("Communication finished\n\n"
-                       + "######################################################################################"
-                       + "\n");
+      TLS_CLIENTS.computeIfPresent(key, (k, client) -> {
+        client.retire();
+        return null;
+      });
     }
-    sslContextLocked = false;
-    PKIServiceConnector.class.notifyAll();
   }
 
   /**
-   * Get a document (usually a WSDL) via configured transport HTTP GET and return the content.
-   *
-   * @param uri
-   * @throws URISyntaxException
-   * @throws IOException
+   * Gets the cached TLS client for this entity, creating a new one if there is none yet or if the certificates or
+   * keys have changed since it was created. The client is returned acquired and must be released after use.
    */
-  public byte[] getFile(String uri) throws IOException
+  private TlsClient getTlsClient() throws NoSuchAlgorithmException, KeyStoreException, UnrecoverableKeyException,
+    KeyManagementException, IOException, CertificateException, NoSuchProviderException
   {
-    CloseableHttpClient client;
-    try
+    List<Object> key = List.of(entityID, timeout);
+    String fingerprint = computeFingerprint();
+    // in HSM mode the key cannot be read, a new login gives a new key store instance
+    KeyStore keyStore = hsmMode ? clientCertAndKey : null;
+    TlsClient cached = TLS_CLIENTS.get(key);
+    if (cached != null && cached.matches(fingerprint, keyStore) && cached.acquire())
     {
-      SSLContext ctx = createSSLContext();
-      SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(ctx,
-                                                                                   new String[]{Constants.SSL_PROTO_TLSv1_2},
-                                                                                   ENABLED_CIPHER_SUITES,
-                                                                                   SSLConnectionSocketFactory.getDefaultHostnameVerifier());
-      client = HttpClients.custom().useSystemProperties().setSSLSocketFactory(sslSocketFactory).build();
+      return cached;
     }
-    catch (CertificateException | NoSuchAlgorithmException | UnrecoverableKeyException | KeyStoreException
-      | KeyManagementException | NoSuchProviderException e)
+    // built outside the map so that other entities are not blocked, discarded if another thread was faster
+    TlsClient candidate = createTlsClient(fingerprint, keyStore);
+    candidate.acquire();
+    TlsClient result = TLS_CLIENTS.compute(key, (k, current) -> {
+      if (current != null && current.matches(fingerprint, keyStore) && current.acquire())
+      {
+        return current;
+      }
+      if (current != null)
+      {
+        LOG.debug(entityID + ": certificates or keys changed, replacing TLS client");
+        current.retire();
+      }
+      return candidate;
+    });
+    if (result != candidate)
     {
-      throw new IOException("Cannot create http client", e);
+      candidate.release();
+      candidate.retire();
+    }
+    return result;
+  }
+
+  private TlsClient createTlsClient(String fingerprint, KeyStore keyStore) throws NoSuchAlgorithmException,
+    KeyStoreException, UnrecoverableKeyException, KeyManagementException, IOException, CertificateException,
+    NoSuchProviderException
+  {
+    SSLContext ctx = createSSLContext();
+    SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(ctx,
+                                                                                 new String[]{Constants.SSL_PROTO_TLSv1_2},
+                                                                                 ENABLED_CIPHER_SUITES,
+                                                                                 SSLConnectionSocketFactory.getDefaultHostnameVerifier());
+    int timeoutMillis = (int)(MILLISECOND_FACTOR * timeout);
+    RequestConfig requestConfig = RequestConfig.custom()
+                                               .setConnectTimeout(timeoutMillis)
+                                               .setSocketTimeout(timeoutMillis)
+                                               .build();
+    CloseableHttpClient httpClient = HttpClients.custom()
+                                                .useSystemProperties()
+                                                .setSSLSocketFactory(sslSocketFactory)
+                                                .setDefaultRequestConfig(requestConfig)
+                                                .build();
+    return new TlsClient(fingerprint, keyStore, new CipherSuiteSocketFactory(ctx.getSocketFactory()), httpClient);
+  }
+
+  /**
+   * Computes a fingerprint over everything that goes into the TLS client context: the trusted server certificate,
+   * the client certificate chain and the client key if given as software key. The HSM key store is compared by
+   * instance instead.
+   */
+  private String computeFingerprint() throws NoSuchAlgorithmException, KeyStoreException, UnrecoverableKeyException
+  {
+    MessageDigest md = MessageDigest.getInstance("SHA-256");
+    md.update(hsmMode ? (byte)1 : (byte)0);
+    try
+    {
+      if (sslServersCert != null)
+      {
+        md.update(sslServersCert.getEncoded());
+      }
+      if (clientCertAndKey != null)
+      {
+        Certificate[] chain = clientCertAndKey.getCertificateChain(entityID);
+        if (chain != null)
+        {
+          for ( Certificate c : chain )
+          {
+            md.update(c.getEncoded());
+          }
+        }
+        if (!hsmMode)
+        {
+          Key key = clientCertAndKey.getKey(entityID, storePass);
+          if (key != null && key.getEncoded() != null)
+          {
+            md.update(key.getEncoded());
+          }
+        }
+      }
     }
-    try (CloseableHttpResponse response = client.execute(new HttpGet(uri)))
+    catch (CertificateEncodingException e)
     {
-      return Utils.readBytesFromStream(response.getEntity().getContent());
+      throw new KeyStoreException("cannot encode certificate", e);
     }
+    return Hex.hexify(md.digest());
   }
 
   private SSLContext createSSLContext() throws NoSuchAlgorithmException, KeyStoreException, UnrecoverableKeyException,
@@ -358,10 +449,14 @@ public class PKIServiceConnector
       HTTPClientPolicy policy = new HTTPClientPolicy();
       policy.setConnectionTimeout(MILLISECOND_FACTOR * timeout);
       policy.setReceiveTimeout(MILLISECOND_FACTOR * timeout);
+      policy.setConnection(ConnectionType.KEEP_ALIVE);
       conduit.setClient(policy);
       TLSClientParameters tlsClientParameters = new TLSClientParameters();
-      tlsClientParameters.setSslContext(createSSLContext());
-      tlsClientParameters.setCipherSuites(Arrays.asList(ENABLED_CIPHER_SUITES));
+      // always the same factory instance for this entity so that kept-alive connections can be reused, the factory
+      // stays usable after the client is released
+      TlsClient client = getTlsClient();
+      client.release();
+      tlsClientParameters.setSSLSocketFactory(client.socketFactory);
       conduit.setTlsClientParameters(tlsClientParameters);
     }
     catch (WebServiceException e)
@@ -453,4 +548,186 @@ public class PKIServiceConnector
       return wrapped.getServerAliases(keyType, issuers);
     }
   }
+
+  /**
+   * TLS context of one entity, the socket factory used for SOAP and the pooled HTTP client used for downloads. A
+   * replaced client is closed when the last thread using it has released it.
+   */
+  @RequiredArgsConstructor
+  private static final class TlsClient
+  {
+
+    /**
+     * Fingerprint of the certificates and keys this client was built from.
+     */
+    private final String fingerprint;
+
+    /**
+     * HSM key store this client was built from, <code>null</code> for software keys.
+     */
+    private final KeyStore keyStore;
+
+    private final SSLSocketFactory socketFactory;
+
+    private final CloseableHttpClient httpClient;
+
+    private int users;
+
+    private boolean retired;
+
+    boolean matches(String otherFingerprint, KeyStore otherKeyStore)
+    {
+      return keyStore == otherKeyStore && fingerprint.equals(otherFingerprint);
+    }
+
+    /**
+     * @return <code>false</code> if the client has already been replaced and must not be used
+     */
+    synchronized boolean acquire()
+    {
+      if (retired)
+      {
+        return false;
+      }
+      users++;
+      return true;
+    }
+
+    synchronized void release()
+    {
+      users--;
+      closeIfUnused();
+    }
+
+    synchronized void retire()
+    {
+      retired = true;
+      closeIfUnused();
+    }
+
+    private void closeIfUnused()
+    {
+      if (retired && users == 0)
+      {
+        try
+        {
+          httpClient.close();
+        }
+        catch (IOException e)
+        {
+          LOG.debug("Cannot close replaced http client", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Wrap a {@link SSLSocketFactory} in order to restrict the created sockets to TLS 1.2 and the
+   * {@link #ENABLED_CIPHER_SUITES}, which CXF does not do itself if the factory is given directly.
+   */
+  private static final class CipherSuiteSocketFactory extends SSLSocketFactory
+  {
+
+    private final SSLSocketFactory wrapped;
+
+    private final String[] cipherSuites;
+
+    private CipherSuiteSocketFactory(SSLSocketFactory wrapped)
+    {
+      this.wrapped = wrapped;
+      List<String> supported = Arrays.asList(wrapped.getSupportedCipherSuites());
+      List<String> enabled = new ArrayList<>();
+      for ( String suite : ENABLED_CIPHER_SUITES )
+      {
+        if (supported.contains(suite))
+        {
+          enabled.add(suite);
+        }
+      }
+      this.cipherSuites = enabled.toArray(new String[0]);
+    }
+
+    private Socket configure(Socket socket)
+    {
+      if (socket instanceof SSLSocket)
+      {
+        ((SSLSocket)socket).setEnabledProtocols(new String[]{Constants.SSL_PROTO_TLSv1_2});
+        ((SSLSocket)socket).setEnabledCipherSuites(cipherSuites);
+      }
+      return socket;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDefaultCipherSuites()
+    {
+      return cipherSuites.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getSupportedCipherSuites()
+    {
+      return wrapped.getSupportedCipherSuites();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket() throws IOException
+    {
+      return configure(wrapped.createSocket());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(Socket s, String host, int port, boolean autoClose) throws IOException
+    {
+      return configure(wrapped.createSocket(s, host, port, autoClose));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(String host, int port) throws IOException
+    {
+      return configure(wrapped.createSocket(host, port));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException
+    {
+      return configure(wrapped.createSocket(host, port, localHost, localPort));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException
+    {
+      return configure(wrapped.createSocket(host, port));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+      throws IOException
+    {
+      return configure(wrapped.createSocket(address, port, localAddress, localPort));
+    }
+  }
 }
@@ -42,7 +42,7 @@ public class PassiveAuthService
 
   public PassiveAuthService(PKIServiceConnector con, String uri) throws URISyntaxException
   {
-    EACDVProtocolService service = new EACDVProtocolService(getClass().getResource("/META-INF/wsdl/CA-Services/PassiveAuth/WS_DV_PassiveAuth.wsdl"));
+    EACDVProtocolService service = ServiceHolder.SERVICE;
     EACPKIDVProtocolType tmpPort = service.getEACDVProtocolServicePort();
     con.setHttpsConnectionSetting((BindingProvider)tmpPort, uri);
     port = tmpPort;
@@ -76,4 +76,12 @@ public class PassiveAuthService
     return mResult.getDefectList().getBinary();
   }
 
+  /**
+   * Shared by all wrappers, created with the first wrapper for the master and defect list download.
+   */
+  private static final class ServiceHolder
+  {
+
+    private static final EACDVProtocolService SERVICE = new EACDVProtocolService(PassiveAuthService.class.getResource("/META-INF/wsdl/CA-Services/PassiveAuth/WS_DV_PassiveAuth.wsdl"));
+  }
 }
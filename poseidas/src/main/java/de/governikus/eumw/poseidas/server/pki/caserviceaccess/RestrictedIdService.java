@@ -48,7 +48,7 @@ public class RestrictedIdService
    */
   public RestrictedIdService(PKIServiceConnector con, String uri) throws URISyntaxException
   {
-    EACDVProtocolService service = new EACDVProtocolService(getClass().getResource("/META-INF/wsdl/CA-Services/Restricted_ID/WS_DV_RestrictedID.wsdl"));
+    EACDVProtocolService service = ServiceHolder.SERVICE;
     EACPKIDVProtocolType tmpPort = service.getEACDVProtocolServicePort();
     con.setHttpsConnectionSetting((BindingProvider)tmpPort, uri);
     port = tmpPort;
@@ -128,5 +128,12 @@ public class RestrictedIdService
 
   }
 
-}
+  /**
+   * Shared by all wrappers, created with the first wrapper for black list or sector key requests.
+   */
+  private static final class ServiceHolder
+  {
 
+    private static final EACDVProtocolService SERVICE = new EACDVProtocolService(RestrictedIdService.class.getResource("/META-INF/wsdl/CA-Services/Restricted_ID/WS_DV_RestrictedID.wsdl"));
+  }
+}
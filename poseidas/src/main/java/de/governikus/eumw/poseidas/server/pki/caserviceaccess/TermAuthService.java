@@ -52,7 +52,7 @@ public class TermAuthService
    */
   public TermAuthService(PKIServiceConnector con, String uri) throws URISyntaxException
   {
-    EACDVProtocolService service = new EACDVProtocolService(getClass().getResource("/META-INF/wsdl/CA-Services/TermAuth/WS_DV_TerminalAuth.wsdl"));
+    EACDVProtocolService service = ServiceHolder.SERVICE;
     EACPKIDVProtocolType tmpPort = service.getEACDVProtocolServicePort();
     con.setHttpsConnectionSetting((BindingProvider)tmpPort, uri);
     port = tmpPort;
@@ -130,4 +130,13 @@ public class TermAuthService
     }
     return isAsync ? null : getCertificate(result.getCertificateSeq().getCertificate());
   }
+
+  /**
+   * Shared by all wrappers, created with the first wrapper for CVC requests.
+   */
+  private static final class ServiceHolder
+  {
+
+    private static final EACDVProtocolService SERVICE = new EACDVProtocolService(TermAuthService.class.getResource("/META-INF/wsdl/CA-Services/TermAuth/WS_DV_TerminalAuth.wsdl"));
+  }
 }
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Component;
 import de.governikus.eumw.poseidas.eidserver.crl.CertificationRevocationListImpl;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.CvcTlsCheck;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.poseidas.server.pki.PermissionDataHandling;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
 import lombok.AllArgsConstructor;
@@ -25,6 +26,8 @@ public class StartupListener
 
   private final ConfigurationService configurationService;
 
+  private final SNMPTrapSender trapSender;
+
   @EventListener
   public void onApplicationEvent(WebServerInitializedEvent event)
   {
@@ -35,6 +38,6 @@ public class StartupListener
   private void initCRL()
   {
     permissionDataHandling.renewMasterAndDefectList();
-    CertificationRevocationListImpl.tryInitialize(configurationService, facade);
+    CertificationRevocationListImpl.tryInitialize(configurationService, facade, trapSender);
   }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+class HexTest
+{
+
+  private static final byte[] BYTES = {0x00, 0x0f, 0x10, 0x7f, (byte)0x80, (byte)0xab, (byte)0xff};
+
+  @Test
+  void testHexify()
+  {
+    Assertions.assertEquals("000f107f80abff", Hex.hexify(BYTES));
+    Assertions.assertEquals("00:0f:10:7f:80:ab:ff", Hex.hexify(BYTES, ":"));
+    Assertions.assertEquals("ab", Hex.hexify((byte)0xab));
+    Assertions.assertEquals("x107f", Hex.hexify(new StringBuilder("x"), BYTES, 2, 2).toString());
+    Assertions.assertEquals("000f107f80abff", Hex.lazyHexify(BYTES).toString());
+  }
+
+  @Test
+  void testParse()
+  {
+    Assertions.assertArrayEquals(BYTES, Hex.parse("000F107F80ABFF"));
+    Assertions.assertArrayEquals(BYTES, Hex.parse(" 00 0f 10\r\n7f 80 ab ff "));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Hex.parse("abc"));
+    Assertions.assertThrows(NumberFormatException.class, () -> Hex.parse("0g"));
+  }
+
+  @Test
+  void testCombineIntoBuffer()
+  {
+    byte[] dest = new byte[6];
+    Assertions.assertEquals(5, ByteUtil.combine(dest, 1, new byte[]{1, 2}, null, new byte[]{3, 4}));
+    Assertions.assertArrayEquals(new byte[]{0, 1, 2, 3, 4, 0}, dest);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> ByteUtil.combine(dest, 5, new byte[]{1, 2}));
+    Assertions.assertArrayEquals(new byte[]{1, 2, 3, 4},
+                                 ByteUtil.combine(new byte[][]{new byte[]{1}, new byte[]{2, 3}, null, new byte[]{4}}));
+  }
+}
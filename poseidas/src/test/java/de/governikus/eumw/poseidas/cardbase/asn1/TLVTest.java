@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.asn1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.governikus.eumw.poseidas.cardbase.Hex;
+import de.governikus.eumw.poseidas.eidserver.model.signeddata.MasterList;
+
+
+class TLVTest
+{
+
+  @Test
+  void testMasterListMatchesASN1() throws Exception
+  {
+    byte[] bytes = read("/masterlist/MASTERLIST.bin");
+    TLV tlv = TLV.parse(bytes);
+    assertSame(new ASN1(bytes), tlv);
+    Assertions.assertEquals(bytes.length, tlv.getEncodedLength());
+    Assertions.assertArrayEquals(bytes, tlv.getEncoded());
+    Assertions.assertArrayEquals(bytes, tlv.toASN1().getEncoded());
+  }
+
+  @Test
+  void testTerminalCertificateMatchesASN1() throws Exception
+  {
+    byte[] bytes = read("/terminalCertificates/terminalCert.cvc");
+    ASN1 asn1 = new ASN1(bytes);
+    TLV tlv = TLV.of(asn1);
+    Assertions.assertEquals(0x7f21, tlv.getDTag());
+    Assertions.assertNotNull(tlv.getChildElement(0x7f4e));
+    Assertions.assertNotNull(tlv.getChildElement(0x5f37));
+    Assertions.assertNull(tlv.getChildElement(0x30));
+    assertSame(asn1, tlv);
+  }
+
+  @Test
+  void testValueAccess() throws Exception
+  {
+    TLV tlv = TLV.parse(Hex.parse("0403010203ffff"));
+    Assertions.assertEquals(0x04, tlv.getDTag());
+    Assertions.assertEquals(3, tlv.getLength());
+    Assertions.assertEquals(5, tlv.getEncodedLength());
+    Assertions.assertArrayEquals(Hex.parse("010203"), tlv.getValue());
+    Assertions.assertTrue(tlv.valueEquals(Hex.parse("010203")));
+    Assertions.assertFalse(tlv.valueEquals(Hex.parse("0102")));
+    Assertions.assertEquals(3, tlv.getValueBuffer().remaining());
+    Assertions.assertTrue(tlv.getValueBuffer().isReadOnly());
+    Assertions.assertTrue(tlv.getChildElements().isEmpty());
+  }
+
+  @Test
+  void testInvalidEncodings()
+  {
+    // value longer than available bytes
+    Assertions.assertThrows(IOException.class, () -> TLV.parse(Hex.parse("0405010203")));
+    // undetermined length
+    Assertions.assertThrows(IOException.class, () -> TLV.parse(Hex.parse("30800000")));
+    // tag not finished
+    Assertions.assertThrows(IOException.class, () -> TLV.parse(Hex.parse("7f81")));
+    // children exceed parent
+    Assertions.assertThrows(IOException.class, () -> TLV.parse(Hex.parse("3003040201")).getChildElements());
+  }
+
+  @Test
+  void testMasterListParsedFromLocatedList()
+  {
+    Assertions.assertFalse(new MasterList(read("/masterlist/MASTERLIST.bin")).getCertificates().isEmpty());
+    Assertions.assertFalse(new MasterList(read("/masterlist/OLD_MASTERLIST.bin")).getCertificates().isEmpty());
+  }
+
+  private static void assertSame(ASN1 asn1, TLV tlv) throws IOException
+  {
+    Assertions.assertEquals(new BigInteger(1, asn1.getDTagBytes()), BigInteger.valueOf(tlv.getDTag()));
+    Assertions.assertEquals(asn1.getLength().intValue(), tlv.getLength());
+    Assertions.assertArrayEquals(asn1.getValue(), tlv.getValue());
+    if (asn1.isConstructed())
+    {
+      List<ASN1> asn1Children = asn1.getChildElementList();
+      List<TLV> tlvChildren = tlv.getChildElements();
+      Assertions.assertEquals(asn1Children.size(), tlvChildren.size());
+      for ( int i = 0 ; i < asn1Children.size() ; i++ )
+      {
+        assertSame(asn1Children.get(i), tlvChildren.get(i));
+      }
+    }
+  }
+
+  private static byte[] read(String name)
+  {
+    try (InputStream in = TLVTest.class.getResourceAsStream(name))
+    {
+      return in.readAllBytes();
+    }
+    catch (IOException e)
+    {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.governikus.eumw.poseidas.cardbase.Hex;
+import de.governikus.eumw.poseidas.cardbase.constants.OIDConstants;
+import de.governikus.eumw.poseidas.cardbase.crypto.kdf.KeyDerivationHandlerFactory;
+
+
+class DigestPoolTest
+{
+
+  private static final byte[] ABC = "abc".getBytes(StandardCharsets.US_ASCII);
+
+  private static final byte[] TWO_BLOCKS = "abcdbcdecdefdefgefghfghighijhijkijkljklmklmnlmnomnopnopq"
+    .getBytes(StandardCharsets.US_ASCII);
+
+  @Test
+  void testKnownAnswers()
+  {
+    Assertions.assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", Hex.hexify(DigestPool.SHA1.digest(ABC)));
+    Assertions.assertEquals("23097d223405d8228642a477bda255b32aadbce4bda0b3f7e36c9da7",
+                            Hex.hexify(DigestPool.SHA224.digest(ABC)));
+    Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                            Hex.hexify(DigestPool.SHA256.digest(ABC)));
+    Assertions.assertEquals("cb00753f45a35e8bb5a03d699ac65007272c32ab0eded1631a8b605a43ff5bed"
+                            + "8086072ba1e7cc2358baeca134c825a7",
+                            Hex.hexify(DigestPool.SHA384.digest(ABC)));
+    Assertions.assertEquals("ddaf35a193617abacc417349ae20413112e6fa4e89a97ea20a9eeee64b55d39a"
+                            + "2192992a274fc1a836ba3c23a3feebbd454d4423643ce80e2a9ac94fa54ca49f",
+                            Hex.hexify(DigestPool.SHA512.digest(ABC)));
+  }
+
+  @Test
+  void testSegments() throws Exception
+  {
+    String expected = "248d6a61d20638b8e5c026930c3e6039a33ce45964ff2167f6ecedd419db06c1";
+    Assertions.assertEquals(expected, Hex.hexify(DigestPool.SHA256.digest(TWO_BLOCKS)));
+    for ( int i = 0 ; i <= TWO_BLOCKS.length ; i += 7 )
+    {
+      byte[] first = new byte[i];
+      byte[] second = new byte[TWO_BLOCKS.length - i];
+      System.arraycopy(TWO_BLOCKS, 0, first, 0, first.length);
+      System.arraycopy(TWO_BLOCKS, i, second, 0, second.length);
+      Assertions.assertEquals(expected, Hex.hexify(DigestPool.SHA256.digest(first, null, second)));
+    }
+    Assertions.assertEquals(expected, Hex.hexify(DigestPool.digest("sha-256", TWO_BLOCKS)));
+    Assertions.assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                            Hex.hexify(DigestPool.SHA256.digest()));
+    Assertions.assertArrayEquals(DigestPool.SHA256.digest(ABC), DigestPool.SHA256.newInstance().digest(ABC));
+    Assertions.assertArrayEquals(DigestPool.SHA256.digest(ABC),
+                                 DigestUtil.digestByOID(OIDConstants.OID_TA_ECDSA_SHA_256, ABC));
+    Assertions.assertArrayEquals(DigestPool.SHA512.digest(ABC),
+                                 DigestUtil.getDigestByOID(OIDConstants.OID_TA_ECDSA_SHA_512).digest(ABC));
+    Assertions.assertNull(DigestPool.forName("MD5"));
+  }
+
+  @Test
+  void testKeyDerivation() throws Exception
+  {
+    byte[] k = Hex.parse("0102030405060708090a0b0c0d0e0f10");
+    byte[] r = Hex.parse("a0a1a2a3");
+    // SHA-1(k || r || 00000001), first 16 bytes
+    SecretKey enc = KeyDerivationHandlerFactory.newKeyDerivationHandler("AES", 128).deriveEncKey(k, r);
+    Assertions.assertEquals("3e6f57f47befef549b336233a96562c3", Hex.hexify(enc.getEncoded()));
+    // SHA-256(k || 00000002)
+    SecretKey mac = KeyDerivationHandlerFactory.newKeyDerivationHandler("AES", 256).deriveMACKey(k, null);
+    Assertions.assertEquals("7c8b303ab3a01341cccc6a87c68bea0693c119fa175fd1b87fcaa365504305c8",
+                            Hex.hexify(mac.getEncoded()));
+  }
+
+  @Test
+  void testConcurrentUse() throws Exception
+  {
+    byte[] expectedAbc = DigestPool.SHA256.digest(ABC);
+    byte[] expectedTwoBlocks = DigestPool.SHA256.digest(TWO_BLOCKS);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try
+    {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for ( int i = 0 ; i < 64 ; i++ )
+      {
+        results.add(executor.submit(() -> {
+          boolean result = true;
+          for ( int j = 0 ; j < 200 ; j++ )
+          {
+            result &= Arrays.equals(expectedAbc, DigestPool.SHA256.digest(ABC));
+            result &= Arrays.equals(expectedTwoBlocks, DigestPool.SHA256.digest(TWO_BLOCKS));
+          }
+          return result;
+        }));
+      }
+      for ( Future<Boolean> result : results )
+      {
+        Assertions.assertTrue(result.get());
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+}
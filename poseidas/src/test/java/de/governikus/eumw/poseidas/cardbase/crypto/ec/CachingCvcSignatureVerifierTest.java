@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECParameterSpec;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.governikus.eumw.poseidas.cardbase.asn1.ASN1;
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCertificate;
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECPublicKeyPath;
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.SecurityInfos;
+import de.governikus.eumw.poseidas.cardbase.crypto.key.KeyHandler;
+import de.governikus.eumw.poseidas.cardbase.crypto.key.KeyHandlerFactory;
+import de.governikus.eumw.poseidas.eidmodel.TerminalData;
+
+
+class CachingCvcSignatureVerifierTest
+{
+
+  private static final byte[] DATA = "signed data".getBytes();
+
+  private static final byte[] SIGNATURE = new byte[]{1, 2, 3, 4};
+
+  @Test
+  void testOnlySuccessfulVerificationsAreRemembered() throws Exception
+  {
+    AtomicInteger calls = new AtomicInteger();
+    CachingCvcSignatureVerifier verifier = new CachingCvcSignatureVerifier((signature, data, key, mdAlg) -> {
+      calls.incrementAndGet();
+      return Arrays.equals(DATA, data);
+    });
+    ECParameterSpec spec = SecurityInfos.getDomainParameterMap().get(13);
+    ECPublicKey key = (ECPublicKey)ECMath.generateKeyPair(spec).getPublic();
+
+    Assertions.assertTrue(verifier.verify(SIGNATURE, DATA, key, "SHA-256"));
+    Assertions.assertTrue(verifier.verify(SIGNATURE, DATA, key, "SHA-256"));
+    Assertions.assertEquals(1, calls.get());
+
+    Assertions.assertFalse(verifier.verify(SIGNATURE, "other data".getBytes(), key, "SHA-256"));
+    Assertions.assertFalse(verifier.verify(SIGNATURE, "other data".getBytes(), key, "SHA-256"));
+    Assertions.assertEquals(3, calls.get());
+
+    // any difference in key, algorithm or signature needs a new verification
+    KeyPair other = ECMath.generateKeyPair(spec);
+    Assertions.assertTrue(verifier.verify(SIGNATURE, DATA, (ECPublicKey)other.getPublic(), "SHA-256"));
+    Assertions.assertTrue(verifier.verify(SIGNATURE, DATA, key, "SHA-224"));
+    Assertions.assertTrue(verifier.verify(new byte[]{1, 2, 3}, DATA, key, "SHA-256"));
+    Assertions.assertEquals(6, calls.get());
+
+    verifier.clear();
+    Assertions.assertTrue(verifier.verify(SIGNATURE, DATA, key, "SHA-256"));
+    Assertions.assertEquals(7, calls.get());
+  }
+
+  @Test
+  void testTerminalCertificateChain() throws Exception
+  {
+    TerminalData terminal = new TerminalData(read("terminalCert.cvc"));
+    TerminalData dv = new TerminalData(read("chain0.crt"));
+    TerminalData cvca = new TerminalData(read("chain1.crt"));
+    ECParameterSpec spec = ECUtil.parameterSpecFromCVC(new ECCVCertificate(cvca.getEncoded()));
+    ECPublicKey cvcaKey = publicKey(cvca, spec);
+    ECPublicKey dvKey = publicKey(dv, spec);
+
+    CachingCvcSignatureVerifier verifier = CachingCvcSignatureVerifier.getInstance();
+    for ( int i = 0 ; i < 2 ; i++ )
+    {
+      Assertions.assertTrue(verifier.verify(dv.getSignatureBytes(), dv.getEncodedBody(), cvcaKey, "SHA-256"));
+      Assertions.assertTrue(verifier.verify(terminal.getSignatureBytes(),
+                                            terminal.getEncodedBody(),
+                                            dvKey,
+                                            "SHA-256"));
+    }
+    Assertions.assertFalse(verifier.verify(terminal.getSignatureBytes(),
+                                           terminal.getEncodedBody(),
+                                           cvcaKey,
+                                           "SHA-256"));
+  }
+
+  private static ECPublicKey publicKey(TerminalData cvc, ECParameterSpec spec) throws IOException
+  {
+    KeyHandler keyHandler = KeyHandlerFactory.newKeyHandler("EC", spec.getCurve().getField().getFieldSize() / 8);
+    ASN1 point = cvc.getPublicKey().getChildElementByPath(ECPublicKeyPath.PUBLIC_POINT_Y);
+    return (ECPublicKey)keyHandler.buildKeyFromBytes(spec, point.getValue());
+  }
+
+  private static byte[] read(String name) throws IOException
+  {
+    try (InputStream in = CachingCvcSignatureVerifierTest.class.getResourceAsStream("/terminalCertificates/" + name))
+    {
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECCurve;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.SecurityInfos;
+
+
+/**
+ * Known answer tests of the EC arithmetic against BouncyCastle for all standardized domain parameters.
+ */
+class ECMathTest
+{
+
+  private static Stream<ECParameterSpec> domainParameters()
+  {
+    return SecurityInfos.getDomainParameterMap().values().stream();
+  }
+
+  private static ECCurve bcCurve(ECParameterSpec spec)
+  {
+    return new ECCurve.Fp(((ECFieldFp)spec.getCurve().getField()).getP(), spec.getCurve().getA(),
+                          spec.getCurve().getB(), spec.getOrder(), BigInteger.valueOf(spec.getCofactor()));
+  }
+
+  private static ECPoint bcMultiply(ECParameterSpec spec, ECPoint p, BigInteger k)
+  {
+    org.bouncycastle.math.ec.ECPoint result = bcCurve(spec).createPoint(p.getAffineX(), p.getAffineY())
+                                                           .multiply(k)
+                                                           .normalize();
+    return new ECPoint(result.getAffineXCoord().toBigInteger(), result.getAffineYCoord().toBigInteger());
+  }
+
+  private static BigInteger randomScalar(Random random, BigInteger order)
+  {
+    BigInteger k;
+    do
+    {
+      k = new BigInteger(order.bitLength(), random);
+    }
+    while (k.signum() == 0 || k.compareTo(order) >= 0);
+    return k;
+  }
+
+  @ParameterizedTest
+  @MethodSource("domainParameters")
+  void testMultiplyMatchesBouncyCastle(ECParameterSpec spec)
+  {
+    Random random = new Random(spec.getOrder().longValue());
+    BigInteger a = spec.getCurve().getA();
+    BigInteger prime = ((ECFieldFp)spec.getCurve().getField()).getP();
+    ECArithmetic arithmetic = new ECArithmetic(a, prime);
+    for ( int i = 0 ; i < 10 ; i++ )
+    {
+      BigInteger k = randomScalar(random, spec.getOrder());
+      ECPoint expected = bcMultiply(spec, spec.getGenerator(), k);
+      Assertions.assertEquals(expected, ECMath.multiplyECPoint(spec.getGenerator(), k, a, prime));
+      Assertions.assertEquals(expected, arithmetic.multiplySecret(spec.getGenerator(), k, spec.getOrder()));
+    }
+    // small and border case factors
+    for ( BigInteger k : new BigInteger[]{BigInteger.valueOf(2), BigInteger.valueOf(3), BigInteger.valueOf(7),
+                                          spec.getOrder().subtract(BigInteger.ONE)} )
+    {
+      ECPoint expected = bcMultiply(spec, spec.getGenerator(), k);
+      Assertions.assertEquals(expected, ECMath.multiplyECPoint(spec.getGenerator(), k, a, prime));
+      Assertions.assertEquals(expected, arithmetic.multiplySecret(spec.getGenerator(), k, spec.getOrder()));
+    }
+    Assertions.assertEquals(ECPoint.POINT_INFINITY,
+                            ECMath.multiplyECPoint(spec.getGenerator(), spec.getOrder(), a, prime));
+  }
+
+  @ParameterizedTest
+  @MethodSource("domainParameters")
+  void testFixedBaseTableMatchesBouncyCastle(ECParameterSpec spec)
+  {
+    Random random = new Random(spec.getOrder().longValue());
+    FixedBaseTable table = FixedBaseTable.forSpec(spec);
+    Assertions.assertSame(table, FixedBaseTable.forSpec(spec));
+    for ( int i = 0 ; i < 10 ; i++ )
+    {
+      BigInteger k = randomScalar(random, spec.getOrder());
+      Assertions.assertEquals(bcMultiply(spec, spec.getGenerator(), k), table.multiply(k));
+    }
+    for ( BigInteger k : new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(15), BigInteger.valueOf(16),
+                                          spec.getOrder().subtract(BigInteger.ONE)} )
+    {
+      Assertions.assertEquals(bcMultiply(spec, spec.getGenerator(), k), table.multiply(k));
+    }
+    Assertions.assertThrows(IllegalArgumentException.class, () -> table.multiply(spec.getOrder()));
+  }
+
+  @ParameterizedTest
+  @MethodSource("domainParameters")
+  void testNoFixedBaseTableForOtherParameters(ECParameterSpec spec)
+  {
+    // same curve with 2 * G as base point
+    ECPoint generator = bcMultiply(spec, spec.getGenerator(), BigInteger.valueOf(2));
+    ECParameterSpec other = new ECParameterSpec(spec.getCurve(), generator, spec.getOrder(), spec.getCofactor());
+    Assertions.assertNull(FixedBaseTable.forSpec(other));
+
+    KeyPair keyPair = ECMath.generateKeyPair(other);
+    Assertions.assertEquals(bcMultiply(spec, generator, ((ECPrivateKey)keyPair.getPrivate()).getS()),
+                            ((ECPublicKey)keyPair.getPublic()).getW());
+  }
+
+  @ParameterizedTest
+  @MethodSource("domainParameters")
+  void testSharedSecret(ECParameterSpec spec)
+  {
+    KeyPair first = ECMath.generateKeyPair(spec);
+    KeyPair second = ECMath.generateKeyPair(spec);
+    Assertions.assertTrue(ECMath.isPointOnCurve(((ECPublicKey)first.getPublic()).getW(), spec));
+    Assertions.assertEquals(bcMultiply(spec, spec.getGenerator(), ((ECPrivateKey)first.getPrivate()).getS()),
+                            ((ECPublicKey)first.getPublic()).getW());
+
+    ECPoint secret = ECMath.calcSharedSecret((ECPrivateKey)first.getPrivate(), (ECPublicKey)second.getPublic());
+    Assertions.assertEquals(secret,
+                            ECMath.calcSharedSecret((ECPrivateKey)second.getPrivate(),
+                                                    (ECPublicKey)first.getPublic()));
+  }
+
+  @ParameterizedTest
+  @MethodSource("domainParameters")
+  void testVerifyBouncyCastleSignature(ECParameterSpec spec) throws Exception
+  {
+    KeyPair keyPair = ECMath.generateKeyPair(spec);
+    BigInteger d = ((ECPrivateKey)keyPair.getPrivate()).getS();
+    ECCurve curve = bcCurve(spec);
+    ECDomainParameters domain = new ECDomainParameters(curve,
+                                                       curve.createPoint(spec.getGenerator().getAffineX(),
+                                                                         spec.getGenerator().getAffineY()),
+                                                       spec.getOrder());
+    byte[] data = "signed data".getBytes();
+    SHA256Digest digest = new SHA256Digest();
+    byte[] hash = new byte[digest.getDigestSize()];
+    digest.update(data, 0, data.length);
+    digest.doFinal(hash, 0);
+    ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+    signer.init(true, new ECPrivateKeyParameters(d, domain));
+    BigInteger[] rs = signer.generateSignature(hash);
+    int length = (spec.getOrder().bitLength() + 7) / 8;
+    byte[] signature = new byte[2 * length];
+    copyUnsigned(rs[0], signature, 0, length);
+    copyUnsigned(rs[1], signature, length, length);
+
+    // curves smaller than the hash use its leftmost bits
+    ECPublicKey publicKey = (ECPublicKey)keyPair.getPublic();
+    Assertions.assertTrue(ECMath.verifySignature(signature, data, publicKey, "SHA-256"));
+    Assertions.assertFalse(ECMath.verifySignature(signature, "other data".getBytes(), publicKey, "SHA-256"));
+  }
+
+  private static void copyUnsigned(BigInteger value, byte[] target, int offset, int length)
+  {
+    byte[] bytes = value.toByteArray();
+    int start = Math.max(0, bytes.length - length);
+    int count = bytes.length - start;
+    System.arraycopy(bytes, start, target, offset + length - count, count);
+  }
+}
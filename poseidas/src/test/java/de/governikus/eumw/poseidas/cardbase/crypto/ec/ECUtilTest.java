@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.cardbase.crypto.ec;
+
+import java.io.InputStream;
+import java.security.spec.ECParameterSpec;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.ECCVCertificate;
+import de.governikus.eumw.poseidas.cardbase.asn1.npa.SecurityInfos;
+
+
+class ECUtilTest
+{
+
+  @Test
+  void testExplicitParametersOfStandardizedCurveAreInterned() throws Exception
+  {
+    byte[] cvca;
+    try (InputStream in = ECUtilTest.class.getResourceAsStream("/terminalCertificates/chain1.crt"))
+    {
+      cvca = in.readAllBytes();
+    }
+    ECParameterSpec first = ECUtil.parameterSpecFromCVC(new ECCVCertificate(cvca));
+    ECParameterSpec second = ECUtil.parameterSpecFromCVC(new ECCVCertificate(cvca));
+    Assertions.assertSame(first, second);
+    // the test CVCA uses brainpoolP256r1
+    Assertions.assertSame(SecurityInfos.getDomainParameterMap().get(13), first);
+  }
+}
@@ -0,0 +1,41 @@
+package de.governikus.eumw.poseidas.cardserver.service.hsm.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+
+class LatencyHistogramTest
+{
+
+  @Test
+  void testRecordSortsIntoBuckets()
+  {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(7));
+    histogram.record(TimeUnit.SECONDS.toNanos(10));
+
+    long[] expected = new long[LatencyHistogram.BUCKET_BOUNDS_MILLIS.length + 1];
+    expected[0] = 1;
+    expected[1] = 1;
+    expected[3] = 1;
+    expected[expected.length - 1] = 1;
+    assertArrayEquals(expected, histogram.getBucketCounts());
+    assertEquals(4, histogram.getCount());
+  }
+
+  @Test
+  void testMean()
+  {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getMeanMillis(), 0.0);
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(2));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(4));
+    assertEquals(3, histogram.getMeanMillis(), 0.0001);
+  }
+}
@@ -1,23 +1,384 @@
 package de.governikus.eumw.poseidas.cardserver.service.hsm.impl;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.AuthProvider;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStoreSpi;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.SignatureSpi;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.login.LoginException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import de.governikus.eumw.poseidas.cardbase.constants.OIDConstants;
+
 
 class PKCS11HSMServiceTest
 {
 
+  private static final String ALIAS = "key";
+
+  private static final byte[] DATA = "data to be signed".getBytes(StandardCharsets.UTF_8);
+
+  private static final AtomicInteger PROVIDER_NUMBER = new AtomicInteger();
+
+  private static KeyPair keyPair;
+
+  @BeforeAll
+  static void generateKey() throws Exception
+  {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    keyPair = generator.generateKeyPair();
+  }
+
   @Test
   void testIsRscAlias()
   {
-    assertFalse(PKCS11HSMService.isRscAlias(null));
-    assertFalse(PKCS11HSMService.isRscAlias(""));
-    assertFalse(PKCS11HSMService.isRscAlias("123"));
-    assertTrue(PKCS11HSMService.isRscAlias("RSC02"));
-    assertFalse(PKCS11HSMService.isRscAlias("RSC002"));
-    assertTrue(PKCS11HSMService.isRscAlias("WURSTRSC01"));
-    assertFalse(PKCS11HSMService.isRscAlias("HIRSCH00001"));
+    Assertions.assertFalse(PKCS11HSMService.isRscAlias(null));
+    Assertions.assertFalse(PKCS11HSMService.isRscAlias(""));
+    Assertions.assertFalse(PKCS11HSMService.isRscAlias("123"));
+    Assertions.assertTrue(PKCS11HSMService.isRscAlias("RSC02"));
+    Assertions.assertFalse(PKCS11HSMService.isRscAlias("RSC002"));
+    Assertions.assertTrue(PKCS11HSMService.isRscAlias("WURSTRSC01"));
+    Assertions.assertFalse(PKCS11HSMService.isRscAlias("HIRSCH00001"));
+  }
+
+  /**
+   * Every new thread is bound to the next slot, every slot creates its own signature instances.
+   */
+  @Test
+  void testSlotRoundRobin() throws Exception
+  {
+    List<TestProvider> providers = new ArrayList<>();
+    PKCS11HSMService service = new PKCS11HSMService(name -> add(providers, new TestProvider(false)));
+    service.init(new PKCS11HSMConfiguration("test.cfg", "secret", 3));
+    Assertions.assertEquals(3, providers.size());
+    for ( TestProvider provider : providers )
+    {
+      Assertions.assertTrue(provider.loggedIn);
+    }
+
+    for ( int i = 0 ; i < 6 ; i++ )
+    {
+      List<byte[]> signatures = new ArrayList<>();
+      Thread thread = new Thread(() -> {
+        try
+        {
+          signatures.add(service.sign(ALIAS, OIDConstants.OID_TA_RSA_V1_5_SHA_256, DATA));
+          // the same thread stays at its slot
+          signatures.add(service.sign(ALIAS, OIDConstants.OID_TA_RSA_V1_5_SHA_256, DATA));
+        }
+        catch (Exception e)
+        {
+          throw new IllegalStateException(e);
+        }
+      });
+      thread.start();
+      thread.join();
+      Assertions.assertEquals(2, signatures.size());
+      for ( byte[] signature : signatures )
+      {
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(DATA);
+        Assertions.assertTrue(verifier.verify(signature));
+      }
+    }
+    for ( TestProvider provider : providers )
+    {
+      Assertions.assertEquals(2, provider.signatureInstances.get());
+    }
+
+    service.logout();
+    Assertions.assertFalse(service.isInitialized());
+    Assertions.assertNull(Security.getProvider(providers.get(0).getName()));
+    Assertions.assertTrue(providers.get(1).loggedOut);
+    Assertions.assertTrue(providers.get(2).loggedOut);
+  }
+
+  /**
+   * If a slot cannot be created, the slots created before are logged out.
+   */
+  @Test
+  void testInitFailure()
+  {
+    List<TestProvider> providers = new ArrayList<>();
+    PKCS11HSMService service = new PKCS11HSMService(name -> add(providers, new TestProvider(providers.size() == 2)));
+    Assertions.assertThrows(HSMException.class,
+                            () -> service.init(new PKCS11HSMConfiguration("test.cfg", "secret", 3)));
+    Assertions.assertFalse(service.isInitialized());
+    Assertions.assertNull(Security.getProvider(providers.get(0).getName()));
+    Assertions.assertTrue(providers.get(1).loggedOut);
+    Assertions.assertFalse(providers.get(2).loggedIn);
+  }
+
+  private static TestProvider add(List<TestProvider> providers, TestProvider provider)
+  {
+    providers.add(provider);
+    return provider;
+  }
+
+  /**
+   * Provider standing in for a SunPKCS11 instance, offering a key store holding {@link #keyPair} and RSA signatures.
+   */
+  private static final class TestProvider extends AuthProvider
+  {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean failLogin;
+
+    private final AtomicInteger signatureInstances = new AtomicInteger();
+
+    private volatile boolean loggedIn;
+
+    private volatile boolean loggedOut;
+
+    TestProvider(boolean failLogin)
+    {
+      super("PKCS11Test-" + PROVIDER_NUMBER.incrementAndGet(), "1.0", "test provider");
+      this.failLogin = failLogin;
+      putService(new Service(this, "KeyStore", "PKCS11", TestKeyStore.class.getName(), null, null)
+      {
+
+        @Override
+        public Object newInstance(Object constructorParameter)
+        {
+          return new TestKeyStore(TestProvider.this);
+        }
+      });
+      putService(new Service(this, "Signature", "SHA256withRSA", TestSignature.class.getName(), null, null)
+      {
+
+        @Override
+        public Object newInstance(Object constructorParameter)
+        {
+          signatureInstances.incrementAndGet();
+          return new TestSignature();
+        }
+      });
+    }
+
+    @Override
+    public void login(javax.security.auth.Subject subject, CallbackHandler handler)
+    {
+      loggedIn = true;
+    }
+
+    @Override
+    public void logout() throws LoginException
+    {
+      loggedOut = true;
+    }
+
+    @Override
+    public void setCallbackHandler(CallbackHandler handler)
+    {
+      // not needed
+    }
+  }
+
+  private static final class TestKeyStore extends KeyStoreSpi
+  {
+
+    private final TestProvider provider;
+
+    TestKeyStore(TestProvider provider)
+    {
+      this.provider = provider;
+    }
+
+    @Override
+    public void engineLoad(InputStream stream, char[] password) throws IOException
+    {
+      if (provider.failLogin)
+      {
+        throw new IOException("login failed");
+      }
+      provider.login(null, null);
+    }
+
+    @Override
+    public Key engineGetKey(String alias, char[] password)
+    {
+      return ALIAS.equals(alias) ? keyPair.getPrivate() : null;
+    }
+
+    @Override
+    public Certificate[] engineGetCertificateChain(String alias)
+    {
+      return null;
+    }
+
+    @Override
+    public Certificate engineGetCertificate(String alias)
+    {
+      return null;
+    }
+
+    @Override
+    public Date engineGetCreationDate(String alias)
+    {
+      return null;
+    }
+
+    @Override
+    public void engineSetKeyEntry(String alias, Key key, char[] password, Certificate[] chain)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void engineSetKeyEntry(String alias, byte[] key, Certificate[] chain)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void engineSetCertificateEntry(String alias, Certificate cert)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void engineDeleteEntry(String alias)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Enumeration<String> engineAliases()
+    {
+      return Collections.enumeration(List.of(ALIAS));
+    }
+
+    @Override
+    public boolean engineContainsAlias(String alias)
+    {
+      return ALIAS.equals(alias);
+    }
+
+    @Override
+    public int engineSize()
+    {
+      return 1;
+    }
+
+    @Override
+    public boolean engineIsKeyEntry(String alias)
+    {
+      return ALIAS.equals(alias);
+    }
+
+    @Override
+    public boolean engineIsCertificateEntry(String alias)
+    {
+      return false;
+    }
+
+    @Override
+    public String engineGetCertificateAlias(Certificate cert)
+    {
+      return null;
+    }
+
+    @Override
+    public void engineStore(OutputStream stream, char[] password)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Software RSA signature.
+   */
+  private static final class TestSignature extends SignatureSpi
+  {
+
+    private final Signature wrapped;
+
+    TestSignature()
+    {
+      try
+      {
+        wrapped = Signature.getInstance("SHA256withRSA", "SunRsaSign");
+      }
+      catch (Exception e)
+      {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    protected void engineInitVerify(PublicKey publicKey) throws InvalidKeyException
+    {
+      wrapped.initVerify(publicKey);
+    }
+
+    @Override
+    protected void engineInitSign(PrivateKey privateKey) throws InvalidKeyException
+    {
+      wrapped.initSign(privateKey);
+    }
+
+    @Override
+    protected void engineUpdate(byte b) throws SignatureException
+    {
+      wrapped.update(b);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] b, int off, int len) throws SignatureException
+    {
+      wrapped.update(b, off, len);
+    }
+
+    @Override
+    protected byte[] engineSign() throws SignatureException
+    {
+      return wrapped.sign();
+    }
+
+    @Override
+    protected boolean engineVerify(byte[] sigBytes) throws SignatureException
+    {
+      return wrapped.verify(sigBytes);
+    }
+
+    @Override
+    @Deprecated
+    protected void engineSetParameter(String param, Object value)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @Deprecated
+    protected Object engineGetParameter(String param)
+    {
+      throw new UnsupportedOperationException();
+    }
   }
 }
@@ -8,10 +8,10 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.util.Base64;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,8 +36,8 @@ import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService
 import de.governikus.eumw.poseidas.server.idprovider.config.CvcTlsCheck;
 import de.governikus.eumw.poseidas.server.pki.PermissionDataHandling;
 import de.governikus.eumw.poseidas.server.pki.RequestSignerCertificateService;
-import de.governikus.eumw.poseidas.server.pki.TerminalPermission;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAOBean;
+import de.governikus.eumw.poseidas.server.pki.TerminalPermissionStatus;
 import de.governikus.eumw.utils.key.SecurityProvider;
 
 
@@ -76,7 +76,7 @@ class StatusControllerTest extends WebAdminTestBase
   void testWhenCvcTlsCheckEmptyThenStatusPageWithMessageAndNoValues() throws Exception
   {
 
-    Mockito.when(cvcTlsCheck.check()).thenReturn(Optional.empty());
+    Mockito.when(cvcTlsCheck.getCachedResult()).thenReturn(Optional.empty());
 
     HtmlPage loginPage = getWebClient().getPage(getRequestUrl("/status"));
     HtmlPage statusPage = login(loginPage);
@@ -112,13 +112,13 @@ class StatusControllerTest extends WebAdminTestBase
 
     Mockito.when(configurationService.getConfiguration()).thenReturn(getConfiguration());
 
-    Mockito.when(cvcTlsCheck.check()).thenReturn(Optional.of(cvcTlsCheckResult));
+    Mockito.when(cvcTlsCheck.getCachedResult()).thenReturn(Optional.of(cvcTlsCheckResult));
     Mockito.when(cvcTlsCheck.checkCvcProvider(firstSp))
            .thenReturn(cvcTlsCheckResult.getProviderCvcChecks().get(firstSp));
     Mockito.when(cvcTlsCheck.checkCvcProvider(secondSp))
            .thenReturn(cvcTlsCheckResult.getProviderCvcChecks().get(secondSp));
-    prepareFirstSp(firstSp, expectedDate);
-    prepareSecondSp(secondSp);
+    Mockito.when(terminalPermissionAO.getTerminalPermissionStatus())
+           .thenReturn(List.of(prepareFirstSp(firstSp, expectedDate), prepareSecondSp(secondSp)));
 
     Mockito.when(permissionDataHandling.pingRIService(firstSp)).thenReturn(true);
     Mockito.when(permissionDataHandling.pingPAService(firstSp)).thenReturn(true);
@@ -224,32 +224,15 @@ class StatusControllerTest extends WebAdminTestBase
     Assertions.assertEquals(NOT_OK, defectListValues.get(2).asNormalizedText());
   }
 
-  private void prepareFirstSp(String firstSp, Date expectedDate)
+  private TerminalPermissionStatus prepareFirstSp(String firstSp, Date expectedDate)
   {
-    TerminalPermission terminalPermissionFirstSp = Mockito.mock(TerminalPermission.class);
-    Mockito.when(terminalPermissionAO.getTerminalPermission(firstSp)).thenReturn(terminalPermissionFirstSp);
-    Mockito.when(terminalPermissionFirstSp.getNotOnOrAfter()).thenReturn(expectedDate);
-    Mockito.when(terminalPermissionFirstSp.getBlackListVersion()).thenReturn(1L);
-    Mockito.when(terminalPermissionFirstSp.getBlackListStoreDate()).thenReturn(expectedDate);
-    Mockito.when(terminalPermissionFirstSp.getMasterList()).thenReturn(ArrayUtils.EMPTY_BYTE_ARRAY);
-    Mockito.when(terminalPermissionFirstSp.getMasterListStoreDate()).thenReturn(expectedDate);
-    Mockito.when(terminalPermissionFirstSp.getDefectList()).thenReturn(ArrayUtils.EMPTY_BYTE_ARRAY);
-    Mockito.when(terminalPermissionFirstSp.getDefectListStoreDate()).thenReturn(expectedDate);
-    Mockito.when(terminalPermissionFirstSp.getCvcDescription()).thenReturn(Base64.getDecoder().decode(CVC_DESCRIPTION));
+    return new TerminalPermissionStatus(firstSp, null, Base64.getDecoder().decode(CVC_DESCRIPTION), expectedDate,
+                                        expectedDate, 1L, 1, expectedDate, 1, expectedDate);
   }
 
-  private void prepareSecondSp(String secondSp)
+  private TerminalPermissionStatus prepareSecondSp(String secondSp)
   {
-    TerminalPermission terminalPermissionSecondSp = Mockito.mock(TerminalPermission.class);
-    Mockito.when(terminalPermissionAO.getTerminalPermission(secondSp)).thenReturn(terminalPermissionSecondSp);
-    Mockito.when(terminalPermissionSecondSp.getNotOnOrAfter()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getBlackListVersion()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getBlackListStoreDate()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getMasterList()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getMasterListStoreDate()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getDefectList()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getDefectListStoreDate()).thenReturn(null);
-    Mockito.when(terminalPermissionSecondSp.getCvcDescription()).thenReturn(null);
+    return new TerminalPermissionStatus(secondSp, null, null, null, null, null, 0, null, 0, null);
   }
 
   private X509Certificate getRsc() throws Exception
@@ -10,6 +10,9 @@
 package de.governikus.eumw.poseidas.config;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -60,16 +63,21 @@ class SupportControllerTest extends ServiceProviderTestBase
     Mockito.when(configurationService.getConfiguration()).thenReturn(createConfiguration());
 
     // Mock ServiceProviderStatus with content only for the first service provider
-    Mockito.when(serviceProviderStatusService.getServiceProviderStatus(Mockito.any())).thenAnswer(invocation -> {
-      ServiceProviderType serviceProviderType = invocation.getArgument(0, ServiceProviderType.class);
-      if (serviceProviderType.getName().equals(SERVICE_PROVIDER))
+    Mockito.when(serviceProviderStatusService.getAllServiceProviderStatus(Mockito.anyList())).thenAnswer(invocation -> {
+      List<ServiceProviderType> serviceProviders = invocation.getArgument(0);
+      Map<String, ServiceProviderStatus> result = new LinkedHashMap<>();
+      for ( ServiceProviderType serviceProviderType : serviceProviders )
       {
-        return createServiceProviderStatus();
-      }
-      else
-      {
-        return ServiceProviderStatus.builder().build();
+        if (serviceProviderType.getName().equals(SERVICE_PROVIDER))
+        {
+          result.put(serviceProviderType.getName(), createServiceProviderStatus());
+        }
+        else
+        {
+          result.put(serviceProviderType.getName(), ServiceProviderStatus.builder().build());
+        }
       }
+      return result;
     });
   }
 
@@ -30,6 +30,7 @@ import org.mockito.Mockito;
 import de.governikus.eumw.poseidas.eidserver.crl.exception.CertificateValidationException;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationTestHelper;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.utils.key.SecurityProvider;
 
 
@@ -68,7 +69,8 @@ class CertificationRevocationListImplTest
     CertificationRevocationListImpl.initialize(masterList,
                                                testCertificate,
                                                getCrlFetcher(testCertificate),
-                                               configurationService);
+                                               configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl certificationRevocationListImpl = CertificationRevocationListImpl.getInstance();
     List<String> urls = CertificationRevocationListImpl.getCrlDistributionPoints(testCertificate);
     Assertions.assertEquals(1, urls.size());
@@ -93,7 +95,8 @@ class CertificationRevocationListImplTest
                                                                           () -> CertificationRevocationListImpl.initialize(masterList,
                                                                                                                            certificate,
                                                                                                                            fetcher,
-                                                                                                                           configurationService));
+                                                                                                                           configurationService,
+                                                                                                                           new SNMPTrapSender()));
 
     Assertions.assertEquals("Exception during initial retrieval of CRL", illegalStateException.getMessage());
     Throwable certificateValidationException = illegalStateException.getCause();
@@ -129,7 +132,8 @@ class CertificationRevocationListImplTest
     CertificationRevocationListImpl.initialize(masterList,
                                                testCertificate,
                                                getCrlFetcher(testCertificate),
-                                               configurationService);
+                                               configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl certificationRevocationList = CertificationRevocationListImpl.getInstance();
     Assertions.assertFalse(certificationRevocationList.isOnCRL(testCertificate));
   }
@@ -147,7 +151,8 @@ class CertificationRevocationListImplTest
     CertificationRevocationListImpl.initialize(masterList,
                                                caCertificate,
                                                getCrlFetcher(caCertificate),
-                                               configurationService);
+                                               configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl certificationRevocationList = CertificationRevocationListImpl.getInstance();
     Assertions.assertTrue(certificationRevocationList.isOnCRL(iaCertificate));
   }
@@ -158,7 +163,8 @@ class CertificationRevocationListImplTest
   {
     Mockito.when(configurationService.getConfiguration())
            .thenReturn(Optional.of(ConfigurationTestHelper.createValidConfiguration()));
-    CertificationRevocationListImpl.initialize(masterList, null, getCrlFetcher(testCertificate), configurationService);
+    CertificationRevocationListImpl.initialize(masterList, null, getCrlFetcher(testCertificate), configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl instance = CertificationRevocationListImpl.getInstance();
 
     Assertions.assertNotNull(instance);
@@ -181,12 +187,15 @@ class CertificationRevocationListImplTest
     CertificationRevocationListImpl.initialize(masterList,
                                                testCertificate,
                                                getCrlFetcher(testCertificate),
-                                               configurationService);
+                                               configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl instance = CertificationRevocationListImpl.getInstance();
 
     Assertions.assertNotNull(instance);
     Assertions.assertThrows(IllegalStateException.class,
-                            () -> CertificationRevocationListImpl.initialize(masterList, configurationService));
+                            () -> CertificationRevocationListImpl.initialize(masterList,
+                                                                             configurationService,
+                                                                             new SNMPTrapSender()));
   }
 
   @Test
@@ -196,7 +205,8 @@ class CertificationRevocationListImplTest
     CertificationRevocationListImpl.initialize(masterList,
                                                testCertificate,
                                                getCrlFetcher(testCertificate),
-                                               configurationService);
+                                               configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl instance = CertificationRevocationListImpl.getInstance();
     CrlCache crlCache = instance.getCrlCache();
     Set<String> availableUrls = crlCache.getAvailableUrls();
@@ -222,7 +232,8 @@ class CertificationRevocationListImplTest
     CertificationRevocationListImpl.initialize(masterList,
                                                testCertificate,
                                                getCrlFetcher(testCertificate),
-                                               configurationService);
+                                               configurationService,
+                                               new SNMPTrapSender());
     CertificationRevocationListImpl instance = CertificationRevocationListImpl.getInstance();
     X509CRL x509CRL = instance.getX509CRL("mock-address");
 
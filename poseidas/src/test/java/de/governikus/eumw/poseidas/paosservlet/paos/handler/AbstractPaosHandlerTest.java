@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.paosservlet.paos.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+class AbstractPaosHandlerTest
+{
+
+  private static final int IDS_PER_THREAD = 10_000;
+
+  private static final int THREADS = 16;
+
+  @Test
+  void testGeneratedIdsAreUniqueAcrossThreads() throws Exception
+  {
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try
+    {
+      List<Future<?>> results = new ArrayList<>();
+      for ( int i = 0 ; i < THREADS ; i++ )
+      {
+        results.add(executor.submit(() -> {
+          start.await();
+          for ( int n = 0 ; n < IDS_PER_THREAD ; n++ )
+          {
+            String id = AbstractPaosHandler.generateUniqueID();
+            Assertions.assertTrue(ids.add(id), "duplicate message ID " + id);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for ( Future<?> result : results )
+      {
+        result.get(60, TimeUnit.SECONDS);
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+    Assertions.assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.poseidas.paosservlet.paos.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.governikus.eumw.poseidas.paosservlet.authentication.paos.Util;
+
+
+class MessageSessionMapperTest
+{
+
+  private static final int CONVERSATIONS = 20_000;
+
+  private static final int STEPS = 8;
+
+  private static final int THREADS = 16;
+
+  /**
+   * Runs many PAOS conversations in parallel: each conversation starts with a new mapping, every further step looks
+   * up the session by the last message ID and replaces it by a new one, the last step removes the mapping. The
+   * message IDs are created like in {@link DefaultPaosHandler}.
+   */
+  @Test
+  void testParallelConversations() throws Exception
+  {
+    MessageSessionMapper mapper = new MessageSessionMapper(MessageSessionMapper.MAX_ENTRIES,
+                                                           () -> MessageSessionMapper.DEFAULT_TTL,
+                                                           System::currentTimeMillis);
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try
+    {
+      List<Future<?>> results = new ArrayList<>();
+      for ( int i = 0 ; i < THREADS ; i++ )
+      {
+        results.add(executor.submit(() -> {
+          start.await();
+          for ( int c = 0 ; c < CONVERSATIONS / THREADS ; c++ )
+          {
+            runConversation(mapper);
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for ( Future<?> result : results )
+      {
+        result.get(60, TimeUnit.SECONDS);
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+    Assertions.assertEquals(0, mapper.size());
+  }
+
+  private static void runConversation(MessageSessionMapper mapper)
+  {
+    String sessionId = UUID.randomUUID().toString();
+    String messageId = Util.generateUUID();
+    mapper.add(messageId, sessionId);
+    for ( int step = 0 ; step < STEPS ; step++ )
+    {
+      Assertions.assertEquals(sessionId, mapper.getSessionId(messageId));
+      String newMessageId = Util.generateUUID();
+      mapper.overwriteMessageId(messageId, newMessageId);
+      Assertions.assertNull(mapper.getSessionId(messageId));
+      messageId = newMessageId;
+    }
+    mapper.remove(messageId);
+  }
+
+  @Test
+  void testOnlyOneContinuationPerMessage()
+  {
+    MessageSessionMapper mapper = new MessageSessionMapper(10, () -> 1000, System::currentTimeMillis);
+    mapper.add("m1", "s1");
+    mapper.overwriteMessageId("m1", "m2");
+    Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.overwriteMessageId("m1", "m3"));
+    Assertions.assertEquals("s1", mapper.getSessionId("m2"));
+  }
+
+  @Test
+  void testExpiry()
+  {
+    AtomicLong now = new AtomicLong(1000);
+    MessageSessionMapper mapper = new MessageSessionMapper(10, () -> 100, now::get);
+    mapper.add("m1", "s1");
+    now.addAndGet(99);
+    Assertions.assertEquals("s1", mapper.getSessionId("m1"));
+    mapper.overwriteMessageId("m1", "m2");
+    now.addAndGet(99);
+    Assertions.assertEquals("s1", mapper.getSessionId("m2"));
+    now.addAndGet(1);
+    Assertions.assertNull(mapper.getSessionId("m2"));
+    Assertions.assertEquals(0, mapper.size());
+
+    mapper.add("m3", "s3");
+    now.addAndGet(100);
+    Assertions.assertThrows(IllegalArgumentException.class, () -> mapper.overwriteMessageId("m3", "m4"));
+  }
+
+  @Test
+  void testBound()
+  {
+    AtomicLong now = new AtomicLong();
+    MessageSessionMapper mapper = new MessageSessionMapper(10, () -> 100, now::get);
+    for ( int i = 0 ; i < 25 ; i++ )
+    {
+      now.incrementAndGet();
+      mapper.add("m" + i, "s" + i);
+      Assertions.assertTrue(mapper.size() <= 10);
+    }
+    // the mappings expiring first were dropped
+    Assertions.assertNull(mapper.getSessionId("m14"));
+    Assertions.assertEquals("s15", mapper.getSessionId("m15"));
+    Assertions.assertEquals("s24", mapper.getSessionId("m24"));
+
+    // expired mappings are dropped before valid ones
+    now.addAndGet(95);
+    mapper.add("x", "y");
+    Assertions.assertEquals(6, mapper.size());
+    Assertions.assertEquals("s20", mapper.getSessionId("m20"));
+  }
+
+  /**
+   * At the limit the mapping expiring next is dropped, even if it was added later than the others.
+   */
+  @Test
+  void testAddAtLimitDropsMappingExpiringNext()
+  {
+    AtomicLong ttl = new AtomicLong();
+    MessageSessionMapper mapper = new MessageSessionMapper(3, ttl::get, () -> 1000);
+    ttl.set(300);
+    mapper.add("m0", "s0");
+    ttl.set(100);
+    mapper.add("m1", "s1");
+    ttl.set(200);
+    mapper.add("m2", "s2");
+
+    mapper.add("m3", "s3");
+    Assertions.assertNull(mapper.getSessionId("m1"));
+    Assertions.assertEquals("s0", mapper.getSessionId("m0"));
+    Assertions.assertEquals("s2", mapper.getSessionId("m2"));
+
+    mapper.add("m4", "s4");
+    Assertions.assertNull(mapper.getSessionId("m2"));
+    Assertions.assertEquals("s0", mapper.getSessionId("m0"));
+    Assertions.assertEquals("s3", mapper.getSessionId("m3"));
+    Assertions.assertEquals("s4", mapper.getSessionId("m4"));
+    Assertions.assertEquals(3, mapper.size());
+  }
+}
@@ -12,6 +12,8 @@ package de.governikus.eumw.poseidas.server.idprovider.config;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.nio.file.Path;
@@ -200,8 +202,13 @@ class CvcTlsCheckTest
     ConfigurationProperties.certificateAuthorityPrivateKey(resourceDirectory + "/localhost_notyetvalid.pkcs8");
     ClientAndServer clientAndServer = ClientAndServer.startClientAndServer(8450);
     CvcTlsCheck check = new CvcTlsCheck(terminalPermission, configurationService);
+    // fetch the TLS certificate, checkCvcProvider only uses the cached one
+    check.refresh();
     CvcCheckResults results = check.checkCvcProvider("providerB");
+    // the cached result is used as long as the CVC does not change
+    check.checkCvcProvider("providerB");
     clientAndServer.stop();
+    verify(terminalPermission, times(1)).getTerminalPermission("provider_b");
     assertTrue("CVC not present", results.isCvcPresent());
     assertTrue("CVC invalid", results.isCvcValidity());
     assertTrue("server URLs do not match", results.isCvcUrlMatch());
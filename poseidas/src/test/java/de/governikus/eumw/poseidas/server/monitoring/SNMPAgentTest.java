@@ -50,7 +50,6 @@ import de.governikus.eumw.poseidas.eidserver.crl.CertificationRevocationListImpl
 import de.governikus.eumw.poseidas.eidserver.model.signeddata.MasterList;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationTestHelper;
-import de.governikus.eumw.poseidas.server.pki.TerminalPermission;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
 import de.governikus.eumw.poseidas.service.MetadataService;
 
@@ -76,6 +75,9 @@ class SNMPAgentTest
   @Autowired
   private TerminalPermissionAO facade;
 
+  @Autowired
+  private SNMPTrapSender trapSender;
+
   private Snmp snmp;
 
   private UserTarget userTarget;
@@ -380,9 +382,8 @@ class SNMPAgentTest
   void testWhenCRLInitializedThenReturnStatusPresent() throws Exception
   {
     CertificationRevocationListImpl.reset();
-    TerminalPermission terminalPermission = facade.getTerminalPermission("A");
-    MasterList ml = new MasterList(terminalPermission.getMasterList());
-    CertificationRevocationListImpl.initialize(new HashSet<>(ml.getCertificates()), configurationService);
+    MasterList ml = new MasterList(facade.getMasterList("A"));
+    CertificationRevocationListImpl.initialize(new HashSet<>(ml.getCertificates()), configurationService, trapSender);
     PDU pdu = new ScopedPDU();
     pdu.add(new VariableBinding(new OID(SNMPConstants.GetOID.CRL_GET_AVAILABLE.getValue())));
     pdu.setType(PDU.GET);
@@ -396,9 +397,8 @@ class SNMPAgentTest
   @Test
   void testWhenCRLLastSuccessfulRetrievalNotSuccessfulThenReturnErrorStatusResourceUnavailable() throws Exception
   {
-    TerminalPermission terminalPermission = facade.getTerminalPermission("A");
-    MasterList ml = new MasterList(terminalPermission.getMasterList());
-    CertificationRevocationListImpl.initialize(new HashSet<>(ml.getCertificates()), configurationService);
+    MasterList ml = new MasterList(facade.getMasterList("A"));
+    CertificationRevocationListImpl.initialize(new HashSet<>(ml.getCertificates()), configurationService, trapSender);
     PDU pdu = new ScopedPDU();
     pdu.add(new VariableBinding(new OID(SNMPConstants.GetOID.CRL_GET_LAST_SUCCESSFUL_RETRIEVAL.getValue())));
     pdu.setType(PDU.GET);
@@ -513,11 +513,32 @@ class SNMPAgentTest
   }
 
   @Test
-  void testWhenPDUTypeBulkThenReturnStatusGeneralError() throws Exception
+  void testWhenPDUTypeBulkThenReturnNextOIDs() throws Exception
   {
     PDU pdu = new ScopedPDU();
-    pdu.add(new VariableBinding(new OID("1.3.6.1.4.1.28939.3.1.2.1.99.1")));
+    pdu.add(new VariableBinding(new OID("1.3")));
+    pdu.add(new VariableBinding(new OID(SNMPConstants.GetOID.PROVIDER_NAME_GET.getValue())));
     pdu.setType(PDU.GETBULK);
+    pdu.setNonRepeaters(1);
+    pdu.setMaxRepetitions(3);
+
+    ResponseEvent responseEvent = snmp.send(pdu, userTarget);
+
+    PDU response = responseEvent.getResponse();
+    Assertions.assertEquals(SnmpConstants.SNMP_ERROR_SUCCESS, response.getErrorStatus());
+    Assertions.assertEquals(4, response.size());
+    Assertions.assertEquals(new OID(SNMPConstants.GetOID.CRL_GET_AVAILABLE.getValue()), response.get(0).getOid());
+    Assertions.assertEquals("DefaultProvider", response.get(1).getVariable().toString());
+    Assertions.assertEquals("TestbedA", response.get(2).getVariable().toString());
+    Assertions.assertEquals("TestbedB", response.get(3).getVariable().toString());
+  }
+
+  @Test
+  void testWhenPDUTypeSetThenReturnStatusGeneralError() throws Exception
+  {
+    PDU pdu = new ScopedPDU();
+    pdu.add(new VariableBinding(new OID("1.3.6.1.4.1.28939.3.1.2.1.99.1")));
+    pdu.setType(PDU.SET);
 
     ResponseEvent responseEvent = snmp.send(pdu, userTarget);
 
@@ -0,0 +1,205 @@
+package de.governikus.eumw.poseidas.server.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.snmp4j.CommandResponder;
+import org.snmp4j.CommandResponderEvent;
+import org.snmp4j.PDU;
+import org.snmp4j.ScopedPDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.mp.MPv3;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.security.AuthHMAC384SHA512;
+import org.snmp4j.security.PrivAES256;
+import org.snmp4j.security.SecurityModels;
+import org.snmp4j.security.SecurityProtocols;
+import org.snmp4j.security.USM;
+import org.snmp4j.security.UsmUser;
+import org.snmp4j.smi.Address;
+import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.smi.VariableBinding;
+import org.snmp4j.transport.DefaultUdpTransportMapping;
+
+
+class SNMPTrapQueueTest
+{
+
+  private static final String OID_A = SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS.getValue();
+
+  private static PDU trap(int value)
+  {
+    PDU pdu = new ScopedPDU();
+    pdu.setType(PDU.TRAP);
+    pdu.add(new VariableBinding(SnmpConstants.snmpTrapOID,
+                                new OID(SNMPConstants.TrapOID.CVC_TRAP_LAST_RENEWAL_STATUS.getValue())));
+    pdu.add(new VariableBinding(new OID(SNMPConstants.TrapOID.TRAP_TYPE_INT.getValue()), new Integer32(value)));
+    return pdu;
+  }
+
+  @Test
+  void testIdenticalTrapsAreCoalesced() throws Exception
+  {
+    List<PDU> sent = new CopyOnWriteArrayList<>();
+    CountDownLatch latch = new CountDownLatch(2);
+    SNMPTrapQueue queue = new SNMPTrapQueue(trap -> {
+      sent.add(trap);
+      latch.countDown();
+    }, 10, 60_000);
+    queue.start();
+
+    assertTrue(queue.offer(trap(1), OID_A, "a=1"));
+    assertFalse(queue.offer(trap(1), OID_A, "a=1"));
+    assertTrue(queue.offer(trap(2), OID_A, "a=2"));
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    queue.stop(1000);
+    assertEquals(2, sent.size());
+    assertEquals(2, queue.getSent());
+    assertEquals(1, queue.getCoalesced());
+  }
+
+  @Test
+  void testChangedTrapIsNotCoalescedWithOlderTrap() throws Exception
+  {
+    List<PDU> sent = new CopyOnWriteArrayList<>();
+    CountDownLatch latch = new CountDownLatch(4);
+    SNMPTrapQueue queue = new SNMPTrapQueue(trap -> {
+      sent.add(trap);
+      latch.countDown();
+    }, 10, 60_000);
+    queue.start();
+
+    assertTrue(queue.offer(trap(1), OID_A, "a=1"));
+    assertTrue(queue.offer(trap(0), OID_A, "a=0"));
+    assertTrue(queue.offer(trap(1), OID_A, "a=1"));
+    // a different OID with the same content is not coalesced either
+    assertTrue(queue.offer(trap(1), "1.2.3", "a=1"));
+
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    queue.stop(1000);
+    assertEquals(4, queue.getSent());
+    assertEquals(0, queue.getCoalesced());
+  }
+
+  @Test
+  void testFullQueueDropsTraps() throws Exception
+  {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    SNMPTrapQueue queue = new SNMPTrapQueue(trap -> {
+      blocked.countDown();
+      try
+      {
+        release.await(10, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }, 1, 0);
+    queue.start();
+
+    assertTrue(queue.offer(trap(1), OID_A, "a=1"));
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    // the sender thread is busy, so one trap fits into the queue
+    assertTrue(queue.offer(trap(2), OID_A, "a=2"));
+    assertFalse(queue.offer(trap(3), OID_A, "a=3"));
+    assertEquals(1, queue.getDropped());
+
+    release.countDown();
+    queue.stop(5000);
+    assertEquals(2, queue.getSent());
+  }
+
+  @Test
+  void testStopWithoutTimeoutDoesNotWait() throws Exception
+  {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    SNMPTrapQueue queue = new SNMPTrapQueue(trap -> {
+      blocked.countDown();
+      try
+      {
+        Thread.sleep(60_000);
+      }
+      catch (InterruptedException e)
+      {
+        interrupted.countDown();
+      }
+    }, 10, 0);
+    queue.start();
+
+    assertTrue(queue.offer(trap(1), OID_A, "a=1"));
+    assertTrue(queue.offer(trap(2), OID_A, "a=2"));
+    assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    long start = System.nanoTime();
+    queue.stop(0);
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    assertEquals(0, queue.getQueued());
+  }
+
+  @Test
+  void testTrapIsReceivedByLocalListener() throws Exception
+  {
+    byte[] engineId = MPv3.createLocalEngineID(new OctetString("trapQueueTest"));
+    SecurityModels.getInstance()
+                  .addSecurityModel(new USM(SecurityProtocols.getInstance(), new OctetString(engineId), 0));
+    UsmUser user = new UsmUser(new OctetString("test"), AuthHMAC384SHA512.ID, new OctetString("authpwdtest"),
+                               PrivAES256.ID, new OctetString("privpwdtest"));
+
+    DefaultUdpTransportMapping receiverTransport = new DefaultUdpTransportMapping(new UdpAddress("127.0.0.1/0"));
+    Snmp receiver = new Snmp(receiverTransport);
+    receiver.getUSM().addUser(new OctetString("test"), new OctetString(engineId), user);
+    BlockingQueue<PDU> received = new LinkedBlockingQueue<>();
+    receiver.addCommandResponder(new CommandResponder()
+    {
+
+      @Override
+      public <A extends Address> void processPdu(CommandResponderEvent<A> event)
+      {
+        received.add(event.getPDU());
+      }
+    });
+    receiver.listen();
+
+    Snmp sender = new Snmp(new DefaultUdpTransportMapping(new UdpAddress("127.0.0.1/0")));
+    sender.setLocalEngine(engineId, 0, 0);
+    sender.getUSM().addUser(new OctetString("test"), user);
+    sender.listen();
+
+    SNMPTrapQueue queue = new SNMPTrapQueue(TrapTransport.forUserTarget(sender,
+                                                                        receiverTransport.getListenAddress(),
+                                                                        "test"),
+                                            10, 0);
+    queue.start();
+    try
+    {
+      assertTrue(queue.offer(trap(42), OID_A, "a=42"));
+      PDU pdu = received.poll(10, TimeUnit.SECONDS);
+      assertNotNull(pdu);
+      assertEquals(new Integer32(42),
+                   pdu.getVariable(new OID(SNMPConstants.TrapOID.TRAP_TYPE_INT.getValue())));
+    }
+    finally
+    {
+      queue.stop(1000);
+      sender.close();
+      receiver.close();
+    }
+  }
+}
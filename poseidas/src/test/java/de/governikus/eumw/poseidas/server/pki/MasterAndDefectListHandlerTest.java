@@ -21,6 +21,7 @@ import de.governikus.eumw.config.ServiceProviderType;
 import de.governikus.eumw.poseidas.eidserver.model.signeddata.MasterList;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationTestHelper;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.utils.key.SecurityProvider;
 
 
@@ -29,9 +30,6 @@ import de.governikus.eumw.utils.key.SecurityProvider;
 class MasterAndDefectListHandlerTest
 {
 
-  @Mock
-  private TerminalPermission terminalPermission;
-
   @Mock
   private ServiceProviderType serviceProvider;
 
@@ -47,7 +45,6 @@ class MasterAndDefectListHandlerTest
   @BeforeEach
   void setUp() throws Exception
   {
-    Mockito.when(terminalPermissionAO.getTerminalPermission("CVCRefID")).thenReturn(terminalPermission);
     Mockito.when(passiveAuthService.getMasterList())
            .thenReturn(getResourceAsByteArray("/masterlist/MASTERLIST.bin"));
     EidasMiddlewareConfig configuration = ConfigurationTestHelper.createValidConfiguration();
@@ -62,12 +59,13 @@ class MasterAndDefectListHandlerTest
   @Test
   void testGetMasterListWithMasterListAsTrustAnchor() throws Exception
   {
-    Mockito.when(terminalPermission.getMasterList())
+    Mockito.when(terminalPermissionAO.getMasterList("CVCRefID"))
            .thenReturn(getResourceAsByteArray("/masterlist/OLD_MASTERLIST.bin"));
 
     MasterAndDefectListHandler masterAndDefectListHandler = new MasterAndDefectListHandler(serviceProvider,
                                                                                            terminalPermissionAO, null,
-                                                                                           configurationService);
+                                                                                           configurationService,
+                                                                                           new SNMPTrapSender());
 
     byte[] masterListByteArray = masterAndDefectListHandler.getMasterList(passiveAuthService);
     MasterList masterList = new MasterList(masterListByteArray);
@@ -77,7 +75,7 @@ class MasterAndDefectListHandlerTest
   @Test
   void testGetMasterListWithTrustAnchorFromConfig() throws Exception
   {
-    Mockito.when(terminalPermission.getMasterList()).thenReturn(null);
+    Mockito.when(terminalPermissionAO.getMasterList("CVCRefID")).thenReturn(null);
     X509Certificate rootCert = (X509Certificate)CertificateFactory.getInstance("X509",
                                                                                SecurityProvider.BOUNCY_CASTLE_PROVIDER)
                                                                   .generateCertificate(MasterAndDefectListHandlerTest.class.getResourceAsStream("/DE_TEST_CSCA_2018_12.cer"));
@@ -85,7 +83,8 @@ class MasterAndDefectListHandlerTest
 
     MasterAndDefectListHandler masterAndDefectListHandler = new MasterAndDefectListHandler(serviceProvider,
                                                                                            terminalPermissionAO, null,
-                                                                                           configurationService);
+                                                                                           configurationService,
+                                                                                           new SNMPTrapSender());
 
     byte[] masterListByteArray = masterAndDefectListHandler.getMasterList(passiveAuthService);
     MasterList masterList = new MasterList(masterListByteArray);
@@ -97,7 +96,7 @@ class MasterAndDefectListHandlerTest
   void testGetMasterListReturnsMasterWithWrongMasterListFromTerminalPermission()
     throws Exception
   {
-    Mockito.when(terminalPermission.getMasterList())
+    Mockito.when(terminalPermissionAO.getMasterList("CVCRefID"))
            .thenReturn(getResourceAsByteArray("/masterlist/wrongMasterList.bin"));
     X509Certificate rootCert = (X509Certificate)CertificateFactory.getInstance("X509",
                                                                                SecurityProvider.BOUNCY_CASTLE_PROVIDER)
@@ -106,7 +105,8 @@ class MasterAndDefectListHandlerTest
 
     MasterAndDefectListHandler masterAndDefectListHandler = new MasterAndDefectListHandler(serviceProvider,
                                                                                            terminalPermissionAO, null,
-                                                                                           configurationService);
+                                                                                           configurationService,
+                                                                                           new SNMPTrapSender());
 
     byte[] masterListByteArray = masterAndDefectListHandler.getMasterList(passiveAuthService);
     MasterList newMasterList = new MasterList(masterListByteArray);
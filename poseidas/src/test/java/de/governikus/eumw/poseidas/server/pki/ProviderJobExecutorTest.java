@@ -0,0 +1,118 @@
+package de.governikus.eumw.poseidas.server.pki;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.governikus.eumw.config.ServiceProviderType;
+
+
+class ProviderJobExecutorTest
+{
+
+  private final ProviderJobExecutor executor = new ProviderJobExecutor(4, 2);
+
+  @AfterEach
+  void tearDown()
+  {
+    executor.shutdown();
+  }
+
+  private static ServiceProviderType provider(String name, String dvca)
+  {
+    ServiceProviderType provider = new ServiceProviderType();
+    provider.setName(name);
+    provider.setDvcaConfigurationName(dvca);
+    return provider;
+  }
+
+  @Test
+  void testProvidersRunInParallelAndFailuresAreRecorded()
+  {
+    List<ServiceProviderType> providers = List.of(provider("a", "dvca1"),
+                                                  provider("b", "dvca1"),
+                                                  provider("c", "dvca2"));
+    CountDownLatch allStarted = new CountDownLatch(providers.size());
+    executor.runForEach("job", providers, sp -> {
+      allStarted.countDown();
+      try
+      {
+        assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      if ("c".equals(sp.getName()))
+      {
+        throw new IllegalStateException("test");
+      }
+    });
+
+    assertEquals(ProviderJobExecutor.State.FINISHED, executor.getProgress("job").get("a").getState());
+    assertEquals(ProviderJobExecutor.State.FINISHED, executor.getProgress("job").get("b").getState());
+    assertEquals(ProviderJobExecutor.State.FAILED, executor.getProgress("job").get("c").getState());
+  }
+
+  @Test
+  void testConcurrencyPerDvcaIsLimited()
+  {
+    List<ServiceProviderType> providers = List.of(provider("a", "dvca1"),
+                                                  provider("b", "dvca1"),
+                                                  provider("c", "dvca1"),
+                                                  provider("d", "dvca1"));
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    executor.runForEach("job", providers, sp -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try
+      {
+        Thread.sleep(50);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+    });
+
+    assertEquals(2, maxRunning.get());
+  }
+
+  @Test
+  void testProviderStillInFlightIsSkipped() throws Exception
+  {
+    ServiceProviderType provider = provider("a", "dvca1");
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread first = new Thread(() -> executor.runForEach("job", List.of(provider), sp -> {
+      started.countDown();
+      try
+      {
+        release.await(10, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }));
+    first.start();
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+
+    AtomicInteger calls = new AtomicInteger();
+    executor.runForEach("job", List.of(provider), sp -> calls.incrementAndGet());
+    assertEquals(0, calls.get());
+    assertEquals(ProviderJobExecutor.State.SKIPPED, executor.getProgress("job").get("a").getState());
+
+    release.countDown();
+    first.join(10_000);
+    assertEquals(ProviderJobExecutor.State.FINISHED, executor.getProgress("job").get("a").getState());
+  }
+}
@@ -11,6 +11,7 @@ import org.mockito.Mockito;
 import de.governikus.eumw.config.EidasMiddlewareConfig;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationTestHelper;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.utils.key.SecurityProvider;
 import lombok.SneakyThrows;
 
@@ -35,7 +36,7 @@ class RequestSignerCertificateServiceImplTest
     facade = Mockito.mock(TerminalPermissionAO.class);
     HSMServiceHolder hsmServiceHolder = Mockito.mock(HSMServiceHolder.class);
     requestSignerCertificateService = new RequestSignerCertificateServiceImpl(configurationService, facade,
-                                                                              hsmServiceHolder);
+                                                                              hsmServiceHolder, new SNMPTrapSender());
 
   }
 
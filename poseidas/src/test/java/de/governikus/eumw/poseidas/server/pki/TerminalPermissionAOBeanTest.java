@@ -14,6 +14,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.locks.ReentrantLock;
@@ -28,13 +29,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.mockito.stubbing.Answer;
-import org.springframework.data.domain.Sort;
 
 import com.google.common.io.ByteStreams;
 
 import de.governikus.eumw.config.EidasMiddlewareConfig;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationTestHelper;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 
 
 class TerminalPermissionAOBeanTest
@@ -50,7 +51,8 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionRepository terminalPermissionRepository = Mockito.mock(TerminalPermissionRepository.class);
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(terminalPermissionRepository,
                                                                                      null, null, null, null,
-                                                                                     null, null, null, null);
+                                                                                     null, null, null, null, null,
+                                                                                     new SNMPTrapSender());
 
     String refID = "refID";
     Assertions.assertNull(terminalPermissionAOBean.getTerminalPermission(null));
@@ -67,17 +69,16 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionRepository terminalPermissionRepository = Mockito.mock(TerminalPermissionRepository.class);
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(terminalPermissionRepository,
                                                                                      null, null, null, null,
-                                                                                     null, null, null, null);
+                                                                                     null, null, null, null, null,
+                                                                                     new SNMPTrapSender());
 
     Assertions.assertEquals(0, terminalPermissionAOBean.getExpirationDates().size());
 
-    TerminalPermission empty = new TerminalPermission();
-    TerminalPermission first = new TerminalPermission("first");
-    first.setNotOnOrAfter(DateTime.now().toDate());
-    TerminalPermission second = new TerminalPermission("second");
-    second.setNotOnOrAfter(DateTime.now().toDate());
-    List<TerminalPermission> terminals = new ArrayList<>(Arrays.asList(empty, first, second));
-    Mockito.when(terminalPermissionRepository.findAll(Mockito.any(Sort.class))).thenReturn(terminals);
+    TerminalPermissionStatus empty = status(null, null);
+    TerminalPermissionStatus first = status("first", DateTime.now().toDate());
+    TerminalPermissionStatus second = status("second", DateTime.now().toDate());
+    List<TerminalPermissionStatus> terminals = new ArrayList<>(Arrays.asList(empty, first, second));
+    Mockito.when(terminalPermissionRepository.findAllStatus()).thenReturn(terminals);
 
     MatcherAssert.assertThat(terminalPermissionAOBean.getExpirationDates(), Matchers.aMapWithSize(2));
     MatcherAssert.assertThat(terminalPermissionAOBean.getExpirationDates(),
@@ -93,7 +94,7 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null,
                                                                                      cvcUpdateLockRepository,
                                                                                      null, null, null, null,
-                                                                                     null);
+                                                                                     null, null, new SNMPTrapSender());
 
     // No lock
     CVCUpdateLock obtainedLock = terminalPermissionAOBean.obtainCVCUpdateLock(SERVICE_PROVIDER);
@@ -126,7 +127,7 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null,
                                                                                      cvcUpdateLockRepository,
                                                                                      null, null, null, null,
-                                                                                     null);
+                                                                                     null, null, new SNMPTrapSender());
 
 
     Assertions.assertThrows(IllegalArgumentException.class,
@@ -155,7 +156,8 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionRepository terminalPermissionRepository = Mockito.mock(TerminalPermissionRepository.class);
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(terminalPermissionRepository,
                                                                                      null, null, null, null,
-                                                                                     null, null, null, null);
+                                                                                     null, null, null, null, null,
+                                                                                     new SNMPTrapSender());
 
     // Null and unknown refID
     terminalPermissionAOBean.updateBlackListStoreDate(null, null, 0L);
@@ -204,7 +206,8 @@ class TerminalPermissionAOBeanTest
     BlackListEntryRepository blackListEntryRepository = Mockito.mock(BlackListEntryRepository.class);
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null, null,
                                                                                      blackListEntryRepository,
-                                                                                     null, null, null, null);
+                                                                                     null, null, null, null, null,
+                                                                                     new SNMPTrapSender());
     // A lock must be used because parallelStream()... is leading to non-deterministic behaviour while
     // removing from the same list
     ReentrantLock deletionLock = new ReentrantLock();
@@ -233,7 +236,8 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionRepository terminalPermissionRepository = Mockito.mock(TerminalPermissionRepository.class);
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(terminalPermissionRepository,
                                                                                      null, null, null, null,
-                                                                                     null, null, null, null);
+                                                                                     null, null, null, null, null,
+                                                                                     new SNMPTrapSender());
 
     terminalPermissionAOBean.storeCVCRequestSent(null);
     terminalPermissionAOBean.storeCVCRequestSent(SERVICE_PROVIDER);
@@ -264,7 +268,8 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(terminalPermissionRepository,
                                                                                      null, null, null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
 
     terminalPermissionAOBean.deleteCVCRequest(null);
     terminalPermissionAOBean.deleteCVCRequest(SERVICE_PROVIDER);
@@ -318,7 +323,8 @@ class TerminalPermissionAOBeanTest
                                                                                      null,
                                                                                      blackListEntryRepository,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     // No Terminal Permission
     Mockito.when(terminalPermissionRepository.findById(Mockito.anyString())).thenReturn(Optional.empty());
 
@@ -356,7 +362,8 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null, null,
                                                                                      null, null,
                                                                                      changeKeyLockRepository,
-                                                                                     null, null);
+                                                                                     null, null, null,
+                                                                                     new SNMPTrapSender());
     long now = System.currentTimeMillis();
     String myAddress = "localhost";
     ChangeKeyLock changeKeyLock = new ChangeKeyLock("keyName", myAddress, now, 0);
@@ -383,7 +390,8 @@ class TerminalPermissionAOBeanTest
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null, null,
                                                                                      null, null,
                                                                                      changeKeyLockRepository,
-                                                                                     null, null);
+                                                                                     null, null, null,
+                                                                                     new SNMPTrapSender());
     long now = System.currentTimeMillis();
     String myAddress = "localhost";
     ChangeKeyLock changeKeyLock = new ChangeKeyLock("keyName", myAddress, now, 0);
@@ -420,7 +428,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] cvc = getResourceAsByteArray("/terminalCertificates/terminalCert.cvc");
     byte[] cvcDescription = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] privateKey = ArrayUtils.EMPTY_BYTE_ARRAY;
@@ -461,7 +470,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] cvc = getResourceAsByteArray("/terminalCertificates/terminalCert.cvc");
     byte[] privateKey = ArrayUtils.EMPTY_BYTE_ARRAY;
     TerminalPermission terminalPermission = new TerminalPermission(SERVICE_PROVIDER);
@@ -493,7 +503,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] cvc = getResourceAsByteArray("/terminalCertificates/terminalCert.cvc");
     byte[] privateKey = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] cvcDescription = ArrayUtils.EMPTY_BYTE_ARRAY;
@@ -527,7 +538,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] cvc = getResourceAsByteArray("/terminalCertificates/terminalCert.cvc");
     byte[] chain0 = getResourceAsByteArray("/terminalCertificates/chain0.crt");
     byte[] chain1 = getResourceAsByteArray("/terminalCertificates/chain1.crt");
@@ -573,7 +585,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] cvc = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] privateKey = ArrayUtils.EMPTY_BYTE_ARRAY;
     TerminalPermission terminalPermission = new TerminalPermission(SERVICE_PROVIDER);
@@ -600,7 +613,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] request = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] cvcDescription = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] privateKey = ArrayUtils.EMPTY_BYTE_ARRAY;
@@ -648,7 +662,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] request = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] cvcDescription = ArrayUtils.EMPTY_BYTE_ARRAY;
     byte[] privateKey = ArrayUtils.EMPTY_BYTE_ARRAY;
@@ -685,7 +700,8 @@ class TerminalPermissionAOBeanTest
                                                                                      certInChainRepository,
                                                                                      null, null,
                                                                                      pendingCertificateRequestRepository,
-                                                                                     null, null, null);
+                                                                                     null, null, null, null,
+                                                                                     new SNMPTrapSender());
     byte[] chain0 = getResourceAsByteArray("/terminalCertificates/chain0.crt");
     byte[] chain1 = getResourceAsByteArray("/terminalCertificates/chain1.crt");
     byte[] request = ArrayUtils.EMPTY_BYTE_ARRAY;
@@ -738,7 +754,8 @@ class TerminalPermissionAOBeanTest
     BlackListEntryRepository blackListEntryRepository = Mockito.mock(BlackListEntryRepository.class);
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null, null,
                                                                                      blackListEntryRepository,
-                                                                                     null, null, null, null);
+                                                                                     null, null, null, null, null,
+                                                                                     new SNMPTrapSender());
 
     // Use Lock because of non-deterministic errors with parallelStream
     ReentrantLock reentrantLock = new ReentrantLock();
@@ -778,7 +795,8 @@ class TerminalPermissionAOBeanTest
     validConfiguration.getEidasConfiguration().setPublicServiceProviderName("sp-name");
     Mockito.when(configurationService.getConfiguration()).thenReturn(Optional.of(validConfiguration));
     TerminalPermissionAOBean terminalPermissionAOBean = new TerminalPermissionAOBean(null, null, null, null, null, null,
-                                                                                     null, null, configurationService);
+                                                                                     null, null, configurationService, null,
+                                                                                     new SNMPTrapSender());
     //Correct name and cvcRefId
     Assertions.assertTrue(terminalPermissionAOBean.isPublicClient("cvcRefId"));
 
@@ -793,4 +811,9 @@ class TerminalPermissionAOBeanTest
     validConfiguration.getEidasConfiguration().setPublicServiceProviderName(null);
     Assertions.assertFalse(terminalPermissionAOBean.isPublicClient("cvcRefId"));
   }
+
+  private static TerminalPermissionStatus status(String refID, Date notOnOrAfter)
+  {
+    return new TerminalPermissionStatus(refID, null, null, notOnOrAfter, null, null, 0, null, 0, null);
+  }
 }
@@ -17,8 +17,8 @@ import de.governikus.eumw.poseidas.eidserver.crl.CertificationRevocationListImpl
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationService;
 import de.governikus.eumw.poseidas.server.idprovider.config.ConfigurationTestHelper;
 import de.governikus.eumw.poseidas.server.idprovider.config.CvcTlsCheck;
+import de.governikus.eumw.poseidas.server.monitoring.SNMPTrapSender;
 import de.governikus.eumw.poseidas.server.pki.PermissionDataHandling;
-import de.governikus.eumw.poseidas.server.pki.TerminalPermission;
 import de.governikus.eumw.poseidas.server.pki.TerminalPermissionAO;
 import lombok.extern.slf4j.Slf4j;
 
@@ -60,8 +60,9 @@ class StartupListenerTest
   {
     Mockito.when(configurationService.getConfiguration())
            .thenReturn(Optional.of(ConfigurationTestHelper.createValidConfiguration()));
-    Mockito.when(facade.getTerminalPermission(Mockito.anyString())).thenReturn(null);
-    startupListener = new StartupListener(permissionDataHandling, facade, cvcTlsCheck, configurationService);
+    Mockito.when(facade.getMasterList(Mockito.anyString())).thenReturn(null);
+    startupListener = new StartupListener(permissionDataHandling, facade, cvcTlsCheck, configurationService,
+                                          new SNMPTrapSender());
     startupListener.onApplicationEvent(webServerInitializedEvent);
 
     Mockito.verify(permissionDataHandling, Mockito.times(1)).renewMasterAndDefectList();
@@ -73,12 +74,11 @@ class StartupListenerTest
   @Test
   void testWhenMasterListPresentThenCRLInitialized() throws Exception
   {
-    startupListener = new StartupListener(permissionDataHandling, facade, cvcTlsCheck, configurationService);
+    startupListener = new StartupListener(permissionDataHandling, facade, cvcTlsCheck, configurationService,
+                                          new SNMPTrapSender());
     Mockito.when(configurationService.getConfiguration())
            .thenReturn(Optional.of(ConfigurationTestHelper.createValidConfiguration()));
-    TerminalPermission terminalPermission = Mockito.mock(TerminalPermission.class);
-    Mockito.when(facade.getTerminalPermission(Mockito.anyString())).thenReturn(terminalPermission);
-    Mockito.when(terminalPermission.getMasterList())
+    Mockito.when(facade.getMasterList(Mockito.anyString()))
            .thenReturn(Base64.getDecoder().decode(MASTERLIST_BASE64));
     startupListener.onApplicationEvent(webServerInitializedEvent);
 
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2020 Governikus KG. Licensed under the EUPL, Version 1.2 or as soon they will be approved by the
+ * European Commission - subsequent versions of the EUPL (the "Licence"); You may not use this work except in compliance
+ * with the Licence. You may obtain a copy of the Licence at: http://joinup.ec.europa.eu/software/page/eupl Unless
+ * required by applicable law or agreed to in writing, software distributed under the Licence is distributed on an
+ * "AS IS" basis, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the Licence for the
+ * specific language governing permissions and limitations under the Licence.
+ */
+
+package de.governikus.eumw.utils.xml;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Process wide registry of {@link JAXBContext} instances. Creating a context is expensive, so every context is created
+ * only once per context path or class. {@link Marshaller} and {@link Unmarshaller} instances are not thread safe, but
+ * they can be reused one after another, so each context keeps a small pool of them.
+ */
+@Slf4j
+public final class JaxbContextRegistry
+{
+
+  /**
+   * maximum number of idle marshallers and unmarshallers kept per context
+   */
+  private static final int MAX_POOLED = 16;
+
+  private static final Map<Object, PooledContext> CONTEXTS = new ConcurrentHashMap<>();
+
+  /**
+   * utility class constructor
+   */
+  private JaxbContextRegistry()
+  {
+    super();
+  }
+
+  /**
+   * Get the context for the given context path, creating it on first use.
+   *
+   * @param contextPath colon separated list of package names containing an ObjectFactory
+   * @throws XmlException if the context cannot be created
+   */
+  public static PooledContext get(String contextPath)
+  {
+    return CONTEXTS.computeIfAbsent(contextPath, k -> create(contextPath, () -> JAXBContext.newInstance(contextPath)));
+  }
+
+  /**
+   * Get the context for the given class, creating it on first use.
+   *
+   * @throws XmlException if the context cannot be created
+   */
+  public static PooledContext get(Class<?> clazz)
+  {
+    return CONTEXTS.computeIfAbsent(clazz, k -> create(clazz.getName(), () -> JAXBContext.newInstance(clazz)));
+  }
+
+  /**
+   * Create the contexts for the given context paths now, so that the first message does not have to wait for it.
+   *
+   * @throws XmlException if a context cannot be created
+   */
+  public static void preload(String... contextPaths)
+  {
+    for ( String contextPath : contextPaths )
+    {
+      get(contextPath);
+    }
+  }
+
+  private static PooledContext create(String name, ContextFactory factory)
+  {
+    log.debug("Creating JAXBContext for {}", name);
+    try
+    {
+      return new PooledContext(factory.create());
+    }
+    catch (JAXBException e)
+    {
+      throw new XmlException("Cannot create JAXBContext for " + name, e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ContextFactory
+  {
+
+    JAXBContext create() throws JAXBException;
+  }
+
+  /**
+   * A {@link JAXBContext} with pools of marshallers and unmarshallers. Every instance taken by
+   * {@link #acquireMarshaller()} or {@link #acquireUnmarshaller()} should be given back with the matching release method
+   * in a finally block. Instances which are not given back are simply not reused.
+   */
+  public static final class PooledContext
+  {
+
+    private final JAXBContext context;
+
+    private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private PooledContext(JAXBContext context)
+    {
+      this.context = context;
+    }
+
+    public JAXBContext getContext()
+    {
+      return context;
+    }
+
+    /**
+     * @return a marshaller with default settings
+     */
+    public Marshaller acquireMarshaller() throws JAXBException
+    {
+      Marshaller marshaller = marshallers.poll();
+      return marshaller == null ? context.createMarshaller() : marshaller;
+    }
+
+    /**
+     * Give back a marshaller, its settings are restored to the defaults.
+     */
+    public void release(Marshaller marshaller)
+    {
+      try
+      {
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+        marshaller.setSchema(null);
+        marshaller.setEventHandler(null);
+        marshallers.offer(marshaller);
+      }
+      catch (JAXBException e)
+      {
+        log.debug("Marshaller cannot be reset and is not reused", e);
+      }
+    }
+
+    /**
+     * @return an unmarshaller with default settings
+     */
+    public Unmarshaller acquireUnmarshaller() throws JAXBException
+    {
+      Unmarshaller unmarshaller = unmarshallers.poll();
+      return unmarshaller == null ? context.createUnmarshaller() : unmarshaller;
+    }
+
+    /**
+     * Give back an unmarshaller, its settings are restored to the defaults.
+     */
+    public void release(Unmarshaller unmarshaller)
+    {
+      try
+      {
+        unmarshaller.setSchema(null);
+        unmarshaller.setEventHandler(null);
+        unmarshallers.offer(unmarshaller);
+      }
+      catch (JAXBException e)
+      {
+        log.debug("Unmarshaller cannot be reset and is not reused", e);
+      }
+    }
+  }
+}
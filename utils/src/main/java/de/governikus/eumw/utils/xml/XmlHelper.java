@@ -16,7 +16,6 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 
 import javax.xml.XMLConstants;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
@@ -41,18 +40,15 @@ import lombok.extern.slf4j.Slf4j;
 public final class XmlHelper
 {
 
-  private final static JAXBContext JAXB_CONTEXT;
+  /**
+   * package of the middleware configuration classes
+   */
+  private static final String CONFIG_PACKAGE = "de.governikus.eumw.config";
 
   static
   {
-    try
-    {
-      JAXB_CONTEXT = JAXBContext.newInstance("de.governikus.eumw.config");
-    }
-    catch (JAXBException e)
-    {
-      throw new RuntimeException("Cannot create JAXBContext for the EUMW config", e);
-    }
+    // the middleware configuration is read frequently, so its context is created right away
+    JaxbContextRegistry.preload(CONFIG_PACKAGE);
   }
 
   /**
@@ -75,10 +71,11 @@ public final class XmlHelper
     {
       log.trace("translating java instance of type '{}' to a xml-string.", object.getClass());
     }
+    JaxbContextRegistry.PooledContext context = JaxbContextRegistry.get(object.getClass());
+    Marshaller marshaller = null;
     try
     {
-      JAXBContext jc = JAXBContext.newInstance(object.getClass());
-      Marshaller marshaller = jc.createMarshaller();
+      marshaller = context.acquireMarshaller();
       marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
       marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
       final StringWriter w = new StringWriter();
@@ -89,6 +86,13 @@ public final class XmlHelper
     {
       throw new XmlException("error while marshalling class " + object.getClass().getName(), e);
     }
+    finally
+    {
+      if (marshaller != null)
+      {
+        context.release(marshaller);
+      }
+    }
   }
 
   /**
@@ -100,25 +104,37 @@ public final class XmlHelper
    */
   public static <T> T unmarshal(String xml, Class<T> clazz)
   {
+    JaxbContextRegistry.PooledContext context = null;
+    Unmarshaller jaxbUnmarshaller = null;
     try
     {
-      JAXBContext jaxbContext;
-      // Use the static instance of the JAXBContext for the frequently unmarshalled middleware configuration
-      if ("de.governikus.eumw.config".equals(clazz.getPackageName()))
-      {
-        jaxbContext = JAXB_CONTEXT;
-      }
-      else
-      {
-        jaxbContext = JAXBContext.newInstance(clazz);
-      }
-      Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
+      context = getContext(clazz);
+      jaxbUnmarshaller = context.acquireUnmarshaller();
       return (T)jaxbUnmarshaller.unmarshal(new StringReader(xml));
     }
     catch (Exception ex)
     {
       throw new XmlException("could not parse given XML \n'" + xml + "'\n", ex);
     }
+    finally
+    {
+      if (jaxbUnmarshaller != null)
+      {
+        context.release(jaxbUnmarshaller);
+      }
+    }
+  }
+
+  /**
+   * Use the shared context for the frequently unmarshalled middleware configuration
+   */
+  private static JaxbContextRegistry.PooledContext getContext(Class<?> clazz)
+  {
+    if (CONFIG_PACKAGE.equals(clazz.getPackageName()))
+    {
+      return JaxbContextRegistry.get(CONFIG_PACKAGE);
+    }
+    return JaxbContextRegistry.get(clazz);
   }
 
   /**